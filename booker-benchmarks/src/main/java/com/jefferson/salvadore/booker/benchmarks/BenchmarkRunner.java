@@ -0,0 +1,50 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.benchmarks;
+
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks once per thread count. Usage:
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.jefferson.salvadore.booker.benchmarks.BenchmarkRunner \
+ *     [threads, default 1,4,16] [benchmark regex, default all]
+ * </pre>
+ *
+ * Above one thread, {@link RepositoryWriteBenchmark} only runs against the
+ * <code>concurrent</code> repository, the only one that supports concurrent writes.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 2-03-2016
+ *
+ */
+public final class BenchmarkRunner {
+
+  private BenchmarkRunner() {}
+
+  public static void main(final String[] args) throws RunnerException {
+    final String threadCounts = args.length > 0 ? args[0] : "1,4,16";
+    final String include = args.length > 1 ? args[1] : ".*";
+    final String writes = Pattern.quote(RepositoryWriteBenchmark.class.getName());
+    for (String count : threadCounts.split(",")) {
+      final int threads = Integer.parseInt(count.trim());
+      final ChainedOptionsBuilder options = new OptionsBuilder().include(include).threads(threads);
+      if (threads > 1) {
+        new Runner(options.exclude(writes).build()).run();
+        if (Pattern.compile(include).matcher(RepositoryWriteBenchmark.class.getName()).find()) {
+          new Runner(new OptionsBuilder().include(writes).threads(threads)
+              .param("repository", "concurrent").build()).run();
+        }
+      } else {
+        new Runner(options.build()).run();
+      }
+    }
+  }
+}
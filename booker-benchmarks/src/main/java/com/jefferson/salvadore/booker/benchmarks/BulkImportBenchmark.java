@@ -0,0 +1,112 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.benchmarks;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jefferson.salvadore.booker.publication.Publication;
+import com.jefferson.salvadore.booker.repo.PublicationRepository;
+import com.jefferson.salvadore.booker.repo.concurrent.ConcurrentPublicationRepository;
+import com.jefferson.salvadore.booker.repo.file.FilePublicationRepository;
+import com.jefferson.salvadore.booker.repo.log.LogPublicationRepository;
+
+/**
+ * Compares importing a catalog into an empty repository with one
+ * {@link PublicationRepository#addPub(Publication)} per title against a single
+ * {@link PublicationRepository#addAll(java.util.Collection)}. Every invocation starts from a new
+ * repository in the directory named by the <code>booker.bench.dir</code> system property,
+ * defaulting to <code>java.io.tmpdir</code>.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 2-08-2016
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BulkImportBenchmark {
+
+  @Param({"10000", "100000"})
+  public int catalogSize;
+
+  @Param({"file", "log", "concurrent"})
+  public String repository;
+
+  private List<Publication> catalog;
+  private Path repoPath;
+  private PublicationRepository repo;
+
+  @Setup(Level.Trial)
+  public void generateCatalog() {
+    catalog = CatalogGenerator.generate(catalogSize, 42);
+  }
+
+  @Setup(Level.Invocation)
+  public void createRepository() throws IOException {
+    repoPath = Files.createTempDirectory(
+        Paths.get(System.getProperty("booker.bench.dir", System.getProperty("java.io.tmpdir"))),
+        "booker-bench");
+    switch (repository) {
+      case "file":
+        repo = new FilePublicationRepository(repoPath);
+        break;
+      case "log":
+        repo = new LogPublicationRepository(repoPath.resolve("publications.log"));
+        repo.initialize();
+        break;
+      case "concurrent":
+        repo = new ConcurrentPublicationRepository();
+        break;
+      default:
+        throw new IllegalArgumentException("unknown repository: " + repository);
+    }
+  }
+
+  @TearDown(Level.Invocation)
+  public void deleteRepository() throws IOException {
+    if (repo instanceof Closeable) {
+      ((Closeable) repo).close();
+    }
+    try (Stream<Path> files = Files.walk(repoPath)) {
+      files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+    }
+  }
+
+  @Benchmark
+  public void addPubLoop() throws IOException {
+    for (Publication publication : catalog) {
+      repo.addPub(publication);
+    }
+  }
+
+  @Benchmark
+  public void addAll() throws IOException {
+    repo.addAll(catalog);
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.benchmarks;
+
+import static com.jefferson.salvadore.booker.publication.PubFreq.MONTHLY;
+import static com.jefferson.salvadore.booker.publication.PubFreq.NA;
+import static com.jefferson.salvadore.booker.publication.PubFreq.UNDISCLOSED;
+import static com.jefferson.salvadore.booker.publication.PubFreq.WEEKLY;
+import static com.jefferson.salvadore.booker.publication.PubFreq.pubFreqOf;
+import static com.jefferson.salvadore.booker.publication.Range.of;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import com.jefferson.salvadore.booker.publication.Book;
+import com.jefferson.salvadore.booker.publication.Journal;
+import com.jefferson.salvadore.booker.publication.Magazine;
+import com.jefferson.salvadore.booker.publication.PubFreq;
+import com.jefferson.salvadore.booker.publication.Publication;
+
+/**
+ * Generates synthetic catalogs for the benchmarks. A catalog is 60% {@link Book}s, 25%
+ * {@link Magazine}s and 15% {@link Journal}s, with titles, authors, publishers, languages and
+ * publication years drawn from small vocabularies so that the records have the length and shape of
+ * the snapshot catalog. Titles are unique and the output only depends on the seed.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 2-03-2016
+ *
+ */
+public final class CatalogGenerator {
+
+  private static final String[] ADJECTIVES = {"Silent", "Golden", "Lost", "Broken", "Hidden",
+      "Last", "Crimson", "Quiet", "Wandering", "Northern", "Eternal", "Forgotten"};
+  private static final String[] NOUNS = {"River", "Kingdom", "Garden", "Voyage", "Empire",
+      "Letters", "Chamber", "Harvest", "Winter", "Lighthouse", "Orchard", "Compass"};
+  private static final String[] FIRST_NAMES = {"Agatha", "Charles", "Jane", "Leo", "Haruki",
+      "Toni", "Gabriel", "Virginia", "Fyodor", "Chinua", "Isabel", "Kazuo"};
+  private static final String[] LAST_NAMES = {"Christie", "Dickens", "Austen", "Tolstoy",
+      "Murakami", "Morrison", "Márquez", "Woolf", "Dostoevsky", "Achebe", "Allende", "Ishiguro"};
+  private static final String[] LANGUAGES =
+      {"English", "English", "English", "French", "Spanish", "German", "Japanese", "Russian"};
+  private static final String[] PUBLISHERS = {"Meredith", "Condé Nast", "Hearst", "AARP",
+      "Nature Publishing Group", "Elsevier", "Springer", "Royal Society", "Wiley"};
+  private static final String[] MAGAZINE_TOPICS =
+      {"Living", "Traveler", "Gardens", "Gaming", "Science", "Kitchen", "Outdoors", "Style"};
+  private static final String[] DISCIPLINES = {"Natural Science", "Physical Sciences",
+      "Earth Sciences", "Medicine", "Multidisciplinary", "Mathematics", "Economics"};
+
+  private CatalogGenerator() {}
+
+  /**
+   * Generates a catalog.
+   *
+   * @param size The number of <code>Publication</code>s to generate.
+   * @param seed The seed of the random choices.
+   * @return List The generated <code>Publication</code>s, in a random mix of types
+   */
+  public static List<Publication> generate(final int size, final long seed) {
+    final SplittableRandom random = new SplittableRandom(seed);
+    final List<Publication> catalog = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      final int roll = random.nextInt(100);
+      if (roll < 60) {
+        catalog.add(book(random, i));
+      } else if (roll < 85) {
+        catalog.add(magazine(random, i));
+      } else {
+        catalog.add(journal(random, i));
+      }
+    }
+    return catalog;
+  }
+
+  private static Book book(final SplittableRandom random, final int id) {
+    final String title = "The " + pick(random, ADJECTIVES) + " " + pick(random, NOUNS) + " #" + id;
+    final String author = pick(random, FIRST_NAMES) + " " + pick(random, LAST_NAMES);
+    final int start = 1700 + random.nextInt(316);
+    return new Book(title, author, pick(random, LANGUAGES),
+        random.nextInt(10) == 0 ? of(start, start + 1 + random.nextInt(5)) : of(start),
+        100_000_000 + random.nextInt(100_000_000), pubFreqOf(NA));
+  }
+
+  private static Magazine magazine(final SplittableRandom random, final int id) {
+    final String title = pick(random, ADJECTIVES) + " " + pick(random, MAGAZINE_TOPICS) + " #" + id;
+    return new Magazine(title, pick(random, PUBLISHERS), of(1900 + random.nextInt(116)),
+        10_000 + random.nextInt(25_000_000), frequency(random));
+  }
+
+  private static Journal journal(final SplittableRandom random, final int id) {
+    final String discipline = pick(random, DISCIPLINES);
+    final String title = "Journal of " + discipline + " " + pick(random, NOUNS) + " #" + id;
+    return new Journal(title, pick(random, PUBLISHERS), of(1665 + random.nextInt(351)),
+        frequency(random), discipline, random.nextInt(50_000) / 1000.0);
+  }
+
+  private static PubFreq frequency(final SplittableRandom random) {
+    final int roll = random.nextInt(10);
+    return pubFreqOf(roll < 6 ? MONTHLY : roll < 9 ? WEEKLY : UNDISCLOSED);
+  }
+
+  private static String pick(final SplittableRandom random, final String[] words) {
+    return words[random.nextInt(words.length)];
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.benchmarks;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.jefferson.salvadore.booker.publication.Publication;
+import com.jefferson.salvadore.booker.repo.PublicationRepository;
+import com.jefferson.salvadore.booker.repo.concurrent.ConcurrentPublicationRepository;
+import com.jefferson.salvadore.booker.repo.file.FilePublicationRepository;
+import com.jefferson.salvadore.booker.repo.snapshot.SnapshotTopPublicationRepository;
+
+/**
+ * A repository filled with a {@link CatalogGenerator} catalog, shared by every thread of a trial.
+ * The <code>repository</code> parameter selects the implementation:
+ * <ul>
+ * <li><code>snapshot</code>, the {@link SnapshotTopPublicationRepository}</li>
+ * <li><code>file</code>, a {@link FilePublicationRepository} in the directory named by the
+ * <code>booker.bench.dir</code> system property (defaulting to <code>java.io.tmpdir</code>), which
+ * should be a tmpfs mount such as <code>/dev/shm</code></li>
+ * <li><code>concurrent</code>, the {@link ConcurrentPublicationRepository}</li>
+ * </ul>
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 2-03-2016
+ *
+ */
+@State(Scope.Benchmark)
+public abstract class CatalogState {
+
+  @Param({"1000", "10000", "100000"})
+  public int catalogSize;
+
+  @Param({"snapshot", "file", "concurrent"})
+  public String repository;
+
+  protected PublicationRepository repo;
+  protected List<Publication> catalog;
+  protected String[] titles;
+  private Path repoPath;
+
+  @Setup(Level.Trial)
+  public void populateRepository() throws IOException {
+    catalog = CatalogGenerator.generate(catalogSize, 42);
+    titles = new String[catalogSize];
+    for (int i = 0; i < catalogSize; i++) {
+      titles[i] = catalog.get(i).getTitle();
+    }
+    switch (repository) {
+      case "snapshot":
+        repo = new SnapshotTopPublicationRepository();
+        break;
+      case "file":
+        repoPath = Files.createTempDirectory(
+            Paths.get(System.getProperty("booker.bench.dir", System.getProperty("java.io.tmpdir"))),
+            "booker-bench");
+        repo = new FilePublicationRepository(repoPath);
+        break;
+      case "concurrent":
+        repo = new ConcurrentPublicationRepository();
+        break;
+      default:
+        throw new IllegalArgumentException("unknown repository: " + repository);
+    }
+    for (Publication publication : catalog) {
+      repo.addPub(publication);
+    }
+    populated();
+  }
+
+  /**
+   * Called once the repository holds the catalog, to set up what the benchmark needs on top of it.
+   *
+   * @throws IOException If an error occurs while accessing the repository.
+   */
+  protected void populated() throws IOException {}
+
+  @TearDown(Level.Trial)
+  public void deleteRepository() throws IOException {
+    if (repo instanceof Closeable) {
+      ((Closeable) repo).close();
+    }
+    if (repoPath != null) {
+      try (Stream<Path> files = Files.walk(repoPath)) {
+        files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+      }
+    }
+  }
+
+  /**
+   * @return String A random title of the catalog
+   */
+  protected String randomTitle() {
+    return titles[ThreadLocalRandom.current().nextInt(titles.length)];
+  }
+
+  /**
+   * @return Publication A random <code>Publication</code> of the catalog
+   */
+  protected Publication randomPublication() {
+    return catalog.get(ThreadLocalRandom.current().nextInt(catalog.size()));
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.benchmarks;
+
+import static com.jefferson.salvadore.booker.publication.PubFreq.MONTHLY;
+import static com.jefferson.salvadore.booker.publication.PubFreq.NA;
+import static com.jefferson.salvadore.booker.publication.PubFreq.WEEKLY;
+import static com.jefferson.salvadore.booker.publication.PubFreq.pubFreqOf;
+import static com.jefferson.salvadore.booker.publication.Range.of;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jefferson.salvadore.booker.publication.Book;
+import com.jefferson.salvadore.booker.publication.Journal;
+import com.jefferson.salvadore.booker.publication.Magazine;
+import com.jefferson.salvadore.booker.publication.Publication;
+import com.jefferson.salvadore.booker.repo.codec.PublicationCodec;
+
+/**
+ * Compares the encode and decode throughput of {@link PublicationCodec} with Java serialization
+ * through {@link ObjectOutputStream}, which is how a <code>.pub.dat</code> file used to be written.
+ * The number of bytes per record for both formats is printed during setup.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 1-27-2016
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+
+  @Param({"book", "magazine", "journal"})
+  public String type;
+
+  private Publication publication;
+  private byte[] codecBytes;
+  private byte[] serializedBytes;
+
+  @Setup
+  public void encodeRecords() throws IOException {
+    switch (type) {
+      case "magazine":
+        publication = new Magazine("Better Homes And Gardens", "Meredith", of(1922), 7_615_581,
+            pubFreqOf(MONTHLY));
+        break;
+      case "journal":
+        publication = new Journal("Nature", "Nature Publishing Group", of(1869),
+            pubFreqOf(WEEKLY), "Natural Science", 41.456);
+        break;
+      default:
+        publication = new Book("The Lord of The Rings", "J.R.R Tolkien", of(1954, 1955),
+            150_000_000, pubFreqOf(NA));
+        break;
+    }
+    codecBytes = PublicationCodec.encode(publication);
+    serializedBytes = javaSerialize(publication);
+    System.out.printf("%n%s bytes per record: codec %d, java serialization %d%n", type,
+        codecBytes.length, serializedBytes.length);
+  }
+
+  @Benchmark
+  public byte[] codecEncode() throws IOException {
+    return PublicationCodec.encode(publication);
+  }
+
+  @Benchmark
+  public Publication codecDecode() throws IOException {
+    return PublicationCodec.decode(codecBytes);
+  }
+
+  @Benchmark
+  public byte[] javaSerializationEncode() throws IOException {
+    return javaSerialize(publication);
+  }
+
+  @Benchmark
+  public Publication javaSerializationDecode() throws IOException, ClassNotFoundException {
+    try (final ObjectInputStream inputStream =
+        new ObjectInputStream(new ByteArrayInputStream(serializedBytes))) {
+      return (Publication) inputStream.readObject();
+    }
+  }
+
+  private static byte[] javaSerialize(final Publication publication) throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (final ObjectOutputStream outputStream = new ObjectOutputStream(bytes)) {
+      outputStream.writeObject(publication);
+    }
+    return bytes.toByteArray();
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.benchmarks;
+
+import static com.jefferson.salvadore.booker.publication.PubFreq.NA;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jefferson.salvadore.booker.JsonParser;
+import com.jefferson.salvadore.booker.publication.Book;
+import com.jefferson.salvadore.booker.publication.PubFreq;
+import com.jefferson.salvadore.booker.publication.Range;
+
+/**
+ * Compares the streaming {@link JsonParser} with the tree walk it replaced, which built a new
+ * <code>ObjectMapper</code> per call, read the whole response into a tree and searched it with
+ * <code>findValue</code>. The responses are shaped like Google Books volumes responses, with the
+ * identifiers, image links and sale information that the parser skips.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 2-12-2016
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonParserBenchmark {
+
+  @Param({"1", "10", "40"})
+  public int volumes;
+
+  private byte[] response;
+
+  @Setup(Level.Trial)
+  public void buildResponse() {
+    final StringBuilder json = new StringBuilder("{\"kind\":\"books#volumes\",\"totalItems\":")
+        .append(volumes).append(",\"items\":[");
+    for (int i = 0; i < volumes; i++) {
+      if (i > 0) {
+        json.append(',');
+      }
+      json.append("{\"kind\":\"books#volume\",\"id\":\"vol").append(i)
+          .append("\",\"etag\":\"e").append(i).append("\",\"volumeInfo\":{\"title\":\"Title ")
+          .append(i).append("\",\"authors\":[\"Author ").append(i)
+          .append("\",\"Second Author\"],\"publisher\":\"Publisher\",\"publishedDate\":\"")
+          .append(1900 + i % 100).append("-01-01\",\"description\":\"")
+          .append("A long description of the volume that the parser never looks at. ")
+          .append("\",\"industryIdentifiers\":[{\"type\":\"ISBN_10\",\"identifier\":\"")
+          .append(1000000000L + i).append("\"},{\"type\":\"ISBN_13\",\"identifier\":\"")
+          .append(9780000000000L + i).append("\"}],\"pageCount\":320,\"categories\":[\"Fiction\"],")
+          .append("\"imageLinks\":{\"smallThumbnail\":\"http://books.google.com/s\",")
+          .append("\"thumbnail\":\"http://books.google.com/t\"},\"language\":\"en\"},")
+          .append("\"saleInfo\":{\"country\":\"US\",\"saleability\":\"FOR_SALE\",")
+          .append("\"listPrice\":{\"amount\":9.99,\"currencyCode\":\"USD\"}},")
+          .append("\"accessInfo\":{\"country\":\"US\",\"viewability\":\"PARTIAL\",")
+          .append("\"epub\":{\"isAvailable\":true},\"pdf\":{\"isAvailable\":false}}}");
+    }
+    response = json.append("]}").toString().getBytes(UTF_8);
+  }
+
+  @Benchmark
+  public Book treeFirstVolume() throws IOException {
+    final JsonNode root = new ObjectMapper().readTree(new ByteArrayInputStream(response));
+    final String author = root.findValue("authors").get(0).textValue();
+    final String title = root.findValue("title").textValue();
+    final int year = Integer.parseInt(root.findValue("publishedDate").textValue().substring(0, 4));
+    return new Book(title, author, Range.of(year), PubFreq.pubFreqOf(NA));
+  }
+
+  @Benchmark
+  public Book streamingFirstVolume() throws IOException {
+    return JsonParser.parseJson(new ByteArrayInputStream(response));
+  }
+
+  @Benchmark
+  public List<Book> streamingAllVolumes() throws IOException {
+    return JsonParser.parseVolumes(new ByteArrayInputStream(response));
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jefferson.salvadore.booker.repo.PublicationManager;
+import com.jefferson.salvadore.booker.repo.PublicationManagerImpl;
+
+/**
+ * Measures the inventory operations of {@link PublicationManagerImpl} on top of each repository.
+ * {@link #releaseAndReserve()} returns one copy to stock and reserves it again, which is the cost
+ * of a cancelled and a completed purchase, and leaves the inventory unchanged.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 2-03-2016
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PublicationManagerBenchmark extends CatalogState {
+
+  private PublicationManager manager;
+
+  @Override
+  protected void populated() {
+    manager = new PublicationManagerImpl(repo);
+  }
+
+  @Benchmark
+  public boolean releaseAndReserve() throws IOException {
+    final String title = randomTitle();
+    manager.release(title, 1);
+    return manager.tryReserve(title, 1);
+  }
+
+  @Benchmark
+  public Integer getInventoryCount() throws IOException {
+    return manager.getInventoryCount(randomTitle());
+  }
+}
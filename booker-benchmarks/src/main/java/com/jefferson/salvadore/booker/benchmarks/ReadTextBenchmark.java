@@ -0,0 +1,75 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.benchmarks;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jefferson.salvadore.booker.util.IO;
+
+/**
+ * Measures {@link IO#readText(Path)} on UTF-8 files of increasing size, mixing ASCII with
+ * multi-byte characters. The file is written to the directory named by the
+ * <code>booker.bench.dir</code> system property, defaulting to <code>java.io.tmpdir</code>.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 2-03-2016
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReadTextBenchmark {
+
+  private static final String LINE = "Le Petit Prince, 紅樓夢 (Dream of the Red Chamber), 1943\n";
+
+  @Param({"1024", "65536", "1048576"})
+  public int fileSize;
+
+  private Path textFile;
+
+  @Setup(Level.Trial)
+  public void writeFile() throws IOException {
+    final StringBuilder text = new StringBuilder(fileSize);
+    while (text.length() < fileSize) {
+      text.append(LINE);
+    }
+    textFile = Files.createTempFile(
+        Paths.get(System.getProperty("booker.bench.dir", System.getProperty("java.io.tmpdir"))),
+        "booker-bench", ".txt");
+    Files.write(textFile, text.toString().getBytes(UTF_8));
+  }
+
+  @TearDown(Level.Trial)
+  public void deleteFile() throws IOException {
+    Files.deleteIfExists(textFile);
+  }
+
+  @Benchmark
+  public String readText() throws IOException {
+    return IO.readText(textFile);
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jefferson.salvadore.booker.publication.Magazine;
+import com.jefferson.salvadore.booker.publication.Publication;
+
+/**
+ * Measures the read paths of each repository: {@link #findByTitle()}, {@link #getByType()} and
+ * {@link #getInventoryCount()}. The reads are safe to run from many threads on every repository, so
+ * {@link BenchmarkRunner} runs them at each thread count.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 2-03-2016
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RepositoryReadBenchmark extends CatalogState {
+
+  @Benchmark
+  public Publication findByTitle() throws IOException {
+    return repo.findByTitle(randomTitle());
+  }
+
+  @Benchmark
+  public int getByType() throws IOException {
+    final List<Magazine> magazines = repo.getByType(Magazine.class);
+    return magazines.size();
+  }
+
+  @Benchmark
+  public Integer getInventoryCount() throws IOException {
+    return repo.getInventoryCount(randomTitle());
+  }
+}
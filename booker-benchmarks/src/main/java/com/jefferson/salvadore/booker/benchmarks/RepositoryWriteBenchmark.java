@@ -0,0 +1,47 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the write paths of each repository. {@link #addPub()} re-adds a random
+ * <code>Publication</code> of the catalog, so the catalog size stays constant while the benchmark
+ * runs. Only the <code>concurrent</code> repository is safe for concurrent writes, so
+ * {@link BenchmarkRunner} runs the others with a single thread.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 2-03-2016
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RepositoryWriteBenchmark extends CatalogState {
+
+  @Benchmark
+  public void addPub() throws IOException {
+    repo.addPub(randomPublication());
+  }
+
+  @Benchmark
+  public void setInventoryCount() throws IOException {
+    repo.setInventoryCount(randomTitle(), ThreadLocalRandom.current().nextInt(100));
+  }
+}
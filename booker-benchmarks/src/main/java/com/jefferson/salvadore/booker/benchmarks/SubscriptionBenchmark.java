@@ -0,0 +1,116 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.benchmarks;
+
+import static com.jefferson.salvadore.booker.publication.PubFreq.MONTHLY;
+import static com.jefferson.salvadore.booker.publication.PubFreq.pubFreqOf;
+import static com.jefferson.salvadore.booker.publication.Range.of;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jefferson.salvadore.booker.publication.Magazine;
+import com.jefferson.salvadore.booker.publication.Periodical;
+import com.jefferson.salvadore.booker.publication.Publication;
+import com.jefferson.salvadore.booker.repo.concurrent.ConcurrentPublicationRepository;
+import com.jefferson.salvadore.booker.subscription.Subscription;
+import com.jefferson.salvadore.booker.subscription.SubscriptionService;
+
+/**
+ * Measures the throughput of subscription creation against a catalog of periodicals.
+ * <code>subscribeByTitle</code> and <code>subscribeByNormalizedTitle</code> go through the title
+ * indexes of the repository; <code>subscribeByScan</code> walks every periodical like
+ * {@link SubscriptionService} used to. Each subscription is cancelled right away, and its first
+ * issue is due in a year, so only the lookup and the scheduling are measured.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 2-16-2016
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SubscriptionBenchmark {
+
+  @Param({"1000", "100000"})
+  public int catalogSize;
+
+  private ConcurrentPublicationRepository repo;
+  private SubscriptionService service;
+  private String[] titles;
+  private String[] typedTitles;
+
+  @Setup(Level.Trial)
+  public void populateRepository() throws IOException {
+    repo = new ConcurrentPublicationRepository();
+    final List<Publication> magazines = new ArrayList<>(catalogSize);
+    titles = new String[catalogSize];
+    typedTitles = new String[catalogSize];
+    for (int i = 0; i < catalogSize; i++) {
+      titles[i] = "Monthly Digest " + i;
+      typedTitles[i] = "monthly-digest " + i;
+      magazines.add(new Magazine(titles[i], "Publisher " + i % 100, of(1900 + i % 100),
+          10_000 + i, pubFreqOf(MONTHLY)));
+    }
+    repo.addAll(magazines);
+    service = new SubscriptionService(1, TimeUnit.DAYS.toMillis(365), message -> {
+    });
+  }
+
+  @TearDown(Level.Trial)
+  public void closeService() {
+    service.close();
+  }
+
+  @Benchmark
+  public Subscription subscribeByTitle() throws IOException {
+    return cancelled(service.subscribe(repo, titles[nextIndex()], 12));
+  }
+
+  @Benchmark
+  public Subscription subscribeByNormalizedTitle() throws IOException {
+    return cancelled(service.subscribe(repo, typedTitles[nextIndex()], 12));
+  }
+
+  @Benchmark
+  public Subscription subscribeByScan() throws IOException {
+    final String title = titles[nextIndex()];
+    for (Periodical periodical : repo.getByType(Periodical.class)) {
+      if (periodical.getTitle().equals(title)) {
+        return cancelled(service.subscribe(periodical, 12));
+      }
+    }
+    throw new NoSuchElementException("no periodical has this title: " + title);
+  }
+
+  private int nextIndex() {
+    return ThreadLocalRandom.current().nextInt(titles.length);
+  }
+
+  private static Subscription cancelled(final Subscription subscription) {
+    subscription.cancel();
+    return subscription;
+  }
+}
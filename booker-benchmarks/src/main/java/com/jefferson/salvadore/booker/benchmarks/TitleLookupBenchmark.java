@@ -0,0 +1,88 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.benchmarks;
+
+import static com.jefferson.salvadore.booker.publication.PubFreq.NA;
+import static com.jefferson.salvadore.booker.publication.PubFreq.pubFreqOf;
+import static com.jefferson.salvadore.booker.publication.Range.of;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jefferson.salvadore.booker.publication.Book;
+import com.jefferson.salvadore.booker.publication.Publication;
+import com.jefferson.salvadore.booker.repo.file.FilePublicationRepository;
+
+/**
+ * Measures the latency of {@link FilePublicationRepository#findByTitle(String)} as the catalog
+ * grows. With the title index in place the score should stay flat from 1k to 1M entries.
+ *
+ * The repository files are written to the directory named by the <code>booker.bench.dir</code>
+ * system property (defaulting to <code>java.io.tmpdir</code>); point it at a tmpfs mount such as
+ * <code>/dev/shm</code> to keep the setup of the larger catalogs fast.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 1-20-2016
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TitleLookupBenchmark {
+
+  @Param({"1000", "10000", "100000", "1000000"})
+  public int catalogSize;
+
+  private Path repoPath;
+  private FilePublicationRepository repo;
+  private String[] titles;
+
+  @Setup(Level.Trial)
+  public void populateRepository() throws IOException {
+    repoPath = Files.createTempDirectory(
+        Paths.get(System.getProperty("booker.bench.dir", System.getProperty("java.io.tmpdir"))),
+        "booker-bench");
+    repo = new FilePublicationRepository(repoPath);
+    titles = new String[catalogSize];
+    for (int i = 0; i < catalogSize; i++) {
+      titles[i] = "Title " + i;
+      repo.addPub(new Book(titles[i], "Author " + i, of(1900 + i % 100), pubFreqOf(NA)));
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void deleteRepository() throws IOException {
+    try (Stream<Path> files = Files.walk(repoPath)) {
+      files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+    }
+  }
+
+  @Benchmark
+  public Publication findByTitle() throws IOException {
+    return repo.findByTitle(titles[ThreadLocalRandom.current().nextInt(titles.length)]);
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.benchmarks;
+
+import static com.jefferson.salvadore.booker.publication.Range.of;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jefferson.salvadore.booker.publication.Publication;
+import com.jefferson.salvadore.booker.publication.Range;
+import com.jefferson.salvadore.booker.repo.concurrent.ConcurrentPublicationRepository;
+
+/**
+ * Measures the throughput of queries for the publications overlapping a window of
+ * {@value #WINDOW_YEARS} years, at a random place between 1665 and 2015.
+ * <code>findByYearsIndexed</code> goes through the year index of the repository;
+ * <code>findByYearsScan</code> tests every publication of the catalog.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 2-19-2016
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class YearRangeBenchmark {
+
+  private static final int WINDOW_YEARS = 5;
+
+  @Param({"10000", "1000000"})
+  public int catalogSize;
+
+  private ConcurrentPublicationRepository repo;
+
+  @Setup(Level.Trial)
+  public void populateRepository() throws IOException {
+    repo = new ConcurrentPublicationRepository();
+    repo.addAll(CatalogGenerator.generate(catalogSize, 42));
+    // builds the year index before the measurements
+    repo.findByYears(of(2015));
+  }
+
+  @Benchmark
+  public List<Publication> findByYearsIndexed() throws IOException {
+    return repo.findByYears(nextWindow());
+  }
+
+  @Benchmark
+  public List<Publication> findByYearsScan() throws IOException {
+    final Range years = nextWindow();
+    final List<Publication> matches = new ArrayList<>();
+    for (Publication publication : repo.getByType(Publication.class)) {
+      if (publication.getYearsPublished().overlaps(years)) {
+        matches.add(publication);
+      }
+    }
+    return matches;
+  }
+
+  private static Range nextWindow() {
+    final int start = 1665 + ThreadLocalRandom.current().nextInt(351);
+    return of(start, start + WINDOW_YEARS - 1);
+  }
+}
@@ -176,9 +176,8 @@ public class Booker {
 
     }
 
-    try {
-      final FilePublicationRepository fileRepo =
-          new FilePublicationRepository(CONFIG_DIR.resolve("publication-files"));
+    try (final FilePublicationRepository fileRepo =
+        new FilePublicationRepository(CONFIG_DIR.resolve("publication-files"))) {
 
       // initialize repository
       fileRepo.initialize();
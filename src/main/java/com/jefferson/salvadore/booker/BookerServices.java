@@ -18,6 +18,7 @@ import com.jefferson.salvadore.booker.publication.Publication;
  *
  */
 import com.jefferson.salvadore.booker.repo.PublicationRepository;
+import com.jefferson.salvadore.booker.subscription.SubscriptionService;
 
 
 public interface BookerServices {
@@ -63,8 +64,8 @@ public interface BookerServices {
       final int issueCount) throws IOException;
 
   /**
-   * Opens an HTTP connection to the Google Books API and prints the resultant information to the
-   * console window
+   * Looks up a book by ISBN with the Google Books API and prints the resultant information to the
+   * console window. Implementations may answer repeated lookups from a cache.
    * 
    * @throws MalformedURLException
    * @throws IOException
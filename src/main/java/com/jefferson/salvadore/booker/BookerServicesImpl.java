@@ -4,15 +4,12 @@
 package com.jefferson.salvadore.booker;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-import static java.net.HttpURLConnection.HTTP_OK;
+import static com.jefferson.salvadore.booker.Booker.CONFIG_DIR;
 
-import java.io.BufferedInputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URI;
-import java.util.List;
+import java.util.Optional;
 
 import javax.annotation.Nonnull;
 import javax.inject.Inject;
@@ -21,11 +18,15 @@ import javax.inject.Singleton;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.jefferson.salvadore.booker.lookup.BookLookup;
+import com.jefferson.salvadore.booker.lookup.CachingBookLookup;
+import com.jefferson.salvadore.booker.lookup.GoogleBooksClient;
 import com.jefferson.salvadore.booker.publication.Book;
 import com.jefferson.salvadore.booker.publication.Journal;
 import com.jefferson.salvadore.booker.publication.Magazine;
 import com.jefferson.salvadore.booker.repo.PublicationManager;
 import com.jefferson.salvadore.booker.repo.PublicationRepository;
+import com.jefferson.salvadore.booker.subscription.SubscriptionService;
 import com.jefferson.salvadore.booker.util.IO;
 
 /**
@@ -41,10 +42,23 @@ public class BookerServicesImpl implements BookerServices {
   public static final URI GOOGLE_BOOKS_API = URI.create("https://www.googleapis.com/books/v1/");
 
   private final PublicationManager manager;
+  private final BookLookup bookLookup;
+  private final SubscriptionService subscriptionService = new SubscriptionService();
 
+  /**
+   * Creates the services with ISBN lookups against {@link #GOOGLE_BOOKS_API}, cached in memory and
+   * in the <code>lookup-cache</code> directory of {@link Booker#CONFIG_DIR}.
+   */
   @Inject
   public BookerServicesImpl(@Nonnull final PublicationManager manager) {
+    this(manager, new CachingBookLookup(new GoogleBooksClient(GOOGLE_BOOKS_API),
+        CONFIG_DIR.resolve("lookup-cache")));
+  }
+
+  public BookerServicesImpl(@Nonnull final PublicationManager manager,
+      @Nonnull final BookLookup bookLookup) {
     this.manager = checkNotNull(manager);
+    this.bookLookup = checkNotNull(bookLookup);
   }
 
   @Override
@@ -64,22 +78,13 @@ public class BookerServicesImpl implements BookerServices {
       @Nonnull final String typeList) throws IOException {
     for (String splitString : typeList.split(",")) {
       if (splitString.equalsIgnoreCase("book")) {
-        List<Book> bookList = repo.getByType(Book.class);
-        for (Book book : bookList) {
-          System.out.println(book);
-        }
+        repo.stream(Book.class).forEach(System.out::println);
       }
       if (splitString.equalsIgnoreCase("magazine")) {
-        List<Magazine> magList = repo.getByType(Magazine.class);
-        for (Magazine mag : magList) {
-          System.out.println(mag);
-        }
+        repo.stream(Magazine.class).forEach(System.out::println);
       }
       if (splitString.equalsIgnoreCase("journal")) {
-        List<Journal> journalList = repo.getByType(Journal.class);
-        for (Journal journal : journalList) {
-          System.out.println(journal);
-        }
+        repo.stream(Journal.class).forEach(System.out::println);
       }
     }
   }
@@ -87,24 +92,17 @@ public class BookerServicesImpl implements BookerServices {
   @Override
   public void subscribeToPeriodical(@Nonnull final PublicationRepository repo,
       @Nonnull final String title, final int issueCount) throws IOException {
-    final SubscriptionService subscriber = new SubscriptionService(repo, title, issueCount);
-    new Thread(subscriber).start();
+    subscriptionService.subscribe(repo, title, issueCount);
   }
 
   @Override
   public void openConnectionToGoogleBooksAPI(@Nonnull final String isbn)
       throws MalformedURLException, IOException {
-    String urlResolver = "volumes?q=isbn:" + isbn;
-    URI resolvedURI = GOOGLE_BOOKS_API.resolve(urlResolver);
-    final HttpURLConnection connection = (HttpURLConnection) resolvedURI.toURL().openConnection();
-    connection.setRequestMethod("GET");
-    if (connection.getResponseCode() != HTTP_OK) {
-      logger.info("an error occured while establishing this connection");
-      return;
-    }
-    try (final InputStream inputStream = new BufferedInputStream(connection.getInputStream())) {
-      final Book book = JsonParser.parseJson(inputStream);
-      System.out.println(book.toString());
+    final Optional<Book> book = bookLookup.lookup(isbn);
+    if (book.isPresent()) {
+      System.out.println(book.get().toString());
+    } else {
+      logger.info("no volume was found for ISBN {}", isbn);
     }
   }
 }
@@ -3,53 +3,172 @@
  */
 package com.jefferson.salvadore.booker;
 
+import static com.jefferson.salvadore.booker.publication.PubFreq.NA;
+
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jefferson.salvadore.booker.publication.Book;
 import com.jefferson.salvadore.booker.publication.PubFreq;
-
 import com.jefferson.salvadore.booker.publication.Range;
-import static com.jefferson.salvadore.booker.publication.PubFreq.NA;
 
 
 /**
  * A helper class for parsing JSON data from an Internet resource and creating a corresponding
  * {@Link Book}.
- * 
+ *
+ * Responses are read in a single pass with the Jackson token API, without building a tree: only
+ * the <code>title</code>, <code>authors</code> and <code>publishedDate</code> of each
+ * <code>volumeInfo</code> are extracted, and every other value is skipped. The parser factory is
+ * shared, and this class is thread-safe.
+ *
  * @author Salvadore Jefferson
- * @version 1.0.0 1-11-16
+ * @version 2.0.0 2-12-16
  *
  */
 public class JsonParser {
 
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
   /**
    * Parses JSON objects from an InputStream and creates an {@link Book} object from the results.
-   * 
+   * This is the first volume of a Google Books volumes response, or the volume of a single volume
+   * resource.
+   *
    * @param source The InputStream to parse
    * @return book A new instance of <code>Book</code>
    * @throws JsonParseException
    * @throws JsonMappingException
-   * @throws IOException
+   * @throws IOException If the response contains no volume.
    */
   public static Book parseJson(@Nonnull final InputStream source)
       throws JsonParseException, JsonMappingException, IOException {
-    final ObjectMapper mapper = new ObjectMapper();
-    final JsonNode rootNode = mapper.readTree(source);
-    final JsonNode authors = rootNode.findValue("authors");
+    final List<Book> books = parse(source, 1);
+    if (books.isEmpty()) {
+      throw new IOException("the response contains no volumes");
+    }
+    return books.get(0);
+  }
+
+  /**
+   * Parses every volume in the <code>items</code> array of a Google Books volumes response. A
+   * response without <code>items</code>, which is what Google Books returns when nothing matches,
+   * yields an empty <code>List</code>. Volumes without a title or an author are skipped, and a
+   * volume without a <code>publishedDate</code> gets the default <code>Range</code>.
+   *
+   * @param source The InputStream to parse
+   * @return List The <code>Book</code>s of the response, in order
+   * @throws JsonParseException If the response is not valid JSON.
+   * @throws IOException If the response could not be read.
+   */
+  public static List<Book> parseVolumes(@Nonnull final InputStream source)
+      throws JsonParseException, IOException {
+    return parse(source, Integer.MAX_VALUE);
+  }
 
-    final String author = authors.get(0).textValue();
-    final String title = rootNode.findValue("title").textValue();
-    final String year = (String) rootNode.findValue("publishedDate").textValue().subSequence(0, 4);
-    final int yearPublished = Integer.parseInt(year);
+  private static List<Book> parse(@Nonnull final InputStream source, final int limit)
+      throws IOException {
+    try (final com.fasterxml.jackson.core.JsonParser parser = JSON_FACTORY.createParser(source)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new JsonParseException(parser, "expected a JSON object");
+      }
+      final List<Book> books = new ArrayList<>();
+      while (books.size() < limit && parser.nextToken() == JsonToken.FIELD_NAME) {
+        final String name = parser.getCurrentName();
+        final JsonToken value = parser.nextToken();
+        if ("items".equals(name) && value == JsonToken.START_ARRAY) {
+          while (books.size() < limit && parser.nextToken() == JsonToken.START_OBJECT) {
+            addIfValid(books, parseItem(parser));
+          }
+        } else if ("volumeInfo".equals(name) && value == JsonToken.START_OBJECT) {
+          addIfValid(books, parseVolumeInfo(parser));
+        } else {
+          parser.skipChildren();
+        }
+      }
+      return books;
+    }
+  }
 
-    final Book book = new Book(title, author, Range.of(yearPublished), PubFreq.pubFreqOf(NA));
+  /**
+   * Parses one element of <code>items</code>, leaving the parser on its closing brace.
+   */
+  @Nullable
+  private static Book parseItem(@Nonnull final com.fasterxml.jackson.core.JsonParser parser)
+      throws IOException {
+    Book book = null;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      final String name = parser.getCurrentName();
+      if (parser.nextToken() == JsonToken.START_OBJECT && "volumeInfo".equals(name)) {
+        book = parseVolumeInfo(parser);
+      } else {
+        parser.skipChildren();
+      }
+    }
     return book;
   }
+
+  /**
+   * Parses a <code>volumeInfo</code> object, leaving the parser on its closing brace.
+   */
+  @Nullable
+  private static Book parseVolumeInfo(@Nonnull final com.fasterxml.jackson.core.JsonParser parser)
+      throws IOException {
+    String title = null;
+    String author = null;
+    String publishedDate = null;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      final String name = parser.getCurrentName();
+      final JsonToken value = parser.nextToken();
+      if ("title".equals(name) && value == JsonToken.VALUE_STRING) {
+        title = parser.getText();
+      } else if ("publishedDate".equals(name) && value == JsonToken.VALUE_STRING) {
+        publishedDate = parser.getText();
+      } else if ("authors".equals(name) && value == JsonToken.START_ARRAY) {
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+          if (author == null && parser.getCurrentToken() == JsonToken.VALUE_STRING) {
+            author = parser.getText();
+          }
+          parser.skipChildren();
+        }
+      } else {
+        parser.skipChildren();
+      }
+    }
+    if (title == null || author == null) {
+      return null;
+    }
+    return new Book(title, author, Range.of(yearOf(publishedDate)), PubFreq.pubFreqOf(NA));
+  }
+
+  /**
+   * Returns the year of a <code>publishedDate</code> such as <code>2005</code> or
+   * <code>2005-06-01</code>, or zero if there is none.
+   */
+  private static int yearOf(@Nullable final String publishedDate) {
+    if (publishedDate == null || publishedDate.length() < 4) {
+      return 0;
+    }
+    for (int i = 0; i < 4; i++) {
+      if (!Character.isDigit(publishedDate.charAt(i))) {
+        return 0;
+      }
+    }
+    return Integer.parseInt(publishedDate.substring(0, 4));
+  }
+
+  private static void addIfValid(@Nonnull final List<Book> books, @Nullable final Book book) {
+    if (book != null) {
+      books.add(book);
+    }
+  }
 }
@@ -0,0 +1,64 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.catalog;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The fields of a catalog record, named by their JSON key or CSV column header.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 2-10-2016
+ *
+ */
+public enum CatalogField {
+
+  TYPE("type"),
+  TITLE("title"),
+  AUTHOR("author"),
+  PUBLISHER("publisher"),
+  LANGUAGE("language"),
+  DISCIPLINE("discipline"),
+  YEAR_START("yearStart"),
+  YEAR_END("yearEnd"),
+  TOTAL_SOLD("totalSold"),
+  CIRCULATION("circulation"),
+  FREQUENCY("frequency"),
+  IMPACT_FACTOR("impactFactor");
+
+  private static final Map<String, CatalogField> BY_KEY = new HashMap<>();
+
+  static {
+    for (CatalogField field : values()) {
+      BY_KEY.put(field.key, field);
+    }
+  }
+
+  private final String key;
+
+  private CatalogField(@Nonnull final String key) {
+    this.key = key;
+  }
+
+  /**
+   * @return String The JSON key and CSV column header of this field
+   */
+  public String getKey() {
+    return key;
+  }
+
+  /**
+   * @param key A JSON key or CSV column header.
+   * @return CatalogField The field with this key, or <code>null</code> if the key is not a catalog
+   *         field
+   */
+  @Nullable
+  public static CatalogField forKey(@Nonnull final String key) {
+    return BY_KEY.get(key);
+  }
+}
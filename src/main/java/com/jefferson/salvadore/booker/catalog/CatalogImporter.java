@@ -0,0 +1,127 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.catalog;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.jefferson.salvadore.booker.publication.Publication;
+import com.jefferson.salvadore.booker.repo.PublicationRepository;
+
+/**
+ * Imports a catalog into a {@link PublicationRepository} in batches of
+ * {@link PublicationRepository#addAll(java.util.Collection)}. At most one batch of
+ * <code>Publication</code>s is held in memory, whatever the size of the catalog.
+ *
+ * A record that cannot be mapped to a <code>Publication</code> stops the import with an
+ * <code>IOException</code> naming its line. The batches added before it stay in the repository.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 2-10-2016
+ *
+ */
+public class CatalogImporter {
+
+  static final Logger logger = LoggerFactory.getLogger(CatalogImporter.class);
+
+  /** The number of records added to the repository at once by default */
+  public static final int DEFAULT_BATCH_SIZE = 1000;
+
+  private final PublicationRepository repo;
+  private final int batchSize;
+
+  public CatalogImporter(@Nonnull final PublicationRepository repo) {
+    this(repo, DEFAULT_BATCH_SIZE);
+  }
+
+  /**
+   * @param repo The repository to import into.
+   * @param batchSize The number of records added to the repository at once.
+   */
+  public CatalogImporter(@Nonnull final PublicationRepository repo, final int batchSize) {
+    checkArgument(batchSize > 0, "batchSize must be greater than zero");
+    this.repo = checkNotNull(repo);
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Imports a UTF-8 JSON-lines file, see {@link JsonLinesCatalogReader}.
+   *
+   * @param path The file to import.
+   * @return long The number of imported records
+   * @throws IOException If the file could not be read, or a record is not valid.
+   */
+  public long importJsonLines(@Nonnull final Path path) throws IOException {
+    try (final CatalogReader reader =
+        new JsonLinesCatalogReader(new InputStreamReader(Files.newInputStream(path), UTF_8))) {
+      return importFrom(reader);
+    }
+  }
+
+  /**
+   * Imports a UTF-8 CSV file, see {@link CsvCatalogReader}.
+   *
+   * @param path The file to import.
+   * @return long The number of imported records
+   * @throws IOException If the file could not be read, or a record is not valid.
+   */
+  public long importCsv(@Nonnull final Path path) throws IOException {
+    try (final CatalogReader reader =
+        new CsvCatalogReader(new InputStreamReader(Files.newInputStream(path), UTF_8))) {
+      return importFrom(reader);
+    }
+  }
+
+  /**
+   * Imports every record of a reader. The reader is not closed.
+   *
+   * @param reader The catalog to import.
+   * @return long The number of imported records
+   * @throws IOException If the catalog could not be read, or a record is not valid.
+   */
+  public long importFrom(@Nonnull final CatalogReader reader) throws IOException {
+    final long start = System.nanoTime();
+    final CatalogRow row = new CatalogRow();
+    final List<Publication> batch = new ArrayList<>(batchSize);
+    long imported = 0;
+    while (reader.next(row)) {
+      try {
+        batch.add(row.toPublication());
+      } catch (IllegalArgumentException | NullPointerException e) {
+        throw new IOException("line " + reader.getLine() + ": " + e.getMessage(), e);
+      }
+      if (batch.size() == batchSize) {
+        imported += flush(batch);
+      }
+    }
+    imported += flush(batch);
+    final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    logger.info("Imported {} publications in {} ms ({} records/sec)", imported, elapsedMillis,
+        imported * 1000L / Math.max(1, elapsedMillis));
+    return imported;
+  }
+
+  private int flush(@Nonnull final List<Publication> batch) throws IOException {
+    final int size = batch.size();
+    if (size > 0) {
+      repo.addAll(batch);
+      batch.clear();
+    }
+    return size;
+  }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.catalog;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Reads the records of a catalog one at a time, so that a catalog of any size is read with the
+ * memory of a single record.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 2-10-2016
+ *
+ */
+public interface CatalogReader extends Closeable {
+
+  /**
+   * Reads the next record into <code>row</code>, replacing its previous values. Keys and columns
+   * that are not a {@link CatalogField} are skipped.
+   *
+   * @param row The row to fill.
+   * @return boolean <code>true</code> if a record was read, <code>false</code> at the end of the
+   *         catalog
+   * @throws IOException If the catalog could not be read or is malformed.
+   */
+  boolean next(@Nonnull final CatalogRow row) throws IOException;
+
+  /**
+   * @return long The line of the input the last record started on, counting from one
+   */
+  long getLine();
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.catalog;
+
+import static com.jefferson.salvadore.booker.publication.PubFreq.NA;
+import static com.jefferson.salvadore.booker.publication.PubFreq.pubFreqOf;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.jefferson.salvadore.booker.publication.Book;
+import com.jefferson.salvadore.booker.publication.Journal;
+import com.jefferson.salvadore.booker.publication.Magazine;
+import com.jefferson.salvadore.booker.publication.PubFreq;
+import com.jefferson.salvadore.booker.publication.Publication;
+import com.jefferson.salvadore.booker.publication.Range;
+
+/**
+ * The raw values of one catalog record, keyed by {@link CatalogField}. A {@link CatalogReader}
+ * refills the same instance for every record, so reading a catalog allocates nothing per record
+ * beyond the field values and the resulting {@link Publication}.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 2-10-2016
+ *
+ */
+public final class CatalogRow {
+
+  /** The number of copies sold given to a book without a <code>totalSold</code> value */
+  public static final int DEFAULT_TOTAL_SOLD = 100_000_000;
+  private static final CatalogField[] FIELDS = CatalogField.values();
+
+  private final String[] values = new String[FIELDS.length];
+
+  /**
+   * @param field The field to look up.
+   * @return String The value of the field, or <code>null</code> if the record does not have one
+   */
+  @Nullable
+  public String get(@Nonnull final CatalogField field) {
+    return values[field.ordinal()];
+  }
+
+  /**
+   * @param field The field to set.
+   * @param value The value of the field. An empty value is stored as <code>null</code>.
+   */
+  public void set(@Nonnull final CatalogField field, @Nullable final String value) {
+    values[field.ordinal()] = value == null || value.isEmpty() ? null : value;
+  }
+
+  /**
+   * Removes every value.
+   */
+  public void clear() {
+    Arrays.fill(values, null);
+  }
+
+  /**
+   * Maps the record to a {@link Book}, {@link Magazine} or {@link Journal}, as named by its
+   * <code>type</code> field.
+   *
+   * @return Publication The new <code>Publication</code>
+   * @throws IllegalArgumentException If a required field is missing or a value is not valid.
+   */
+  public Publication toPublication() throws IllegalArgumentException {
+    final String title = required(CatalogField.TITLE);
+    final Range years = years();
+    switch (required(CatalogField.TYPE).toLowerCase(Locale.ROOT)) {
+      case "book":
+        return new Book(title, required(CatalogField.AUTHOR), orDefault(CatalogField.LANGUAGE,
+            "English"), years, intOrDefault(CatalogField.TOTAL_SOLD, DEFAULT_TOTAL_SOLD),
+            pubFreqOf(NA));
+      case "magazine":
+        return new Magazine(title, required(CatalogField.PUBLISHER), years,
+            intOrDefault(CatalogField.CIRCULATION, 0), frequency());
+      case "journal":
+        final String impactFactor = get(CatalogField.IMPACT_FACTOR);
+        return new Journal(title, required(CatalogField.PUBLISHER), years, frequency(),
+            required(CatalogField.DISCIPLINE),
+            impactFactor == null ? 0 : parseDouble(CatalogField.IMPACT_FACTOR, impactFactor));
+      default:
+        throw new IllegalArgumentException("unknown type: " + get(CatalogField.TYPE));
+    }
+  }
+
+  private Range years() {
+    final int start = intOrDefault(CatalogField.YEAR_START, 0);
+    final String end = get(CatalogField.YEAR_END);
+    return end == null ? Range.of(start) : Range.of(start, parseInt(CatalogField.YEAR_END, end));
+  }
+
+  /**
+   * Accepts either the name of a {@link PubFreq}, in any case, or its number of issues per year.
+   */
+  private PubFreq frequency() {
+    final String frequency = get(CatalogField.FREQUENCY);
+    if (frequency == null) {
+      return pubFreqOf(PubFreq.UNDISCLOSED);
+    }
+    if (Character.isLetter(frequency.charAt(0))) {
+      try {
+        return PubFreq.valueOf(frequency.toUpperCase(Locale.ROOT));
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("unknown frequency: " + frequency);
+      }
+    }
+    return PubFreq.fromFreqValue(parseInt(CatalogField.FREQUENCY, frequency));
+  }
+
+  private String required(@Nonnull final CatalogField field) {
+    final String value = get(field);
+    if (value == null) {
+      throw new IllegalArgumentException("missing " + field.getKey());
+    }
+    return value;
+  }
+
+  private String orDefault(@Nonnull final CatalogField field, @Nonnull final String defaultValue) {
+    final String value = get(field);
+    return value == null ? defaultValue : value;
+  }
+
+  private int intOrDefault(@Nonnull final CatalogField field, final int defaultValue) {
+    final String value = get(field);
+    return value == null ? defaultValue : parseInt(field, value);
+  }
+
+  private static int parseInt(@Nonnull final CatalogField field, @Nonnull final String value) {
+    try {
+      return Integer.parseInt(value.trim());
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException(field.getKey() + " is not an integer: " + value);
+    }
+  }
+
+  private static double parseDouble(@Nonnull final CatalogField field,
+      @Nonnull final String value) {
+    try {
+      return Double.parseDouble(value.trim());
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException(field.getKey() + " is not a number: " + value);
+    }
+  }
+}
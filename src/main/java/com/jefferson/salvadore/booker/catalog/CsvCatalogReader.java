@@ -0,0 +1,251 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.catalog;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Reads a CSV catalog whose first line names the columns with the keys of {@link CatalogField}.
+ * Fields follow RFC 4180: they are separated by commas, records end with <code>LF</code> or
+ * <code>CRLF</code>, and a field in double quotes may contain commas, line breaks and doubled
+ * quotes. Blank lines are skipped.
+ *
+ * Input is decoded into a fixed buffer and a field that lies within the buffer is turned into a
+ * <code>String</code> directly from it. The fields of columns that are not catalog fields are
+ * scanned over without being copied at all.
+ *
+ * <pre>
+ * type,title,author,yearStart
+ * book,"The Lord of The Rings","J.R.R Tolkien",1954
+ * </pre>
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 2-10-2016
+ *
+ */
+public class CsvCatalogReader implements CatalogReader {
+
+  private static final int BUFFER_SIZE = 8192;
+  private static final int END_OF_FIELD = 0;
+  private static final int END_OF_RECORD = 1;
+  private static final int END_OF_INPUT = 2;
+
+  private final Reader source;
+  private final char[] buffer;
+  private final StringBuilder spill = new StringBuilder();
+  private int position;
+  private int limit;
+  private CatalogField[] columns;
+  private String value;
+  private long physicalLine = 1;
+  private long line;
+
+  /**
+   * @param source The catalog to read. It is closed by {@link #close()}.
+   */
+  public CsvCatalogReader(@Nonnull final Reader source) {
+    this(source, BUFFER_SIZE);
+  }
+
+  CsvCatalogReader(@Nonnull final Reader source, final int bufferSize) {
+    this.source = source;
+    this.buffer = new char[bufferSize];
+  }
+
+  @Override
+  public boolean next(@Nonnull final CatalogRow row) throws IOException {
+    if (columns == null && !readHeader()) {
+      return false;
+    }
+    if (!skipBlankLines()) {
+      return false;
+    }
+    line = physicalLine;
+    row.clear();
+    int column = 0;
+    int end;
+    do {
+      final CatalogField field = column < columns.length ? columns[column] : null;
+      end = readField(field != null);
+      if (field != null) {
+        row.set(field, value);
+      }
+      column++;
+    } while (end == END_OF_FIELD);
+    return true;
+  }
+
+  @Override
+  public long getLine() {
+    return line;
+  }
+
+  @Override
+  public void close() throws IOException {
+    source.close();
+  }
+
+  private boolean readHeader() throws IOException {
+    if (!skipBlankLines()) {
+      return false;
+    }
+    final List<CatalogField> header = new ArrayList<>();
+    int end;
+    do {
+      end = readField(true);
+      header.add(value == null ? null : CatalogField.forKey(value.trim()));
+    } while (end == END_OF_FIELD);
+    columns = header.toArray(new CatalogField[header.size()]);
+    return true;
+  }
+
+  /**
+   * Skips empty lines before a record.
+   *
+   * @return boolean <code>false</code> if the input ended first
+   */
+  private boolean skipBlankLines() throws IOException {
+    while (fill()) {
+      final char c = buffer[position];
+      if (c == '\n') {
+        position++;
+        physicalLine++;
+      } else if (c == '\r') {
+        position++;
+        skipLineFeed();
+        physicalLine++;
+      } else {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Reads one field and the separator that ends it. The value of the field is left in
+   * {@link #value} if <code>keep</code> is set, and is <code>null</code> otherwise.
+   *
+   * @return int {@link #END_OF_FIELD}, {@link #END_OF_RECORD} or {@link #END_OF_INPUT}
+   */
+  private int readField(final boolean keep) throws IOException {
+    value = null;
+    spill.setLength(0);
+    if (fill() && buffer[position] == '"') {
+      position++;
+      return readQuotedField(keep);
+    }
+    int start = position;
+    while (true) {
+      if (position == limit) {
+        if (keep) {
+          spill.append(buffer, start, position - start);
+        }
+        if (!fill()) {
+          if (keep) {
+            value = spill.toString();
+          }
+          return END_OF_INPUT;
+        }
+        start = position;
+      }
+      final char c = buffer[position];
+      if (c == ',' || c == '\n' || c == '\r') {
+        setValue(keep, buffer, start, position - start);
+        return separator();
+      }
+      position++;
+    }
+  }
+
+  private int readQuotedField(final boolean keep) throws IOException {
+    final long startLine = physicalLine;
+    while (true) {
+      if (!fill()) {
+        throw new IOException("line " + startLine + ": unterminated quoted field");
+      }
+      final char c = buffer[position++];
+      if (c == '"') {
+        if (fill() && buffer[position] == '"') {
+          position++;
+        } else {
+          break;
+        }
+      } else if (c == '\n') {
+        physicalLine++;
+      }
+      if (keep) {
+        spill.append(c);
+      }
+    }
+    if (keep) {
+      value = spill.toString();
+    }
+    if (!fill()) {
+      return END_OF_INPUT;
+    }
+    final char c = buffer[position];
+    if (c != ',' && c != '\n' && c != '\r') {
+      throw new IOException("line " + physicalLine + ": unexpected character after quoted field");
+    }
+    return separator();
+  }
+
+  /**
+   * Consumes the separator at the current position.
+   */
+  private int separator() throws IOException {
+    final char c = buffer[position++];
+    if (c == ',') {
+      return END_OF_FIELD;
+    }
+    if (c == '\r') {
+      skipLineFeed();
+    }
+    physicalLine++;
+    return END_OF_RECORD;
+  }
+
+  private void skipLineFeed() throws IOException {
+    if (fill() && buffer[position] == '\n') {
+      position++;
+    }
+  }
+
+  /**
+   * Sets {@link #value} from a slice of the buffer, appended to any part of the field that was
+   * spilled from the previous buffer.
+   */
+  private void setValue(final boolean keep, final char[] chars, final int start, final int length) {
+    if (!keep) {
+      return;
+    }
+    if (spill.length() == 0) {
+      value = new String(chars, start, length);
+    } else {
+      value = spill.append(chars, start, length).toString();
+    }
+  }
+
+  /**
+   * @return boolean <code>true</code> if at least one character is available at
+   *         <code>position</code>
+   */
+  private boolean fill() throws IOException {
+    if (position < limit) {
+      return true;
+    }
+    int read;
+    do {
+      read = source.read(buffer, 0, buffer.length);
+    } while (read == 0);
+    position = 0;
+    limit = Math.max(read, 0);
+    return read > 0;
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.catalog;
+
+import java.io.IOException;
+import java.io.Reader;
+
+import javax.annotation.Nonnull;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Reads a JSON-lines catalog, one JSON object per record, with the token API of a Jackson
+ * <code>JsonParser</code>. No tree is built: the values of the {@link CatalogField} keys are copied
+ * into the row, and any other key, including nested objects and arrays, is skipped. Numbers and
+ * booleans are accepted as well as strings.
+ *
+ * <pre>
+ * {"type":"book","title":"The Hobbit","author":"J.R.R Tolkien","yearStart":1937}
+ * {"type":"journal","title":"Nature","publisher":"Nature Publishing Group","discipline":"Natural Science","frequency":"WEEKLY","impactFactor":41.456}
+ * </pre>
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 2-10-2016
+ *
+ */
+public class JsonLinesCatalogReader implements CatalogReader {
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  private final JsonParser parser;
+  private long line;
+
+  /**
+   * @param source The catalog to read. It is closed by {@link #close()}.
+   * @throws IOException If the parser could not be created.
+   */
+  public JsonLinesCatalogReader(@Nonnull final Reader source) throws IOException {
+    parser = JSON_FACTORY.createParser(source);
+  }
+
+  @Override
+  public boolean next(@Nonnull final CatalogRow row) throws IOException {
+    final JsonToken start = parser.nextToken();
+    if (start == null) {
+      return false;
+    }
+    line = parser.getTokenLocation().getLineNr();
+    if (start != JsonToken.START_OBJECT) {
+      throw new IOException("line " + line + ": expected a JSON object but found " + start);
+    }
+    row.clear();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      final CatalogField field = CatalogField.forKey(parser.getCurrentName());
+      final JsonToken value = parser.nextToken();
+      if (value.isStructStart()) {
+        parser.skipChildren();
+      } else if (field != null && value != JsonToken.VALUE_NULL) {
+        row.set(field, parser.getText());
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public long getLine() {
+    return line;
+  }
+
+  @Override
+  public void close() throws IOException {
+    parser.close();
+  }
+}
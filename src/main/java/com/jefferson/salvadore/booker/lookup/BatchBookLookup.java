@@ -0,0 +1,220 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.lookup;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.jefferson.salvadore.booker.publication.Book;
+
+/**
+ * Looks up many ISBNs at once with a {@link BookLookup}, for instance to enrich an imported
+ * catalog.
+ *
+ * Each ISBN is looked up on its own task, on virtual threads when the running Java version has
+ * them and on a fixed pool otherwise. Whatever the executor, at most a fixed number of lookups
+ * reach the API host at once; the limit is shared by every <code>BatchBookLookup</code> of the
+ * same host, and set by the first one created. A lookup answered with <code>429 Too Many
+ * Requests</code> or a <code>5xx</code> status is retried with exponential backoff, honouring a
+ * <code>Retry-After</code> header; a lookup asked to wait longer than the longest backoff fails
+ * with the status instead of waiting. An ISBN that is already being looked up is not looked up twice:
+ * later requests share the result of the first.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 2-14-2016
+ *
+ */
+public class BatchBookLookup implements Closeable {
+
+  static final Logger logger = LoggerFactory.getLogger(BatchBookLookup.class);
+
+  /** The number of lookups sent to a host at once by default */
+  public static final int DEFAULT_MAX_CONCURRENT_PER_HOST = 8;
+  /** The number of times a lookup is attempted by default, the first one included */
+  public static final int DEFAULT_MAX_ATTEMPTS = 4;
+  /** The delay before the first retry by default, doubled on every further retry */
+  public static final long DEFAULT_INITIAL_BACKOFF_MILLIS = 250;
+
+  private static final long MAX_BACKOFF_MILLIS = 30_000;
+  private static final ConcurrentMap<String, Semaphore> HOST_PERMITS = new ConcurrentHashMap<>();
+
+  private final BookLookup delegate;
+  private final Semaphore permits;
+  private final int maxAttempts;
+  private final long initialBackoffMillis;
+  private final ExecutorService executor;
+  private final ConcurrentMap<String, CompletableFuture<Optional<Book>>> inFlight =
+      new ConcurrentHashMap<>();
+
+  /**
+   * Creates a batch lookup with the default limits.
+   *
+   * @param delegate The lookup of a single ISBN, such as a {@link CachingBookLookup}.
+   * @param endpoint The URI the delegate sends its requests to.
+   */
+  public BatchBookLookup(@Nonnull final BookLookup delegate, @Nonnull final URI endpoint) {
+    this(delegate, endpoint, DEFAULT_MAX_CONCURRENT_PER_HOST, DEFAULT_MAX_ATTEMPTS,
+        DEFAULT_INITIAL_BACKOFF_MILLIS);
+  }
+
+  /**
+   * @param delegate The lookup of a single ISBN, such as a {@link CachingBookLookup}.
+   * @param endpoint The URI the delegate sends its requests to.
+   * @param maxConcurrentPerHost The number of lookups sent to the host of <code>endpoint</code> at
+   *        once, unless a lookup of that host was created before.
+   * @param maxAttempts The number of times a lookup is attempted, the first one included.
+   * @param initialBackoffMillis The delay before the first retry.
+   */
+  public BatchBookLookup(@Nonnull final BookLookup delegate, @Nonnull final URI endpoint,
+      final int maxConcurrentPerHost, final int maxAttempts, final long initialBackoffMillis) {
+    checkArgument(maxConcurrentPerHost > 0, "maxConcurrentPerHost must be greater than zero");
+    checkArgument(maxAttempts > 0, "maxAttempts must be greater than zero");
+    checkArgument(initialBackoffMillis >= 0, "initialBackoffMillis must not be negative");
+    this.delegate = checkNotNull(delegate);
+    this.permits = HOST_PERMITS.computeIfAbsent(checkNotNull(endpoint).getAuthority(),
+        host -> new Semaphore(maxConcurrentPerHost));
+    this.maxAttempts = maxAttempts;
+    this.initialBackoffMillis = initialBackoffMillis;
+    this.executor = newExecutor(maxConcurrentPerHost);
+  }
+
+  /**
+   * Looks up every ISBN of a collection.
+   *
+   * @param isbns The ISBNs to look up. Duplicates are looked up once.
+   * @return CompletableFuture A map of each ISBN, as given, to its <code>Book</code>, in the order
+   *         of <code>isbns</code>. ISBNs without a volume are left out. The future fails with the
+   *         first failed lookup.
+   */
+  public CompletableFuture<Map<String, Book>> lookupAll(
+      @Nonnull final Collection<String> isbns) {
+    final Map<String, CompletableFuture<Optional<Book>>> lookups = new LinkedHashMap<>();
+    for (String isbn : isbns) {
+      lookups.computeIfAbsent(isbn, this::lookupAsync);
+    }
+    return CompletableFuture.allOf(lookups.values().toArray(new CompletableFuture<?>[0]))
+        .thenApply(done -> {
+          final Map<String, Book> books = new LinkedHashMap<>();
+          lookups.forEach((isbn, lookup) -> lookup.join().ifPresent(book -> books.put(isbn, book)));
+          return books;
+        });
+  }
+
+  /**
+   * Looks up an ISBN. If the same ISBN is being looked up already, its pending result is returned.
+   *
+   * @param isbn The ISBN to look up.
+   * @return CompletableFuture The <code>Book</code>, or <code>empty</code> if no volume has this
+   *         ISBN
+   */
+  public CompletableFuture<Optional<Book>> lookupAsync(@Nonnull final String isbn) {
+    final String key = CachingBookLookup.normalize(isbn);
+    checkArgument(!key.isEmpty(), "isbn must not be empty");
+    final CompletableFuture<Optional<Book>> pending = inFlight.get(key);
+    if (pending != null) {
+      return pending;
+    }
+    final CompletableFuture<Optional<Book>> lookup = new CompletableFuture<>();
+    final CompletableFuture<Optional<Book>> raced = inFlight.putIfAbsent(key, lookup);
+    if (raced != null) {
+      return raced;
+    }
+    lookup.whenComplete((book, failure) -> inFlight.remove(key, lookup));
+    try {
+      executor.execute(() -> complete(key, lookup));
+    } catch (RejectedExecutionException e) {
+      lookup.completeExceptionally(e);
+    }
+    return lookup;
+  }
+
+  /**
+   * Stops accepting lookups. Lookups already submitted still complete.
+   */
+  @Override
+  public void close() {
+    executor.shutdown();
+  }
+
+  private void complete(@Nonnull final String isbn,
+      @Nonnull final CompletableFuture<Optional<Book>> lookup) {
+    try {
+      lookup.complete(lookupWithRetry(isbn));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      lookup.completeExceptionally(e);
+    } catch (IOException | RuntimeException e) {
+      lookup.completeExceptionally(e);
+    }
+  }
+
+  private Optional<Book> lookupWithRetry(@Nonnull final String isbn)
+      throws IOException, InterruptedException {
+    for (int attempt = 1;; attempt++) {
+      final long backoffMillis;
+      permits.acquire();
+      try {
+        return delegate.lookup(isbn);
+      } catch (HttpStatusException e) {
+        if (!e.isRetryable() || attempt >= maxAttempts
+            || e.getRetryAfterMillis() > MAX_BACKOFF_MILLIS) {
+          throw e;
+        }
+        backoffMillis = backoffMillis(attempt, e.getRetryAfterMillis());
+        logger.debug("HTTP {} for ISBN {}, retrying in {} ms", e.getStatus(), isbn, backoffMillis);
+      } finally {
+        permits.release();
+      }
+      Thread.sleep(backoffMillis);
+    }
+  }
+
+  /**
+   * Returns the delay before a retry: the initial backoff doubled for every earlier retry, with
+   * up to half of it taken off at random so that lookups failing together do not retry together,
+   * and no shorter than the server asked for, which is at most {@value #MAX_BACKOFF_MILLIS} ms.
+   */
+  private long backoffMillis(final int attempt, final long retryAfterMillis) {
+    final long backoff = Math.min(MAX_BACKOFF_MILLIS,
+        initialBackoffMillis << Math.min(attempt - 1, 20));
+    final long jittered = backoff - ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+    return Math.max(jittered, retryAfterMillis);
+  }
+
+  /**
+   * Returns a virtual-thread-per-task executor when the running Java version has one, found by
+   * reflection since this code is compiled for Java 8, or a fixed pool of daemon threads.
+   */
+  private static ExecutorService newExecutor(final int threads) {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+          .invoke(null);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      return Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder().setDaemon(true)
+          .setNameFormat("booker-lookup-%d").build());
+    }
+  }
+}
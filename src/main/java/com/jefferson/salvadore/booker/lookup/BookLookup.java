@@ -0,0 +1,30 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.lookup;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import javax.annotation.Nonnull;
+
+import com.jefferson.salvadore.booker.publication.Book;
+
+/**
+ * Looks up the {@link Book} published under an ISBN.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 2-13-2016
+ *
+ */
+public interface BookLookup {
+
+  /**
+   * Looks up a <code>Book</code> by ISBN.
+   *
+   * @param isbn The ISBN-10 or ISBN-13 to look up.
+   * @return Optional The <code>Book</code>, or <code>empty</code> if no volume has this ISBN
+   * @throws IOException If the lookup could not be completed.
+   */
+  Optional<Book> lookup(@Nonnull final String isbn) throws IOException;
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.lookup;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.jefferson.salvadore.booker.publication.Book;
+import com.jefferson.salvadore.booker.publication.Publication;
+import com.jefferson.salvadore.booker.repo.codec.PublicationCodec;
+
+/**
+ * A {@link BookLookup} that caches the results of another one, keyed by ISBN with hyphens and
+ * spaces removed.
+ *
+ * Results are held in a bounded in-memory cache and, when a directory is given, in one file per
+ * ISBN, so that lookups repeated by later runs of the application are served locally as well. An
+ * ISBN without a volume is cached too, with a shorter time to live than a <code>Book</code>. A
+ * failed lookup is not cached. Concurrent lookups of the same ISBN wait for a single call to the
+ * delegate.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 2-13-2016
+ *
+ */
+public class CachingBookLookup implements BookLookup {
+
+  static final Logger logger = LoggerFactory.getLogger(CachingBookLookup.class);
+
+  /** The number of ISBNs held in memory by default */
+  public static final long DEFAULT_MAXIMUM_SIZE = 1000;
+  /** How long a <code>Book</code> is cached by default */
+  public static final long DEFAULT_TTL_MILLIS = TimeUnit.DAYS.toMillis(7);
+  /** How long an ISBN without a volume is cached by default */
+  public static final long DEFAULT_NEGATIVE_TTL_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+  private static final String CACHE_FILE_EXT = ".lookup";
+  private static final byte MISSING = 0;
+  private static final byte FOUND = 1;
+
+  private final BookLookup delegate;
+  private final long ttlMillis;
+  private final long negativeTtlMillis;
+  private final Path cacheDir;
+  private final Cache<String, Entry> cache;
+
+  /**
+   * Creates a cache with the default size and times to live.
+   *
+   * @param delegate The lookup to cache.
+   * @param cacheDir The directory of the on-disk tier, or <code>null</code> for none.
+   */
+  public CachingBookLookup(@Nonnull final BookLookup delegate, @Nullable final Path cacheDir) {
+    this(delegate, DEFAULT_MAXIMUM_SIZE, DEFAULT_TTL_MILLIS, DEFAULT_NEGATIVE_TTL_MILLIS, cacheDir);
+  }
+
+  /**
+   * @param delegate The lookup to cache.
+   * @param maximumSize The number of ISBNs held in memory, the least recently used being evicted
+   *        first.
+   * @param ttlMillis How long a <code>Book</code> is cached.
+   * @param negativeTtlMillis How long an ISBN without a volume is cached.
+   * @param cacheDir The directory of the on-disk tier, or <code>null</code> for none.
+   */
+  public CachingBookLookup(@Nonnull final BookLookup delegate, final long maximumSize,
+      final long ttlMillis, final long negativeTtlMillis, @Nullable final Path cacheDir) {
+    checkArgument(maximumSize >= 0, "maximumSize must not be negative");
+    checkArgument(ttlMillis > 0, "ttlMillis must be greater than zero");
+    checkArgument(negativeTtlMillis > 0, "negativeTtlMillis must be greater than zero");
+    this.delegate = checkNotNull(delegate);
+    this.ttlMillis = ttlMillis;
+    this.negativeTtlMillis = negativeTtlMillis;
+    this.cacheDir = cacheDir;
+    this.cache = CacheBuilder.newBuilder().maximumSize(maximumSize)
+        .expireAfterWrite(Math.max(ttlMillis, negativeTtlMillis), TimeUnit.MILLISECONDS)
+        .recordStats().build();
+  }
+
+  @Override
+  public Optional<Book> lookup(@Nonnull final String isbn) throws IOException {
+    final String key = normalize(isbn);
+    checkArgument(!key.isEmpty(), "isbn must not be empty");
+    final Entry cached = cache.getIfPresent(key);
+    if (cached != null) {
+      if (!cached.isExpired(System.currentTimeMillis())) {
+        return cached.book;
+      }
+      cache.asMap().remove(key, cached);
+    }
+    try {
+      return cache.get(key, () -> load(key)).book;
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      Throwables.propagateIfPossible(e.getCause(), IOException.class);
+      throw new IOException("could not look up ISBN " + key, e.getCause());
+    }
+  }
+
+  /**
+   * Removes an ISBN from both tiers, so that the next lookup reaches the delegate.
+   *
+   * @param isbn The ISBN to remove.
+   * @throws IOException If the cache file could not be deleted.
+   */
+  public void invalidate(@Nonnull final String isbn) throws IOException {
+    final String key = normalize(isbn);
+    cache.invalidate(key);
+    if (cacheDir != null) {
+      Files.deleteIfExists(cacheFile(key));
+    }
+  }
+
+  /**
+   * @return CacheStats The hit and miss counts of the in-memory tier
+   */
+  public CacheStats stats() {
+    return cache.stats();
+  }
+
+  private Entry load(@Nonnull final String key) throws IOException {
+    if (cacheDir != null) {
+      final Entry stored = readCacheFile(key);
+      if (stored != null) {
+        return stored;
+      }
+    }
+    final Optional<Book> book = delegate.lookup(key);
+    final Entry entry = new Entry(book,
+        System.currentTimeMillis() + (book.isPresent() ? ttlMillis : negativeTtlMillis));
+    if (cacheDir != null) {
+      try {
+        writeCacheFile(key, entry);
+      } catch (IOException e) {
+        logger.warn("could not write the lookup cache file of ISBN {}", key, e);
+      }
+    }
+    return entry;
+  }
+
+  /**
+   * Reads an unexpired entry from the on-disk tier. An expired or unreadable file is deleted.
+   */
+  @Nullable
+  private Entry readCacheFile(@Nonnull final String key) throws IOException {
+    final Path file = cacheFile(key);
+    final byte[] bytes;
+    try {
+      bytes = Files.readAllBytes(file);
+    } catch (NoSuchFileException e) {
+      return null;
+    }
+    try {
+      final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+      final byte status = buffer.get();
+      final long expiresAt = buffer.getLong();
+      Optional<Book> book = Optional.empty();
+      if (status == FOUND) {
+        final Publication publication = PublicationCodec.decode(buffer);
+        if (!(publication instanceof Book)) {
+          throw new IOException("not a Book: " + publication.getClass().getName());
+        }
+        book = Optional.of((Book) publication);
+      } else if (status != MISSING) {
+        throw new IOException("unknown status " + status);
+      }
+      final Entry entry = new Entry(book, expiresAt);
+      if (!entry.isExpired(System.currentTimeMillis())) {
+        return entry;
+      }
+    } catch (IOException | BufferUnderflowException e) {
+      logger.debug("discarding the lookup cache file {}", file, e);
+    }
+    Files.deleteIfExists(file);
+    return null;
+  }
+
+  private void writeCacheFile(@Nonnull final String key, @Nonnull final Entry entry)
+      throws IOException {
+    final byte[] encoded =
+        entry.book.isPresent() ? PublicationCodec.encode(entry.book.get()) : new byte[0];
+    final ByteBuffer buffer = ByteBuffer.allocate(1 + Long.BYTES + encoded.length);
+    buffer.put(entry.book.isPresent() ? FOUND : MISSING).putLong(entry.expiresAt).put(encoded);
+    Files.createDirectories(cacheDir);
+    final Path temp = Files.createTempFile(cacheDir, "lookup", ".tmp");
+    try {
+      Files.write(temp, buffer.array());
+      Files.move(temp, cacheFile(key), REPLACE_EXISTING, ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  private Path cacheFile(@Nonnull final String key) throws IOException {
+    return cacheDir.resolve(URLEncoder.encode(key + CACHE_FILE_EXT, "UTF-8"));
+  }
+
+  /**
+   * Returns an ISBN without hyphens and spaces, with a check digit <code>x</code> in upper case.
+   */
+  static String normalize(@Nonnull final String isbn) {
+    final StringBuilder key = new StringBuilder(checkNotNull(isbn).length());
+    for (int i = 0; i < isbn.length(); i++) {
+      final char c = isbn.charAt(i);
+      if (c != '-' && !Character.isWhitespace(c)) {
+        key.append(Character.toUpperCase(c));
+      }
+    }
+    return key.toString();
+  }
+
+  /**
+   * The result of a lookup and the wall-clock time it expires at.
+   */
+  private static final class Entry {
+    private final Optional<Book> book;
+    private final long expiresAt;
+
+    private Entry(final Optional<Book> book, final long expiresAt) {
+      this.book = book;
+      this.expiresAt = expiresAt;
+    }
+
+    private boolean isExpired(final long now) {
+      return now >= expiresAt;
+    }
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.lookup;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.net.HttpURLConnection.HTTP_OK;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+
+import com.jefferson.salvadore.booker.JsonParser;
+import com.jefferson.salvadore.booker.publication.Book;
+
+/**
+ * A {@link BookLookup} that queries the <code>volumes</code> resource of the Google Books API, one
+ * HTTP request per lookup. The first volume of the response is returned.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 2-13-2016
+ *
+ */
+public class GoogleBooksClient implements BookLookup {
+
+  /** The connect and read timeout used by default */
+  public static final int DEFAULT_TIMEOUT_MILLIS = 10_000;
+
+  private final URI baseUri;
+  private final int timeoutMillis;
+
+  /**
+   * @param baseUri The URI of the API, such as
+   *        {@link com.jefferson.salvadore.booker.BookerServicesImpl#GOOGLE_BOOKS_API}.
+   */
+  public GoogleBooksClient(@Nonnull final URI baseUri) {
+    this(baseUri, DEFAULT_TIMEOUT_MILLIS);
+  }
+
+  /**
+   * @param baseUri The URI of the API, ending with a slash.
+   * @param timeoutMillis The connect and read timeout.
+   */
+  public GoogleBooksClient(@Nonnull final URI baseUri, final int timeoutMillis) {
+    checkArgument(timeoutMillis >= 0, "timeoutMillis must not be negative");
+    this.baseUri = checkNotNull(baseUri);
+    this.timeoutMillis = timeoutMillis;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws HttpStatusException If the API answered with a status other than <code>200 OK</code>.
+   * @throws IOException If the API could not be reached.
+   */
+  @Override
+  public Optional<Book> lookup(@Nonnull final String isbn) throws IOException {
+    final URI resolvedURI = baseUri.resolve("volumes?q=isbn:" + URLEncoder.encode(isbn, "UTF-8"));
+    final HttpURLConnection connection = (HttpURLConnection) resolvedURI.toURL().openConnection();
+    connection.setRequestMethod("GET");
+    connection.setRequestProperty("Accept", "application/json");
+    connection.setConnectTimeout(timeoutMillis);
+    connection.setReadTimeout(timeoutMillis);
+    final int status = connection.getResponseCode();
+    if (status != HTTP_OK) {
+      final InputStream errorStream = connection.getErrorStream();
+      if (errorStream != null) {
+        errorStream.close();
+      }
+      throw new HttpStatusException("HTTP " + status + " while looking up ISBN " + isbn, status,
+          retryAfterMillis(connection.getHeaderField("Retry-After")));
+    }
+    try (final InputStream inputStream = new BufferedInputStream(connection.getInputStream())) {
+      final List<Book> books = JsonParser.parseVolumes(inputStream);
+      return books.isEmpty() ? Optional.empty() : Optional.of(books.get(0));
+    }
+  }
+
+  /**
+   * Returns the delay of a <code>Retry-After</code> header given in seconds, or zero if there is
+   * none. A header given as an HTTP date is ignored.
+   */
+  private static long retryAfterMillis(final String retryAfter) {
+    if (retryAfter != null) {
+      try {
+        return TimeUnit.SECONDS.toMillis(Math.max(0, Long.parseLong(retryAfter.trim())));
+      } catch (NumberFormatException e) {
+        return 0;
+      }
+    }
+    return 0;
+  }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.lookup;
+
+import java.io.IOException;
+
+/**
+ * Signals that an HTTP request was answered with a status other than <code>200 OK</code>.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 2-14-2016
+ *
+ */
+public class HttpStatusException extends IOException {
+
+  private static final long serialVersionUID = 1L;
+
+  private final int status;
+  private final long retryAfterMillis;
+
+  /**
+   * @param message The detail message.
+   * @param status The HTTP status of the response.
+   * @param retryAfterMillis The delay asked for by a <code>Retry-After</code> header, or zero.
+   */
+  public HttpStatusException(final String message, final int status,
+      final long retryAfterMillis) {
+    super(message);
+    this.status = status;
+    this.retryAfterMillis = retryAfterMillis;
+  }
+
+  public int getStatus() {
+    return status;
+  }
+
+  /**
+   * @return long The delay asked for by the server before retrying, or zero if it did not ask
+   */
+  public long getRetryAfterMillis() {
+    return retryAfterMillis;
+  }
+
+  /**
+   * @return boolean <code>true</code> if the request may succeed when repeated, that is for
+   *         <code>429 Too Many Requests</code> and the <code>5xx</code> server errors
+   */
+  public boolean isRetryable() {
+    return status == 429 || status >= 500;
+  }
+}
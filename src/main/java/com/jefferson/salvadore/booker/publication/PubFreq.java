@@ -37,6 +37,8 @@ public enum PubFreq {
    */
   NA(-1);
 
+  private static final PubFreq[] VALUES = values();
+
   private final int freqValue;
 
   private PubFreq(final int freqValue) {
@@ -53,6 +55,23 @@ public enum PubFreq {
     return pubFreq;
   }
 
+  /**
+   * Returns the <code>PubFreq</code> represented by an <code>int</code>, the inverse of
+   * {@link #getFreqValue()}
+   * 
+   * @param freqValue The value returned by {@link Publication#getPubFreq()}
+   * @return PubFreq
+   * @throws IllegalArgumentException If no <code>PubFreq</code> has this value
+   */
+  public static PubFreq fromFreqValue(final int freqValue) throws IllegalArgumentException {
+    for (PubFreq pubFreq : VALUES) {
+      if (pubFreq.freqValue == freqValue) {
+        return pubFreq;
+      }
+    }
+    throw new IllegalArgumentException("no publication frequency has the value " + freqValue);
+  }
+
   /**
    * Returns an <code>int</code> representing the publication frequency. If <code>PubFreq</code> is
    * set to <code>UNDISCLOSED</code>, zero is returned to indicate an unknown value
@@ -4,21 +4,34 @@
 package com.jefferson.salvadore.booker.publication;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-import static java.util.Objects.hash;
 
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 
 import javax.annotation.Nonnull;
 
 /**
  * <p>
- * Creates values of type {@link Integer}, to represent a single date or a range of dates to define
+ * Creates values of type <code>int</code>, to represent a single date or a range of dates to define
  * the year range a publication was first published. This class is <em>final</em> and cannot be
  * subclasses.
  * 
  * A set of <code>constant</code> date ranges have been defined for this class
  * </p>
  * 
+ * <p>
+ * The single-year ranges of the span set by the {@value #CACHE_LOW_PROPERTY} and
+ * {@value #CACHE_HIGH_PROPERTY} system properties, by default {@value #DEFAULT_CACHE_LOW} to
+ * {@value #DEFAULT_CACHE_HIGH}, are interned: the <code>of</code> methods return one canonical
+ * instance for each of them, up to {@value #MAX_CACHE_SIZE} years. The serialized form
+ * still holds two <code>Integer</code> fields, so <code>.pub.dat</code> files written before the
+ * fields became primitive can be read, and {@link #readResolve()} interns what it reads.
+ * </p>
+ * 
  * @version 1.0.0 9-17-2015
  * @author Salvadore Jefferson
  * 
@@ -28,76 +41,109 @@ import javax.annotation.Nonnull;
 public final class Range implements Serializable {
 
   private static final long serialVersionUID = 111L;
+
+  /**
+   * The serialized fields, boxed as they were when the class was first serialized.
+   */
+  private static final ObjectStreamField[] serialPersistentFields =
+      {new ObjectStreamField("rangeStart", Integer.class),
+          new ObjectStreamField("rangeEnd", Integer.class)};
+
+  /**
+   * The system property setting the first year of the interned single-year ranges
+   */
+  public static final String CACHE_LOW_PROPERTY = "booker.range.cache.low";
+
+  /**
+   * The system property setting the last year of the interned single-year ranges
+   */
+  public static final String CACHE_HIGH_PROPERTY = "booker.range.cache.high";
+
+  /** The first interned year, unless {@value #CACHE_LOW_PROPERTY} is set */
+  public static final int DEFAULT_CACHE_LOW = 1450;
+
+  /** The last interned year, unless {@value #CACHE_HIGH_PROPERTY} is set */
+  public static final int DEFAULT_CACHE_HIGH = 2050;
+
+  /** The largest number of interned years */
+  public static final int MAX_CACHE_SIZE = 1 << 16;
+
   /**
    * The default range. Primarily used when a publication does not specify the publish date.
    * <code>rangeStart</code> and <code>rangeEnd</code> set to 0, 0
    */
   public static final Range DEFAULT_RANGE = new Range(0, 0);
 
+  private static final int CACHE_LOW = Integer.getInteger(CACHE_LOW_PROPERTY, DEFAULT_CACHE_LOW);
+  private static final Range[] CACHE = createCache(CACHE_LOW,
+      Integer.getInteger(CACHE_HIGH_PROPERTY, DEFAULT_CACHE_HIGH));
+
   /**
    * Used to represent a range of dates that correspond to the current year. <code>rangeStart</code>
    * and <code>rangeEnd</code> set to 2015, 2015
    */
-  public static final Range CURRENT_YEAR = new Range(2015, 2015);
+  public static final Range CURRENT_YEAR = of(2015);
 
   /**
-   * Used to set the start date of the range
+   * Used to set the start date of the range. Only assigned by the constructor and
+   * {@link #readObject(ObjectInputStream)}.
    */
-  private final Integer rangeStart;
+  private int rangeStart;
 
   /**
-   * Used to set the end date of the range
+   * Used to set the end date of the range. Only assigned by the constructor and
+   * {@link #readObject(ObjectInputStream)}.
    */
-  private final Integer rangeEnd;
+  private int rangeEnd;
 
   /**
    * <p>
-   * Constructor for the <code>Range</code> class. Takes 2 Integer arguments as parameters. Set to
+   * Constructor for the <code>Range</code> class. Takes 2 int arguments as parameters. Set to
    * <code>private</code> so it can not be called to create new <code>Range</code> objects.
    * </p>
    * 
    * @param rangeStart
    * @param rangeEnd
-   * @throws NullPointerException
    */
-  private Range(@Nonnull final Integer rangeStart, @Nonnull final Integer rangeEnd)
-      throws NullPointerException {
-    this.rangeStart = checkNotNull(rangeStart);
-    this.rangeEnd = checkNotNull(rangeEnd);
+  private Range(final int rangeStart, final int rangeEnd) {
+    this.rangeStart = rangeStart;
+    this.rangeEnd = rangeEnd;
   }
 
   /**
    * <p>
-   * Constructor for the Range class. Takes a single Integer argument. <code>rangeEnd</code> is set
-   * to whatever is passed for <code>rangeStart</code>. This constructor is set to
-   * <code>private</code> so it can not be called to create new <code>Range</code> objects.
+   * A static factory method for the <code>Range</code> class when a single argument is passed to
+   * the constructor. Use this <code>of</code> method to create new <code>Range</code> objects. If
+   * <code>zero</code> is passed for <code>rangeStart</code>, then {@link #DEFAULT_RANGE} will be
+   * returned.
    * </p>
    * 
    * @param rangeStart
+   * @return Range
    * @throws NullPointerException
    */
-  private Range(@Nonnull final Integer rangeStart) throws NullPointerException {
-    this.rangeStart = checkNotNull(rangeStart);
-    this.rangeEnd = rangeStart;
+  public static @Nonnull Range of(@Nonnull final Integer rangeStart) throws NullPointerException {
+    return of(checkNotNull(rangeStart).intValue());
   }
 
   /**
    * <p>
-   * A static factory method for the <code>Range</code> class when a single argument is passed to
-   * the constructor. Use this <code>of</code> method to create new <code>Range</code> objects. If
-   * <code>zero</code> is passed for <code>rangeStart</code>, then {@link #DEFAULT_RANGE} will be
-   * returned.
+   * A static factory method for the <code>Range</code> class when a single year is passed. The
+   * interned instance is returned for the years in the cached span, and {@link #DEFAULT_RANGE} for
+   * <code>zero</code>.
    * </p>
    * 
    * @param rangeStart
    * @return Range
-   * @throws NullPointerException
    */
-  public static @Nonnull Range of(@Nonnull final Integer rangeStart) throws NullPointerException {
-    checkNotNull(rangeStart);
+  public static @Nonnull Range of(final int rangeStart) {
     if (rangeStart == 0) {
       return DEFAULT_RANGE;
     }
+    final int slot = rangeStart - CACHE_LOW;
+    if (slot >= 0 && slot < CACHE.length) {
+      return CACHE[slot];
+    }
     return new Range(rangeStart, rangeStart);
   }
 
@@ -119,8 +165,22 @@ public final class Range implements Serializable {
       @Nonnull final Integer rangeEnd) throws NullPointerException {
     checkNotNull(rangeStart);
     checkNotNull(rangeEnd);
-    if (rangeStart == 0 && rangeEnd == 0) {
-      return DEFAULT_RANGE;
+    return of(rangeStart.intValue(), rangeEnd.intValue());
+  }
+
+  /**
+   * <p>
+   * A static factory method for the <code>Range</code> class when two years are passed. A range of
+   * a single year is interned like {@link #of(int)}.
+   * </p>
+   * 
+   * @param rangeStart
+   * @param rangeEnd
+   * @return Range
+   */
+  public static @Nonnull Range of(final int rangeStart, final int rangeEnd) {
+    if (rangeStart == rangeEnd) {
+      return of(rangeStart);
     }
     return new Range(rangeStart, rangeEnd);
   }
@@ -135,21 +195,31 @@ public final class Range implements Serializable {
   /**
    * Get the start of the range of dates
    * 
-   * @return Integer
+   * @return int
    */
-  public Integer getRangeStart() {
+  public int getRangeStart() {
     return rangeStart;
   }
 
   /**
    * Get the end of the range of dates
    * 
-   * @return Integer
+   * @return int
    */
-  public Integer getRangeEnd() {
+  public int getRangeEnd() {
     return rangeEnd;
   }
 
+  /**
+   * Tells whether this range and another one share at least one year, bounds included.
+   * 
+   * @param other The other range
+   * @return boolean <code>true</code> if the ranges overlap
+   */
+  public boolean overlaps(@Nonnull final Range other) {
+    return rangeStart <= other.rangeEnd && other.rangeStart <= rangeEnd;
+  }
+
   @Override
   public boolean equals(Object otherObject) {
     if (this == otherObject) {
@@ -159,13 +229,12 @@ public final class Range implements Serializable {
       return false;
     }
     final Range year = (Range) otherObject;
-    return this.getRangeStart().equals(year.getRangeStart())
-        && this.getRangeEnd().equals(year.getRangeEnd());
+    return rangeStart == year.rangeStart && rangeEnd == year.rangeEnd;
   }
 
   @Override
   public int hashCode() {
-    return hash(getRangeStart(), getRangeEnd());
+    return 31 * rangeStart + rangeEnd;
   }
 
   @Override
@@ -173,5 +242,45 @@ public final class Range implements Serializable {
     return String.format("From: %s | To: %s", this.getRangeStart(), this.getRangeEnd());
   }
 
-}
+  private void writeObject(final ObjectOutputStream out) throws IOException {
+    final ObjectOutputStream.PutField fields = out.putFields();
+    fields.put("rangeStart", Integer.valueOf(rangeStart));
+    fields.put("rangeEnd", Integer.valueOf(rangeEnd));
+    out.writeFields();
+  }
+
+  private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+    final ObjectInputStream.GetField fields = in.readFields();
+    final Integer start = (Integer) fields.get("rangeStart", null);
+    final Integer end = (Integer) fields.get("rangeEnd", null);
+    if (start == null || end == null) {
+      throw new InvalidObjectException("a range needs a start and an end");
+    }
+    rangeStart = start;
+    rangeEnd = end;
+  }
+
+  /**
+   * Replaces a deserialized range with the instance the <code>of</code> methods return, so that
+   * the single-year ranges read from files are interned too.
+   * 
+   * @return Object The canonical <code>Range</code>
+   */
+  private Object readResolve() {
+    return of(rangeStart, rangeEnd);
+  }
 
+  /**
+   * Creates the interned single-year ranges from <code>low</code> to <code>high</code>, at most
+   * {@link #MAX_CACHE_SIZE} of them, or none if <code>high</code> is before <code>low</code>.
+   */
+  private static Range[] createCache(final int low, final int high) {
+    final long span = (long) high - low + 1;
+    final Range[] cache = new Range[(int) Math.max(0, Math.min(span, MAX_CACHE_SIZE))];
+    for (int i = 0; i < cache.length; i++) {
+      final int year = low + i;
+      cache[i] = year == 0 ? DEFAULT_RANGE : new Range(year, year);
+    }
+    return cache;
+  }
+}
@@ -0,0 +1,326 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.repo;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.jefferson.salvadore.booker.publication.Book;
+import com.jefferson.salvadore.booker.publication.Journal;
+import com.jefferson.salvadore.booker.publication.Magazine;
+import com.jefferson.salvadore.booker.publication.Periodical;
+import com.jefferson.salvadore.booker.publication.Publication;
+import com.jefferson.salvadore.booker.publication.Range;
+
+/**
+ * An in-memory index of {@link Publication}s used by the {@link PublicationRepository}
+ * implementations. Publications are keyed by title, and partitioned into one bucket per indexed
+ * type so that {@link #getByType(Class)} costs O(results) instead of O(catalog).
+ *
+ * Each bucket also has a copy sorted by title, so that {@link #page(Class, String, int)} costs
+ * O(log n + page size) at any depth of the catalog.
+ *
+ * {@link #findByYears(Range)} is answered by a {@link PublicationYearIndex}, built on the first
+ * query after the index changed.
+ *
+ * {@link Periodical}s are also keyed by their normalized title, see {@link #normalizeTitle(String)},
+ * so that a periodical can be found from a title typed with a different case or punctuation.
+ *
+ * Adding a <code>Publication</code> whose title is already indexed replaces the previous
+ * instance. Removal swaps the last element of each bucket into the freed slot, so the order of a
+ * bucket is only guaranteed to be insertion order until the first removal.
+ *
+ * This class is not thread-safe, although an index that is no longer modified may be queried by
+ * many threads.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 1-21-2016
+ *
+ */
+public class PublicationIndex {
+
+  /**
+   * The types that get their own bucket. Queries for any other type fall back to filtering the
+   * {@link Publication} bucket.
+   */
+  private static final List<Class<? extends Publication>> INDEXED_TYPES = Collections
+      .unmodifiableList(Arrays.<Class<? extends Publication>>asList(Publication.class,
+          Periodical.class, Book.class, Magazine.class, Journal.class));
+
+  private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+  private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+  private final Map<String, Entry> titleIndex = new LinkedHashMap<>();
+  private final Map<String, List<Periodical>> normalizedPeriodicals = new HashMap<>();
+  private final List<List<Publication>> buckets = new ArrayList<>(INDEXED_TYPES.size());
+  private final List<List<Publication>> bucketViews = new ArrayList<>(INDEXED_TYPES.size());
+  private final List<NavigableMap<String, Publication>> sortedBuckets =
+      new ArrayList<>(INDEXED_TYPES.size());
+  private volatile PublicationYearIndex yearIndex;
+
+  public PublicationIndex() {
+    for (int i = 0; i < INDEXED_TYPES.size(); i++) {
+      final List<Publication> bucket = new ArrayList<>();
+      buckets.add(bucket);
+      bucketViews.add(Collections.unmodifiableList(bucket));
+      sortedBuckets.add(new TreeMap<>());
+    }
+  }
+
+  /**
+   * Adds a {@link Publication} to the index, replacing any <code>Publication</code> with the same
+   * title.
+   *
+   * @param publication The <code>Publication</code> to index.
+   */
+  public void add(@Nonnull final Publication publication) {
+    final String title = checkNotNull(publication).getTitle();
+    final Entry previous = titleIndex.get(title);
+    if (previous != null) {
+      removeFromBuckets(previous);
+    }
+    final Entry entry = new Entry(publication);
+    for (int i = 0; i < INDEXED_TYPES.size(); i++) {
+      if (INDEXED_TYPES.get(i).isInstance(publication)) {
+        final List<Publication> bucket = buckets.get(i);
+        entry.positions[i] = bucket.size();
+        bucket.add(publication);
+        sortedBuckets.get(i).put(title, publication);
+      }
+    }
+    titleIndex.put(title, entry);
+    yearIndex = null;
+    if (publication instanceof Periodical) {
+      normalizedPeriodicals.computeIfAbsent(normalizeTitle(title), key -> new ArrayList<>(1))
+          .add((Periodical) publication);
+    }
+  }
+
+  /**
+   * Removes the {@link Publication} with the given title from the index.
+   *
+   * @param title The title of the <code>Publication</code> to remove.
+   * @return The removed <code>Publication</code>, or <code>null</code> if the title was not indexed
+   */
+  @Nullable
+  public Publication remove(@Nonnull final String title) {
+    final Entry entry = titleIndex.remove(title);
+    if (entry == null) {
+      return null;
+    }
+    removeFromBuckets(entry);
+    yearIndex = null;
+    return entry.publication;
+  }
+
+  /**
+   * Finds the {@link Publication} with the given title.
+   *
+   * @param title The title to look up.
+   * @return The matching <code>Publication</code>, or <code>null</code> if the title is not indexed
+   */
+  @Nullable
+  public Publication get(@Nonnull final String title) {
+    final Entry entry = titleIndex.get(title);
+    return entry == null ? null : entry.publication;
+  }
+
+  /**
+   * Finds the {@link Periodical} with the given title.
+   *
+   * @param title The title to look up.
+   * @return The matching <code>Periodical</code>, or <code>null</code> if the title is not indexed
+   *         or is not a periodical
+   */
+  @Nullable
+  public Periodical getPeriodical(@Nonnull final String title) {
+    final Publication publication = get(title);
+    return publication instanceof Periodical ? (Periodical) publication : null;
+  }
+
+  /**
+   * Finds a {@link Periodical} whose title matches the given title once both are normalized. An
+   * exact match is preferred; otherwise, if several periodicals match, the one indexed first is
+   * returned.
+   *
+   * @param title The title to look up.
+   * @return The matching <code>Periodical</code>, or <code>null</code> if none matches
+   */
+  @Nullable
+  public Periodical getPeriodicalByNormalizedTitle(@Nonnull final String title) {
+    final Periodical exact = getPeriodical(title);
+    if (exact != null) {
+      return exact;
+    }
+    final List<Periodical> matches = normalizedPeriodicals.get(normalizeTitle(title));
+    return matches == null ? null : matches.get(0);
+  }
+
+  /**
+   * Normalizes a title for lookups that ignore case, accents and punctuation: the title is
+   * decomposed, stripped of combining marks, lower-cased, and every run of characters other than
+   * letters and digits becomes a single space. For example, both <code>"The New-Yorker"</code> and
+   * <code>"the new yorker "</code> become <code>"the new yorker"</code>.
+   *
+   * @param title The title to normalize.
+   * @return String The normalized title
+   */
+  public static String normalizeTitle(@Nonnull final String title) {
+    final String decomposed = Normalizer.normalize(checkNotNull(title), Normalizer.Form.NFKD);
+    final String unmarked = COMBINING_MARKS.matcher(decomposed).replaceAll("");
+    return SEPARATORS.matcher(unmarked.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+  }
+
+  /**
+   * Returns the {@link Publication}s of the given type. For the indexed types (
+   * <code>Publication</code>, <code>Periodical</code>, <code>Book</code>, <code>Magazine</code> and
+   * <code>Journal</code>) this is a read-only view of the bucket, which reflects later changes to
+   * the index. Any other type is answered with a new <code>List</code>.
+   *
+   * @param publicationType The type of <code>Publication</code> to return.
+   * @return A <code>List</code> of the matching <code>Publication</code>s
+   */
+  @SuppressWarnings("unchecked")
+  public <P extends Publication> List<P> getByType(@Nonnull final Class<P> publicationType) {
+    final int bucket = INDEXED_TYPES.indexOf(publicationType);
+    if (bucket >= 0) {
+      return (List<P>) bucketViews.get(bucket);
+    }
+    final List<P> theList = new ArrayList<P>();
+    for (Publication publication : buckets.get(0)) {
+      if (publicationType.isInstance(publication)) {
+        theList.add(publicationType.cast(publication));
+      }
+    }
+    return theList;
+  }
+
+  /**
+   * Streams the {@link Publication}s of the given type, in the order of
+   * {@link #getByType(Class)}, without copying them. The index must not change while the stream is
+   * consumed.
+   *
+   * @param publicationType The type of <code>Publication</code> to stream.
+   * @return A <code>Stream</code> of the matching <code>Publication</code>s
+   */
+  @SuppressWarnings("unchecked")
+  public <P extends Publication> Stream<P> stream(@Nonnull final Class<P> publicationType) {
+    final int bucket = INDEXED_TYPES.indexOf(publicationType);
+    if (bucket >= 0) {
+      return (Stream<P>) bucketViews.get(bucket).stream();
+    }
+    return buckets.get(0).stream().filter(publicationType::isInstance).map(publicationType::cast);
+  }
+
+  /**
+   * Returns a page of the {@link Publication}s of the given type, in title order.
+   *
+   * @param publicationType The type of <code>Publication</code> to return.
+   * @param afterTitle The title the page starts after, usually the last title of the previous
+   *        page, or <code>null</code> for the first page.
+   * @param limit The largest number of <code>Publication</code>s to return.
+   * @return A new <code>List</code> of the matching <code>Publication</code>s, shorter than
+   *         <code>limit</code> on the last page
+   */
+  public <P extends Publication> List<P> page(@Nonnull final Class<P> publicationType,
+      @Nullable final String afterTitle, final int limit) {
+    checkArgument(limit >= 0, "limit must not be negative");
+    final int bucket = INDEXED_TYPES.indexOf(checkNotNull(publicationType));
+    final NavigableMap<String, Publication> sorted = sortedBuckets.get(Math.max(bucket, 0));
+    final Collection<Publication> tail =
+        afterTitle == null ? sorted.values() : sorted.tailMap(afterTitle, false).values();
+    final List<P> page = new ArrayList<>(Math.min(limit, sorted.size()));
+    for (Publication publication : tail) {
+      if (page.size() == limit) {
+        break;
+      }
+      if (publicationType.isInstance(publication)) {
+        page.add(publicationType.cast(publication));
+      }
+    }
+    return page;
+  }
+
+  /**
+   * Returns the {@link Publication}s whose years published overlap the given years, in O(log n +
+   * results) once the year index is built. The first query after the index changed rebuilds the
+   * year index in O(n log n).
+   *
+   * @param years The years to match, bounds included.
+   * @return A new <code>List</code> of the matching <code>Publication</code>s, by start then end
+   *         year
+   */
+  public List<Publication> findByYears(@Nonnull final Range years) {
+    checkNotNull(years);
+    PublicationYearIndex index = yearIndex;
+    if (index == null) {
+      index = new PublicationYearIndex(buckets.get(0));
+      yearIndex = index;
+    }
+    return index.findOverlapping(years);
+  }
+
+  /**
+   * @return int The number of indexed <code>Publication</code>s
+   */
+  public int size() {
+    return titleIndex.size();
+  }
+
+  private void removeFromBuckets(@Nonnull final Entry entry) {
+    if (entry.publication instanceof Periodical) {
+      final String key = normalizeTitle(entry.publication.getTitle());
+      final List<Periodical> matches = normalizedPeriodicals.get(key);
+      matches.remove(entry.publication);
+      if (matches.isEmpty()) {
+        normalizedPeriodicals.remove(key);
+      }
+    }
+    for (int i = 0; i < INDEXED_TYPES.size(); i++) {
+      final int position = entry.positions[i];
+      if (position < 0) {
+        continue;
+      }
+      sortedBuckets.get(i).remove(entry.publication.getTitle());
+      final List<Publication> bucket = buckets.get(i);
+      final Publication last = bucket.remove(bucket.size() - 1);
+      if (position < bucket.size()) {
+        bucket.set(position, last);
+        titleIndex.get(last.getTitle()).positions[i] = position;
+      }
+    }
+  }
+
+  /**
+   * The title index entry of a {@link Publication}, holding its position in each bucket or
+   * <code>-1</code> for the buckets it does not belong to.
+   */
+  private static final class Entry {
+    private final Publication publication;
+    private final int[] positions = new int[INDEXED_TYPES.size()];
+
+    private Entry(final Publication publication) {
+      this.publication = publication;
+      Arrays.fill(positions, -1);
+    }
+  }
+}
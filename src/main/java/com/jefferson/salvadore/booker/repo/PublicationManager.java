@@ -34,11 +34,33 @@ public interface PublicationManager {
    * 
    * @param title The title of the {@link Publication} who's stock to decrease.
    * @param amountToRemove The amount to remove from the stock level.
-   * @throws IOException If an error occurs while accessing the Repository
+   * @throws IOException If an error occurs while accessing the Repository, or if fewer than
+   *         <code>amountToRemove</code> copies are in stock
    */
   void removeStockFromInventory(@Nonnull final String title, @Nonnull final Integer amountToRemove)
       throws IOException;
 
+  /**
+   * Atomically removes the specified amount from the inventory count, if that many copies are in
+   * stock. The count never goes below zero, however many purchases run at the same time.
+   * 
+   * @param title The title of the {@link Publication} to reserve.
+   * @param quantity The number of copies to reserve, greater than zero.
+   * @return boolean <code>true</code> if the copies were reserved, <code>false</code> if the stock
+   *         was insufficient and left unchanged
+   * @throws IOException If an error occurs while accessing the Repository
+   */
+  boolean tryReserve(@Nonnull final String title, final int quantity) throws IOException;
+
+  /**
+   * Atomically returns copies taken by {@link #tryReserve(String, int)} to the inventory.
+   * 
+   * @param title The title of the {@link Publication} to release.
+   * @param quantity The number of copies to return, greater than zero.
+   * @throws IOException If an error occurs while accessing the Repository
+   */
+  void release(@Nonnull final String title, final int quantity) throws IOException;
+
   /**
    * Gets the inventory count for the specified {@link Publication}
    * 
@@ -48,6 +70,24 @@ public interface PublicationManager {
    */
   Integer getInventoryCount(@Nonnull final String title) throws IOException;
 
+  /**
+   * Adds a {@link Publication} to the repository, replacing the one with the same title, and drops
+   * any inventory count of the title kept in memory.
+   * 
+   * @param publication The {@link Publication} to add.
+   * @throws IOException If an error occurs while accessing the Repository
+   */
+  void addPublication(@Nonnull final Publication publication) throws IOException;
+
+  /**
+   * Removes a {@link Publication} from the repository, and drops any inventory count of the title
+   * kept in memory.
+   * 
+   * @param title The title of the {@link Publication} to remove.
+   * @throws IOException If an error occurs while accessing the Repository
+   */
+  void removePublication(@Nonnull final String title) throws IOException;
+
   /**
    * Sets the {@link PublicationRepository} via Dependency Injection through the
    * {@link PublicationModule} class. This will override the default
@@ -13,10 +13,12 @@ import javax.inject.Singleton;
 
 import com.jefferson.salvadore.booker.publication.Publication;
 import com.jefferson.salvadore.booker.repo.file.FilePublicationRepository;
+import com.jefferson.salvadore.booker.repo.inventory.ConcurrentInventory;
 
 /**
  * An implementation of {@link PublicationManager}, for manipulating the inventory level of the
- * {@link Publication}s in a {@link FilePublicationRepository}
+ * {@link Publication}s in a {@link FilePublicationRepository}. Inventory changes go through a
+ * {@link ConcurrentInventory}, so concurrent purchases of a title never lose updates or oversell.
  * 
  * @author Salvadore Jefferson
  * @version 1.0.0 12-02-15
@@ -25,13 +27,15 @@ import com.jefferson.salvadore.booker.repo.file.FilePublicationRepository;
 @Singleton
 public class PublicationManagerImpl implements PublicationManager {
 
-  private PublicationRepository repo;
+  private volatile PublicationRepository repo;
+  private volatile ConcurrentInventory inventory;
 
 
   @Inject
   @Override
   public void setRepo(@Nonnull final PublicationRepository repo) {
-    this.repo = checkNotNull(repo);
+    this.inventory = new ConcurrentInventory(checkNotNull(repo));
+    this.repo = repo;
   }
 
   /**
@@ -40,26 +44,49 @@ public class PublicationManagerImpl implements PublicationManager {
    * {@link #setRepo(PublicationRepository)} to override the repository.
    */
   public PublicationManagerImpl(@Nonnull final PublicationRepository repo) {
+    this.inventory = new ConcurrentInventory(checkNotNull(repo));
     this.repo = repo;
   }
 
   @Override
   public void addStockToInventory(String title, Integer amountToAdd) throws IOException {
-    final Integer newCount = repo.getInventoryCount(title) + amountToAdd;
-    repo.setInventoryCount(title, newCount);
+    inventory.release(title, amountToAdd);
 
   }
 
   @Override
   public void removeStockFromInventory(String title, Integer amountToRemove) throws IOException {
-    final Integer newCount = repo.getInventoryCount(title) - amountToRemove;
-    repo.setInventoryCount(title, newCount);
+    if (!inventory.tryReserve(title, amountToRemove)) {
+      throw new IOException("insufficient stock to remove " + amountToRemove + " of " + title);
+    }
+
+  }
 
+  @Override
+  public boolean tryReserve(String title, int quantity) throws IOException {
+    return inventory.tryReserve(title, quantity);
+  }
+
+  @Override
+  public void release(String title, int quantity) throws IOException {
+    inventory.release(title, quantity);
+  }
+
+  @Override
+  public void addPublication(@Nonnull final Publication publication) throws IOException {
+    repo.addPub(publication);
+    inventory.invalidate(publication.getTitle());
+  }
+
+  @Override
+  public void removePublication(@Nonnull final String title) throws IOException {
+    repo.removePubByTitle(title);
+    inventory.invalidate(title);
   }
 
   @Override
   public Integer getInventoryCount(String title) throws IOException {
-    return repo.getInventoryCount(title);
+    return inventory.get(title);
   }
 
 }
@@ -4,14 +4,23 @@
 
 package com.jefferson.salvadore.booker.repo;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
 import java.io.IOException;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import com.jefferson.salvadore.booker.publication.Periodical;
 import com.jefferson.salvadore.booker.publication.Publication;
+import com.jefferson.salvadore.booker.publication.Range;
 
 /**
  * A persistent storage repository for {@link Publication}s
@@ -39,16 +48,79 @@ public interface PublicationRepository {
   void removePubByTitle(@Nonnull final String title) throws IOException;
 
   /**
-   * Retrieves all available {@link Publication}s of a given type.
+   * Retrieves all available {@link Publication}s of a given type. Implementations backed by a
+   * {@link PublicationIndex} return a read-only view rather than a copy, so callers must not modify
+   * the repository while iterating the result.
    * 
    * @param publicationType
    * 
-   * @return Collection A new Collection of type <code>P</code>
+   * @return List A List of type <code>P</code>
    * @throws IOException if there is an error accessing the repository.
    */
   <P extends Publication> List<P> getByType(@Nonnull final Class<P> publicationType)
       throws IOException;
 
+  /**
+   * Streams all available {@link Publication}s of a given type, in the order of
+   * {@link #getByType(Class)}. Implementations override this method to hand the publications out
+   * one at a time instead of materializing a <code>List</code>; as with <code>getByType</code>,
+   * callers must not modify the repository while consuming the stream.
+   * 
+   * @param publicationType The type of <code>Publication</code> to stream.
+   * @return Stream A Stream of type <code>P</code>
+   * @throws IOException if there is an error accessing the repository.
+   */
+  public default <P extends Publication> Stream<P> stream(
+      @Nonnull final Class<P> publicationType) throws IOException {
+    return getByType(publicationType).stream();
+  }
+
+  /**
+   * Returns the {@link Publication}s whose years published overlap the given years, bounds
+   * included, see {@link Range#overlaps(Range)}. This default implementation scans the catalog;
+   * implementations backed by a {@link PublicationIndex} answer in O(log n + results).
+   * 
+   * @param years The years to match.
+   * @return List A List of the matching <code>Publication</code>s, by start then end year
+   * @throws IOException if there is an error accessing the repository.
+   */
+  public default List<Publication> findByYears(@Nonnull final Range years) throws IOException {
+    checkNotNull(years);
+    try (final Stream<Publication> publications = stream(Publication.class)) {
+      return publications.filter(publication -> publication.getYearsPublished().overlaps(years))
+          .sorted(Comparator
+              .comparingInt((Publication publication) -> publication.getYearsPublished()
+                  .getRangeStart())
+              .thenComparingInt(publication -> publication.getYearsPublished().getRangeEnd()))
+          .collect(Collectors.toList());
+    }
+  }
+
+  /**
+   * Returns a page of the {@link Publication}s of a given type, in title order. To walk the
+   * catalog, pass the title of the last <code>Publication</code> of each page as the
+   * <code>afterTitle</code> of the next one, until a page is shorter than <code>limit</code>.
+   * Titles added or removed between two calls are seen or skipped according to where they sort.
+   * This default implementation sorts the whole type; implementations backed by a
+   * {@link PublicationIndex} answer in O(log n + limit).
+   * 
+   * @param publicationType The type of <code>Publication</code> to return.
+   * @param afterTitle The title the page starts after, or <code>null</code> for the first page.
+   * @param limit The largest number of <code>Publication</code>s to return.
+   * @return List A List of type <code>P</code>, at most <code>limit</code> long
+   * @throws IOException if there is an error accessing the repository.
+   */
+  public default <P extends Publication> List<P> page(@Nonnull final Class<P> publicationType,
+      @Nullable final String afterTitle, final int limit) throws IOException {
+    checkArgument(limit >= 0, "limit must not be negative");
+    try (final Stream<P> publications = stream(publicationType)) {
+      return publications
+          .filter(publication -> afterTitle == null || publication.getTitle().compareTo(afterTitle) > 0)
+          .sorted(Comparator.comparing(Publication::getTitle)).limit(limit)
+          .collect(Collectors.toList());
+    }
+  }
+
   /**
    * Finds a given title in the repository. Throws <code>NoSuchElementException</code> if no title
    * matches query.
@@ -61,6 +133,50 @@ public interface PublicationRepository {
   @Nullable
   Publication findByTitle(@Nonnull final String title) throws IOException, NoSuchElementException;
 
+  /**
+   * Finds a {@link Periodical} by title. Implementations backed by a {@link PublicationIndex}
+   * answer in constant time.
+   * 
+   * @param title The title of the <code>Periodical</code> to find
+   * @return Periodical The <code>Periodical</code> with this title
+   * @throws IOException If there is an error accessing the repository.
+   * @throws NoSuchElementException If no <code>Periodical</code> has this title.
+   */
+  public default Periodical findPeriodical(@Nonnull final String title)
+      throws IOException, NoSuchElementException {
+    final Publication publication = findByTitle(title);
+    if (!(publication instanceof Periodical)) {
+      throw new NoSuchElementException("this title is not a periodical: " + title);
+    }
+    return (Periodical) publication;
+  }
+
+  /**
+   * Finds a {@link Periodical} whose title matches the given title regardless of case, accents
+   * and punctuation, see {@link PublicationIndex#normalizeTitle(String)}. An exact match is
+   * preferred. This default implementation scans the periodicals when there is no exact match;
+   * implementations backed by a <code>PublicationIndex</code> answer in constant time.
+   * 
+   * @param title The title of the <code>Periodical</code> to find, as typed by a user
+   * @return Periodical The matching <code>Periodical</code>
+   * @throws IOException If there is an error accessing the repository.
+   * @throws NoSuchElementException If no <code>Periodical</code> matches the title.
+   */
+  public default Periodical findPeriodicalByNormalizedTitle(@Nonnull final String title)
+      throws IOException, NoSuchElementException {
+    try {
+      return findPeriodical(title);
+    } catch (NoSuchElementException e) {
+      final String normalized = PublicationIndex.normalizeTitle(title);
+      for (Periodical periodical : getByType(Periodical.class)) {
+        if (PublicationIndex.normalizeTitle(periodical.getTitle()).equals(normalized)) {
+          return periodical;
+        }
+      }
+      throw new NoSuchElementException("no periodical matches this title: " + title);
+    }
+  }
+
   /**
    * Print all <code>Publication</code>s to the standard output window
    * 
@@ -83,6 +199,22 @@ public interface PublicationRepository {
    */
   public Integer getInventoryCount(@Nonnull final String title) throws IOException;
 
+  /**
+   * Adds a batch of {@link Publication}s to the repository. The result is the same as calling
+   * {@link #addPub(Publication)} for each <code>Publication</code> in iteration order, so a title
+   * that appears twice keeps its last instance. Implementations override this method to group their
+   * writes and commit the batch at once.
+   * 
+   * @param publications The <code>Publication</code>s to add.
+   * @throws IOException if there is an error accessing the repository.
+   */
+  public default void addAll(@Nonnull final Collection<? extends Publication> publications)
+      throws IOException {
+    for (Publication pub : publications) {
+      addPub(pub);
+    }
+  }
+
   /**
    * Print all {@link Publication}s from one repository to another
    * 
@@ -91,9 +223,7 @@ public interface PublicationRepository {
    */
   public default void addAllPublications(@Nonnull final PublicationRepository repo)
       throws IOException {
-    for (Publication pub : repo.getByType(Publication.class)) {
-      addPub(pub);
-    }
+    addAll(repo.getByType(Publication.class));
   }
 
   /**
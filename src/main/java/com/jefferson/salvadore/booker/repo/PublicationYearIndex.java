@@ -0,0 +1,121 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.repo;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+import com.jefferson.salvadore.booker.publication.Publication;
+import com.jefferson.salvadore.booker.publication.Range;
+
+/**
+ * An immutable interval index of {@link Publication}s over their years published, answering
+ * {@link #findOverlapping(Range)}.
+ *
+ * The publications are sorted by the start of their {@link Range}, with the starts and ends copied
+ * into primitive arrays. An implicit binary tree over the ends, laid out in an array with the
+ * children of node <code>i</code> at <code>2i</code> and <code>2i + 1</code>, holds the latest
+ * end of each subtree. A query finds by binary search the publications starting no later than its
+ * end, then descends the tree into the subtrees that end no earlier than its start, so it visits
+ * O(log n) nodes per publication returned instead of the whole catalog.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 2-19-2016
+ *
+ */
+public final class PublicationYearIndex {
+
+  private static final Comparator<Publication> BY_YEARS = Comparator
+      .comparingInt((Publication publication) -> publication.getYearsPublished().getRangeStart())
+      .thenComparingInt(publication -> publication.getYearsPublished().getRangeEnd());
+
+  private final Publication[] publications;
+  private final int[] starts;
+  private final int leaves;
+  private final int[] maxEnds;
+
+  /**
+   * @param publications The publications to index, which the index does not follow afterwards.
+   */
+  public PublicationYearIndex(@Nonnull final Collection<? extends Publication> publications) {
+    this.publications = publications.toArray(new Publication[publications.size()]);
+    Arrays.sort(this.publications, BY_YEARS);
+    final int size = this.publications.length;
+    starts = new int[size];
+    int leafCount = 1;
+    while (leafCount < size) {
+      leafCount <<= 1;
+    }
+    leaves = leafCount;
+    maxEnds = new int[2 * leaves];
+    Arrays.fill(maxEnds, Integer.MIN_VALUE);
+    for (int i = 0; i < size; i++) {
+      final Range years = this.publications[i].getYearsPublished();
+      starts[i] = years.getRangeStart();
+      maxEnds[leaves + i] = years.getRangeEnd();
+    }
+    for (int node = leaves - 1; node > 0; node--) {
+      maxEnds[node] = Math.max(maxEnds[2 * node], maxEnds[2 * node + 1]);
+    }
+  }
+
+  /**
+   * Returns the publications whose years published overlap the given years, bounds included.
+   *
+   * @param years The years to match.
+   * @return A new <code>List</code> of the matching publications, by start then end year
+   */
+  public List<Publication> findOverlapping(@Nonnull final Range years) {
+    final int from = checkNotNull(years).getRangeStart();
+    final int to = years.getRangeEnd();
+    final List<Publication> matches = new ArrayList<>();
+    final int candidates = upperBound(to);
+    if (candidates > 0) {
+      collect(1, 0, leaves, candidates, from, matches);
+    }
+    return matches;
+  }
+
+  /**
+   * Adds the publications below a node, among the first <code>candidates</code>, that end no
+   * earlier than <code>from</code>.
+   */
+  private void collect(final int node, final int low, final int high, final int candidates,
+      final int from, @Nonnull final List<Publication> matches) {
+    if (low >= candidates || maxEnds[node] < from) {
+      return;
+    }
+    if (node >= leaves) {
+      matches.add(publications[low]);
+      return;
+    }
+    final int middle = (low + high) >>> 1;
+    collect(2 * node, low, middle, candidates, from, matches);
+    collect(2 * node + 1, middle, high, candidates, from, matches);
+  }
+
+  /**
+   * Returns the number of publications starting no later than the given year.
+   */
+  private int upperBound(final int year) {
+    int low = 0;
+    int high = starts.length;
+    while (low < high) {
+      final int middle = (low + high) >>> 1;
+      if (starts[middle] <= year) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+}
@@ -0,0 +1,321 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.repo.codec;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import javax.annotation.Nonnull;
+
+import com.jefferson.salvadore.booker.publication.Book;
+import com.jefferson.salvadore.booker.publication.Journal;
+import com.jefferson.salvadore.booker.publication.Magazine;
+import com.jefferson.salvadore.booker.publication.PubFreq;
+import com.jefferson.salvadore.booker.publication.Publication;
+import com.jefferson.salvadore.booker.publication.Range;
+
+/**
+ * A compact, versioned binary encoding of the {@link Publication} hierarchy, used by the
+ * repositories in place of Java serialization. An encoded record is laid out as:
+ *
+ * <pre>
+ * byte   MAGIC
+ * byte   VERSION
+ * byte   type tag (BOOK, MAGAZINE, JOURNAL or SERIALIZED)
+ * fields of the type, in constructor order
+ * </pre>
+ *
+ * Strings are a varint byte length followed by UTF-8 bytes, <code>int</code>s are zig-zag varints,
+ * a {@link Range} is its start and end as two <code>int</code>s, a {@link PubFreq} is its ordinal as
+ * one byte and a <code>double</code> is its eight IEEE 754 bytes. Publications of any other class
+ * are written as a length-prefixed Java serialization stream under the SERIALIZED tag.
+ *
+ * {@link #decode(byte[])} also accepts a plain Java serialization stream, so files written before
+ * this codec existed remain readable.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 1-27-2016
+ *
+ */
+public final class PublicationCodec {
+
+  public static final byte MAGIC = (byte) 0xB7;
+  public static final byte VERSION = 1;
+
+  public static final byte TAG_BOOK = 1;
+  public static final byte TAG_MAGAZINE = 2;
+  public static final byte TAG_JOURNAL = 3;
+  public static final byte TAG_SERIALIZED = 4;
+
+  private static final byte[] JAVA_SERIALIZATION_MAGIC = new byte[] {(byte) 0xAC, (byte) 0xED};
+  private static final PubFreq[] PUB_FREQS = PubFreq.values();
+
+  private PublicationCodec() {}
+
+  /**
+   * Encodes a {@link Publication}.
+   *
+   * @param publication The <code>Publication</code> to encode.
+   * @return The encoded bytes
+   * @throws IOException If a <code>Publication</code> of an unknown class cannot be serialized.
+   */
+  public static byte[] encode(@Nonnull final Publication publication) throws IOException {
+    final Encoder encoder = new Encoder();
+    encoder.writeByte(MAGIC);
+    encoder.writeByte(VERSION);
+    if (publication instanceof Book) {
+      final Book book = (Book) publication;
+      encoder.writeByte(TAG_BOOK);
+      encoder.writeString(book.getTitle());
+      encoder.writeString(book.getAuthor());
+      encoder.writeString(book.getLanguage());
+      encoder.writeRange(book.getYearsPublished());
+      encoder.writeInt(book.getTotalSold());
+      encoder.writePubFreq(book.getPubFreq());
+    } else if (publication instanceof Magazine) {
+      final Magazine magazine = (Magazine) publication;
+      encoder.writeByte(TAG_MAGAZINE);
+      encoder.writeString(magazine.getTitle());
+      encoder.writeString(magazine.getPublisher());
+      encoder.writeRange(magazine.getYearsPublished());
+      encoder.writeInt(magazine.getTotalInCirculation());
+      encoder.writePubFreq(magazine.getPubFreq());
+    } else if (publication instanceof Journal) {
+      final Journal journal = (Journal) publication;
+      encoder.writeByte(TAG_JOURNAL);
+      encoder.writeString(journal.getTitle());
+      encoder.writeString(journal.getPublisher());
+      encoder.writeRange(journal.getYearsPublished());
+      encoder.writePubFreq(journal.getPubFreq());
+      encoder.writeString(journal.getDiscipline());
+      encoder.writeDouble(journal.getImpactFactor());
+    } else {
+      final byte[] serialized = serialize(checkNotNull(publication));
+      encoder.writeByte(TAG_SERIALIZED);
+      encoder.writeVarint(serialized.length);
+      encoder.writeBytes(serialized);
+    }
+    return encoder.toByteArray();
+  }
+
+  /**
+   * Decodes a {@link Publication} from bytes produced by {@link #encode(Publication)}, or from a
+   * Java serialization stream.
+   *
+   * @param bytes The encoded bytes.
+   * @return The decoded <code>Publication</code>
+   * @throws IOException If the bytes are not a valid encoding.
+   */
+  public static Publication decode(@Nonnull final byte[] bytes) throws IOException {
+    if (isJavaSerialized(bytes)) {
+      return deserialize(bytes);
+    }
+    return decode(ByteBuffer.wrap(bytes));
+  }
+
+  /**
+   * Decodes a {@link Publication} from the buffer's position, leaving the position after the
+   * record. The buffer is read in place, so a mapped file can be decoded without copying it first.
+   *
+   * @param buffer The buffer to read.
+   * @return The decoded <code>Publication</code>
+   * @throws IOException If the buffer does not contain a valid encoding.
+   */
+  public static Publication decode(@Nonnull final ByteBuffer buffer) throws IOException {
+    if (buffer.remaining() >= 2 && buffer.get(buffer.position()) == JAVA_SERIALIZATION_MAGIC[0]
+        && buffer.get(buffer.position() + 1) == JAVA_SERIALIZATION_MAGIC[1]) {
+      final byte[] bytes = new byte[buffer.remaining()];
+      buffer.get(bytes);
+      return deserialize(bytes);
+    }
+    try {
+      if (buffer.get() != MAGIC) {
+        throw new IOException("not an encoded publication");
+      }
+      final byte version = buffer.get();
+      if (version != VERSION) {
+        throw new IOException("unsupported publication encoding version: " + version);
+      }
+      final byte tag = buffer.get();
+      switch (tag) {
+        case TAG_BOOK:
+          return new Book(readString(buffer), readString(buffer), readString(buffer),
+              readRange(buffer), readInt(buffer), readPubFreq(buffer));
+        case TAG_MAGAZINE:
+          return new Magazine(readString(buffer), readString(buffer), readRange(buffer),
+              readInt(buffer), readPubFreq(buffer));
+        case TAG_JOURNAL:
+          return new Journal(readString(buffer), readString(buffer), readRange(buffer),
+              readPubFreq(buffer), readString(buffer), buffer.getDouble());
+        case TAG_SERIALIZED:
+          final byte[] serialized = new byte[readLength(buffer)];
+          buffer.get(serialized);
+          return deserialize(serialized);
+        default:
+          throw new IOException("unknown publication type tag: " + tag);
+      }
+    } catch (BufferUnderflowException e) {
+      throw new IOException("truncated publication record", e);
+    } catch (IllegalArgumentException | NullPointerException e) {
+      throw new IOException("invalid publication record", e);
+    }
+  }
+
+  /**
+   * @param bytes The stored bytes of a <code>Publication</code>.
+   * @return boolean <code>true</code> if the bytes are a Java serialization stream
+   */
+  public static boolean isJavaSerialized(@Nonnull final byte[] bytes) {
+    return bytes.length >= 2
+        && Arrays.equals(Arrays.copyOf(bytes, 2), JAVA_SERIALIZATION_MAGIC);
+  }
+
+  private static String readString(@Nonnull final ByteBuffer buffer) throws IOException {
+    final int length = readLength(buffer);
+    final String value;
+    if (buffer.hasArray()) {
+      value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, UTF_8);
+      buffer.position(buffer.position() + length);
+    } else {
+      final byte[] bytes = new byte[length];
+      buffer.get(bytes);
+      value = new String(bytes, UTF_8);
+    }
+    return value;
+  }
+
+  /**
+   * Reads the length of the bytes that follow, which must all be in the buffer.
+   */
+  private static int readLength(@Nonnull final ByteBuffer buffer) throws IOException {
+    final int length = readVarint(buffer);
+    if (length < 0) {
+      throw new IOException("invalid publication record: negative length " + length);
+    }
+    if (length > buffer.remaining()) {
+      throw new IOException("truncated publication record");
+    }
+    return length;
+  }
+
+  private static Range readRange(@Nonnull final ByteBuffer buffer) throws IOException {
+    return Range.of(readInt(buffer), readInt(buffer));
+  }
+
+  private static PubFreq readPubFreq(@Nonnull final ByteBuffer buffer) throws IOException {
+    final int ordinal = buffer.get();
+    if (ordinal < 0 || ordinal >= PUB_FREQS.length) {
+      throw new IOException("unknown publication frequency: " + ordinal);
+    }
+    return PUB_FREQS[ordinal];
+  }
+
+  private static int readInt(@Nonnull final ByteBuffer buffer) throws IOException {
+    final int zigZag = readVarint(buffer);
+    return (zigZag >>> 1) ^ -(zigZag & 1);
+  }
+
+  private static int readVarint(@Nonnull final ByteBuffer buffer) throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 35; shift += 7) {
+      final byte b = buffer.get();
+      value |= (b & 0x7F) << shift;
+      if (b >= 0) {
+        return value;
+      }
+    }
+    throw new IOException("malformed varint");
+  }
+
+  private static byte[] serialize(@Nonnull final Publication publication) throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (final ObjectOutputStream outputStream = new ObjectOutputStream(bytes)) {
+      outputStream.writeObject(publication);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static Publication deserialize(@Nonnull final byte[] bytes) throws IOException {
+    try (final ObjectInputStream inputStream =
+        new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+      return (Publication) inputStream.readObject();
+    } catch (ClassNotFoundException | ClassCastException e) {
+      throw new IOException("unreadable publication record", e);
+    }
+  }
+
+  /**
+   * A growable, unsynchronized byte buffer for encoding a single record.
+   */
+  private static final class Encoder {
+    private byte[] bytes = new byte[128];
+    private int size;
+
+    private void writeByte(final int value) {
+      ensureCapacity(1);
+      bytes[size++] = (byte) value;
+    }
+
+    private void writeBytes(@Nonnull final byte[] value) {
+      ensureCapacity(value.length);
+      System.arraycopy(value, 0, bytes, size, value.length);
+      size += value.length;
+    }
+
+    private void writeVarint(int value) {
+      ensureCapacity(5);
+      while ((value & ~0x7F) != 0) {
+        bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      bytes[size++] = (byte) value;
+    }
+
+    private void writeInt(final int value) {
+      writeVarint((value << 1) ^ (value >> 31));
+    }
+
+    private void writeString(@Nonnull final String value) {
+      final byte[] utf8 = value.getBytes(UTF_8);
+      writeVarint(utf8.length);
+      writeBytes(utf8);
+    }
+
+    private void writeRange(@Nonnull final Range range) {
+      writeInt(range.getRangeStart());
+      writeInt(range.getRangeEnd());
+    }
+
+    private void writePubFreq(final int freqValue) {
+      writeByte(PubFreq.fromFreqValue(freqValue).ordinal());
+    }
+
+    private void writeDouble(final double value) {
+      final long bits = Double.doubleToLongBits(value);
+      ensureCapacity(8);
+      for (int shift = 56; shift >= 0; shift -= 8) {
+        bytes[size++] = (byte) (bits >>> shift);
+      }
+    }
+
+    private void ensureCapacity(final int extra) {
+      if (size + extra > bytes.length) {
+        bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+      }
+    }
+
+    private byte[] toByteArray() {
+      return Arrays.copyOf(bytes, size);
+    }
+  }
+}
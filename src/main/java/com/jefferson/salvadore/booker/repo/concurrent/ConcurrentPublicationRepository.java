@@ -0,0 +1,340 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.repo.concurrent;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Stream;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.google.common.util.concurrent.Striped;
+import com.jefferson.salvadore.booker.publication.Book;
+import com.jefferson.salvadore.booker.publication.Journal;
+import com.jefferson.salvadore.booker.publication.Magazine;
+import com.jefferson.salvadore.booker.publication.Periodical;
+import com.jefferson.salvadore.booker.publication.Publication;
+import com.jefferson.salvadore.booker.publication.Range;
+import com.jefferson.salvadore.booker.repo.PublicationIndex;
+import com.jefferson.salvadore.booker.repo.PublicationRepository;
+import com.jefferson.salvadore.booker.repo.PublicationYearIndex;
+
+/**
+ * An in-memory {@link PublicationRepository} that may be shared by any number of threads.
+ *
+ * Reads never block, and see every write completed before them. {@link #findByTitle(String)} and
+ * the inventory counts are served from <code>ConcurrentHashMap</code>s. Like a
+ * {@link PublicationIndex}, the publications are also kept in one bucket per indexed type, in
+ * insertion order and by title; the buckets are <code>ConcurrentSkipListMap</code>s, so a write
+ * updates them in O(log n) and {@link #stream(Class)} may be consumed while other threads keep
+ * writing. {@link #getByType(Class)} returns a copy. {@link #findByYears(Range)} is answered by a
+ * {@link PublicationYearIndex} built by one thread on the first query after a write, the other
+ * queries waiting for it. Writes to the same title are serialized by a striped lock; writes to
+ * different titles proceed in parallel.
+ *
+ * The lists returned by <code>getByType</code> are in insertion order, a replaced title moving to
+ * the end, like those of the other repositories.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 2-02-2016
+ *
+ */
+public class ConcurrentPublicationRepository implements PublicationRepository {
+
+  /** The inventory count of a newly added <code>Publication</code> */
+  public static final int DEFAULT_INVENTORY_COUNT = 20;
+  private static final int LOCK_STRIPES = 64;
+
+  /**
+   * The types that get their own bucket. Queries for any other type fall back to filtering the
+   * {@link Publication} bucket.
+   */
+  private static final List<Class<? extends Publication>> INDEXED_TYPES = Collections
+      .unmodifiableList(Arrays.<Class<? extends Publication>>asList(Publication.class,
+          Periodical.class, Book.class, Magazine.class, Journal.class));
+
+  private final ConcurrentMap<String, Entry> titleIndex = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, Integer> inventory = new ConcurrentHashMap<>();
+  // each value is never modified once published
+  private final ConcurrentMap<String, NavigableMap<Long, Periodical>> normalizedPeriodicals =
+      new ConcurrentHashMap<>();
+  private final List<ConcurrentNavigableMap<Long, Publication>> buckets =
+      new ArrayList<>(INDEXED_TYPES.size());
+  private final List<ConcurrentNavigableMap<String, Publication>> sortedBuckets =
+      new ArrayList<>(INDEXED_TYPES.size());
+  private final Striped<Lock> writeLocks = Striped.lock(LOCK_STRIPES);
+  private final AtomicLong sequence = new AtomicLong();
+  private final AtomicLong version = new AtomicLong();
+  private final Object yearIndexLock = new Object();
+  private volatile YearIndex yearIndex = new YearIndex(0, new PublicationYearIndex(
+      Collections.<Publication>emptyList()));
+
+  public ConcurrentPublicationRepository() {
+    for (int i = 0; i < INDEXED_TYPES.size(); i++) {
+      buckets.add(new ConcurrentSkipListMap<>());
+      sortedBuckets.add(new ConcurrentSkipListMap<>());
+    }
+  }
+
+  @Override
+  public void addPub(@Nonnull final Publication publication) throws IOException {
+    final String title = checkNotNull(publication).getTitle();
+    final Lock lock = writeLocks.get(title);
+    lock.lock();
+    try {
+      final Entry entry = new Entry(publication, sequence.incrementAndGet());
+      final Entry previous = titleIndex.put(title, entry);
+      if (previous != null) {
+        removeFromBuckets(previous);
+      }
+      addToBuckets(entry);
+      inventory.put(title, DEFAULT_INVENTORY_COUNT);
+      version.incrementAndGet();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void removePubByTitle(@Nonnull final String title) throws IOException {
+    final Lock lock = writeLocks.get(title);
+    lock.lock();
+    try {
+      final Entry entry = titleIndex.get(title);
+      if (entry != null) {
+        // out of the buckets first, so that a publication found in a bucket can be found by title
+        removeFromBuckets(entry);
+        titleIndex.remove(title);
+        inventory.remove(title);
+        version.incrementAndGet();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <P extends Publication> List<P> getByType(@Nonnull final Class<P> publicationType)
+      throws IOException {
+    final int bucket = INDEXED_TYPES.indexOf(checkNotNull(publicationType));
+    if (bucket >= 0) {
+      return new ArrayList<>((Collection<P>) buckets.get(bucket).values());
+    }
+    final List<P> theList = new ArrayList<P>();
+    for (Publication publication : buckets.get(0).values()) {
+      if (publicationType.isInstance(publication)) {
+        theList.add(publicationType.cast(publication));
+      }
+    }
+    return theList;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <P extends Publication> Stream<P> stream(@Nonnull final Class<P> publicationType)
+      throws IOException {
+    final int bucket = INDEXED_TYPES.indexOf(checkNotNull(publicationType));
+    if (bucket >= 0) {
+      return (Stream<P>) buckets.get(bucket).values().stream();
+    }
+    return buckets.get(0).values().stream().filter(publicationType::isInstance)
+        .map(publicationType::cast);
+  }
+
+  @Override
+  public <P extends Publication> List<P> page(@Nonnull final Class<P> publicationType,
+      @Nullable final String afterTitle, final int limit) throws IOException {
+    checkArgument(limit >= 0, "limit must not be negative");
+    final int bucket = INDEXED_TYPES.indexOf(checkNotNull(publicationType));
+    final ConcurrentNavigableMap<String, Publication> sorted =
+        sortedBuckets.get(Math.max(bucket, 0));
+    final Collection<Publication> tail =
+        afterTitle == null ? sorted.values() : sorted.tailMap(afterTitle, false).values();
+    final List<P> page = new ArrayList<>(Math.min(limit, 64));
+    for (Publication publication : tail) {
+      if (page.size() == limit) {
+        break;
+      }
+      if (publicationType.isInstance(publication)) {
+        page.add(publicationType.cast(publication));
+      }
+    }
+    return page;
+  }
+
+  /**
+   * Returns the publications overlapping the given years from a year index that reflects every
+   * write completed before this call. The first query after a write rebuilds the year index while
+   * the concurrent queries wait for it.
+   */
+  @Override
+  public List<Publication> findByYears(@Nonnull final Range years) throws IOException {
+    checkNotNull(years);
+    final long wanted = version.get();
+    YearIndex current = yearIndex;
+    if (current.version < wanted) {
+      synchronized (yearIndexLock) {
+        current = yearIndex;
+        if (current.version < wanted) {
+          // read before the bucket, so the index holds at least the writes of this version
+          final long latest = version.get();
+          current = new YearIndex(latest, new PublicationYearIndex(buckets.get(0).values()));
+          yearIndex = current;
+        }
+      }
+    }
+    return current.index.findOverlapping(years);
+  }
+
+  @Override
+  public Publication findByTitle(@Nonnull final String title) throws IOException {
+    final Entry entry = titleIndex.get(title);
+    if (entry == null) {
+      throw new NoSuchElementException("this title does not exist: " + title);
+    }
+    return entry.publication;
+  }
+
+  /**
+   * Prefers an exact match; otherwise, if several periodicals match, the one added first is
+   * returned.
+   */
+  @Override
+  public Periodical findPeriodicalByNormalizedTitle(@Nonnull final String title)
+      throws IOException {
+    final Entry exact = titleIndex.get(checkNotNull(title));
+    if (exact != null && exact.publication instanceof Periodical) {
+      return (Periodical) exact.publication;
+    }
+    final NavigableMap<Long, Periodical> matches =
+        normalizedPeriodicals.get(PublicationIndex.normalizeTitle(title));
+    if (matches == null) {
+      throw new NoSuchElementException("no periodical matches this title: " + title);
+    }
+    return matches.firstEntry().getValue();
+  }
+
+  @Override
+  public void printAllPubs() {
+    for (Publication pub : buckets.get(0).values()) {
+      System.out.println(pub);
+    }
+  }
+
+  @Override
+  public void setInventoryCount(@Nonnull final String title, final int count) throws IOException {
+    final Lock lock = writeLocks.get(title);
+    lock.lock();
+    try {
+      if (inventory.replace(title, count) == null) {
+        throw new IOException(new NoSuchFileException(
+            "The title you are referencing [" + title + "] is not present in the repository"));
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Integer getInventoryCount(@Nonnull final String title) throws IOException {
+    return inventory.getOrDefault(title, DEFAULT_INVENTORY_COUNT);
+  }
+
+  /**
+   * Returns the size of the repository
+   *
+   * @return int The number of <code>Publication</code>s in the repository
+   */
+  public int getListSize() {
+    return titleIndex.size();
+  }
+
+  /**
+   * Adds an entry to the buckets of its types. Called under the write lock of its title.
+   */
+  private void addToBuckets(@Nonnull final Entry entry) {
+    final Publication publication = entry.publication;
+    for (int i = 0; i < INDEXED_TYPES.size(); i++) {
+      if (INDEXED_TYPES.get(i).isInstance(publication)) {
+        buckets.get(i).put(entry.sequence, publication);
+        sortedBuckets.get(i).put(publication.getTitle(), publication);
+      }
+    }
+    if (publication instanceof Periodical) {
+      normalizedPeriodicals.compute(PublicationIndex.normalizeTitle(publication.getTitle()),
+          (key, matches) -> {
+            final NavigableMap<Long, Periodical> updated =
+                matches == null ? new TreeMap<>() : new TreeMap<>(matches);
+            updated.put(entry.sequence, (Periodical) publication);
+            return updated;
+          });
+    }
+  }
+
+  /**
+   * Removes an entry from the buckets of its types. Called under the write lock of its title.
+   */
+  private void removeFromBuckets(@Nonnull final Entry entry) {
+    final Publication publication = entry.publication;
+    if (publication instanceof Periodical) {
+      normalizedPeriodicals.computeIfPresent(
+          PublicationIndex.normalizeTitle(publication.getTitle()), (key, matches) -> {
+            final NavigableMap<Long, Periodical> updated = new TreeMap<>(matches);
+            updated.remove(entry.sequence);
+            return updated.isEmpty() ? null : updated;
+          });
+    }
+    for (int i = 0; i < INDEXED_TYPES.size(); i++) {
+      if (INDEXED_TYPES.get(i).isInstance(publication)) {
+        buckets.get(i).remove(entry.sequence);
+        sortedBuckets.get(i).remove(publication.getTitle(), publication);
+      }
+    }
+  }
+
+  /**
+   * A <code>Publication</code> and the order in which it was added.
+   */
+  private static final class Entry {
+    private final Publication publication;
+    private final long sequence;
+
+    private Entry(final Publication publication, final long sequence) {
+      this.publication = publication;
+      this.sequence = sequence;
+    }
+  }
+
+  /**
+   * A <code>PublicationYearIndex</code> and the write version it reflects.
+   */
+  private static final class YearIndex {
+    private final long version;
+    private final PublicationYearIndex index;
+
+    private YearIndex(final long version, final PublicationYearIndex index) {
+      this.version = version;
+      this.index = index;
+    }
+  }
+}
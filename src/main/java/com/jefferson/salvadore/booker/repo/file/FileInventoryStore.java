@@ -0,0 +1,74 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.repo.file;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+import javax.annotation.Nonnull;
+
+import com.jefferson.salvadore.booker.repo.inventory.InventoryStore;
+import com.jefferson.salvadore.booker.repo.inventory.TitleCountMap;
+
+/**
+ * Writes inventory counts to the <code>.stock.txt</code> files of a
+ * {@link FilePublicationRepository}. A count is only written if its stock file still exists, so a
+ * batch never recreates the file of a title removed after the count was set.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 1-29-2016
+ *
+ */
+class FileInventoryStore implements InventoryStore {
+
+  private final Path repoPath;
+  private final String stockFileExt;
+
+  FileInventoryStore(@Nonnull final Path repoPath, @Nonnull final String stockFileExt) {
+    this.repoPath = checkNotNull(repoPath);
+    this.stockFileExt = checkNotNull(stockFileExt);
+  }
+
+  @Override
+  public void write(@Nonnull final TitleCountMap counts, final boolean fsync) throws IOException {
+    final IOException[] failure = new IOException[1];
+    counts.forEach((title, count) -> {
+      if (failure[0] == null) {
+        try {
+          writeCount(title, count, fsync);
+        } catch (IOException e) {
+          failure[0] = e;
+        }
+      }
+    });
+    if (failure[0] != null) {
+      throw failure[0];
+    }
+  }
+
+  private void writeCount(@Nonnull final String title, final int count, final boolean fsync)
+      throws IOException {
+    final Path stockFile = repoPath.resolve(URLEncoder.encode(title + stockFileExt, "UTF-8"));
+    try (final FileChannel channel = FileChannel.open(stockFile, WRITE, TRUNCATE_EXISTING)) {
+      final ByteBuffer bytes = ByteBuffer.wrap(Integer.toString(count).getBytes(UTF_8));
+      while (bytes.hasRemaining()) {
+        channel.write(bytes);
+      }
+      if (fsync) {
+        channel.force(false);
+      }
+    } catch (NoSuchFileException e) {
+      // the title was removed after its count was set
+    }
+  }
+}
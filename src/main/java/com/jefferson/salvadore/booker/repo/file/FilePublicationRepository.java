@@ -4,47 +4,68 @@
 
 package com.jefferson.salvadore.booker.repo.file;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.io.PrintWriter;
 import java.io.UnsupportedEncodingException;
-import java.io.Writer;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import com.jefferson.salvadore.booker.util.IO;
+import com.jefferson.salvadore.booker.publication.Periodical;
 import com.jefferson.salvadore.booker.publication.Publication;
+import com.jefferson.salvadore.booker.publication.Range;
+import com.jefferson.salvadore.booker.repo.PublicationIndex;
 import com.jefferson.salvadore.booker.repo.PublicationRepository;
+import com.jefferson.salvadore.booker.repo.codec.PublicationCodec;
+import com.jefferson.salvadore.booker.repo.inventory.WriteBehindInventory;
 import com.jefferson.salvadore.booker.repo.snapshot.SnapshotTopPublicationRepository;
 
 /**
  * A repository for saving {@link Publication}s to the file system.
  * 
+ * Inventory counts are held in memory by a {@link WriteBehindInventory} and written to the
+ * <code>.stock.txt</code> files in batches. Call {@link #close()} to write the pending counts before
+ * the repository is discarded.
+ * 
  * @author Salvadore Jefferson
  * @version 3.0.0 12-02-2-15
  *
  */
-public class FilePublicationRepository implements PublicationRepository {
+public class FilePublicationRepository implements PublicationRepository, Closeable {
 
-  private Integer inventoryCount = 20;
+  static final Logger logger = LoggerFactory.getLogger(FilePublicationRepository.class);
+
+  /** The inventory count of a newly added <code>Publication</code> */
+  public static final int DEFAULT_INVENTORY_COUNT = 20;
+  /** The default interval between two writes of the changed inventory counts */
+  public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 1000;
   private static final String PUB_FILE_EXT = ".pub.dat";
   private static final String STOCK_FILE_EXT = ".stock.txt";
-  private final List<Publication> pubList = new ArrayList<>();
+  private final PublicationIndex pubIndex = new PublicationIndex();
   private static final byte[] SIG_FILE_BYTES =
       new byte[] {0x02, 0x03, 0x04, (byte) 0xEA, 0x00, 0x00, 0x00, (byte) 0xEA};
   private final Path repoPath;
+  private final WriteBehindInventory inventory;
 
   /**
    * A <code>private</code> constructor used by {@link #initialize()} for creating new instances of
@@ -53,7 +74,24 @@ public class FilePublicationRepository implements PublicationRepository {
    * @throws IOException
    */
   public FilePublicationRepository(@Nonnull final Path repoPath) throws IOException {
+    this(repoPath, DEFAULT_FLUSH_INTERVAL_MILLIS, false);
+  }
+
+  /**
+   * Creates a repository whose inventory counts are written every
+   * <code>flushIntervalMillis</code>.
+   * 
+   * @param repoPath The directory of the repository.
+   * @param flushIntervalMillis The interval between two writes of the changed inventory counts, or
+   *        zero to only write them on {@link #flushInventory()} and {@link #close()}.
+   * @param fsync If <code>true</code>, every written count is forced to the storage device.
+   * @throws IOException
+   */
+  public FilePublicationRepository(@Nonnull final Path repoPath, final long flushIntervalMillis,
+      final boolean fsync) throws IOException {
     this.repoPath = repoPath;
+    this.inventory = new WriteBehindInventory(new FileInventoryStore(repoPath, STOCK_FILE_EXT),
+        flushIntervalMillis, fsync);
   }
 
   @Override
@@ -61,69 +99,92 @@ public class FilePublicationRepository implements PublicationRepository {
     final String title = publication.getTitle();
     final String fileName = encodeFileName(title + PUB_FILE_EXT);
     final String inventoryFile = encodeFileName(title + STOCK_FILE_EXT);
-    try (final ObjectOutputStream outputStream = new ObjectOutputStream(
-        new BufferedOutputStream(Files.newOutputStream(repoPath.resolve(fileName))))) {
-      outputStream.writeObject(publication);
-    }
-    try (final Writer writeInventoryFile =
-        new PrintWriter(Files.newOutputStream(repoPath.resolve(inventoryFile)))) {
-      writeInventoryFile.write(inventoryCount.toString());;
-    }
+    Files.write(repoPath.resolve(fileName), PublicationCodec.encode(publication));
+    Files.write(repoPath.resolve(inventoryFile),
+        Integer.toString(DEFAULT_INVENTORY_COUNT).getBytes(UTF_8));
+    inventory.remove(title);
+    inventory.load(title, DEFAULT_INVENTORY_COUNT);
     addPubToList(publication);
   }
 
+  /**
+   * Writes the files of the batch in parallel, one thread per available processor, then updates
+   * the index and the inventory once every file is written.
+   */
   @Override
-  public void removePubByTitle(@Nonnull final String title) throws IOException {
-    for (int i = 0; i < pubList.size(); i++) {
-      final Publication publication = pubList.get(i);
-      if (publication.getTitle().equals(title)) {
-        pubList.remove(publication);
-      }
-    }
-    final Path fileRemove = repoPath.resolve(encodeFileName(title) + PUB_FILE_EXT);
-    try (DirectoryStream<Path> dirStream = Files.newDirectoryStream(repoPath, "*.pub.dat")) {
-      for (Path file : dirStream) {
-        if (fileRemove.getFileName().equals(file.getFileName())) {
-          Files.delete(fileRemove);
-        }
-      }
+  public void addAll(@Nonnull final Collection<? extends Publication> publications)
+      throws IOException {
+    final Map<String, Publication> lastByTitle = new LinkedHashMap<>();
+    for (Publication publication : publications) {
+      lastByTitle.remove(publication.getTitle());
+      lastByTitle.put(publication.getTitle(), publication);
     }
-    final Path inventoryRemove = repoPath.resolve(encodeFileName(title) + STOCK_FILE_EXT);
-    try (DirectoryStream<Path> dirStream2 = Files.newDirectoryStream(repoPath, "*.stock.txt")) {
-      for (Path file2 : dirStream2) {
-        if (inventoryRemove.getFileName().equals(file2.getFileName())) {
-          Files.delete(inventoryRemove);
-        }
-      }
+    final List<Publication> batch = new ArrayList<>(lastByTitle.values());
+    new PublicationFileWriter(repoPath, PUB_FILE_EXT, STOCK_FILE_EXT).write(batch,
+        DEFAULT_INVENTORY_COUNT, Runtime.getRuntime().availableProcessors());
+    for (Publication publication : batch) {
+      inventory.remove(publication.getTitle());
+      inventory.load(publication.getTitle(), DEFAULT_INVENTORY_COUNT);
+      addPubToList(publication);
     }
   }
 
+  @Override
+  public void removePubByTitle(@Nonnull final String title) throws IOException {
+    pubIndex.remove(title);
+    inventory.remove(title);
+    Files.deleteIfExists(repoPath.resolve(encodeFileName(title) + PUB_FILE_EXT));
+    Files.deleteIfExists(repoPath.resolve(encodeFileName(title) + STOCK_FILE_EXT));
+  }
+
   @Override
   public <P extends Publication> List<P> getByType(@Nonnull final Class<P> publicationType)
       throws IOException {
-    final List<P> theList = new ArrayList<P>();
-    for (Publication publication : pubList) {
-      if (publicationType.isInstance(publication)) {
-        theList.add(publicationType.cast(publication));
-      }
-    }
-    return theList;
+    return pubIndex.getByType(publicationType);
+  }
 
+  @Override
+  public <P extends Publication> Stream<P> stream(@Nonnull final Class<P> publicationType)
+      throws IOException {
+    return pubIndex.stream(publicationType);
+  }
+
+  @Override
+  public <P extends Publication> List<P> page(@Nonnull final Class<P> publicationType,
+      @Nullable final String afterTitle, final int limit) throws IOException {
+    return pubIndex.page(publicationType, afterTitle, limit);
+  }
+
+  @Override
+  public List<Publication> findByYears(@Nonnull final Range years) throws IOException {
+    return pubIndex.findByYears(years);
   }
 
   @Override
   public Publication findByTitle(@Nonnull final String title) throws IOException {
-    for (Publication publication : pubList) {
-      if (publication.getTitle().equals(title)) {
-        return publication;
-      }
+    final Publication publication = pubIndex.get(title);
+    if (publication == null) {
+      throw new NoSuchElementException("this title does not exist: " + title);
     }
-    throw new NoSuchElementException("this title does not exist: " + title);
+    return publication;
+  }
+
+  @Override
+  public Periodical findPeriodicalByNormalizedTitle(@Nonnull final String title)
+      throws IOException {
+    final Periodical periodical = pubIndex.getPeriodicalByNormalizedTitle(title);
+    if (periodical == null) {
+      throw new NoSuchElementException("no periodical matches this title: " + title);
+    }
+    return periodical;
   }
 
   /**
    * Tests the signature.dat file's contents to confirm validity of directory. And populates the
-   * repository with <code>Publication</code>s
+   * repository with <code>Publication</code>s. The <code>.pub.dat</code> and
+   * <code>.stock.txt</code> files already in the directory are loaded in parallel, one thread per
+   * available processor. An empty directory is seeded with the
+   * {@link SnapshotTopPublicationRepository} instead.
    * 
    * @throws IOException Thrown if there is a problem accessing the directory, or if the
    *         initialization fails.
@@ -142,7 +203,38 @@ public class FilePublicationRepository implements PublicationRepository {
         throw new IOException("no valid directory was found");
       }
     }
-    addAllPublications(new SnapshotTopPublicationRepository());
+    final List<Path> pubFiles = new ArrayList<>();
+    try (final DirectoryStream<Path> dirStream =
+        Files.newDirectoryStream(repoPath, "*" + PUB_FILE_EXT)) {
+      for (Path file : dirStream) {
+        pubFiles.add(file);
+      }
+    }
+    if (pubFiles.isEmpty()) {
+      addAllPublications(new SnapshotTopPublicationRepository());
+    } else {
+      loadPublications(pubFiles);
+    }
+  }
+
+  /**
+   * Decodes the given files in parallel, then merges them into the index and the inventory on the
+   * calling thread.
+   */
+  private void loadPublications(@Nonnull final List<Path> pubFiles) throws IOException {
+    final long start = System.nanoTime();
+    final PublicationFileLoader.Result loaded = new PublicationFileLoader(PUB_FILE_EXT,
+        STOCK_FILE_EXT).load(pubFiles, Runtime.getRuntime().availableProcessors());
+    for (int i = 0; i < pubFiles.size(); i++) {
+      final Publication publication = loaded.publications[i];
+      addPubToList(publication);
+      if (loaded.stock[i] != PublicationFileLoader.NO_STOCK) {
+        inventory.load(publication.getTitle(), loaded.stock[i]);
+      }
+    }
+    final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    logger.info("Loaded {} publications from {} in {} ms ({} records/sec)", pubFiles.size(),
+        repoPath, elapsedMillis, pubFiles.size() * 1000L / Math.max(1, elapsedMillis));
   }
 
   /**
@@ -164,7 +256,8 @@ public class FilePublicationRepository implements PublicationRepository {
   }
 
   /**
-   * Reads a Java <code>Object</code> file from disk.
+   * Reads a {@link Publication} file from disk. Both the {@link PublicationCodec} encoding and the
+   * Java serialization written by earlier versions of this repository are accepted.
    * 
    * @param fileName The name of the file to read.
    * @return Publication The <code>Object</code> returned from this method
@@ -175,44 +268,50 @@ public class FilePublicationRepository implements PublicationRepository {
   public Publication deserializeFile(@Nonnull final String fileName)
       throws IOException, ClassCastException, ClassNotFoundException {
     final String name = encodeFileName(fileName) + PUB_FILE_EXT;
-    Publication pub = null;
-    try (final ObjectInputStream inputStream = new ObjectInputStream(
-        new BufferedInputStream(Files.newInputStream(repoPath.resolve(name))))) {
-      pub = (Publication) inputStream.readObject();
-    }
-    return pub;
+    return PublicationCodec.decode(Files.readAllBytes(repoPath.resolve(name)));
   }
 
   /**
-   * Checks to see if the {@link #pubList} contains the specified {@link Publication}. If the
-   * <code>Publication</code> is in the list, the <code>Object</code> is overridden with the new
-   * instance. If not the <code>Publication</code> is added to <code>pubList</code>
+   * Adds the specified {@link Publication} to the {@link PublicationIndex}. If a
+   * <code>Publication</code> with the same title is already indexed, it is overridden with the new
+   * instance, matching the one-file-per-title layout on disk.
    * 
    * @param publication The <code>Publication</code> to add to the repository.
    */
   private void addPubToList(@Nonnull final Publication publication) {
-    final Publication newPub = publication;
-
-    if (pubList.contains(publication)) {
-      pubList.remove(publication);
-      pubList.add(newPub);
-    } else {
-      pubList.add(publication);
-    }
+    pubIndex.add(publication);
   }
 
   /**
    * Returns the size of the repository in memory
    * 
-   * @return int The number of <code>Publications</code> in the list
+   * @return int The number of <code>Publications</code> in the index
    */
   public int getListSize() {
-    return pubList.size();
+    return pubIndex.size();
+  }
+
+  /**
+   * Writes the inventory counts changed since the previous write to their <code>.stock.txt</code>
+   * files.
+   * 
+   * @throws IOException If a count could not be written. The count is retried by the next write.
+   */
+  public void flushInventory() throws IOException {
+    inventory.flush();
+  }
+
+  /**
+   * Writes the pending inventory counts and stops the background writer.
+   */
+  @Override
+  public void close() throws IOException {
+    inventory.close();
   }
 
   @Override
   public void printAllPubs() {
-    throw new UnsupportedOperationException();
+    pubIndex.stream(Publication.class).forEach(System.out::println);
   }
 
   /**
@@ -229,35 +328,26 @@ public class FilePublicationRepository implements PublicationRepository {
 
   @Override
   public void setInventoryCount(String title, int count) throws IOException {
-    inventoryCount = count;
-    final String inventoryFile = encodeFileName(title + STOCK_FILE_EXT);
-    final Path checkFile = repoPath.resolve(encodeFileName(title) + STOCK_FILE_EXT);
-    try (DirectoryStream<Path> dirStream = Files.newDirectoryStream(repoPath, "*.stock.txt")) {
-      for (Path file : dirStream) {
-        if (checkFile.getFileName().equals(file.getFileName())) {
-          try (final Writer writeInventoryFile =
-              new PrintWriter(Files.newOutputStream(repoPath.resolve(inventoryFile)))) {
-            writeInventoryFile.write(inventoryCount.toString());
-            return;
-          }
-        }
-      }
+    if (!inventory.contains(title)
+        && !Files.exists(repoPath.resolve(encodeFileName(title) + STOCK_FILE_EXT))) {
+      throw new IOException(new NoSuchFileException("The title you are referencing ["
+          + encodeFileName(title) + STOCK_FILE_EXT + "] is not present in the repository"));
     }
-    throw new IOException(new NoSuchFileException("The title you are referencing ["
-        + checkFile.getFileName() + "] is not present in the repository"));
+    inventory.set(title, count);
   }
 
   @Override
   public Integer getInventoryCount(String title) throws IOException {
+    if (inventory.contains(title)) {
+      return inventory.get(title, DEFAULT_INVENTORY_COUNT);
+    }
     final Path readFile = repoPath.resolve(encodeFileName(title) + STOCK_FILE_EXT);
-    try (DirectoryStream<Path> dirStream = Files.newDirectoryStream(repoPath, "*.stock.txt")) {
-      for (Path file : dirStream) {
-        if (readFile.getFileName().equals(file.getFileName())) {
-          inventoryCount = Integer.valueOf(IO.readText(readFile));
-        }
-      }
+    try {
+      final int count = Integer.parseInt(new String(Files.readAllBytes(readFile), UTF_8).trim());
+      inventory.load(title, count);
+      return inventory.get(title, count);
+    } catch (NoSuchFileException e) {
+      return DEFAULT_INVENTORY_COUNT;
     }
-    return inventoryCount;
-
   }
 }
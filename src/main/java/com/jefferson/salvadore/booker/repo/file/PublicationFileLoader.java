@@ -0,0 +1,133 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.repo.file;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import javax.annotation.Nonnull;
+
+import com.jefferson.salvadore.booker.publication.Publication;
+import com.jefferson.salvadore.booker.repo.codec.PublicationCodec;
+
+/**
+ * Decodes the <code>.pub.dat</code> files of a {@link FilePublicationRepository}, and reads their
+ * <code>.stock.txt</code> files, in parallel on a <code>ForkJoinPool</code>. The results are
+ * returned in the order of the given files, so the caller can merge them into its indexes on a
+ * single thread.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 2-05-2016
+ *
+ */
+class PublicationFileLoader {
+
+  /** The stock count of a record whose <code>.stock.txt</code> file is missing */
+  static final int NO_STOCK = -1;
+  private static final int FILES_PER_TASK = 64;
+
+  private final String pubFileExt;
+  private final String stockFileExt;
+
+  PublicationFileLoader(@Nonnull final String pubFileExt, @Nonnull final String stockFileExt) {
+    this.pubFileExt = pubFileExt;
+    this.stockFileExt = stockFileExt;
+  }
+
+  /**
+   * The decoded contents of the files.
+   */
+  static final class Result {
+    final Publication[] publications;
+    final int[] stock;
+
+    private Result(final int size) {
+      publications = new Publication[size];
+      stock = new int[size];
+    }
+  }
+
+  /**
+   * Loads the files.
+   *
+   * @param pubFiles The <code>.pub.dat</code> files to load.
+   * @param parallelism The number of threads to load with.
+   * @return Result The <code>Publication</code> and stock count of each file, at the same index
+   * @throws IOException If a file could not be read or decoded.
+   */
+  Result load(@Nonnull final List<Path> pubFiles, final int parallelism) throws IOException {
+    final Result result = new Result(pubFiles.size());
+    final ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      pool.invoke(new LoadTask(pubFiles, result, 0, pubFiles.size()));
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    } finally {
+      pool.shutdown();
+    }
+    return result;
+  }
+
+  private void loadFile(@Nonnull final Path pubFile, @Nonnull final Result result,
+      final int index) {
+    try {
+      result.publications[index] = PublicationCodec.decode(Files.readAllBytes(pubFile));
+      final String fileName = pubFile.getFileName().toString();
+      final Path stockFile = pubFile.resolveSibling(
+          fileName.substring(0, fileName.length() - pubFileExt.length()) + stockFileExt);
+      result.stock[index] = readStock(stockFile);
+    } catch (IOException e) {
+      throw new UncheckedIOException(new IOException("could not load " + pubFile, e));
+    }
+  }
+
+  private static int readStock(@Nonnull final Path stockFile) throws IOException {
+    try {
+      return Integer.parseInt(new String(Files.readAllBytes(stockFile), UTF_8).trim());
+    } catch (NoSuchFileException e) {
+      return NO_STOCK;
+    }
+  }
+
+  /**
+   * Loads a range of the files, splitting it in halves until it is small enough.
+   */
+  private final class LoadTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<Path> pubFiles;
+    private final Result result;
+    private final int from;
+    private final int to;
+
+    LoadTask(final List<Path> pubFiles, final Result result, final int from, final int to) {
+      this.pubFiles = pubFiles;
+      this.result = result;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= FILES_PER_TASK) {
+        for (int i = from; i < to; i++) {
+          loadFile(pubFiles.get(i), result, i);
+        }
+        return;
+      }
+      final int middle = (from + to) >>> 1;
+      invokeAll(new LoadTask(pubFiles, result, from, middle),
+          new LoadTask(pubFiles, result, middle, to));
+    }
+  }
+}
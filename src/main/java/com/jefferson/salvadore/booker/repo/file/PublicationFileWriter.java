@@ -0,0 +1,113 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.repo.file;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import javax.annotation.Nonnull;
+
+import com.jefferson.salvadore.booker.publication.Publication;
+import com.jefferson.salvadore.booker.repo.codec.PublicationCodec;
+
+/**
+ * Writes the <code>.pub.dat</code> and <code>.stock.txt</code> files of a batch of
+ * {@link Publication}s in parallel on a <code>ForkJoinPool</code>, the counterpart of
+ * {@link PublicationFileLoader}. The titles of a batch must be unique, since two tasks writing the
+ * same file would leave either one's content.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 2-08-2016
+ *
+ */
+class PublicationFileWriter {
+
+  private static final int FILES_PER_TASK = 64;
+
+  private final Path repoPath;
+  private final String pubFileExt;
+  private final String stockFileExt;
+
+  PublicationFileWriter(@Nonnull final Path repoPath, @Nonnull final String pubFileExt,
+      @Nonnull final String stockFileExt) {
+    this.repoPath = repoPath;
+    this.pubFileExt = pubFileExt;
+    this.stockFileExt = stockFileExt;
+  }
+
+  /**
+   * Writes the files of the batch.
+   *
+   * @param publications The <code>Publication</code>s to write, with unique titles.
+   * @param stock The content of every <code>.stock.txt</code> file.
+   * @param parallelism The number of threads to write with.
+   * @throws IOException If a file could not be written.
+   */
+  void write(@Nonnull final List<Publication> publications, final int stock,
+      final int parallelism) throws IOException {
+    final byte[] stockBytes = Integer.toString(stock).getBytes(UTF_8);
+    final ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      pool.invoke(new WriteTask(publications, stockBytes, 0, publications.size()));
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private void writeFiles(@Nonnull final Publication publication,
+      @Nonnull final byte[] stockBytes) {
+    final String title = publication.getTitle();
+    try {
+      Files.write(repoPath.resolve(URLEncoder.encode(title + pubFileExt, "UTF-8")),
+          PublicationCodec.encode(publication));
+      Files.write(repoPath.resolve(URLEncoder.encode(title + stockFileExt, "UTF-8")), stockBytes);
+    } catch (IOException e) {
+      throw new UncheckedIOException(new IOException("could not write " + title, e));
+    }
+  }
+
+  /**
+   * Writes a range of the batch, splitting it in halves until it is small enough.
+   */
+  private final class WriteTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<Publication> publications;
+    private final byte[] stockBytes;
+    private final int from;
+    private final int to;
+
+    WriteTask(final List<Publication> publications, final byte[] stockBytes, final int from,
+        final int to) {
+      this.publications = publications;
+      this.stockBytes = stockBytes;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= FILES_PER_TASK) {
+        for (int i = from; i < to; i++) {
+          writeFiles(publications.get(i), stockBytes);
+        }
+        return;
+      }
+      final int middle = (from + to) >>> 1;
+      invokeAll(new WriteTask(publications, stockBytes, from, middle),
+          new WriteTask(publications, stockBytes, middle, to));
+    }
+  }
+}
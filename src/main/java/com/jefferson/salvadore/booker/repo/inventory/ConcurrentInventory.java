@@ -0,0 +1,162 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.repo.inventory;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nonnull;
+
+import com.jefferson.salvadore.booker.repo.PublicationRepository;
+
+/**
+ * Keeps one atomic counter per title in front of a {@link PublicationRepository}, so concurrent
+ * purchases of the same title neither lose updates nor take the count below zero. Counters are
+ * changed with compare-and-set loops and never block each other. Each counter is seeded from the
+ * repository on first use, once the title was found in it, and every change is written back to
+ * it. A change whose write-back fails is undone on the counter before the failure is thrown.
+ *
+ * Write-backs of one title are serialized and always write the latest value of the counter, so
+ * the repository never ends up with an older count than the counter, whatever order the writing
+ * threads run in. The repository must not be changed behind the inventory's back.
+ *
+ * This class is thread-safe.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 2-01-2016
+ *
+ */
+public class ConcurrentInventory {
+
+  private final PublicationRepository repo;
+  private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+  /**
+   * @param repo The repository the counts are read from and written to.
+   */
+  public ConcurrentInventory(@Nonnull final PublicationRepository repo) {
+    this.repo = checkNotNull(repo);
+  }
+
+  /**
+   * @param title The title to look up.
+   * @return int The current inventory count of the title
+   * @throws IOException If the count could not be read from the repository.
+   * @throws NoSuchElementException If the title is not in the repository.
+   */
+  public int get(@Nonnull final String title) throws IOException {
+    return counter(title).get();
+  }
+
+  /**
+   * Atomically takes <code>quantity</code> copies of a title out of the inventory, if that many are
+   * in stock.
+   *
+   * @param title The title to reserve.
+   * @param quantity The number of copies, greater than zero.
+   * @return boolean <code>true</code> if the copies were reserved, <code>false</code> if the
+   *         inventory holds fewer than <code>quantity</code> copies and was left unchanged
+   * @throws IOException If the count could not be read from or written to the repository.
+   * @throws NoSuchElementException If the title is not in the repository.
+   */
+  public boolean tryReserve(@Nonnull final String title, final int quantity) throws IOException {
+    checkArgument(quantity > 0, "quantity must be greater than zero");
+    final Counter counter = counter(title);
+    int current;
+    do {
+      current = counter.get();
+      if (current < quantity) {
+        return false;
+      }
+    } while (!counter.compareAndSet(current, current - quantity));
+    persist(title, counter, quantity);
+    return true;
+  }
+
+  /**
+   * Atomically puts <code>quantity</code> copies of a title back into the inventory.
+   *
+   * @param title The title to release.
+   * @param quantity The number of copies, greater than zero.
+   * @throws IOException If the count could not be read from or written to the repository.
+   * @throws NoSuchElementException If the title is not in the repository.
+   */
+  public void release(@Nonnull final String title, final int quantity) throws IOException {
+    checkArgument(quantity > 0, "quantity must be greater than zero");
+    final Counter counter = counter(title);
+    int current;
+    do {
+      current = counter.get();
+      checkArgument(current <= Integer.MAX_VALUE - quantity, "inventory count overflow");
+    } while (!counter.compareAndSet(current, current + quantity));
+    persist(title, counter, -quantity);
+  }
+
+  /**
+   * Drops the counter of a title, so that the next access reads the count from the repository
+   * again.
+   *
+   * @param title The title to forget.
+   */
+  public void invalidate(@Nonnull final String title) {
+    counters.remove(title);
+  }
+
+  private Counter counter(@Nonnull final String title) throws IOException {
+    final Counter counter = counters.get(checkNotNull(title));
+    if (counter != null) {
+      return counter;
+    }
+    try {
+      return counters.computeIfAbsent(title, key -> {
+        try {
+          repo.findByTitle(key);
+          return new Counter(repo.getInventoryCount(key));
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * Writes the counter back to the repository, or adds <code>undo</code> back to the counter if
+   * the write fails.
+   */
+  private void persist(@Nonnull final String title, @Nonnull final Counter counter,
+      final int undo) throws IOException {
+    boolean written = false;
+    try {
+      synchronized (counter) {
+        repo.setInventoryCount(title, counter.get());
+      }
+      written = true;
+    } finally {
+      if (!written) {
+        counter.addAndGet(undo);
+      }
+    }
+  }
+
+  /**
+   * The count of one title. Its monitor serializes the write-backs of the title.
+   */
+  private static final class Counter extends AtomicInteger {
+
+    private static final long serialVersionUID = 1L;
+
+    Counter(final int initialValue) {
+      super(initialValue);
+    }
+  }
+}
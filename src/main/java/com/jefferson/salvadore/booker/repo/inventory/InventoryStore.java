@@ -0,0 +1,28 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.repo.inventory;
+
+import java.io.IOException;
+
+import javax.annotation.Nonnull;
+
+/**
+ * The durable storage behind a {@link WriteBehindInventory}.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 1-29-2016
+ *
+ */
+public interface InventoryStore {
+
+  /**
+   * Persists a batch of inventory counts.
+   *
+   * @param counts The counts that changed since the previous batch.
+   * @param fsync If <code>true</code>, the counts must be forced to the storage device before this
+   *        method returns.
+   * @throws IOException If an error occurs while writing the batch.
+   */
+  void write(@Nonnull final TitleCountMap counts, final boolean fsync) throws IOException;
+}
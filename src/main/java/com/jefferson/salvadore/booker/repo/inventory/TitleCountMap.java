@@ -0,0 +1,195 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.repo.inventory;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Arrays;
+
+import javax.annotation.Nonnull;
+
+/**
+ * A map from title to an <code>int</code> count that stores its values unboxed. Keys live in an
+ * open-addressing table with linear probing, and removals shift the following entries back instead
+ * of leaving tombstones.
+ *
+ * This class is not thread-safe.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 1-29-2016
+ *
+ */
+public class TitleCountMap {
+
+  private static final int MIN_CAPACITY = 16;
+
+  private String[] keys;
+  private int[] values;
+  private int size;
+  private int mask;
+
+  public TitleCountMap() {
+    this(MIN_CAPACITY / 2);
+  }
+
+  /**
+   * @param expectedSize The number of titles the map should hold without resizing.
+   */
+  public TitleCountMap(final int expectedSize) {
+    allocate(capacityFor(expectedSize));
+  }
+
+  /**
+   * Returns the count of a title.
+   *
+   * @param title The title to look up.
+   * @param defaultCount The value returned if the title is not in the map.
+   * @return int The count, or <code>defaultCount</code>
+   */
+  public int get(@Nonnull final String title, final int defaultCount) {
+    final int slot = find(title);
+    return slot < 0 ? defaultCount : values[slot];
+  }
+
+  /**
+   * @param title The title to look up.
+   * @return boolean <code>true</code> if the map holds a count for the title
+   */
+  public boolean containsKey(@Nonnull final String title) {
+    return find(title) >= 0;
+  }
+
+  /**
+   * Sets the count of a title.
+   *
+   * @param title The title.
+   * @param count The new count.
+   */
+  public void put(@Nonnull final String title, final int count) {
+    checkNotNull(title);
+    int slot = indexOf(title);
+    while (keys[slot] != null) {
+      if (keys[slot].equals(title)) {
+        values[slot] = count;
+        return;
+      }
+      slot = (slot + 1) & mask;
+    }
+    keys[slot] = title;
+    values[slot] = count;
+    if (++size > keys.length / 2) {
+      rehash(keys.length * 2);
+    }
+  }
+
+  /**
+   * Removes the count of a title.
+   *
+   * @param title The title to remove.
+   * @return boolean <code>true</code> if the map held a count for the title
+   */
+  public boolean remove(@Nonnull final String title) {
+    int free = find(title);
+    if (free < 0) {
+      return false;
+    }
+    keys[free] = null;
+    size--;
+    for (int slot = (free + 1) & mask; keys[slot] != null; slot = (slot + 1) & mask) {
+      final int home = indexOf(keys[slot]);
+      if (((slot - home) & mask) >= ((slot - free) & mask)) {
+        keys[free] = keys[slot];
+        values[free] = values[slot];
+        keys[slot] = null;
+        free = slot;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Passes every title and count to the consumer, in no particular order.
+   *
+   * @param consumer The consumer to call.
+   */
+  public void forEach(@Nonnull final TitleCountConsumer consumer) {
+    for (int slot = 0; slot < keys.length; slot++) {
+      if (keys[slot] != null) {
+        consumer.accept(keys[slot], values[slot]);
+      }
+    }
+  }
+
+  /**
+   * @return int The number of titles in the map
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return boolean <code>true</code> if the map is empty
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Removes every title from the map.
+   */
+  public void clear() {
+    Arrays.fill(keys, null);
+    size = 0;
+  }
+
+  private int find(@Nonnull final String title) {
+    int slot = indexOf(title);
+    while (keys[slot] != null) {
+      if (keys[slot].equals(title)) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  private int indexOf(@Nonnull final String title) {
+    final int hash = title.hashCode() * 0x9E3779B9;
+    return (hash ^ (hash >>> 16)) & mask;
+  }
+
+  private void rehash(final int capacity) {
+    final String[] oldKeys = keys;
+    final int[] oldValues = values;
+    allocate(capacity);
+    for (int slot = 0; slot < oldKeys.length; slot++) {
+      if (oldKeys[slot] != null) {
+        int target = indexOf(oldKeys[slot]);
+        while (keys[target] != null) {
+          target = (target + 1) & mask;
+        }
+        keys[target] = oldKeys[slot];
+        values[target] = oldValues[slot];
+      }
+    }
+  }
+
+  private void allocate(final int capacity) {
+    keys = new String[capacity];
+    values = new int[capacity];
+    mask = capacity - 1;
+  }
+
+  private static int capacityFor(final int expectedSize) {
+    final int needed = Math.max(MIN_CAPACITY, expectedSize * 2);
+    return Integer.highestOneBit(needed - 1) << 1;
+  }
+
+  /**
+   * Receives the entries of a {@link TitleCountMap} without boxing the counts.
+   */
+  public interface TitleCountConsumer {
+    void accept(@Nonnull String title, int count);
+  }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.repo.inventory;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Holds inventory counts in memory and writes changed counts to an {@link InventoryStore} in
+ * batches. Reads and writes never touch the store; a background thread flushes the changed counts
+ * every <code>flushIntervalMillis</code>, and {@link #flush()} or {@link #close()} flush them on
+ * demand.
+ *
+ * Counts set since the last flush are lost if the process dies before the next flush. Use a short
+ * interval, or call {@link #flush()} after critical updates, when that window matters.
+ *
+ * This class is thread-safe.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 1-29-2016
+ *
+ */
+public class WriteBehindInventory implements Closeable {
+
+  static final Logger logger = LoggerFactory.getLogger(WriteBehindInventory.class);
+
+  private final InventoryStore store;
+  private final boolean fsync;
+  private final ScheduledExecutorService flusher;
+  private final TitleCountMap counts = new TitleCountMap();
+  private TitleCountMap dirty = new TitleCountMap();
+  // the batch being written, and the titles of it removed or reloaded since it was taken
+  private TitleCountMap inFlight = new TitleCountMap();
+  private final TitleCountMap replacedInFlight = new TitleCountMap();
+  private final Object flushLock = new Object();
+
+  /**
+   * Creates a new inventory.
+   *
+   * @param store The durable storage to flush to.
+   * @param flushIntervalMillis The interval between background flushes, or zero to only flush on
+   *        demand.
+   * @param fsync If <code>true</code>, each flushed batch is forced to the storage device.
+   */
+  public WriteBehindInventory(@Nonnull final InventoryStore store, final long flushIntervalMillis,
+      final boolean fsync) {
+    checkArgument(flushIntervalMillis >= 0, "flushIntervalMillis must not be negative");
+    this.store = checkNotNull(store);
+    this.fsync = fsync;
+    if (flushIntervalMillis > 0) {
+      flusher = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+          .setNameFormat("booker-inventory-flush-%d").setDaemon(true).build());
+      flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis,
+          flushIntervalMillis, TimeUnit.MILLISECONDS);
+    } else {
+      flusher = null;
+    }
+  }
+
+  /**
+   * @param title The title to look up.
+   * @return boolean <code>true</code> if a count is held in memory for this title
+   */
+  public synchronized boolean contains(@Nonnull final String title) {
+    return counts.containsKey(title);
+  }
+
+  /**
+   * @param title The title to look up.
+   * @param defaultCount The value returned if no count is held for the title.
+   * @return int The inventory count of the title
+   */
+  public synchronized int get(@Nonnull final String title, final int defaultCount) {
+    return counts.get(title, defaultCount);
+  }
+
+  /**
+   * Caches a count that was read from the store, without scheduling it to be written back. A count
+   * already held in memory is newer than the store and is kept.
+   *
+   * @param title The title.
+   * @param count The persisted count.
+   */
+  public synchronized void load(@Nonnull final String title, final int count) {
+    if (!counts.containsKey(title)) {
+      counts.put(title, count);
+      replaced(title);
+    }
+  }
+
+  /**
+   * Sets the count of a title and schedules it to be written on the next flush.
+   *
+   * @param title The title.
+   * @param count The new count.
+   */
+  public synchronized void set(@Nonnull final String title, final int count) {
+    counts.put(title, count);
+    dirty.put(title, count);
+  }
+
+  /**
+   * Forgets the count of a title, including any change that has not been flushed.
+   *
+   * @param title The title to remove.
+   */
+  public synchronized void remove(@Nonnull final String title) {
+    counts.remove(title);
+    dirty.remove(title);
+    replaced(title);
+  }
+
+  /**
+   * @return int The number of counts waiting to be flushed
+   */
+  public synchronized int getPendingCount() {
+    return dirty.size();
+  }
+
+  /**
+   * Writes every count changed since the previous flush to the store as one batch. If the store
+   * fails, the current counts of the batch are retried by the next flush. A title removed or
+   * reloaded while the batch was being written is not retried; if it is held again, its current
+   * count is written by the next flush, in case the batch overwrote it in the store.
+   *
+   * @throws IOException If the store fails to write the batch.
+   */
+  public void flush() throws IOException {
+    synchronized (flushLock) {
+      final TitleCountMap batch;
+      synchronized (this) {
+        if (dirty.isEmpty()) {
+          return;
+        }
+        batch = dirty;
+        dirty = new TitleCountMap(batch.size());
+        inFlight = batch;
+      }
+      boolean written = false;
+      try {
+        store.write(batch, fsync);
+        written = true;
+      } finally {
+        settle(batch, written);
+      }
+    }
+  }
+
+  /**
+   * Queues again the titles of a batch whose count in the store may not match the count held in
+   * memory once the batch was written, or failed to be.
+   */
+  private synchronized void settle(@Nonnull final TitleCountMap batch, final boolean written) {
+    batch.forEach((title, count) -> {
+      // a failed batch is retried, except for the titles reloaded from the store meanwhile; a
+      // written batch may have overwritten the count of those
+      final boolean stale = written == replacedInFlight.containsKey(title);
+      if (stale && counts.containsKey(title) && !dirty.containsKey(title)) {
+        dirty.put(title, counts.get(title, count));
+      }
+    });
+    inFlight = new TitleCountMap();
+    replacedInFlight.clear();
+  }
+
+  /**
+   * Records that the count of a title was removed or reloaded while a batch holding it is written.
+   */
+  private void replaced(@Nonnull final String title) {
+    if (inFlight.containsKey(title)) {
+      replacedInFlight.put(title, 0);
+    }
+  }
+
+  /**
+   * Stops the background flush and writes the remaining changes.
+   */
+  @Override
+  public void close() throws IOException {
+    if (flusher != null) {
+      flusher.shutdown();
+      try {
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    flush();
+  }
+
+  private void flushQuietly() {
+    try {
+      flush();
+    } catch (IOException | RuntimeException e) {
+      logger.warn("Failed to flush inventory counts, they will be retried", e);
+    }
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.repo.log;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.jefferson.salvadore.booker.publication.Publication;
+import com.jefferson.salvadore.booker.repo.codec.PublicationCodec;
+import com.jefferson.salvadore.booker.util.IO;
+
+/**
+ * Copies the contents of a directory written by the <code>FilePublicationRepository</code>, one
+ * <code>.pub.dat</code> and one <code>.stock.txt</code> file per title, into a
+ * {@link LogPublicationRepository}. The source directory is left untouched. Close the
+ * <code>FilePublicationRepository</code> first so its pending inventory counts are on disk.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 1-22-2016
+ *
+ */
+public final class FileLayoutMigration {
+
+  static final Logger logger = LoggerFactory.getLogger(FileLayoutMigration.class);
+  private static final String PUB_FILE_EXT = ".pub.dat";
+  private static final String STOCK_FILE_EXT = ".stock.txt";
+
+  private FileLayoutMigration() {}
+
+  /**
+   * Migrates every {@link Publication} and inventory count found in <code>repoPath</code> to the
+   * target repository, then syncs the target log to disk.
+   *
+   * @param repoPath The directory of the <code>FilePublicationRepository</code>.
+   * @param target An initialized <code>LogPublicationRepository</code>.
+   * @return int The number of migrated <code>Publication</code>s
+   * @throws IOException If an error occurs while reading a file or writing the log.
+   */
+  public static int migrate(@Nonnull final Path repoPath,
+      @Nonnull final LogPublicationRepository target) throws IOException {
+    checkNotNull(target);
+    int migrated = 0;
+    try (final DirectoryStream<Path> dirStream =
+        Files.newDirectoryStream(checkNotNull(repoPath), "*" + PUB_FILE_EXT)) {
+      for (Path file : dirStream) {
+        final Publication publication = PublicationCodec.decode(Files.readAllBytes(file));
+        final String title = publication.getTitle();
+        target.addPub(publication);
+        final Path stockFile =
+            repoPath.resolve(URLEncoder.encode(title, "UTF-8") + STOCK_FILE_EXT);
+        if (Files.exists(stockFile)) {
+          target.setInventoryCount(title, Integer.parseInt(IO.readText(stockFile).trim()));
+        }
+        migrated++;
+      }
+    }
+    target.sync();
+    logger.info("Migrated {} publications from {}", migrated, repoPath);
+    return migrated;
+  }
+}
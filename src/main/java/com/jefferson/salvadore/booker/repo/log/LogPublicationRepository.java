@@ -0,0 +1,442 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.repo.log;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.jefferson.salvadore.booker.publication.Periodical;
+import com.jefferson.salvadore.booker.publication.Publication;
+import com.jefferson.salvadore.booker.publication.Range;
+import com.jefferson.salvadore.booker.repo.PublicationIndex;
+import com.jefferson.salvadore.booker.repo.PublicationRepository;
+import com.jefferson.salvadore.booker.repo.log.PublicationLog.Record;
+
+/**
+ * A repository that stores every {@link Publication} and inventory count in a single append-only
+ * log file, instead of the two files per title written by the <code>FilePublicationRepository</code>.
+ *
+ * {@link #initialize()} scans the log sequentially and rebuilds the in-memory indexes; a torn
+ * record at the end of the log, left behind by a crash during a write, is truncated. A damaged
+ * record followed by more of the log fails the initialization instead, so that the records after
+ * it are never discarded. Every change
+ * is a single buffered append. Superseded records stay in the log until {@link #compact()} rewrites
+ * the live records into a new file.
+ *
+ * This class is not thread-safe.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 1-22-2016
+ *
+ */
+public class LogPublicationRepository implements PublicationRepository, Closeable {
+
+  static final Logger logger = LoggerFactory.getLogger(LogPublicationRepository.class);
+  public static final int DEFAULT_INVENTORY_COUNT = 20;
+
+  private final Path logPath;
+  private final PublicationIndex pubIndex = new PublicationIndex();
+  private final Map<String, Integer> inventory = new HashMap<>();
+  private final Map<String, Integer> liveRecordSizes = new HashMap<>();
+  private FileChannel channel;
+  private OutputStream appender;
+  private long logSize;
+  private long liveSize;
+
+  /**
+   * Creates a new repository backed by the given log file. The file is created by
+   * {@link #initialize()} if it does not exist.
+   *
+   * @param logPath The <code>Path</code> of the log file.
+   */
+  public LogPublicationRepository(@Nonnull final Path logPath) {
+    this.logPath = checkNotNull(logPath);
+  }
+
+  /**
+   * Scans the log and opens it for appending.
+   *
+   * @throws IOException If the log cannot be read, is not a publication log, or holds a damaged
+   *         record before its last one.
+   */
+  @Override
+  public void initialize() throws IOException {
+    checkState(channel == null, "the repository is already initialized");
+    if (!Files.exists(logPath)) {
+      createLog(logPath);
+    }
+    final long validLength = scan();
+    channel = FileChannel.open(logPath, WRITE);
+    if (validLength < channel.size()) {
+      logger.warn("Truncating {} bytes of incomplete records from {}",
+          channel.size() - validLength, logPath);
+      channel.truncate(validLength);
+    }
+    channel.position(validLength);
+    appender = new BufferedOutputStream(Channels.newOutputStream(channel));
+    logSize = validLength;
+  }
+
+  @Override
+  public void addPub(@Nonnull final Publication publication) throws IOException {
+    final String title = publication.getTitle();
+    final byte[] put = PublicationLog.encodePut(publication);
+    if (inventory.containsKey(title)) {
+      append(put);
+    } else {
+      append(put, PublicationLog.encodeStock(title, DEFAULT_INVENTORY_COUNT));
+      inventory.put(title, DEFAULT_INVENTORY_COUNT);
+    }
+    pubIndex.add(publication);
+    trackLiveRecord(title, put.length);
+  }
+
+  /**
+   * Appends the records of the whole batch with a single flush, then updates the index.
+   */
+  @Override
+  public void addAll(@Nonnull final Collection<? extends Publication> publications)
+      throws IOException {
+    final List<byte[]> records = new ArrayList<>(publications.size() * 2);
+    final int[] putSizes = new int[publications.size()];
+    final Set<String> stocked = new HashSet<>();
+    int i = 0;
+    for (Publication publication : publications) {
+      final String title = publication.getTitle();
+      final byte[] put = PublicationLog.encodePut(publication);
+      records.add(put);
+      putSizes[i++] = put.length;
+      if (!inventory.containsKey(title) && stocked.add(title)) {
+        records.add(PublicationLog.encodeStock(title, DEFAULT_INVENTORY_COUNT));
+      }
+    }
+    append(records.toArray(new byte[records.size()][]));
+    i = 0;
+    for (Publication publication : publications) {
+      final String title = publication.getTitle();
+      inventory.putIfAbsent(title, DEFAULT_INVENTORY_COUNT);
+      pubIndex.add(publication);
+      trackLiveRecord(title, putSizes[i++]);
+    }
+  }
+
+  @Override
+  public void removePubByTitle(@Nonnull final String title) throws IOException {
+    if (pubIndex.remove(title) != null) {
+      append(PublicationLog.encodeDelete(title));
+      inventory.remove(title);
+      trackLiveRecord(title, 0);
+    }
+  }
+
+  @Override
+  public <P extends Publication> List<P> getByType(@Nonnull final Class<P> publicationType)
+      throws IOException {
+    return pubIndex.getByType(publicationType);
+  }
+
+  @Override
+  public <P extends Publication> Stream<P> stream(@Nonnull final Class<P> publicationType)
+      throws IOException {
+    return pubIndex.stream(publicationType);
+  }
+
+  @Override
+  public <P extends Publication> List<P> page(@Nonnull final Class<P> publicationType,
+      @Nullable final String afterTitle, final int limit) throws IOException {
+    return pubIndex.page(publicationType, afterTitle, limit);
+  }
+
+  @Override
+  public List<Publication> findByYears(@Nonnull final Range years) throws IOException {
+    return pubIndex.findByYears(years);
+  }
+
+  @Override
+  public Publication findByTitle(@Nonnull final String title) throws IOException {
+    final Publication publication = pubIndex.get(title);
+    if (publication == null) {
+      throw new NoSuchElementException("this title does not exist: " + title);
+    }
+    return publication;
+  }
+
+  @Override
+  public Periodical findPeriodicalByNormalizedTitle(@Nonnull final String title)
+      throws IOException {
+    final Periodical periodical = pubIndex.getPeriodicalByNormalizedTitle(title);
+    if (periodical == null) {
+      throw new NoSuchElementException("no periodical matches this title: " + title);
+    }
+    return periodical;
+  }
+
+  @Override
+  public void printAllPubs() {
+    for (Publication pub : pubIndex.getByType(Publication.class)) {
+      System.out.println(pub);
+    }
+  }
+
+  @Override
+  public void setInventoryCount(@Nonnull final String title, final int count) throws IOException {
+    if (pubIndex.get(title) == null) {
+      throw new IOException(new NoSuchFileException(
+          "The title you are referencing [" + title + "] is not present in the repository"));
+    }
+    append(PublicationLog.encodeStock(title, count));
+    inventory.put(title, count);
+  }
+
+  @Override
+  public Integer getInventoryCount(@Nonnull final String title) throws IOException {
+    return inventory.getOrDefault(title, DEFAULT_INVENTORY_COUNT);
+  }
+
+  /**
+   * Rewrites the log so that it only contains the current version of each {@link Publication} and
+   * inventory count. The new log is written next to the current one and moved into place, so a
+   * crash during compaction leaves the current log untouched.
+   *
+   * @throws IOException If an error occurs while writing the new log.
+   */
+  public void compact() throws IOException {
+    checkState(channel != null, "the repository is not initialized");
+    final Path compacted = logPath.resolveSibling(logPath.getFileName() + ".compact");
+    Files.deleteIfExists(compacted);
+    long compactedSize = PublicationLog.HEADER_LENGTH;
+    try (final FileChannel target = FileChannel.open(compacted, CREATE_NEW, WRITE)) {
+      final OutputStream stream = new BufferedOutputStream(Channels.newOutputStream(target));
+      stream.write(PublicationLog.header());
+      for (Publication publication : pubIndex.getByType(Publication.class)) {
+        final String title = publication.getTitle();
+        final byte[] put = PublicationLog.encodePut(publication);
+        final byte[] stock = PublicationLog.encodeStock(title,
+            inventory.getOrDefault(title, DEFAULT_INVENTORY_COUNT));
+        stream.write(put);
+        stream.write(stock);
+        compactedSize += put.length + stock.length;
+      }
+      stream.flush();
+      target.force(true);
+    }
+    appender.flush();
+    // opened before the move, which the channel follows, so that the repository always has a log
+    // to append to
+    final FileChannel next;
+    try {
+      next = FileChannel.open(compacted, WRITE, APPEND);
+    } catch (IOException e) {
+      Files.deleteIfExists(compacted);
+      throw e;
+    }
+    try {
+      Files.move(compacted, logPath, REPLACE_EXISTING, ATOMIC_MOVE);
+    } catch (IOException e) {
+      // the current log is still open and untouched
+      next.close();
+      Files.deleteIfExists(compacted);
+      throw e;
+    }
+    final FileChannel previous = channel;
+    channel = next;
+    appender = new BufferedOutputStream(Channels.newOutputStream(next));
+    logger.info("Compacted {} from {} to {} bytes", logPath, logSize, compactedSize);
+    logSize = compactedSize;
+    liveSize = compactedSize;
+    try {
+      previous.close();
+    } catch (IOException e) {
+      logger.warn("could not close the log replaced by compaction", e);
+    }
+  }
+
+  /**
+   * Forces all appended records to the storage device.
+   *
+   * @throws IOException If an error occurs while syncing the log.
+   */
+  public void sync() throws IOException {
+    checkState(channel != null, "the repository is not initialized");
+    appender.flush();
+    channel.force(false);
+  }
+
+  /**
+   * @return long The size of the log file in bytes
+   */
+  public long getLogSize() {
+    return logSize;
+  }
+
+  /**
+   * @return double The fraction of the log taken up by superseded records, which is reclaimed by
+   *         {@link #compact()}
+   */
+  public double getGarbageRatio() {
+    return logSize == 0 ? 0 : 1 - (double) Math.min(liveSize, logSize) / logSize;
+  }
+
+  /**
+   * Returns the size of the repository in memory
+   *
+   * @return int The number of <code>Publications</code> in the index
+   */
+  public int getListSize() {
+    return pubIndex.size();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (channel != null) {
+      try {
+        appender.flush();
+      } finally {
+        channel.close();
+        channel = null;
+        appender = null;
+      }
+    }
+  }
+
+  /**
+   * Reads the log from the beginning and applies every record to the indexes. A record that is
+   * cut short or fails its checks is a torn write and ends the scan, unless a valid record follows
+   * it: then the damage is in the middle of the log, for instance in a length field that sent the
+   * read past the end.
+   *
+   * @return long The length of the log up to the last complete record
+   * @throws IOException If a damaged record is followed by a valid one.
+   */
+  private long scan() throws IOException {
+    long position = PublicationLog.HEADER_LENGTH;
+    liveSize = PublicationLog.HEADER_LENGTH;
+    try (final DataInputStream stream =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(logPath), 1 << 16))) {
+      final byte[] header = new byte[PublicationLog.HEADER_LENGTH];
+      stream.readFully(header);
+      PublicationLog.checkHeader(header);
+      while (true) {
+        final Record record;
+        try {
+          record = PublicationLog.read(stream);
+        } catch (IOException e) {
+          if (recordFollows(position)) {
+            throw new IOException("damaged record at offset " + position + " of " + logPath, e);
+          }
+          logger.warn("Stopped reading {} at offset {}: {}", logPath, position, e.getMessage());
+          break;
+        }
+        if (record == null) {
+          break;
+        }
+        apply(record);
+        position += record.size;
+      }
+    }
+    return position;
+  }
+
+  /**
+   * Tells whether a valid record starts anywhere after the damaged record at an offset of the log.
+   */
+  private boolean recordFollows(final long damagedOffset) throws IOException {
+    try (final FileChannel log = FileChannel.open(logPath, READ)) {
+      final long from = damagedOffset + 1;
+      if (from >= log.size()) {
+        return false;
+      }
+      final MappedByteBuffer rest =
+          log.map(MapMode.READ_ONLY, from, Math.min(log.size() - from, Integer.MAX_VALUE));
+      return PublicationLog.containsRecord(rest);
+    }
+  }
+
+  private void apply(@Nonnull final Record record) throws IOException {
+    switch (record.op) {
+      case PublicationLog.OP_PUT:
+        pubIndex.add(PublicationLog.decodePublication(record.payload));
+        trackLiveRecord(record.title, record.size);
+        break;
+      case PublicationLog.OP_STOCK:
+        inventory.put(record.title, record.count());
+        break;
+      case PublicationLog.OP_DELETE:
+        pubIndex.remove(record.title);
+        inventory.remove(record.title);
+        trackLiveRecord(record.title, 0);
+        break;
+      default:
+        throw new IOException("unknown record operation: " + record.op);
+    }
+  }
+
+  /**
+   * Keeps {@link #liveSize} equal to the size a compacted log would have: the header plus the
+   * latest PUT and one STOCK record for each live title.
+   *
+   * @param title The title whose PUT record changed.
+   * @param putSize The size of the new PUT record, or zero if the title was removed.
+   */
+  private void trackLiveRecord(@Nonnull final String title, final int putSize) {
+    final Integer previous = putSize == 0 ? liveRecordSizes.remove(title)
+        : liveRecordSizes.put(title, putSize + PublicationLog.stockRecordSize(title));
+    if (previous != null) {
+      liveSize -= previous;
+    }
+    if (putSize != 0) {
+      liveSize += liveRecordSizes.get(title);
+    }
+  }
+
+  private void append(@Nonnull final byte[]... records) throws IOException {
+    checkState(channel != null, "the repository is not initialized");
+    for (byte[] record : records) {
+      appender.write(record);
+      logSize += record.length;
+    }
+    appender.flush();
+  }
+
+  private static void createLog(@Nonnull final Path path) throws IOException {
+    try (final OutputStream stream = Files.newOutputStream(path, CREATE_NEW)) {
+      stream.write(PublicationLog.header());
+    }
+  }
+}
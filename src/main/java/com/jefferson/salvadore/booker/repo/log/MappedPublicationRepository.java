@@ -0,0 +1,318 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.repo.log;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.jefferson.salvadore.booker.publication.Book;
+import com.jefferson.salvadore.booker.publication.Journal;
+import com.jefferson.salvadore.booker.publication.Magazine;
+import com.jefferson.salvadore.booker.publication.Publication;
+import com.jefferson.salvadore.booker.repo.PublicationRepository;
+import com.jefferson.salvadore.booker.repo.log.PublicationLog.Record;
+
+/**
+ * A read-only repository over a log written by {@link LogPublicationRepository}. The log is mapped
+ * into memory with {@link FileChannel#map}, so the operating system page cache is shared by every
+ * JVM on the host that maps the same file.
+ *
+ * {@link #initialize()} only walks the record headers to build a title index; a
+ * {@link Publication} is decoded from the mapped buffer the first time it is accessed. Methods that
+ * modify the repository throw {@link UnsupportedOperationException}. {@link #stream(Class)} and
+ * {@link #page(Class, String, int)} decode the publications they hand out without keeping them, so
+ * that the whole log can be walked in constant memory; {@link #page(Class, String, int)} seeks to
+ * its cursor in an array of the titles sorted the first time a page is asked for.
+ *
+ * Once initialized, this class is safe for concurrent readers.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 1-25-2016
+ *
+ */
+public class MappedPublicationRepository implements PublicationRepository, Closeable {
+
+  static final Logger logger = LoggerFactory.getLogger(MappedPublicationRepository.class);
+
+  private final Path logPath;
+  private volatile Map<String, Slot> titleIndex = Collections.emptyMap();
+  private volatile Map<String, Integer> inventory = Collections.emptyMap();
+  private volatile String[] sortedTitles;
+  private MappedByteBuffer buffer;
+  private FileChannel channel;
+
+  /**
+   * Creates a new read-only repository for the given log file.
+   *
+   * @param logPath The <code>Path</code> of a log written by <code>LogPublicationRepository</code>.
+   */
+  public MappedPublicationRepository(@Nonnull final Path logPath) {
+    this.logPath = checkNotNull(logPath);
+  }
+
+  /**
+   * Maps the log and indexes its records by title.
+   *
+   * @throws IOException If the log cannot be mapped or is not a publication log.
+   */
+  @Override
+  public void initialize() throws IOException {
+    checkState(channel == null, "the repository is already initialized");
+    channel = FileChannel.open(logPath, StandardOpenOption.READ);
+    if (channel.size() > Integer.MAX_VALUE) {
+      channel.close();
+      throw new IOException("the log is too large to be mapped: " + logPath);
+    }
+    buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+
+    final byte[] header = new byte[PublicationLog.HEADER_LENGTH];
+    buffer.get(header);
+    PublicationLog.checkHeader(header);
+
+    final Map<String, Slot> titles = new LinkedHashMap<>();
+    final Map<String, Integer> counts = new HashMap<>();
+    final ByteBuffer records = buffer.duplicate();
+    records.position(PublicationLog.HEADER_LENGTH);
+    Record record;
+    while ((record = PublicationLog.readHeader(records)) != null) {
+      switch (record.op) {
+        case PublicationLog.OP_PUT:
+          titles.remove(record.title);
+          titles.put(record.title, new Slot(record));
+          break;
+        case PublicationLog.OP_STOCK:
+          counts.put(record.title, record.count());
+          break;
+        case PublicationLog.OP_DELETE:
+          titles.remove(record.title);
+          counts.remove(record.title);
+          break;
+        default:
+          throw new IOException("unknown record operation: " + record.op);
+      }
+    }
+    if (records.hasRemaining()) {
+      logger.warn("Ignoring {} bytes of incomplete records at the end of {}",
+          records.remaining(), logPath);
+    }
+    titleIndex = titles;
+    inventory = counts;
+    sortedTitles = null;
+  }
+
+  @Override
+  public Publication findByTitle(@Nonnull final String title) throws IOException {
+    final Slot slot = titleIndex.get(title);
+    if (slot == null) {
+      throw new NoSuchElementException("this title does not exist: " + title);
+    }
+    return decode(slot);
+  }
+
+  @Override
+  public <P extends Publication> List<P> getByType(@Nonnull final Class<P> publicationType)
+      throws IOException {
+    final List<P> theList = new ArrayList<P>();
+    for (Slot slot : titleIndex.values()) {
+      if (!mayBe(slot, publicationType)) {
+        continue;
+      }
+      final Publication publication = decode(slot);
+      if (publicationType.isInstance(publication)) {
+        theList.add(publicationType.cast(publication));
+      }
+    }
+    return theList;
+  }
+
+  @Override
+  public <P extends Publication> Stream<P> stream(@Nonnull final Class<P> publicationType)
+      throws IOException {
+    checkNotNull(publicationType);
+    return titleIndex.values().stream().filter(slot -> mayBe(slot, publicationType))
+        .map(slot -> {
+          try {
+            return read(slot);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        }).filter(publicationType::isInstance).map(publicationType::cast);
+  }
+
+  @Override
+  public <P extends Publication> List<P> page(@Nonnull final Class<P> publicationType,
+      @Nullable final String afterTitle, final int limit) throws IOException {
+    checkNotNull(publicationType);
+    checkArgument(limit >= 0, "limit must not be negative");
+    final Map<String, Slot> titles = titleIndex;
+    final String[] sorted = getSortedTitles();
+    int position = 0;
+    if (afterTitle != null) {
+      final int found = Arrays.binarySearch(sorted, afterTitle);
+      position = found >= 0 ? found + 1 : -(found + 1);
+    }
+    final List<P> page = new ArrayList<>(Math.min(limit, sorted.length - position));
+    for (; position < sorted.length && page.size() < limit; position++) {
+      final Slot slot = titles.get(sorted[position]);
+      if (slot == null || !mayBe(slot, publicationType)) {
+        continue;
+      }
+      final Publication publication = read(slot);
+      if (publicationType.isInstance(publication)) {
+        page.add(publicationType.cast(publication));
+      }
+    }
+    return page;
+  }
+
+  @Override
+  public void printAllPubs() {
+    try {
+      stream(Publication.class).forEach(System.out::println);
+    } catch (IOException | UncheckedIOException e) {
+      logger.error("An error occured will reading {}", logPath, e);
+    }
+  }
+
+  @Override
+  public Integer getInventoryCount(@Nonnull final String title) throws IOException {
+    return inventory.getOrDefault(title, LogPublicationRepository.DEFAULT_INVENTORY_COUNT);
+  }
+
+  @Override
+  public void addPub(@Nonnull final Publication publication) throws IOException {
+    throw new UnsupportedOperationException("the mapped repository is read-only");
+  }
+
+  @Override
+  public void removePubByTitle(@Nonnull final String title) throws IOException {
+    throw new UnsupportedOperationException("the mapped repository is read-only");
+  }
+
+  @Override
+  public void setInventoryCount(@Nonnull final String title, final int count) throws IOException {
+    throw new UnsupportedOperationException("the mapped repository is read-only");
+  }
+
+  /**
+   * Returns the number of titles in the mapped log
+   *
+   * @return int The number of <code>Publications</code> in the index
+   */
+  public int getListSize() {
+    return titleIndex.size();
+  }
+
+  /**
+   * Closes the file channel. The mapping itself is released when the buffer is garbage collected.
+   */
+  @Override
+  public void close() throws IOException {
+    if (channel != null) {
+      channel.close();
+    }
+  }
+
+  private Publication decode(@Nonnull final Slot slot) throws IOException {
+    Publication publication = slot.publication;
+    if (publication == null) {
+      publication = read(slot);
+      slot.publication = publication;
+    }
+    return publication;
+  }
+
+  /**
+   * Returns the decoded <code>Publication</code> of a slot, or decodes it without keeping it.
+   */
+  private Publication read(@Nonnull final Slot slot) throws IOException {
+    final Publication publication = slot.publication;
+    if (publication != null) {
+      return publication;
+    }
+    if (!PublicationLog.verify(buffer, slot.offset)) {
+      throw new IOException("record checksum mismatch at offset " + slot.offset);
+    }
+    final ByteBuffer payload = buffer.duplicate();
+    payload.limit(slot.payloadOffset + slot.payloadLength).position(slot.payloadOffset);
+    return PublicationLog.decodePublication(payload);
+  }
+
+  private String[] getSortedTitles() {
+    String[] sorted = sortedTitles;
+    if (sorted == null) {
+      sorted = titleIndex.keySet().toArray(new String[0]);
+      Arrays.sort(sorted);
+      sortedTitles = sorted;
+    }
+    return sorted;
+  }
+
+  /**
+   * Tells from the record kind alone whether a slot can hold a publication of the given type.
+   */
+  private static boolean mayBe(@Nonnull final Slot slot,
+      @Nonnull final Class<? extends Publication> publicationType) {
+    final Class<? extends Publication> kindType = typeOf(slot.kind);
+    return kindType == null || publicationType.isAssignableFrom(kindType);
+  }
+
+  private static Class<? extends Publication> typeOf(final byte kind) {
+    switch (kind) {
+      case PublicationLog.KIND_BOOK:
+        return Book.class;
+      case PublicationLog.KIND_MAGAZINE:
+        return Magazine.class;
+      case PublicationLog.KIND_JOURNAL:
+        return Journal.class;
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * The location of a PUT record in the mapped log, and the <code>Publication</code> once it has
+   * been decoded.
+   */
+  private static final class Slot {
+    private final int offset;
+    private final int payloadOffset;
+    private final int payloadLength;
+    private final byte kind;
+    private volatile Publication publication;
+
+    private Slot(@Nonnull final Record record) {
+      this.offset = record.offset;
+      this.payloadOffset = record.payloadOffset;
+      this.payloadLength = record.offset + record.size - record.payloadOffset;
+      this.kind = record.kind;
+    }
+  }
+}
@@ -0,0 +1,367 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.repo.log;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.jefferson.salvadore.booker.publication.Book;
+import com.jefferson.salvadore.booker.publication.Journal;
+import com.jefferson.salvadore.booker.publication.Magazine;
+import com.jefferson.salvadore.booker.publication.Publication;
+import com.jefferson.salvadore.booker.repo.codec.PublicationCodec;
+
+/**
+ * Defines the on-disk format of the append-only log used by {@link LogPublicationRepository}.
+ *
+ * A log file starts with a header of four magic bytes and a version byte, followed by records of
+ * the form:
+ *
+ * <pre>
+ * int    length of the body
+ * int    CRC32 of the body
+ * body:
+ *   byte   operation (PUT, DELETE or STOCK)
+ *   byte   kind of publication (PUT only, otherwise KIND_NONE)
+ *   int    length of the title
+ *   byte[] title, UTF-8
+ *   byte[] payload (PUT: the publication encoded by {@link PublicationCodec}, STOCK: an int
+ *          count, DELETE: empty)
+ * </pre>
+ *
+ * The title and kind are kept outside of the payload so the log can be indexed without decoding
+ * the publications themselves.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 1-22-2016
+ *
+ */
+public final class PublicationLog {
+
+  static final byte[] MAGIC = new byte[] {'B', 'K', 'L', 'G'};
+  static final byte VERSION = 1;
+  static final int HEADER_LENGTH = MAGIC.length + 1;
+
+  public static final byte OP_PUT = 1;
+  public static final byte OP_DELETE = 2;
+  public static final byte OP_STOCK = 3;
+
+  public static final byte KIND_NONE = 0;
+  public static final byte KIND_BOOK = 1;
+  public static final byte KIND_MAGAZINE = 2;
+  public static final byte KIND_JOURNAL = 3;
+  public static final byte KIND_OTHER = 4;
+
+  /**
+   * The largest body accepted when reading a record. Anything larger is treated as corruption.
+   */
+  static final int MAX_BODY_LENGTH = 16 * 1024 * 1024;
+
+  private PublicationLog() {}
+
+  /**
+   * @return The file header that every log starts with.
+   */
+  static byte[] header() {
+    final byte[] header = Arrays.copyOf(MAGIC, HEADER_LENGTH);
+    header[MAGIC.length] = VERSION;
+    return header;
+  }
+
+  /**
+   * Checks the file header read from the start of a log.
+   *
+   * @param header The first {@link #HEADER_LENGTH} bytes of the file.
+   * @throws IOException If the bytes are not a supported log header.
+   */
+  static void checkHeader(@Nonnull final byte[] header) throws IOException {
+    if (!Arrays.equals(Arrays.copyOf(header, MAGIC.length), MAGIC)) {
+      throw new IOException("not a publication log");
+    }
+    if (header[MAGIC.length] != VERSION) {
+      throw new IOException("unsupported publication log version: " + header[MAGIC.length]);
+    }
+  }
+
+  /**
+   * Returns the kind tag written for a {@link Publication}.
+   *
+   * @param publication The <code>Publication</code> to classify.
+   * @return byte One of the <code>KIND_*</code> constants
+   */
+  public static byte kindOf(@Nonnull final Publication publication) {
+    if (publication instanceof Book) {
+      return KIND_BOOK;
+    }
+    if (publication instanceof Magazine) {
+      return KIND_MAGAZINE;
+    }
+    if (publication instanceof Journal) {
+      return KIND_JOURNAL;
+    }
+    return KIND_OTHER;
+  }
+
+  /**
+   * Encodes a record that stores a {@link Publication}.
+   *
+   * @param publication The <code>Publication</code> to store.
+   * @return The framed record
+   * @throws IOException If the publication cannot be encoded.
+   */
+  public static byte[] encodePut(@Nonnull final Publication publication) throws IOException {
+    return encode(OP_PUT, kindOf(publication), publication.getTitle(),
+        PublicationCodec.encode(publication));
+  }
+
+  /**
+   * Encodes a record that removes the title from the log.
+   *
+   * @param title The title to remove.
+   * @return The framed record
+   */
+  public static byte[] encodeDelete(@Nonnull final String title) throws IOException {
+    return encode(OP_DELETE, KIND_NONE, title, new byte[0]);
+  }
+
+  /**
+   * Encodes a record that stores the inventory count of a title.
+   *
+   * @param title The title of the <code>Publication</code>.
+   * @param count The inventory count.
+   * @return The framed record
+   */
+  public static byte[] encodeStock(@Nonnull final String title, final int count)
+      throws IOException {
+    final byte[] payload = new byte[] {(byte) (count >>> 24), (byte) (count >>> 16),
+        (byte) (count >>> 8), (byte) count};
+    return encode(OP_STOCK, KIND_NONE, title, payload);
+  }
+
+  /**
+   * @param title The title of the <code>Publication</code>.
+   * @return int The size in bytes of a STOCK record for the title
+   */
+  static int stockRecordSize(@Nonnull final String title) {
+    return 8 + 6 + title.getBytes(UTF_8).length + 4;
+  }
+
+  /**
+   * Decodes the payload of a PUT record. Payloads written as Java serialization streams by the
+   * first version of the log are still accepted.
+   *
+   * @param payload The payload bytes.
+   * @return The stored <code>Publication</code>
+   * @throws IOException If the payload cannot be decoded.
+   */
+  public static Publication decodePublication(@Nonnull final byte[] payload) throws IOException {
+    return PublicationCodec.decode(payload);
+  }
+
+  /**
+   * Decodes the payload of a PUT record in place.
+   *
+   * @param payload A buffer whose remaining bytes are the payload.
+   * @return The stored <code>Publication</code>
+   * @throws IOException If the payload cannot be decoded.
+   */
+  public static Publication decodePublication(@Nonnull final ByteBuffer payload)
+      throws IOException {
+    return PublicationCodec.decode(payload);
+  }
+
+  /**
+   * Reads the next record from a log.
+   *
+   * @param stream The stream positioned at the start of a record.
+   * @return The record, or <code>null</code> at the end of the log
+   * @throws IOException If the record is truncated or fails its checksum.
+   */
+  @Nullable
+  static Record read(@Nonnull final DataInputStream stream) throws IOException {
+    final int first = stream.read();
+    if (first == -1) {
+      return null;
+    }
+    final int length = (first << 24) | (stream.readUnsignedByte() << 16)
+        | (stream.readUnsignedByte() << 8) | stream.readUnsignedByte();
+    final int checksum = stream.readInt();
+    if (length < 6 || length > MAX_BODY_LENGTH) {
+      throw new IOException("invalid record length: " + length);
+    }
+    final byte[] body = new byte[length];
+    stream.readFully(body);
+    if (checksum(body) != checksum) {
+      throw new IOException("record checksum mismatch");
+    }
+    final int titleLength = ((body[2] & 0xFF) << 24) | ((body[3] & 0xFF) << 16)
+        | ((body[4] & 0xFF) << 8) | (body[5] & 0xFF);
+    if (titleLength < 0 || titleLength > length - 6) {
+      throw new IOException("invalid title length: " + titleLength);
+    }
+    final String title = new String(body, 6, titleLength, UTF_8);
+    final byte[] payload = Arrays.copyOfRange(body, 6 + titleLength, length);
+    return new Record(body[0], body[1], title, payload, -1, -1, length + 8);
+  }
+
+  /**
+   * Reads the next record from a mapped log without copying or verifying the payload of PUT
+   * records, and advances the buffer to the following record. The payload is located by
+   * {@link Record#payloadOffset} and checked by {@link #verify(ByteBuffer, int)} when it is
+   * decoded.
+   *
+   * @param buffer The buffer positioned at the start of a record.
+   * @return The record, or <code>null</code> at the end of the log or at an incomplete record
+   * @throws IOException If the record header is invalid.
+   */
+  @Nullable
+  static Record readHeader(@Nonnull final ByteBuffer buffer) throws IOException {
+    final int offset = buffer.position();
+    if (buffer.remaining() < 8 + 6) {
+      return null;
+    }
+    final int length = buffer.getInt(offset);
+    if (length < 6 || length > MAX_BODY_LENGTH) {
+      throw new IOException("invalid record length: " + length);
+    }
+    if (buffer.remaining() < 8 + length) {
+      return null;
+    }
+    final byte op = buffer.get(offset + 8);
+    final byte kind = buffer.get(offset + 9);
+    final int titleLength = buffer.getInt(offset + 10);
+    if (titleLength < 0 || titleLength > length - 6) {
+      throw new IOException("invalid title length: " + titleLength);
+    }
+    final byte[] titleBytes = new byte[titleLength];
+    buffer.position(offset + 14);
+    buffer.get(titleBytes);
+    final int payloadOffset = offset + 14 + titleLength;
+    final int payloadLength = length - 6 - titleLength;
+    byte[] payload = null;
+    if (op != OP_PUT) {
+      if (!verify(buffer, offset)) {
+        throw new IOException("record checksum mismatch");
+      }
+      payload = new byte[payloadLength];
+      buffer.get(payload);
+    }
+    buffer.position(offset + 8 + length);
+    return new Record(op, kind, new String(titleBytes, UTF_8), payload, offset, payloadOffset,
+        length + 8);
+  }
+
+  /**
+   * Checks the CRC32 of the record starting at the given offset of a mapped log.
+   *
+   * @param buffer The mapped log.
+   * @param offset The offset of the record.
+   * @return boolean <code>true</code> if the body matches its checksum
+   */
+  static boolean verify(@Nonnull final ByteBuffer buffer, final int offset) {
+    final ByteBuffer body = buffer.duplicate();
+    final int length = body.getInt(offset);
+    body.limit(offset + 8 + length).position(offset + 8);
+    final CRC32 crc = new CRC32();
+    crc.update(body);
+    return (int) crc.getValue() == buffer.getInt(offset + 4);
+  }
+
+  /**
+   * Tells whether a complete record with a matching checksum starts anywhere between the position
+   * and the limit of a buffer, which is how a damaged record in the middle of a log is told from
+   * a torn one at its end.
+   *
+   * @param buffer The bytes to search, from its position.
+   * @return boolean <code>true</code> if a valid record was found
+   */
+  static boolean containsRecord(@Nonnull final ByteBuffer buffer) {
+    for (int offset = buffer.position(); offset <= buffer.limit() - 8 - 6; offset++) {
+      final int length = buffer.getInt(offset);
+      if (length >= 6 && length <= MAX_BODY_LENGTH && length <= buffer.limit() - offset - 8
+          && verify(buffer, offset)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static byte[] encode(final byte op, final byte kind, @Nonnull final String title,
+      @Nonnull final byte[] payload) throws IOException {
+    final byte[] titleBytes = checkNotNull(title).getBytes(UTF_8);
+    final int length = 6 + titleBytes.length + payload.length;
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream(length + 8);
+    final DataOutputStream body = new DataOutputStream(bytes);
+    body.writeInt(length);
+    body.writeInt(0);
+    body.writeByte(op);
+    body.writeByte(kind);
+    body.writeInt(titleBytes.length);
+    body.write(titleBytes);
+    body.write(payload);
+    final byte[] record = bytes.toByteArray();
+    final int checksum = checksum(record, 8, length);
+    record[4] = (byte) (checksum >>> 24);
+    record[5] = (byte) (checksum >>> 16);
+    record[6] = (byte) (checksum >>> 8);
+    record[7] = (byte) checksum;
+    return record;
+  }
+
+  private static int checksum(@Nonnull final byte[] body) {
+    return checksum(body, 0, body.length);
+  }
+
+  private static int checksum(@Nonnull final byte[] bytes, final int offset, final int length) {
+    final CRC32 crc = new CRC32();
+    crc.update(bytes, offset, length);
+    return (int) crc.getValue();
+  }
+
+  /**
+   * A single record read back from the log.
+   */
+  static final class Record {
+    final byte op;
+    final byte kind;
+    final String title;
+    final byte[] payload;
+    final int offset;
+    final int payloadOffset;
+    final int size;
+
+    private Record(final byte op, final byte kind, final String title, final byte[] payload,
+        final int offset, final int payloadOffset, final int size) {
+      this.op = op;
+      this.kind = kind;
+      this.title = title;
+      this.payload = payload;
+      this.offset = offset;
+      this.payloadOffset = payloadOffset;
+      this.size = size;
+    }
+
+    /**
+     * @return int The inventory count stored by a STOCK record
+     */
+    int count() throws IOException {
+      if (payload.length != 4) {
+        throw new IOException("invalid stock record for: " + title);
+      }
+      return ((payload[0] & 0xFF) << 24) | ((payload[1] & 0xFF) << 16)
+          | ((payload[2] & 0xFF) << 8) | (payload[3] & 0xFF);
+    }
+  }
+}
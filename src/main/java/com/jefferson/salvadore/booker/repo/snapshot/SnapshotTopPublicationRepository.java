@@ -12,18 +12,22 @@ import static com.jefferson.salvadore.booker.publication.PubFreq.pubFreqOf;
 import static com.jefferson.salvadore.booker.publication.Range.of;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.stream.Stream;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import com.jefferson.salvadore.booker.publication.Book;
 import com.jefferson.salvadore.booker.publication.Journal;
 import com.jefferson.salvadore.booker.publication.Magazine;
+import com.jefferson.salvadore.booker.publication.Periodical;
 import com.jefferson.salvadore.booker.publication.Publication;
+import com.jefferson.salvadore.booker.publication.Range;
+import com.jefferson.salvadore.booker.repo.PublicationIndex;
 import com.jefferson.salvadore.booker.repo.PublicationRepository;
 
 /**
@@ -35,98 +39,111 @@ import com.jefferson.salvadore.booker.repo.PublicationRepository;
 public class SnapshotTopPublicationRepository implements PublicationRepository {
 
   private Integer inventoryCount = 0;
-  private final ArrayList<Publication> publicationList = new ArrayList<>();
+  private final PublicationIndex publicationIndex = new PublicationIndex();
   private final Map<String, Integer> publicationMap = new HashMap<>();
 
   public SnapshotTopPublicationRepository() {
 
-    publicationList.add(
+    publicationIndex.add(
         new Book("A Tale of Two Cities", "Charles Dickens", of(0), 200_000_000, pubFreqOf(NA)));
-    publicationList.add(new Book("The Lord of The Rings", "J.R.R Tolkien", of(1954, 1955),
+    publicationIndex.add(new Book("The Lord of The Rings", "J.R.R Tolkien", of(1954, 1955),
         150_000_000, pubFreqOf(NA)));
-    publicationList
+    publicationIndex
         .add(new Book("The Hobbit", "J.R.R Tolkien", of(1937), 140_600_000, pubFreqOf(NA)));
-    publicationList.add(new Book("Harry Potter and the Philosopher's Stone", "J. K. Rowling",
+    publicationIndex.add(new Book("Harry Potter and the Philosopher's Stone", "J. K. Rowling",
         of(1997), 107_000_000, pubFreqOf(NA)));
-    publicationList.add(new Book("Le Petit Prince", "Antoine de Saint-Exupéry", "French", of(1943),
+    publicationIndex.add(new Book("Le Petit Prince", "Antoine de Saint-Exupéry", "French", of(1943),
         140_000_000, pubFreqOf(NA)));
-    publicationList.add(new Book("紅樓夢/红楼梦 (Dream of the Red Chamber)", "Cao Xueqin", of(1754, 1791),
+    publicationIndex.add(new Book("紅樓夢/红楼梦 (Dream of the Red Chamber)", "Cao Xueqin", of(1754, 1791),
         100_000_000, pubFreqOf(NA)));
-    publicationList
+    publicationIndex
         .add(new Book("And Then There Were None", "Agatha Christie", of(1939), pubFreqOf(NA)));
-    publicationList
+    publicationIndex
         .add(new Book("She: A History of Adventure", "H. Rider Haggard", of(1887), pubFreqOf(NA)));
-    publicationList
+    publicationIndex
         .add(new Magazine("AARP The Magazine", "AARP", of(1958), 22_274_096, pubFreqOf(MONTHLY)));
-    publicationList
+    publicationIndex
         .add(new Magazine("AARP Bulletin", "AARP", of(1960), 22_244_820, pubFreqOf(MONTHLY)));
-    publicationList.add(new Magazine("Costco Connection", "Costco Wholesale", of(0), 8_654_464,
+    publicationIndex.add(new Magazine("Costco Connection", "Costco Wholesale", of(0), 8_654_464,
         pubFreqOf(MONTHLY)));
-    publicationList.add(new Magazine("Better Homes And Gardens", "Meredith", of(1922), 7_615_581,
+    publicationIndex.add(new Magazine("Better Homes And Gardens", "Meredith", of(1922), 7_615_581,
         pubFreqOf(MONTHLY)));
-    publicationList
+    publicationIndex
         .add(new Magazine("Game Informer", "GameStop", of(1991), 7_629_995, pubFreqOf(MONTHLY)));
-    publicationList.add(new Journal("PLOS ONE", "Public Library of Science", of(2006),
+    publicationIndex.add(new Journal("PLOS ONE", "Public Library of Science", of(2006),
         pubFreqOf(UNDISCLOSED), "Multidisciplinary", 3.234));
-    publicationList.add(new Journal("Philosophical Transactions of the Royal Society",
+    publicationIndex.add(new Journal("Philosophical Transactions of the Royal Society",
         "Royal Society", of(1665), pubFreqOf(UNDISCLOSED), "Physical Sciences", 7.055));
-    publicationList.add(new Journal("Nature Communications", "Nature Publishing Group", of(2010),
+    publicationIndex.add(new Journal("Nature Communications", "Nature Publishing Group", of(2010),
         pubFreqOf(UNDISCLOSED), "Earth Sciences", 11.47));
-    publicationList.add(new Journal("Nature", "Nature Publishing Group", of(1869),
+    publicationIndex.add(new Journal("Nature", "Nature Publishing Group", of(1869),
         pubFreqOf(WEEKLY), "Natural Science", 41.456));
-    publicationList.add(new Journal(
+    publicationIndex.add(new Journal(
         "Proceedings of the National Academy of Sciences of the United States of America",
         "United States National Academy of Sciences", of(1914), pubFreqOf(WEEKLY),
         "Multidisciplinary", 9.674));
 
-    buildMap(publicationList);
+    buildMap(publicationIndex.getByType(Publication.class));
   }
 
   @Override
   public void addPub(Publication publication) throws IOException {
     final String title = publication.getTitle();
-    publicationList.add(publication);
+    publicationIndex.add(publication);
     publicationMap.put(title, inventoryCount);
 
   }
 
   @Override
   public void removePubByTitle(String title) throws IOException {
-    for (int i = 0; i < publicationList.size(); i++) {
-      final Publication publication = publicationList.get(i);
-      if (publication.getTitle().equals(title)) {
-        publicationList.remove(publication);
-      }
-    }
+    publicationIndex.remove(title);
   }
 
 
   @Override
   public Publication findByTitle(String title) throws IOException {
-    for (int i = 0; i < publicationList.size(); i++) {
-      final Publication publication = publicationList.get(i);
-      if (publication.getTitle().equals(title)) {
-        return publication;
-      }
+    final Publication publication = publicationIndex.get(title);
+    if (publication == null) {
+      throw new NoSuchElementException("this title does not exist: " + title);
     }
-    throw new NoSuchElementException("this title does not exist: " + title);
+    return publication;
   }
 
   @Override
-  public <P extends Publication> List<P> getByType(Class<P> publicationType) throws IOException {
-    final List<P> theList = new ArrayList<P>();
-    for (int i = 0; i < publicationList.size(); i++) {
-      final Publication publication = publicationList.get(i);
-      if (publicationType.isInstance(publication)) {
-        theList.add(publicationType.cast(publication));
-      }
+  public Periodical findPeriodicalByNormalizedTitle(@Nonnull final String title)
+      throws IOException {
+    final Periodical periodical = publicationIndex.getPeriodicalByNormalizedTitle(title);
+    if (periodical == null) {
+      throw new NoSuchElementException("no periodical matches this title: " + title);
     }
-    return theList;
+    return periodical;
+  }
+
+  @Override
+  public <P extends Publication> List<P> getByType(Class<P> publicationType) throws IOException {
+    return publicationIndex.getByType(publicationType);
+  }
+
+  @Override
+  public <P extends Publication> Stream<P> stream(@Nonnull final Class<P> publicationType)
+      throws IOException {
+    return publicationIndex.stream(publicationType);
+  }
+
+  @Override
+  public <P extends Publication> List<P> page(@Nonnull final Class<P> publicationType,
+      @Nullable final String afterTitle, final int limit) throws IOException {
+    return publicationIndex.page(publicationType, afterTitle, limit);
+  }
+
+  @Override
+  public List<Publication> findByYears(@Nonnull final Range years) throws IOException {
+    return publicationIndex.findByYears(years);
   }
 
   @Override
   public void printAllPubs() {
-    for (Publication pub : publicationList) {
+    for (Publication pub : publicationIndex.getByType(Publication.class)) {
       System.out.println(pub);
     }
 
@@ -162,6 +179,6 @@ public class SnapshotTopPublicationRepository implements PublicationRepository {
    * @return int The repository's size
    */
   public int getRepoSize() {
-    return publicationList.size();
+    return publicationIndex.size();
   }
 }
@@ -0,0 +1,90 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.inject.Guice;
+import com.jefferson.salvadore.booker.repo.PublicationManagerImpl;
+import com.jefferson.salvadore.booker.repo.PublicationRepository;
+import com.jefferson.salvadore.booker.util.PublicationModule;
+import com.jefferson.salvadore.booker.util.PublicationModule.Storage;
+
+/**
+ * Creates the {@link PublicationRepository} served by the catalog servlets when the web
+ * application starts, and stores it in the {@value #REPOSITORY_ATTRIBUTE} attribute of the servlet
+ * context, along with a {@link PurchaseBatcher} over its inventory in the
+ * {@value #PURCHASE_BATCHER_ATTRIBUTE} attribute.
+ *
+ * The repository is bound by a {@link PublicationModule}. Unless the
+ * {@value PublicationModule#STORAGE_PROPERTY} system property names another storage, the
+ * {@link Storage#CONCURRENT} one is used, since requests are served by many threads at once. A
+ * read-only storage such as {@link Storage#MAPPED} is refused, since it cannot serve purchases. The
+ * repository is initialized before it is stored, and closed when the web application stops if it
+ * is {@link Closeable}, so that the log and the inventory counts written behind are flushed.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 2-17-2016
+ *
+ */
+@WebListener
+public class CatalogContextListener implements ServletContextListener {
+
+  static final Logger logger = LoggerFactory.getLogger(CatalogContextListener.class);
+
+  /** The servlet context attribute holding the repository */
+  public static final String REPOSITORY_ATTRIBUTE =
+      "com.jefferson.salvadore.booker.server.repository";
+  /** The servlet context attribute holding the purchase batcher */
+  public static final String PURCHASE_BATCHER_ATTRIBUTE =
+      "com.jefferson.salvadore.booker.server.purchaseBatcher";
+
+  @Override
+  public void contextInitialized(final ServletContextEvent event) {
+    final Storage storage = Storage
+        .of(System.getProperty(PublicationModule.STORAGE_PROPERTY, Storage.CONCURRENT.name()));
+    if (!storage.isWritable()) {
+      throw new IllegalStateException("the " + storage
+          + " storage is read-only and cannot serve purchases, choose a writable storage");
+    }
+    final PublicationRepository repo = Guice.createInjector(new PublicationModule(storage))
+        .getInstance(PublicationRepository.class);
+    try {
+      repo.initialize();
+    } catch (IOException e) {
+      throw new UncheckedIOException("could not initialize the " + storage + " storage", e);
+    }
+    event.getServletContext().setAttribute(REPOSITORY_ATTRIBUTE, repo);
+    event.getServletContext().setAttribute(PURCHASE_BATCHER_ATTRIBUTE,
+        new PurchaseBatcher(new PublicationManagerImpl(repo)));
+    logger.info("Serving the catalog from the {} storage", storage);
+  }
+
+  @Override
+  public void contextDestroyed(final ServletContextEvent event) {
+    final Object batcher = event.getServletContext().getAttribute(PURCHASE_BATCHER_ATTRIBUTE);
+    if (batcher instanceof PurchaseBatcher) {
+      ((PurchaseBatcher) batcher).close();
+    }
+    event.getServletContext().removeAttribute(PURCHASE_BATCHER_ATTRIBUTE);
+    final Object repo = event.getServletContext().getAttribute(REPOSITORY_ATTRIBUTE);
+    event.getServletContext().removeAttribute(REPOSITORY_ATTRIBUTE);
+    if (repo instanceof Closeable) {
+      try {
+        ((Closeable) repo).close();
+      } catch (IOException e) {
+        logger.error("could not close the repository", e);
+      }
+    }
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.server;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.servlet.ServletException;
+import javax.servlet.UnavailableException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.jefferson.salvadore.booker.publication.Publication;
+import com.jefferson.salvadore.booker.repo.PublicationRepository;
+
+/**
+ * The base of the servlets serving the catalog as JSON, from the {@link PublicationRepository}
+ * stored in the servlet context by the {@link CatalogContextListener}.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 2-17-2016
+ *
+ */
+abstract class CatalogServlet extends HttpServlet {
+
+  private static final long serialVersionUID = 1L;
+
+  private transient PublicationRepository repo;
+
+  @Override
+  public void init() throws ServletException {
+    final Object attribute =
+        getServletContext().getAttribute(CatalogContextListener.REPOSITORY_ATTRIBUTE);
+    if (!(attribute instanceof PublicationRepository)) {
+      throw new UnavailableException("no repository in the servlet context attribute "
+          + CatalogContextListener.REPOSITORY_ATTRIBUTE);
+    }
+    repo = (PublicationRepository) attribute;
+  }
+
+  protected PublicationRepository getRepository() {
+    return repo;
+  }
+
+  /**
+   * Finds a publication of the repository by title.
+   *
+   * @return Publication The publication, or <code>null</code> if the title is empty or not in the
+   *         repository
+   */
+  @Nullable
+  protected Publication findPublication(@Nonnull final String title) throws IOException {
+    if (title.isEmpty()) {
+      return null;
+    }
+    try {
+      return repo.findByTitle(title);
+    } catch (NoSuchElementException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Returns the title named by the path after the servlet path, or an empty string if there is
+   * none.
+   */
+  protected static String getTitle(@Nonnull final HttpServletRequest request) {
+    final String pathInfo = request.getPathInfo();
+    return pathInfo == null || pathInfo.length() <= 1 ? "" : pathInfo.substring(1);
+  }
+
+  /**
+   * Sets the status and content type of a JSON response and returns a generator writing to its
+   * output stream. The generator closes the stream when it is closed.
+   */
+  protected static JsonGenerator startJson(@Nonnull final HttpServletResponse response,
+      final int status) throws IOException {
+    response.setStatus(status);
+    response.setContentType(PublicationJsonWriter.CONTENT_TYPE);
+    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    return PublicationJsonWriter.JSON_FACTORY.createGenerator(response.getOutputStream());
+  }
+
+  protected static void sendError(@Nonnull final HttpServletResponse response, final int status,
+      @Nonnull final String message) throws IOException {
+    try (final JsonGenerator generator = startJson(response, status)) {
+      PublicationJsonWriter.writeError(generator, status, message);
+    }
+  }
+}
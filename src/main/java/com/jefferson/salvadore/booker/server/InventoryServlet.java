@@ -0,0 +1,42 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.server;
+
+import java.io.IOException;
+
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Serves the inventory counts of the catalog as JSON: <code>GET /inventory/{title}</code> returns
+ * the number of copies of a title in stock, or <code>404</code> if the title is not in the
+ * catalog.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 2-17-2016
+ *
+ */
+@WebServlet("/inventory/*")
+public class InventoryServlet extends CatalogServlet {
+
+  private static final long serialVersionUID = 1L;
+
+  @Override
+  protected void doGet(HttpServletRequest request, HttpServletResponse response)
+      throws ServletException, IOException {
+    final String title = getTitle(request);
+    if (findPublication(title) == null) {
+      sendError(response, HttpServletResponse.SC_NOT_FOUND, "no publication has this title");
+      return;
+    }
+    final int count = getRepository().getInventoryCount(title);
+    try (final JsonGenerator generator = startJson(response, HttpServletResponse.SC_OK)) {
+      PublicationJsonWriter.writeInventory(generator, title, count);
+    }
+  }
+}
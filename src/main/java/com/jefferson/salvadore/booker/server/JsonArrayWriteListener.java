@@ -0,0 +1,73 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.server;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+import javax.annotation.Nonnull;
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.jefferson.salvadore.booker.publication.Publication;
+
+/**
+ * Streams publications as a JSON array over a non-blocking {@link ServletOutputStream}.
+ *
+ * A {@link PublicationArrayEncoder} encodes the next chunk of publications only when the container
+ * reports the stream ready. When the client reads slowly the listener returns, and the container
+ * calls it again once the stream drains, so no thread waits on the client. The asynchronous
+ * request is completed after the closing bracket was written.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 2-17-2016
+ *
+ */
+final class JsonArrayWriteListener implements WriteListener {
+
+  static final Logger logger = LoggerFactory.getLogger(JsonArrayWriteListener.class);
+
+  private final PublicationArrayEncoder encoder;
+  private final AsyncContext context;
+  private final ServletOutputStream out;
+
+  /**
+   * @param publications The publications to write, in order.
+   * @param context The asynchronous request, completed once the array was written.
+   * @param out The output stream of the response, in non-blocking mode once this listener is set.
+   * @throws IOException If the generator could not be created.
+   */
+  JsonArrayWriteListener(@Nonnull final Iterator<? extends Publication> publications,
+      @Nonnull final AsyncContext context, @Nonnull final ServletOutputStream out)
+      throws IOException {
+    this.encoder =
+        new PublicationArrayEncoder(publications, PublicationArrayEncoder.DEFAULT_CHUNK_SIZE);
+    this.context = checkNotNull(context);
+    this.out = checkNotNull(out);
+  }
+
+  @Override
+  public void onWritePossible() throws IOException {
+    while (out.isReady()) {
+      final byte[] chunk = encoder.nextChunk();
+      if (chunk == null) {
+        context.complete();
+        return;
+      }
+      out.write(chunk);
+    }
+  }
+
+  @Override
+  public void onError(final Throwable t) {
+    logger.warn("could not stream the publications", t);
+    context.complete();
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.server;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.jefferson.salvadore.booker.publication.Publication;
+
+/**
+ * Encodes publications as a JSON array, a chunk of publications at a time, so that a response can
+ * be written as fast as the client reads it without encoding the whole array up front.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 2-17-2016
+ *
+ */
+final class PublicationArrayEncoder {
+
+  /** The number of publications encoded per chunk by default */
+  static final int DEFAULT_CHUNK_SIZE = 64;
+
+  private final Iterator<? extends Publication> publications;
+  private final int chunkSize;
+  private final ByteArrayBuilder buffer = new ByteArrayBuilder();
+  private final JsonGenerator generator;
+  private boolean started;
+  private boolean ended;
+
+  /**
+   * @param publications The publications to encode, in order.
+   * @param chunkSize The number of publications encoded per chunk.
+   * @throws IOException If the generator could not be created.
+   */
+  PublicationArrayEncoder(@Nonnull final Iterator<? extends Publication> publications,
+      final int chunkSize) throws IOException {
+    checkArgument(chunkSize > 0, "chunkSize must be greater than zero");
+    this.publications = checkNotNull(publications);
+    this.chunkSize = chunkSize;
+    this.generator = PublicationJsonWriter.JSON_FACTORY.createGenerator(buffer);
+  }
+
+  /**
+   * Encodes the next publications. The first chunk opens the array and the last one closes it.
+   *
+   * @return byte[] The next chunk of the array, or <code>null</code> once the array was encoded
+   * @throws IOException If the generator could not write.
+   */
+  @Nullable
+  byte[] nextChunk() throws IOException {
+    if (ended) {
+      return null;
+    }
+    buffer.reset();
+    if (!started) {
+      generator.writeStartArray();
+      started = true;
+    }
+    for (int i = 0; i < chunkSize && publications.hasNext(); i++) {
+      PublicationJsonWriter.writePublication(generator, publications.next());
+    }
+    if (publications.hasNext()) {
+      generator.flush();
+    } else {
+      generator.writeEndArray();
+      generator.close();
+      ended = true;
+    }
+    return buffer.toByteArray();
+  }
+}
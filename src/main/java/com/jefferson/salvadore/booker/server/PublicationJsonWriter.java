@@ -0,0 +1,173 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.server;
+
+import java.io.IOException;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.jefferson.salvadore.booker.publication.Book;
+import com.jefferson.salvadore.booker.publication.Journal;
+import com.jefferson.salvadore.booker.publication.Magazine;
+import com.jefferson.salvadore.booker.publication.Periodical;
+import com.jefferson.salvadore.booker.publication.Publication;
+import com.jefferson.salvadore.booker.publication.Range;
+
+/**
+ * Writes {@link Publication}s as JSON objects with Jackson's streaming generator, so that a
+ * response is encoded straight into its output buffer.
+ *
+ * Every object has the fields <code>type</code>, <code>title</code>, <code>yearsPublished</code>
+ * (an object with <code>start</code> and <code>end</code>) and <code>pubFreq</code>, followed by
+ * the fields of its type: <code>author</code>, <code>language</code> and <code>totalSold</code>
+ * for a {@link Book}, <code>publisher</code> for a {@link Periodical}, plus
+ * <code>totalInCirculation</code> for a {@link Magazine}, or <code>discipline</code> and
+ * <code>impactFactor</code> for a {@link Journal}.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 2-17-2016
+ *
+ */
+public final class PublicationJsonWriter {
+
+  /** The factory of the generators used by the servlets */
+  public static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  /** The content type of the JSON responses */
+  public static final String CONTENT_TYPE = "application/json";
+
+  private PublicationJsonWriter() {}
+
+  /**
+   * Writes a publication as a JSON object.
+   *
+   * @param generator The generator to write to.
+   * @param publication The publication to write.
+   * @throws IOException If the generator could not write.
+   */
+  public static void writePublication(@Nonnull final JsonGenerator generator,
+      @Nonnull final Publication publication) throws IOException {
+    generator.writeStartObject();
+    generator.writeStringField("type", getType(publication));
+    generator.writeStringField("title", publication.getTitle());
+    final Range years = publication.getYearsPublished();
+    generator.writeObjectFieldStart("yearsPublished");
+    generator.writeNumberField("start", years.getRangeStart());
+    generator.writeNumberField("end", years.getRangeEnd());
+    generator.writeEndObject();
+    generator.writeNumberField("pubFreq", publication.getPubFreq());
+    if (publication instanceof Book) {
+      final Book book = (Book) publication;
+      generator.writeStringField("author", book.getAuthor());
+      generator.writeStringField("language", book.getLanguage());
+      generator.writeNumberField("totalSold", book.getTotalSold());
+    }
+    if (publication instanceof Periodical) {
+      generator.writeStringField("publisher", ((Periodical) publication).getPublisher());
+    }
+    if (publication instanceof Magazine) {
+      generator.writeNumberField("totalInCirculation",
+          ((Magazine) publication).getTotalInCirculation());
+    }
+    if (publication instanceof Journal) {
+      final Journal journal = (Journal) publication;
+      generator.writeStringField("discipline", journal.getDiscipline());
+      generator.writeNumberField("impactFactor", journal.getImpactFactor());
+    }
+    generator.writeEndObject();
+  }
+
+  /**
+   * Writes a page of publications as a JSON object with the fields <code>publications</code>, an
+   * array of the publications, and <code>nextAfter</code>, the title to ask the next page after,
+   * or <code>null</code> on the last page.
+   *
+   * @param generator The generator to write to.
+   * @param publications The publications of the page, in order.
+   * @param nextAfter The cursor of the next page, or <code>null</code> on the last page.
+   * @throws IOException If the generator could not write.
+   */
+  public static void writePage(@Nonnull final JsonGenerator generator,
+      @Nonnull final List<? extends Publication> publications, @Nullable final String nextAfter)
+      throws IOException {
+    generator.writeStartObject();
+    generator.writeArrayFieldStart("publications");
+    for (Publication publication : publications) {
+      writePublication(generator, publication);
+    }
+    generator.writeEndArray();
+    if (nextAfter == null) {
+      generator.writeNullField("nextAfter");
+    } else {
+      generator.writeStringField("nextAfter", nextAfter);
+    }
+    generator.writeEndObject();
+  }
+
+  /**
+   * Writes the inventory count of a title as a JSON object with the fields <code>title</code> and
+   * <code>inventoryCount</code>.
+   *
+   * @param generator The generator to write to.
+   * @param title The title counted.
+   * @param count The number of copies in stock.
+   * @throws IOException If the generator could not write.
+   */
+  public static void writeInventory(@Nonnull final JsonGenerator generator,
+      @Nonnull final String title, final int count) throws IOException {
+    generator.writeStartObject();
+    generator.writeStringField("title", title);
+    generator.writeNumberField("inventoryCount", count);
+    generator.writeEndObject();
+  }
+
+  /**
+   * Writes the outcome of a purchase as a JSON object with the fields <code>title</code>,
+   * <code>quantity</code> and <code>outcome</code>, the latter being <code>PURCHASED</code> or
+   * <code>OUT_OF_STOCK</code>.
+   *
+   * @param generator The generator to write to.
+   * @param title The title purchased.
+   * @param quantity The number of copies purchased.
+   * @param outcome The outcome of the purchase.
+   * @throws IOException If the generator could not write.
+   */
+  public static void writePurchase(@Nonnull final JsonGenerator generator,
+      @Nonnull final String title, final int quantity,
+      @Nonnull final PurchaseBatcher.Outcome outcome) throws IOException {
+    generator.writeStartObject();
+    generator.writeStringField("title", title);
+    generator.writeNumberField("quantity", quantity);
+    generator.writeStringField("outcome", outcome.name());
+    generator.writeEndObject();
+  }
+
+  /**
+   * Writes an error message as a JSON object with the fields <code>status</code> and
+   * <code>message</code>.
+   *
+   * @param generator The generator to write to.
+   * @param status The HTTP status of the response.
+   * @param message The error message.
+   * @throws IOException If the generator could not write.
+   */
+  public static void writeError(@Nonnull final JsonGenerator generator, final int status,
+      @Nonnull final String message) throws IOException {
+    generator.writeStartObject();
+    generator.writeNumberField("status", status);
+    generator.writeStringField("message", message);
+    generator.writeEndObject();
+  }
+
+  private static String getType(@Nonnull final Publication publication) {
+    if (publication instanceof Periodical) {
+      return ((Periodical) publication).getType();
+    }
+    return publication.getClass().getSimpleName();
+  }
+}
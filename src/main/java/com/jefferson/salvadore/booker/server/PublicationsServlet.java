@@ -0,0 +1,153 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.server;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+import javax.annotation.Nullable;
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.google.common.collect.ImmutableMap;
+import com.jefferson.salvadore.booker.publication.Book;
+import com.jefferson.salvadore.booker.publication.Journal;
+import com.jefferson.salvadore.booker.publication.Magazine;
+import com.jefferson.salvadore.booker.publication.Periodical;
+import com.jefferson.salvadore.booker.publication.Publication;
+import com.jefferson.salvadore.booker.repo.PublicationRepository;
+import com.jefferson.salvadore.booker.repo.concurrent.ConcurrentPublicationRepository;
+import com.jefferson.salvadore.booker.repo.log.MappedPublicationRepository;
+
+/**
+ * Serves the publications of the catalog as JSON.
+ *
+ * <ul>
+ * <li><code>GET /publications?type=...</code> lists the publications of a type, one of
+ * <code>book</code>, <code>magazine</code>, <code>journal</code>, <code>periodical</code> or
+ * <code>publication</code>, all of them by default. The listing is streamed with asynchronous I/O,
+ * see {@link JsonArrayWriteListener}. Since the container may write it from any thread, it is read
+ * straight from the repository only when the repository is safe for concurrent readers; otherwise
+ * it is copied on the request thread first. With a <code>limit</code> parameter, at most
+ * {@value #MAX_LIMIT}, one page of the listing is returned in title order instead, starting after
+ * the title given by the <code>after</code> parameter, see
+ * {@link PublicationJsonWriter#writePage(JsonGenerator, List, String)}.</li>
+ * <li><code>GET /publications/{title}</code> returns one publication, or <code>404</code>.</li>
+ * </ul>
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 2-17-2016
+ *
+ */
+@WebServlet(urlPatterns = {"/publications", "/publications/*"}, asyncSupported = true)
+public class PublicationsServlet extends CatalogServlet {
+
+  private static final long serialVersionUID = 1L;
+
+  private static final ImmutableMap<String, Class<? extends Publication>> TYPES =
+      ImmutableMap.<String, Class<? extends Publication>>builder()
+          .put("publication", Publication.class).put("periodical", Periodical.class)
+          .put("book", Book.class).put("magazine", Magazine.class).put("journal", Journal.class)
+          .build();
+
+  /** The largest page served at once */
+  public static final int MAX_LIMIT = 1000;
+
+  @Override
+  protected void doGet(HttpServletRequest request, HttpServletResponse response)
+      throws ServletException, IOException {
+    final String title = getTitle(request);
+    if (title.isEmpty()) {
+      list(request, response);
+      return;
+    }
+    final Publication publication = findPublication(title);
+    if (publication == null) {
+      sendError(response, HttpServletResponse.SC_NOT_FOUND, "no publication has this title");
+      return;
+    }
+    try (final JsonGenerator generator = startJson(response, HttpServletResponse.SC_OK)) {
+      PublicationJsonWriter.writePublication(generator, publication);
+    }
+  }
+
+  private void list(final HttpServletRequest request, final HttpServletResponse response)
+      throws IOException {
+    final Class<? extends Publication> type = getType(request.getParameter("type"));
+    if (type == null) {
+      sendError(response, HttpServletResponse.SC_BAD_REQUEST,
+          "type must be one of " + TYPES.keySet());
+      return;
+    }
+    final String limit = request.getParameter("limit");
+    if (limit != null) {
+      page(type, request.getParameter("after"), limit, response);
+      return;
+    }
+    final Iterator<? extends Publication> publications = listing(type);
+    response.setStatus(HttpServletResponse.SC_OK);
+    response.setContentType(PublicationJsonWriter.CONTENT_TYPE);
+    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    final AsyncContext context = request.startAsync();
+    final ServletOutputStream out = response.getOutputStream();
+    out.setWriteListener(new JsonArrayWriteListener(publications, context, out));
+  }
+
+  private void page(final Class<? extends Publication> type, @Nullable final String after,
+      final String limitParameter, final HttpServletResponse response) throws IOException {
+    int limit;
+    try {
+      limit = Integer.parseInt(limitParameter);
+    } catch (NumberFormatException e) {
+      limit = 0;
+    }
+    if (limit < 1 || limit > MAX_LIMIT) {
+      sendError(response, HttpServletResponse.SC_BAD_REQUEST,
+          "limit must be a number from 1 to " + MAX_LIMIT);
+      return;
+    }
+    final List<? extends Publication> page = getRepository().page(type, after, limit);
+    final String nextAfter = page.size() < limit ? null : page.get(page.size() - 1).getTitle();
+    try (final JsonGenerator generator = startJson(response, HttpServletResponse.SC_OK)) {
+      PublicationJsonWriter.writePage(generator, page, nextAfter);
+    }
+  }
+
+  /**
+   * Returns the publications of a type to write asynchronously. A
+   * {@link ConcurrentPublicationRepository} streams concurrent collections and a
+   * {@link MappedPublicationRepository} is read-only, so they are streamed as they are; the other
+   * repositories hand out views of their live index, which are copied here.
+   */
+  private Iterator<? extends Publication> listing(final Class<? extends Publication> type)
+      throws IOException {
+    final PublicationRepository repo = getRepository();
+    if (repo instanceof ConcurrentPublicationRepository
+        || repo instanceof MappedPublicationRepository) {
+      return repo.stream(type).iterator();
+    }
+    return new ArrayList<>(repo.getByType(type)).iterator();
+  }
+
+  /**
+   * Returns the type named by the <code>type</code> parameter, <code>Publication</code> if there is
+   * none, or <code>null</code> if it names no type.
+   */
+  @Nullable
+  private static Class<? extends Publication> getType(@Nullable final String type) {
+    if (type == null || type.isEmpty()) {
+      return Publication.class;
+    }
+    return TYPES.get(type.toLowerCase(Locale.ROOT));
+  }
+}
@@ -0,0 +1,293 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.server;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.jefferson.salvadore.booker.repo.PublicationManager;
+
+/**
+ * Coalesces concurrent purchases of a title into micro-batches, each applied to the inventory
+ * with a single {@link PublicationManager#tryReserve(String, int)}.
+ *
+ * The first purchase of a title opens a batch, which is applied once it holds a given number of
+ * purchases or a given time after it was opened, whichever comes first. If the stock covers the
+ * whole batch, every purchase succeeds. Otherwise the purchases are granted in arrival order as
+ * long as the remaining stock covers them, with one more reservation for the granted copies, and
+ * the others are answered out of stock. Purchases never block the caller: each one completes a
+ * <code>CompletableFuture</code> when its batch was applied.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 2-18-2016
+ *
+ */
+public class PurchaseBatcher implements Closeable {
+
+  static final Logger logger = LoggerFactory.getLogger(PurchaseBatcher.class);
+
+  /**
+   * The result of a purchase.
+   */
+  public enum Outcome {
+    /** The copies were taken out of the inventory */
+    PURCHASED,
+
+    /** Too few copies were left in stock; the inventory was not changed for this purchase */
+    OUT_OF_STOCK
+  }
+
+  /** The number of purchases of a title applied together at most, by default */
+  public static final int DEFAULT_MAX_BATCH = 256;
+  /** How long a batch waits for more purchases of its title by default */
+  public static final long DEFAULT_LINGER_MICROS = 1000;
+  /** The number of threads applying batches by default */
+  public static final int DEFAULT_THREADS = 2;
+
+  private static final int MAX_RESERVE_ATTEMPTS = 3;
+
+  private final PublicationManager manager;
+  private final int maxBatch;
+  private final long lingerMicros;
+  private final ScheduledThreadPoolExecutor executor;
+  private final ConcurrentMap<String, Batch> openBatches = new ConcurrentHashMap<>();
+  private final AtomicLong purchases = new AtomicLong();
+  private final AtomicLong batches = new AtomicLong();
+
+  /**
+   * Creates a batcher with the default batch size, linger time and threads.
+   *
+   * @param manager The manager of the inventory to purchase from.
+   */
+  public PurchaseBatcher(@Nonnull final PublicationManager manager) {
+    this(manager, DEFAULT_MAX_BATCH, DEFAULT_LINGER_MICROS, DEFAULT_THREADS);
+  }
+
+  /**
+   * @param manager The manager of the inventory to purchase from.
+   * @param maxBatch The number of purchases of a title applied together at most.
+   * @param lingerMicros How long a batch waits for more purchases of its title.
+   * @param threads The number of threads applying batches.
+   */
+  public PurchaseBatcher(@Nonnull final PublicationManager manager, final int maxBatch,
+      final long lingerMicros, final int threads) {
+    checkArgument(maxBatch > 0, "maxBatch must be greater than zero");
+    checkArgument(lingerMicros >= 0, "lingerMicros must not be negative");
+    checkArgument(threads > 0, "threads must be greater than zero");
+    this.manager = checkNotNull(manager);
+    this.maxBatch = maxBatch;
+    this.lingerMicros = lingerMicros;
+    this.executor = new ScheduledThreadPoolExecutor(threads,
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat("booker-purchase-%d").build());
+    executor.setRemoveOnCancelPolicy(true);
+  }
+
+  /**
+   * Queues a purchase.
+   *
+   * @param title The title to purchase.
+   * @param quantity The number of copies, greater than zero.
+   * @return CompletableFuture The outcome of the purchase, or the failure of the inventory
+   */
+  public CompletableFuture<Outcome> purchase(@Nonnull final String title, final int quantity) {
+    checkNotNull(title);
+    checkArgument(quantity > 0, "quantity must be greater than zero");
+    final Purchase purchase = new Purchase(quantity);
+    purchases.incrementAndGet();
+    while (true) {
+      final Batch batch = openBatches.computeIfAbsent(title, this::open);
+      final int size = batch.add(purchase);
+      if (size == maxBatch) {
+        submit(batch::apply);
+      } else if (size > 0 && batch.timer == null) {
+        batch.apply();
+      }
+      if (size > 0) {
+        return purchase.outcome;
+      }
+      // the batch was closed between the lookup and the add: open the next one
+      openBatches.remove(title, batch);
+    }
+  }
+
+  /**
+   * @return long The number of purchases queued since the batcher was created
+   */
+  public long getPurchaseCount() {
+    return purchases.get();
+  }
+
+  /**
+   * @return long The number of batches applied to the inventory
+   */
+  public long getBatchCount() {
+    return batches.get();
+  }
+
+  /**
+   * Applies the open batches and stops the threads.
+   */
+  @Override
+  public void close() {
+    for (Batch batch : openBatches.values()) {
+      batch.apply();
+    }
+    executor.shutdown();
+  }
+
+  private Batch open(@Nonnull final String title) {
+    final Batch batch = new Batch(title);
+    try {
+      batch.timer = executor.schedule(batch::apply, lingerMicros, TimeUnit.MICROSECONDS);
+    } catch (RejectedExecutionException e) {
+      // closed: without a timer, each purchase applies the batch on the calling thread
+    }
+    return batch;
+  }
+
+  /**
+   * Runs a task on the executor, or on the calling thread once the batcher is closed.
+   */
+  private void submit(@Nonnull final Runnable task) {
+    try {
+      executor.execute(task);
+    } catch (RejectedExecutionException e) {
+      task.run();
+    }
+  }
+
+  /**
+   * The purchases of a title waiting to be applied together.
+   */
+  private final class Batch {
+    private final String title;
+    private final List<Purchase> purchases = new ArrayList<>();
+    private boolean closed;
+    private volatile ScheduledFuture<?> timer;
+
+    private Batch(@Nonnull final String title) {
+      this.title = title;
+    }
+
+    /**
+     * Adds a purchase to the batch, unless it was closed.
+     *
+     * @return int The size of the batch with the purchase, or zero if the batch was closed
+     */
+    private synchronized int add(@Nonnull final Purchase purchase) {
+      if (closed) {
+        return 0;
+      }
+      purchases.add(purchase);
+      if (purchases.size() == maxBatch) {
+        closed = true;
+        openBatches.remove(title, this);
+      }
+      return purchases.size();
+    }
+
+    private void apply() {
+      final List<Purchase> applied;
+      synchronized (this) {
+        if (closed && purchases.isEmpty()) {
+          return;
+        }
+        closed = true;
+        openBatches.remove(title, this);
+        applied = new ArrayList<>(purchases);
+        purchases.clear();
+      }
+      final ScheduledFuture<?> scheduled = timer;
+      if (scheduled != null) {
+        scheduled.cancel(false);
+      }
+      if (!applied.isEmpty()) {
+        batches.incrementAndGet();
+        reserve(title, applied);
+      }
+    }
+  }
+
+  /**
+   * Applies a batch with one reservation when the stock covers it, or else grants the purchases
+   * the stock covers, in arrival order, with one more reservation. The second step is retried if
+   * another thread took copies in between. A batch of more copies than an <code>int</code> holds
+   * goes straight to the second step, since no stock can cover it.
+   */
+  private void reserve(@Nonnull final String title, @Nonnull final List<Purchase> batch) {
+    try {
+      long total = 0;
+      for (Purchase purchase : batch) {
+        total += purchase.quantity;
+      }
+      if (total <= Integer.MAX_VALUE && manager.tryReserve(title, (int) total)) {
+        completeAll(batch, Outcome.PURCHASED);
+        return;
+      }
+      for (int attempt = 0; attempt < MAX_RESERVE_ATTEMPTS; attempt++) {
+        final int available = manager.getInventoryCount(title);
+        final List<Purchase> granted = new ArrayList<>();
+        int copies = 0;
+        for (Purchase purchase : batch) {
+          if (purchase.quantity <= available - copies) {
+            granted.add(purchase);
+            copies += purchase.quantity;
+          }
+        }
+        if (granted.isEmpty()) {
+          break;
+        }
+        if (manager.tryReserve(title, copies)) {
+          completeAll(granted, Outcome.PURCHASED);
+          completeAll(batch, Outcome.OUT_OF_STOCK);
+          return;
+        }
+      }
+      completeAll(batch, Outcome.OUT_OF_STOCK);
+    } catch (IOException | RuntimeException e) {
+      logger.warn("could not apply {} purchases of {}", batch.size(), title, e);
+      for (Purchase purchase : batch) {
+        purchase.outcome.completeExceptionally(e);
+      }
+    }
+  }
+
+  /**
+   * Completes the purchases not completed yet.
+   */
+  private static void completeAll(@Nonnull final List<Purchase> purchases,
+      @Nonnull final Outcome outcome) {
+    for (Purchase purchase : purchases) {
+      purchase.outcome.complete(outcome);
+    }
+  }
+
+  private static final class Purchase {
+    private final int quantity;
+    private final CompletableFuture<Outcome> outcome = new CompletableFuture<>();
+
+    private Purchase(final int quantity) {
+      this.quantity = quantity;
+    }
+  }
+}
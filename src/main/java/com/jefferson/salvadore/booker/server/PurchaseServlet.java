@@ -0,0 +1,107 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.server;
+
+import java.io.IOException;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletException;
+import javax.servlet.UnavailableException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.jefferson.salvadore.booker.server.PurchaseBatcher.Outcome;
+
+/**
+ * Purchases copies of a title: <code>POST /purchases/{title}?quantity=n</code>, one copy by
+ * default.
+ *
+ * The purchase is queued on the {@link PurchaseBatcher} stored in the servlet context by the
+ * {@link CatalogContextListener}, and the request thread is released at once. The response is
+ * written when the batch of the purchase was applied: <code>200</code> with the outcome
+ * <code>PURCHASED</code>, <code>409</code> with the outcome <code>OUT_OF_STOCK</code>, or
+ * <code>404</code> if the title is not in the catalog.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 2-18-2016
+ *
+ */
+@WebServlet(urlPatterns = "/purchases/*", asyncSupported = true)
+public class PurchaseServlet extends CatalogServlet {
+
+  static final Logger logger = LoggerFactory.getLogger(PurchaseServlet.class);
+
+  private static final long serialVersionUID = 1L;
+
+  private transient PurchaseBatcher batcher;
+
+  @Override
+  public void init() throws ServletException {
+    super.init();
+    final Object attribute =
+        getServletContext().getAttribute(CatalogContextListener.PURCHASE_BATCHER_ATTRIBUTE);
+    if (!(attribute instanceof PurchaseBatcher)) {
+      throw new UnavailableException("no purchase batcher in the servlet context attribute "
+          + CatalogContextListener.PURCHASE_BATCHER_ATTRIBUTE);
+    }
+    batcher = (PurchaseBatcher) attribute;
+  }
+
+  @Override
+  protected void doPost(HttpServletRequest request, HttpServletResponse response)
+      throws ServletException, IOException {
+    final String title = getTitle(request);
+    if (findPublication(title) == null) {
+      sendError(response, HttpServletResponse.SC_NOT_FOUND, "no publication has this title");
+      return;
+    }
+    final int quantity = getQuantity(request.getParameter("quantity"));
+    if (quantity <= 0) {
+      sendError(response, HttpServletResponse.SC_BAD_REQUEST,
+          "quantity must be a number greater than zero");
+      return;
+    }
+    final AsyncContext context = request.startAsync();
+    batcher.purchase(title, quantity).whenComplete((outcome, failure) -> {
+      final HttpServletResponse asyncResponse = (HttpServletResponse) context.getResponse();
+      try {
+        if (failure != null) {
+          logger.warn("could not purchase {} copies of {}", quantity, title, failure);
+          sendError(asyncResponse, HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
+              "the purchase could not be completed");
+        } else {
+          final int status = outcome == Outcome.PURCHASED ? HttpServletResponse.SC_OK
+              : HttpServletResponse.SC_CONFLICT;
+          try (final JsonGenerator generator = startJson(asyncResponse, status)) {
+            PublicationJsonWriter.writePurchase(generator, title, quantity, outcome);
+          }
+        }
+      } catch (IOException e) {
+        logger.debug("could not write the outcome of a purchase of {}", title, e);
+      } finally {
+        context.complete();
+      }
+    });
+  }
+
+  /**
+   * Returns the quantity given by the <code>quantity</code> parameter, one if there is none, or
+   * zero if it is not a number.
+   */
+  private static int getQuantity(final String quantity) {
+    if (quantity == null || quantity.isEmpty()) {
+      return 1;
+    }
+    try {
+      return Integer.parseInt(quantity);
+    } catch (NumberFormatException e) {
+      return 0;
+    }
+  }
+}
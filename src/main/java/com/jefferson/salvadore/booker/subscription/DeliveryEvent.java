@@ -0,0 +1,75 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.subscription;
+
+import javax.annotation.Nonnull;
+
+import com.jefferson.salvadore.booker.publication.Periodical;
+
+/**
+ * The delivery of one issue of a {@link Periodical} to one {@link Subscription}, handed to a
+ * {@link DeliverySink}.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 2-16-2016
+ *
+ */
+public final class DeliveryEvent {
+
+  private final Subscription subscription;
+  private final int issue;
+
+  DeliveryEvent(@Nonnull final Subscription subscription, final int issue) {
+    this.subscription = subscription;
+    this.issue = issue;
+  }
+
+  public long getSubscriptionId() {
+    return subscription.getId();
+  }
+
+  public Periodical getPeriodical() {
+    return subscription.getPeriodical();
+  }
+
+  /**
+   * @return int The number of the delivered issue, counting from one
+   */
+  public int getIssue() {
+    return issue;
+  }
+
+  /**
+   * @return int The number of issues still to deliver after this one
+   */
+  public int getIssuesRemaining() {
+    return subscription.getIssueCount() - issue;
+  }
+
+  /**
+   * @return boolean <code>true</code> if this is the last issue of the subscription
+   */
+  public boolean isLastIssue() {
+    return issue == subscription.getIssueCount();
+  }
+
+  /**
+   * @return String The message announcing the arrival of the issue to the subscriber
+   */
+  public String getMessage() {
+    final Periodical periodical = getPeriodical();
+    return String.format("%s issue #%s of %s has arrived! You have %s issues remaining",
+        periodical.getType(), issue, periodical.getTitle(), getIssuesRemaining());
+  }
+
+  Subscription getSubscription() {
+    return subscription;
+  }
+
+  @Override
+  public String toString() {
+    return "DeliveryEvent[subscription=" + getSubscriptionId() + ", title="
+        + getPeriodical().getTitle() + ", issue=" + issue + "]";
+  }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.subscription;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Hands the {@link DeliveryEvent}s of a {@link SubscriptionService} to a {@link DeliverySink} in
+ * batches.
+ *
+ * Events wait in a bounded queue, which a single drain task empties a batch at a time, so the sink
+ * is never called concurrently. When the queue is full, {@link #submit(List)} blocks until the sink
+ * catches up: a slow sink slows the scheduler down instead of filling the heap. The drain thread
+ * stops once it has been idle for a few seconds.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 2-16-2016
+ *
+ */
+final class DeliveryPipeline implements Closeable {
+
+  static final Logger logger = LoggerFactory.getLogger(DeliveryPipeline.class);
+
+  /** The largest number of events handed to the sink at once */
+  static final int MAX_BATCH = 512;
+
+  private static final long IDLE_THREAD_KEEP_ALIVE_SECONDS = 5;
+  private static final long CLOSE_TIMEOUT_SECONDS = 5;
+
+  private final DeliverySink sink;
+  private final BiConsumer<DeliveryEvent, Throwable> onComplete;
+  private final BlockingQueue<DeliveryEvent> queue;
+  private final ThreadPoolExecutor executor;
+  private final AtomicBoolean draining = new AtomicBoolean();
+  private final AtomicLong delivered = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+  private final AtomicLong batches = new AtomicLong();
+  private final AtomicLong backpressureNanos = new AtomicLong();
+  private final long startNanos = System.nanoTime();
+
+  /**
+   * @param sink The sink to deliver the events to.
+   * @param capacity The number of events that may wait for the sink.
+   * @param onComplete Runs on the drain thread for each event once its batch was handed over, with
+   *        the failure of the sink or <code>null</code>.
+   */
+  DeliveryPipeline(@Nonnull final DeliverySink sink, final int capacity,
+      @Nonnull final BiConsumer<DeliveryEvent, Throwable> onComplete) {
+    checkArgument(capacity > 0, "capacity must be greater than zero");
+    this.sink = checkNotNull(sink);
+    this.onComplete = checkNotNull(onComplete);
+    this.queue = new ArrayBlockingQueue<>(capacity);
+    this.executor = new ThreadPoolExecutor(1, 1, IDLE_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(),
+        new ThreadFactoryBuilder().setNameFormat("booker-delivery-%d").build());
+    executor.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * Queues events for the sink, waiting for room in the queue when it is full.
+   *
+   * @param events The events to deliver, in order.
+   * @throws InterruptedException If the thread was interrupted while waiting. The events not
+   *         queued yet are dropped.
+   */
+  void submit(@Nonnull final List<DeliveryEvent> events) throws InterruptedException {
+    for (DeliveryEvent event : events) {
+      if (!queue.offer(event)) {
+        drain();
+        final long waitStart = System.nanoTime();
+        queue.put(event);
+        backpressureNanos.addAndGet(System.nanoTime() - waitStart);
+      }
+    }
+    drain();
+  }
+
+  DeliveryStats stats() {
+    return new DeliveryStats(delivered.get(), failed.get(), batches.get(), backpressureNanos.get(),
+        queue.size(), System.nanoTime() - startNanos);
+  }
+
+  /**
+   * Delivers the events already queued and stops the drain thread.
+   */
+  @Override
+  public void close() {
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        logger.warn("{} issues were not delivered before the timeout", queue.size());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Starts the drain task unless it is running already.
+   */
+  private void drain() {
+    if (draining.compareAndSet(false, true)) {
+      try {
+        executor.execute(this::deliverQueued);
+      } catch (RejectedExecutionException e) {
+        draining.set(false);
+        logger.debug("the pipeline is closed, {} issues are dropped", queue.size());
+      }
+    }
+  }
+
+  private void deliverQueued() {
+    final List<DeliveryEvent> batch = new ArrayList<>(Math.min(MAX_BATCH, queue.size() + 1));
+    while (true) {
+      queue.drainTo(batch, MAX_BATCH);
+      if (batch.isEmpty()) {
+        draining.set(false);
+        // an event queued after drainTo but before the flag was cleared would otherwise wait
+        if (queue.isEmpty() || !draining.compareAndSet(false, true)) {
+          return;
+        }
+        continue;
+      }
+      deliverBatch(batch);
+      batch.clear();
+    }
+  }
+
+  private void deliverBatch(@Nonnull final List<DeliveryEvent> batch) {
+    Throwable failure = null;
+    try {
+      sink.deliver(batch);
+      delivered.addAndGet(batch.size());
+    } catch (Exception e) {
+      failure = e;
+      failed.addAndGet(batch.size());
+      logger.warn("could not deliver a batch of {} issues", batch.size(), e);
+    }
+    batches.incrementAndGet();
+    for (DeliveryEvent event : batch) {
+      try {
+        onComplete.accept(event, failure);
+      } catch (RuntimeException e) {
+        logger.warn("could not complete the delivery of {}", event, e);
+      }
+    }
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.subscription;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Receives the issues delivered by a {@link SubscriptionService}, a batch at a time. Batches are
+ * handed over one after the other, never concurrently, and the events of a subscription arrive in
+ * issue order.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 2-16-2016
+ *
+ */
+public interface DeliverySink {
+
+  /**
+   * Delivers a batch of issues. The batch is not retried if this method fails, and the issues are
+   * not recorded as delivered in the {@link SubscriptionJournal}.
+   *
+   * @param batch The events to deliver, in the order the issues fell due.
+   * @throws IOException If the batch could not be delivered.
+   */
+  void deliver(@Nonnull final List<DeliveryEvent> batch) throws IOException;
+
+  /**
+   * Returns a sink passing the message of each event, see {@link DeliveryEvent#getMessage()}, to a
+   * consumer.
+   *
+   * @param notices Receives a message on the arrival of each issue.
+   * @return DeliverySink The sink
+   */
+  public static DeliverySink ofNotices(@Nonnull final Consumer<String> notices) {
+    return batch -> {
+      for (DeliveryEvent event : batch) {
+        notices.accept(event.getMessage());
+      }
+    };
+  }
+}
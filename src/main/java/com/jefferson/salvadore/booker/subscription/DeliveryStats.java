@@ -0,0 +1,92 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.subscription;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A snapshot of the delivery counters of a {@link SubscriptionService}.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 2-16-2016
+ *
+ */
+public final class DeliveryStats {
+
+  private final long eventsDelivered;
+  private final long eventsFailed;
+  private final long batches;
+  private final long backpressureNanos;
+  private final int queued;
+  private final long elapsedNanos;
+
+  DeliveryStats(final long eventsDelivered, final long eventsFailed, final long batches,
+      final long backpressureNanos, final int queued, final long elapsedNanos) {
+    this.eventsDelivered = eventsDelivered;
+    this.eventsFailed = eventsFailed;
+    this.batches = batches;
+    this.backpressureNanos = backpressureNanos;
+    this.queued = queued;
+    this.elapsedNanos = elapsedNanos;
+  }
+
+  /**
+   * @return long The number of events the sink accepted
+   */
+  public long getEventsDelivered() {
+    return eventsDelivered;
+  }
+
+  /**
+   * @return long The number of events in batches the sink failed to deliver
+   */
+  public long getEventsFailed() {
+    return eventsFailed;
+  }
+
+  /**
+   * @return long The number of batches handed to the sink
+   */
+  public long getBatches() {
+    return batches;
+  }
+
+  /**
+   * @return long The total time the scheduler threads waited for room in the queue, in
+   *         nanoseconds
+   */
+  public long getBackpressureNanos() {
+    return backpressureNanos;
+  }
+
+  /**
+   * @return int The number of events waiting for the sink
+   */
+  public int getQueued() {
+    return queued;
+  }
+
+  /**
+   * @return double The mean number of events per batch
+   */
+  public double getAverageBatchSize() {
+    return batches == 0 ? 0 : (double) (eventsDelivered + eventsFailed) / batches;
+  }
+
+  /**
+   * @return double The number of events the sink accepted per second since the service started
+   */
+  public double getEventsPerSecond() {
+    return elapsedNanos <= 0 ? 0
+        : eventsDelivered * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "DeliveryStats[delivered=%s, failed=%s, batches=%s, queued=%s, backpressure=%s ms, %.1f events/s]",
+        eventsDelivered, eventsFailed, batches, queued,
+        TimeUnit.NANOSECONDS.toMillis(backpressureNanos), getEventsPerSecond());
+  }
+}
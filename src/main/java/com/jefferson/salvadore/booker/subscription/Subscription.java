@@ -0,0 +1,133 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.subscription;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnull;
+
+import com.jefferson.salvadore.booker.publication.Periodical;
+
+/**
+ * A subscription to a number of issues of a {@link Periodical}, delivered by a
+ * {@link SubscriptionService}. Each subscription holds its own state, so ending one does not end
+ * any other.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 2-15-2016
+ *
+ */
+public final class Subscription {
+
+  private final long id;
+  private final Periodical periodical;
+  private final int issueCount;
+  private final long intervalMillis;
+  private final Consumer<Subscription> onDone;
+  private final AtomicInteger delivered;
+  private final AtomicBoolean finished = new AtomicBoolean();
+  private final CountDownLatch done = new CountDownLatch(1);
+
+  /**
+   * @param delivered The number of issues delivered before, by an earlier run of the application.
+   * @param onDone Runs once, when the last issue was delivered or the subscription was cancelled.
+   */
+  Subscription(final long id, @Nonnull final Periodical periodical, final int issueCount,
+      final long intervalMillis, final int delivered,
+      @Nonnull final Consumer<Subscription> onDone) {
+    this.id = id;
+    this.periodical = periodical;
+    this.issueCount = issueCount;
+    this.intervalMillis = intervalMillis;
+    this.delivered = new AtomicInteger(delivered);
+    this.onDone = onDone;
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  public Periodical getPeriodical() {
+    return periodical;
+  }
+
+  public int getIssueCount() {
+    return issueCount;
+  }
+
+  /**
+   * @return long The time between two issues, in milliseconds
+   */
+  public long getIntervalMillis() {
+    return intervalMillis;
+  }
+
+  public int getIssuesDelivered() {
+    return Math.min(delivered.get(), issueCount);
+  }
+
+  public int getIssuesRemaining() {
+    return issueCount - getIssuesDelivered();
+  }
+
+  /**
+   * @return boolean <code>true</code> once every issue was delivered or the subscription was
+   *         cancelled
+   */
+  public boolean isDone() {
+    return finished.get();
+  }
+
+  /**
+   * Cancels the issues not delivered yet. Other subscriptions are not affected.
+   */
+  public void cancel() {
+    finish();
+  }
+
+  /**
+   * Waits until every issue was delivered or the subscription was cancelled.
+   *
+   * @param timeout The longest time to wait.
+   * @param unit The unit of <code>timeout</code>.
+   * @return boolean <code>true</code> if the subscription is done, <code>false</code> if the
+   *         timeout elapsed first
+   * @throws InterruptedException If the current thread was interrupted while waiting.
+   */
+  public boolean await(final long timeout, @Nonnull final TimeUnit unit)
+      throws InterruptedException {
+    return done.await(timeout, unit);
+  }
+
+  /**
+   * Counts the next issue as delivered. The subscription is finished by the caller once the last
+   * issue has been handed over.
+   *
+   * @return int The number of the delivered issue, counting from one, or zero if the subscription
+   *         is done
+   */
+  int deliverNext() {
+    if (isDone()) {
+      return 0;
+    }
+    final int issue = delivered.incrementAndGet();
+    return issue > issueCount ? 0 : issue;
+  }
+
+  /**
+   * Stops the delivery of issues and releases the threads waiting in
+   * {@link #await(long, TimeUnit)}.
+   */
+  void finish() {
+    if (!finished.compareAndSet(false, true)) {
+      return;
+    }
+    onDone.accept(this);
+    done.countDown();
+  }
+}
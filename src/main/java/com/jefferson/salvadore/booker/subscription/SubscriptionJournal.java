@@ -0,0 +1,537 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.subscription;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.zip.CRC32;
+
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A durable ledger of subscriptions: an append-only journal of subscribe, deliver and cancel
+ * events, and a snapshot of the live subscriptions that the journal is folded into every
+ * {@link #DEFAULT_SNAPSHOT_INTERVAL} events, so that replay time stays bounded.
+ *
+ * Both files start with four magic bytes and a version byte, followed by records framed like those
+ * of the publication log:
+ *
+ * <pre>
+ * int    length of the body
+ * int    CRC32 of the body
+ * body:
+ *   byte   operation (SUBSCRIBE, DELIVER, CANCEL or LAST_ID)
+ *   long   subscription id
+ *   SUBSCRIBE: int issue count, long interval, long start, int delivered, UTF title
+ *   DELIVER:   int issue number
+ * </pre>
+ *
+ * Events are group-committed: a single writer thread appends every event queued since its last
+ * write and forces the journal once for all of them, then completes their futures. Replaying an
+ * event twice has no further effect, so a crash between writing a snapshot and resetting the
+ * journal is harmless. {@link #initialize()} truncates a torn record at the end of the journal,
+ * but fails on a damaged record followed by more of the journal rather than drop the events after
+ * it.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 2-16-2016
+ *
+ */
+public class SubscriptionJournal implements Closeable {
+
+  static final Logger logger = LoggerFactory.getLogger(SubscriptionJournal.class);
+
+  /** The number of events after which the journal is folded into a new snapshot by default */
+  public static final int DEFAULT_SNAPSHOT_INTERVAL = 10_000;
+
+  static final byte[] MAGIC = new byte[] {'B', 'K', 'S', 'J'};
+  static final byte VERSION = 1;
+  static final int HEADER_LENGTH = MAGIC.length + 1;
+  static final int MAX_BODY_LENGTH = 1 << 20;
+
+  static final byte OP_SUBSCRIBE = 1;
+  static final byte OP_DELIVER = 2;
+  static final byte OP_CANCEL = 3;
+  static final byte OP_LAST_ID = 4;
+
+  private static final int MAX_BATCH = 4096;
+
+  private final Path journalPath;
+  private final Path snapshotPath;
+  private final int snapshotInterval;
+  private final BlockingQueue<Write> queue = new LinkedBlockingQueue<>();
+  // Owned by initialize(), then by the writer thread
+  private final Map<Long, SubscriptionRecord> live = new LinkedHashMap<>();
+  private List<SubscriptionRecord> recovered = Collections.emptyList();
+  private long recoveredLastId;
+  private long lastId;
+  private int eventsSinceSnapshot;
+  private FileChannel channel;
+  private OutputStream appender;
+  private Thread writer;
+  private volatile boolean closed;
+  private volatile long commitCount;
+
+  /**
+   * Creates a journal stored in <code>subscriptions.journal</code> and
+   * <code>subscriptions.snapshot</code> of a directory, with the default snapshot interval.
+   *
+   * @param directory The directory of the journal, created by {@link #initialize()}.
+   */
+  public SubscriptionJournal(@Nonnull final Path directory) {
+    this(directory, DEFAULT_SNAPSHOT_INTERVAL);
+  }
+
+  /**
+   * @param directory The directory of the journal, created by {@link #initialize()}.
+   * @param snapshotInterval The number of events after which a new snapshot is written.
+   */
+  public SubscriptionJournal(@Nonnull final Path directory, final int snapshotInterval) {
+    checkArgument(snapshotInterval > 0, "snapshotInterval must be greater than zero");
+    this.journalPath = checkNotNull(directory).resolve("subscriptions.journal");
+    this.snapshotPath = directory.resolve("subscriptions.snapshot");
+    this.snapshotInterval = snapshotInterval;
+  }
+
+  /**
+   * Replays the snapshot and the journal, and starts the writer thread.
+   *
+   * @throws IOException If the files cannot be read, the snapshot is corrupt, or the journal holds
+   *         a damaged record before its last one.
+   */
+  public void initialize() throws IOException {
+    checkState(writer == null, "the journal is already initialized");
+    Files.createDirectories(journalPath.getParent());
+    try (final DataInputStream stream = open(snapshotPath)) {
+      Record record;
+      while ((record = read(stream)) != null) {
+        apply(record);
+      }
+    } catch (NoSuchFileException e) {
+      // no snapshot was written yet
+    }
+    eventsSinceSnapshot = 0;
+    if (!Files.exists(journalPath)) {
+      createFile(journalPath);
+    }
+    final long validLength = replayJournal();
+    channel = FileChannel.open(journalPath, WRITE);
+    if (validLength < channel.size()) {
+      logger.warn("Truncating {} bytes of incomplete records from {}",
+          channel.size() - validLength, journalPath);
+      channel.truncate(validLength);
+    }
+    channel.position(validLength);
+    appender = new BufferedOutputStream(Channels.newOutputStream(channel));
+    recovered = Collections.unmodifiableList(new ArrayList<>(live.values()));
+    recoveredLastId = lastId;
+    writer = new Thread(this::writeLoop, "booker-subscription-journal");
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  /**
+   * @return List The subscriptions that were live when the journal was last written, as replayed
+   *         by {@link #initialize()}
+   */
+  public List<SubscriptionRecord> getRecovered() {
+    return recovered;
+  }
+
+  /**
+   * @return long The largest subscription id found by {@link #initialize()}
+   */
+  public long getLastId() {
+    return recoveredLastId;
+  }
+
+  /**
+   * @return long The number of times the journal was forced to the storage device, each time for
+   *         a batch of events
+   */
+  public long getCommitCount() {
+    return commitCount;
+  }
+
+  /**
+   * Records a new subscription.
+   *
+   * @param record The subscription.
+   * @return CompletableFuture Completes once the event is on the storage device
+   */
+  public CompletableFuture<Void> subscribed(@Nonnull final SubscriptionRecord record) {
+    return enqueue(encode(OP_SUBSCRIBE, record.getId(), record));
+  }
+
+  /**
+   * Records the delivery of an issue. A subscription whose last issue is delivered is removed.
+   *
+   * @param id The id of the subscription.
+   * @param issue The number of the delivered issue, counting from one.
+   * @return CompletableFuture Completes once the event is on the storage device
+   */
+  public CompletableFuture<Void> delivered(final long id, final int issue) {
+    return enqueue(encode(OP_DELIVER, id, issue));
+  }
+
+  /**
+   * Records the cancellation of a subscription.
+   *
+   * @param id The id of the subscription.
+   * @return CompletableFuture Completes once the event is on the storage device
+   */
+  public CompletableFuture<Void> cancelled(final long id) {
+    return enqueue(encode(OP_CANCEL, id, null));
+  }
+
+  /**
+   * Writes the events queued so far, stops the writer thread and closes the journal.
+   *
+   * @throws IOException If the journal could not be closed.
+   */
+  @Override
+  public void close() throws IOException {
+    if (writer == null || closed) {
+      return;
+    }
+    closed = true;
+    queue.add(Write.STOP);
+    try {
+      writer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    channel.close();
+  }
+
+  private CompletableFuture<Void> enqueue(@Nonnull final byte[] record) {
+    checkState(writer != null, "the journal is not initialized");
+    final Write write = new Write(record);
+    if (closed) {
+      write.done.completeExceptionally(new IOException("the journal is closed"));
+    } else {
+      queue.add(write);
+    }
+    return write.done;
+  }
+
+  /**
+   * Appends every queued event with a single force, until {@link Write#STOP} is taken.
+   */
+  private void writeLoop() {
+    final List<Write> batch = new ArrayList<>();
+    boolean stopping = false;
+    while (!stopping) {
+      batch.clear();
+      try {
+        batch.add(queue.take());
+      } catch (InterruptedException e) {
+        break;
+      }
+      queue.drainTo(batch, MAX_BATCH);
+      IOException failure = null;
+      try {
+        for (Write write : batch) {
+          if (write == Write.STOP) {
+            stopping = true;
+          } else {
+            appender.write(write.record);
+          }
+        }
+        appender.flush();
+        channel.force(false);
+        commitCount++;
+      } catch (IOException e) {
+        logger.error("could not write to {}", journalPath, e);
+        failure = e;
+      }
+      for (Write write : batch) {
+        if (write == Write.STOP) {
+          continue;
+        }
+        if (failure == null) {
+          applyWritten(write.record);
+          write.done.complete(null);
+        } else {
+          write.done.completeExceptionally(failure);
+        }
+      }
+      if (failure == null && eventsSinceSnapshot >= snapshotInterval) {
+        try {
+          snapshot();
+        } catch (IOException e) {
+          logger.error("could not write {}", snapshotPath, e);
+        }
+      }
+    }
+    for (Write write : queue) {
+      write.done.completeExceptionally(new IOException("the journal is closed"));
+    }
+  }
+
+  private void applyWritten(@Nonnull final byte[] record) {
+    try (final DataInputStream stream = new DataInputStream(new ByteArrayInputStream(record))) {
+      apply(read(stream));
+    } catch (IOException e) {
+      throw new IllegalStateException("could not decode a record just written", e);
+    }
+  }
+
+  /**
+   * Writes the live subscriptions to a new snapshot, moves it into place and resets the journal.
+   */
+  private void snapshot() throws IOException {
+    final Path temp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+    Files.deleteIfExists(temp);
+    try (final FileChannel target = FileChannel.open(temp, CREATE_NEW, WRITE)) {
+      final OutputStream stream = new BufferedOutputStream(Channels.newOutputStream(target));
+      stream.write(header());
+      stream.write(encode(OP_LAST_ID, lastId, null));
+      for (SubscriptionRecord record : live.values()) {
+        stream.write(encode(OP_SUBSCRIBE, record.getId(), record));
+      }
+      stream.flush();
+      target.force(true);
+    }
+    Files.move(temp, snapshotPath, REPLACE_EXISTING, ATOMIC_MOVE);
+    channel.truncate(HEADER_LENGTH);
+    channel.position(HEADER_LENGTH);
+    channel.force(false);
+    eventsSinceSnapshot = 0;
+    logger.debug("Wrote a snapshot of {} subscriptions", live.size());
+  }
+
+  /**
+   * Applies the records of the journal. A record that is cut short, or that fails its checks with
+   * nothing after it, is a torn write and ends the replay.
+   *
+   * @return long The length of the journal up to the last complete record
+   * @throws IOException If a damaged record is followed by more bytes.
+   */
+  private long replayJournal() throws IOException {
+    long position = HEADER_LENGTH;
+    try (final DataInputStream stream = open(journalPath)) {
+      while (true) {
+        final Record record;
+        try {
+          record = read(stream);
+        } catch (IOException e) {
+          if (stream.read() != -1) {
+            throw new IOException("damaged record at offset " + position + " of " + journalPath,
+                e);
+          }
+          logger.warn("Stopped reading {} at offset {}: {}", journalPath, position, e.getMessage());
+          break;
+        }
+        if (record == null) {
+          break;
+        }
+        apply(record);
+        position += record.size;
+      }
+    }
+    return position;
+  }
+
+  private void apply(@Nonnull final Record record) {
+    lastId = Math.max(lastId, record.id);
+    eventsSinceSnapshot++;
+    switch (record.op) {
+      case OP_SUBSCRIBE:
+        if (record.subscription.getDelivered() < record.subscription.getIssueCount()) {
+          live.put(record.id, record.subscription);
+        }
+        break;
+      case OP_DELIVER:
+        final SubscriptionRecord current = live.get(record.id);
+        if (current != null) {
+          if (record.issue >= current.getIssueCount()) {
+            live.remove(record.id);
+          } else {
+            live.put(record.id, current.withDelivered(record.issue));
+          }
+        }
+        break;
+      case OP_CANCEL:
+        live.remove(record.id);
+        break;
+      default:
+        break;
+    }
+  }
+
+  private static DataInputStream open(@Nonnull final Path path) throws IOException {
+    final DataInputStream stream =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16));
+    try {
+      final byte[] header = new byte[HEADER_LENGTH];
+      stream.readFully(header);
+      if (!Arrays.equals(Arrays.copyOf(header, MAGIC.length), MAGIC)) {
+        throw new IOException("not a subscription journal: " + path);
+      }
+      if (header[MAGIC.length] != VERSION) {
+        throw new IOException("unsupported subscription journal version: " + header[MAGIC.length]);
+      }
+      return stream;
+    } catch (IOException e) {
+      stream.close();
+      throw e;
+    }
+  }
+
+  private static void createFile(@Nonnull final Path path) throws IOException {
+    try (final OutputStream stream = Files.newOutputStream(path, CREATE_NEW)) {
+      stream.write(header());
+    }
+  }
+
+  private static byte[] header() {
+    final byte[] header = Arrays.copyOf(MAGIC, HEADER_LENGTH);
+    header[MAGIC.length] = VERSION;
+    return header;
+  }
+
+  private static byte[] encode(final byte op, final long id, final Object value) {
+    try {
+      final ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+      final DataOutputStream out = new DataOutputStream(bytes);
+      out.writeInt(0);
+      out.writeInt(0);
+      out.writeByte(op);
+      out.writeLong(id);
+      if (op == OP_SUBSCRIBE) {
+        final SubscriptionRecord record = (SubscriptionRecord) value;
+        out.writeInt(record.getIssueCount());
+        out.writeLong(record.getIntervalMillis());
+        out.writeLong(record.getStartMillis());
+        out.writeInt(record.getDelivered());
+        out.writeUTF(record.getTitle());
+      } else if (op == OP_DELIVER) {
+        out.writeInt((Integer) value);
+      }
+      final byte[] record = bytes.toByteArray();
+      final int length = record.length - 8;
+      final CRC32 crc = new CRC32();
+      crc.update(record, 8, length);
+      final int checksum = (int) crc.getValue();
+      for (int i = 0; i < 4; i++) {
+        record[i] = (byte) (length >>> (24 - 8 * i));
+        record[4 + i] = (byte) (checksum >>> (24 - 8 * i));
+      }
+      return record;
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Reads the next record, or returns <code>null</code> at the end of the file.
+   *
+   * @throws IOException If the record is truncated or fails its checksum.
+   */
+  private static Record read(@Nonnull final DataInputStream stream) throws IOException {
+    final int first = stream.read();
+    if (first == -1) {
+      return null;
+    }
+    final int length = (first << 24) | (stream.readUnsignedByte() << 16)
+        | (stream.readUnsignedByte() << 8) | stream.readUnsignedByte();
+    final int checksum = stream.readInt();
+    if (length < 9 || length > MAX_BODY_LENGTH) {
+      throw new IOException("invalid record length: " + length);
+    }
+    final byte[] body = new byte[length];
+    stream.readFully(body);
+    final CRC32 crc = new CRC32();
+    crc.update(body, 0, length);
+    if ((int) crc.getValue() != checksum) {
+      throw new IOException("record checksum mismatch");
+    }
+    final DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+    final byte op = in.readByte();
+    final long id = in.readLong();
+    switch (op) {
+      case OP_SUBSCRIBE:
+        final int issueCount = in.readInt();
+        final long intervalMillis = in.readLong();
+        final long startMillis = in.readLong();
+        final int delivered = in.readInt();
+        return new Record(op, id, new SubscriptionRecord(id, in.readUTF(), issueCount,
+            intervalMillis, startMillis, delivered), 0, length + 8);
+      case OP_DELIVER:
+        return new Record(op, id, null, in.readInt(), length + 8);
+      case OP_CANCEL:
+      case OP_LAST_ID:
+        return new Record(op, id, null, 0, length + 8);
+      default:
+        throw new IOException("unknown record operation: " + op);
+    }
+  }
+
+  /**
+   * A single event read back from the journal or a snapshot.
+   */
+  private static final class Record {
+    private final byte op;
+    private final long id;
+    private final SubscriptionRecord subscription;
+    private final int issue;
+    private final int size;
+
+    private Record(final byte op, final long id, final SubscriptionRecord subscription,
+        final int issue, final int size) {
+      this.op = op;
+      this.id = id;
+      this.subscription = subscription;
+      this.issue = issue;
+      this.size = size;
+    }
+  }
+
+  /**
+   * An encoded event waiting for the writer thread.
+   */
+  private static final class Write {
+    private static final Write STOP = new Write(new byte[0]);
+
+    private final byte[] record;
+    private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+    private Write(final byte[] record) {
+      this.record = record;
+    }
+  }
+}
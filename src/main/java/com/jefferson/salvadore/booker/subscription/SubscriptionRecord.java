@@ -0,0 +1,91 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.subscription;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import javax.annotation.Nonnull;
+
+/**
+ * The durable state of a {@link Subscription}, as stored by a {@link SubscriptionJournal}.
+ *
+ * @author Salvadore Jefferson
+ * @version 1.0.0 2-16-2016
+ *
+ */
+public final class SubscriptionRecord {
+
+  private final long id;
+  private final String title;
+  private final int issueCount;
+  private final long intervalMillis;
+  private final long startMillis;
+  private final int delivered;
+
+  /**
+   * @param id The id of the subscription.
+   * @param title The title of the periodical subscribed to.
+   * @param issueCount The number of issues to receive.
+   * @param intervalMillis The time between two issues.
+   * @param startMillis The wall-clock time the subscription started at, the first issue being due
+   *        one interval later.
+   * @param delivered The number of issues delivered.
+   */
+  public SubscriptionRecord(final long id, @Nonnull final String title, final int issueCount,
+      final long intervalMillis, final long startMillis, final int delivered) {
+    this.id = id;
+    this.title = checkNotNull(title);
+    this.issueCount = issueCount;
+    this.intervalMillis = intervalMillis;
+    this.startMillis = startMillis;
+    this.delivered = delivered;
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  public String getTitle() {
+    return title;
+  }
+
+  public int getIssueCount() {
+    return issueCount;
+  }
+
+  public long getIntervalMillis() {
+    return intervalMillis;
+  }
+
+  public long getStartMillis() {
+    return startMillis;
+  }
+
+  public int getDelivered() {
+    return delivered;
+  }
+
+  /**
+   * @return long The wall-clock time the next issue is due at
+   */
+  public long getNextIssueMillis() {
+    return startMillis + intervalMillis * (delivered + 1L);
+  }
+
+  /**
+   * @param issue The number of the last delivered issue.
+   * @return SubscriptionRecord A copy of this record with <code>issue</code> issues delivered, or
+   *         this record if it already counts as many
+   */
+  SubscriptionRecord withDelivered(final int issue) {
+    return issue <= delivered ? this
+        : new SubscriptionRecord(id, title, issueCount, intervalMillis, startMillis, issue);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Subscription #%s to %s, %s of %s issues delivered", id, title, delivered,
+        issueCount);
+  }
+}
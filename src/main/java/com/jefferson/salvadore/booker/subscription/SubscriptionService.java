@@ -0,0 +1,397 @@
+/*
+ * Copyright © 2015 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.subscription;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.jefferson.salvadore.booker.Booker;
+import com.jefferson.salvadore.booker.publication.Periodical;
+import com.jefferson.salvadore.booker.repo.PublicationRepository;
+
+/**
+ * A simple service for subscribing to {@link Periodical}s through the {@link Booker} application,
+ * via command line arguments.
+ *
+ * Subscriptions are grouped by periodical and publication frequency, and each group is a single
+ * task on one shared scheduler: when an issue of a periodical comes out, every subscriber of the
+ * group receives it in one pass, and the number of threads stays the same however many
+ * subscriptions are running. A subscription joining a running group receives its first issue with
+ * the next issue of the group. A subscription resumed by {@link #recover(PublicationRepository)}
+ * only joins the subscriptions whose next issue falls due at the same time, so that it keeps its
+ * own phase. The threads are not daemons, which keeps the application running
+ * until the last issue has arrived, and they stop once they have been idle for a few seconds.
+ *
+ * The delivered issues are handed to a {@link DeliverySink} in batches, through a bounded queue:
+ * when the sink falls behind, the scheduler waits for it. {@link #getDeliveryStats()} reports the
+ * throughput of the sink.
+ *
+ * When given a {@link SubscriptionJournal}, the service records every subscription, delivery and
+ * cancellation, and {@link #recover(PublicationRepository)} resumes the subscriptions of an earlier
+ * run where they left off. A subscription is on the storage device when <code>subscribe</code>
+ * returns. Deliveries are recorded without waiting, so an issue delivered just before a crash may
+ * be delivered again.
+ *
+ * @author Salvadore Jefferson
+ * @version 2.1.0 2-16-2016
+ *
+ */
+@Singleton
+public class SubscriptionService implements Closeable {
+
+  static final Logger logger = LoggerFactory.getLogger(SubscriptionService.class);
+
+  /** The number of scheduler threads used by default */
+  public static final int DEFAULT_THREADS = 2;
+  /** The time between two weekly issues by default: one second stands for one week */
+  public static final long DEFAULT_MILLIS_PER_WEEK = 1000;
+  /** The number of delivered issues that may wait for the sink by default */
+  public static final int DEFAULT_QUEUE_CAPACITY = 4096;
+
+  private static final long IDLE_THREAD_KEEP_ALIVE_SECONDS = 5;
+
+  private final ScheduledThreadPoolExecutor scheduler;
+  private final long millisPerWeek;
+  private final DeliveryPipeline pipeline;
+  private final SubscriptionJournal journal;
+  private final AtomicLong ids;
+  private final AtomicInteger active = new AtomicInteger();
+  // guarded by itself
+  private final Map<GroupKey, IssueGroup> groups = new HashMap<>();
+
+  /**
+   * Creates a service that prints the arrival of each issue to the console.
+   */
+  @Inject
+  public SubscriptionService() {
+    this(DEFAULT_THREADS, DEFAULT_MILLIS_PER_WEEK, System.out::println);
+  }
+
+  /**
+   * @param threads The number of scheduler threads.
+   * @param millisPerWeek The time that stands for one week between issues.
+   * @param notices Receives a message on the arrival of each issue.
+   */
+  public SubscriptionService(final int threads, final long millisPerWeek,
+      @Nonnull final Consumer<String> notices) {
+    this(threads, millisPerWeek, notices, null);
+  }
+
+  /**
+   * @param threads The number of scheduler threads.
+   * @param millisPerWeek The time that stands for one week between issues.
+   * @param notices Receives a message on the arrival of each issue.
+   * @param journal An initialized journal recording the subscriptions, or <code>null</code> to keep
+   *        them in memory only.
+   */
+  public SubscriptionService(final int threads, final long millisPerWeek,
+      @Nonnull final Consumer<String> notices, @Nullable final SubscriptionJournal journal) {
+    this(threads, millisPerWeek, DeliverySink.ofNotices(checkNotNull(notices)),
+        DEFAULT_QUEUE_CAPACITY, journal);
+  }
+
+  /**
+   * @param threads The number of scheduler threads.
+   * @param millisPerWeek The time that stands for one week between issues.
+   * @param sink Receives the delivered issues in batches.
+   * @param queueCapacity The number of delivered issues that may wait for the sink before the
+   *        scheduler waits.
+   * @param journal An initialized journal recording the subscriptions, or <code>null</code> to keep
+   *        them in memory only.
+   */
+  public SubscriptionService(final int threads, final long millisPerWeek,
+      @Nonnull final DeliverySink sink, final int queueCapacity,
+      @Nullable final SubscriptionJournal journal) {
+    checkArgument(threads > 0, "threads must be greater than zero");
+    checkArgument(millisPerWeek > 0, "millisPerWeek must be greater than zero");
+    this.millisPerWeek = millisPerWeek;
+    this.pipeline = new DeliveryPipeline(sink, queueCapacity, this::delivered);
+    this.journal = journal;
+    this.ids = new AtomicLong(journal == null ? 0 : journal.getLastId());
+    this.scheduler = new ScheduledThreadPoolExecutor(threads,
+        new ThreadFactoryBuilder().setNameFormat("booker-subscription-%d").build());
+    scheduler.setRemoveOnCancelPolicy(true);
+    scheduler.setKeepAliveTime(IDLE_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+    scheduler.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * Subscribes to a {@link Periodical} of a repository by title. The title is matched regardless
+   * of case, accents and punctuation, see
+   * {@link PublicationRepository#findPeriodicalByNormalizedTitle(String)}.
+   *
+   * @param repo The repository to access the data from.
+   * @param title The title of the Periodical subscribed to.
+   * @param issueCount The number of issues to receive
+   * @return Subscription The new subscription
+   * @throws NoSuchElementException If no <code>Periodical</code> of the repository matches this
+   *         title.
+   * @throws IOException If an issue occurs while accessing the repository.
+   */
+  public Subscription subscribe(@Nonnull final PublicationRepository repo,
+      @Nonnull final String title, final int issueCount) throws IOException {
+    return subscribe(repo.findPeriodicalByNormalizedTitle(checkNotNull(title)), issueCount);
+  }
+
+  /**
+   * Subscribes to a {@link Periodical}. A message about the type of the periodical, its title, the
+   * issue number and the issues remaining before renewal is required is sent on the arrival of each
+   * issue. If it cannot be determined when the next issue of the periodical will ship, a single
+   * issue is delivered.
+   *
+   * @param periodical The Periodical subscribed to.
+   * @param issueCount The number of issues to receive
+   * @return Subscription The new subscription
+   * @throws IOException If the subscription could not be recorded in the journal.
+   */
+  public Subscription subscribe(@Nonnull final Periodical periodical, final int issueCount)
+      throws IOException {
+    checkArgument(issueCount > 0, "issueCount must be greater than zero");
+    int issues = issueCount;
+    if (periodical.getPubFreq() <= 0) {
+      issues = 1;
+      logger.info("There is no way to determine when the next issue of {} will ship",
+          periodical.getTitle());
+    }
+    final long intervalMillis = getWeeksBetweenIssues(periodical) * millisPerWeek;
+    final SubscriptionRecord record = new SubscriptionRecord(ids.incrementAndGet(),
+        periodical.getTitle(), issues, intervalMillis, System.currentTimeMillis(), 0);
+    if (journal != null) {
+      try {
+        journal.subscribed(record).get();
+      } catch (ExecutionException e) {
+        throw new IOException("could not record the subscription to " + periodical.getTitle(),
+            e.getCause());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("interrupted while recording the subscription", e);
+      }
+    }
+    return schedule(periodical, record, intervalMillis, 0);
+  }
+
+  /**
+   * Resumes the subscriptions replayed by the journal. If the next issue fell due while the
+   * application was not running, it is delivered at once and the following ones an interval apart.
+   * A subscription whose periodical is no longer in the repository is cancelled.
+   *
+   * @param repo The repository to find the periodicals in.
+   * @return List The resumed subscriptions
+   * @throws IOException If an issue occurs while accessing the repository.
+   */
+  public List<Subscription> recover(@Nonnull final PublicationRepository repo)
+      throws IOException {
+    final List<Subscription> resumed = new ArrayList<>();
+    if (journal == null || journal.getRecovered().isEmpty()) {
+      return resumed;
+    }
+    final long now = System.currentTimeMillis();
+    for (SubscriptionRecord record : journal.getRecovered()) {
+      final Periodical periodical;
+      try {
+        periodical = repo.findPeriodical(record.getTitle());
+      } catch (NoSuchElementException e) {
+        logger.warn("Cancelling {}: the periodical is no longer available", record);
+        journal.cancelled(record.getId());
+        continue;
+      }
+      final long dueMillis = Math.max(now, record.getNextIssueMillis());
+      resumed.add(schedule(periodical, record, dueMillis - now, dueMillis));
+    }
+    logger.info("Resumed {} subscriptions", resumed.size());
+    return resumed;
+  }
+
+  /**
+   * @return int The number of subscriptions with issues still to deliver
+   */
+  public int getActiveCount() {
+    return active.get();
+  }
+
+  /**
+   * @return DeliveryStats The delivery counters since the service was created
+   */
+  public DeliveryStats getDeliveryStats() {
+    return pipeline.stats();
+  }
+
+  /**
+   * Stops the scheduler. The issues already queued are handed to the sink; the others are dropped.
+   */
+  @Override
+  public void close() {
+    scheduler.shutdownNow();
+    pipeline.close();
+  }
+
+  /**
+   * @param dueMillis The wall-clock time the next issue of a resumed subscription falls due at, or
+   *        zero for a new subscription, which joins any running group of its periodical.
+   */
+  private Subscription schedule(@Nonnull final Periodical periodical,
+      @Nonnull final SubscriptionRecord record, final long initialDelayMillis,
+      final long dueMillis) {
+    final GroupKey key = new GroupKey(periodical, record.getIntervalMillis(), dueMillis);
+    final Subscription subscription = new Subscription(record.getId(), periodical,
+        record.getIssueCount(), record.getIntervalMillis(), record.getDelivered(),
+        done -> finished(done, key));
+    active.incrementAndGet();
+    synchronized (groups) {
+      IssueGroup group = groups.get(key);
+      if (group == null) {
+        final IssueGroup created = new IssueGroup();
+        created.task = scheduler.scheduleAtFixedRate(() -> tick(created), initialDelayMillis,
+            subscription.getIntervalMillis(), TimeUnit.MILLISECONDS);
+        groups.put(key, created);
+        group = created;
+      }
+      group.members.add(subscription);
+    }
+    return subscription;
+  }
+
+  private void finished(@Nonnull final Subscription subscription, @Nonnull final GroupKey key) {
+    active.decrementAndGet();
+    synchronized (groups) {
+      final IssueGroup group = groups.get(key);
+      if (group != null && group.members.remove(subscription) && group.members.isEmpty()) {
+        group.task.cancel(false);
+        groups.remove(key);
+      }
+    }
+    if (journal != null && subscription.getIssuesRemaining() > 0) {
+      record(journal.cancelled(subscription.getId()));
+    }
+  }
+
+  /**
+   * Delivers the next issue of a group to each of its subscribers.
+   */
+  private void tick(@Nonnull final IssueGroup group) {
+    final List<DeliveryEvent> due = new ArrayList<>(group.members.size());
+    for (Subscription subscription : group.members) {
+      final int issue = subscription.deliverNext();
+      if (issue > 0) {
+        due.add(new DeliveryEvent(subscription, issue));
+      }
+    }
+    try {
+      pipeline.submit(due);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Runs once the sink has been handed an issue. The subscription is finished after its last issue
+   * was handed over, so that {@link Subscription#await(long, TimeUnit)} returns after the sink has
+   * seen every issue.
+   */
+  private void delivered(@Nonnull final DeliveryEvent event, @Nullable final Throwable failure) {
+    if (journal != null && failure == null) {
+      record(journal.delivered(event.getSubscriptionId(), event.getIssue()));
+    }
+    if (event.isLastIssue()) {
+      event.getSubscription().finish();
+    }
+  }
+
+  private static void record(@Nonnull final CompletableFuture<Void> event) {
+    event.whenComplete((done, failure) -> {
+      if (failure != null) {
+        logger.warn("could not record a subscription event", failure);
+      }
+    });
+  }
+
+  /**
+   * Determines the number of weeks between issue shipments based on how often the
+   * {@link Periodical} is distributed.
+   */
+  private static long getWeeksBetweenIssues(@Nonnull final Periodical periodical) {
+    switch (periodical.getPubFreq()) {
+      case 12:
+        return 4;
+      case 52:
+      default:
+        return 1;
+    }
+  }
+
+  /**
+   * The subscriptions receiving the issues of a periodical together, and the task delivering them.
+   */
+  private static final class IssueGroup {
+    private final Set<Subscription> members = ConcurrentHashMap.newKeySet();
+    private ScheduledFuture<?> task;
+  }
+
+  /**
+   * Identifies the group of a subscription: the title and publication frequency of its periodical,
+   * the interval between its issues, which differs for subscriptions recovered from a run with
+   * another number of milliseconds per week, and the time the first issue of a resumed subscription
+   * falls due at.
+   */
+  private static final class GroupKey {
+    private final String title;
+    private final int pubFreq;
+    private final long intervalMillis;
+    private final long dueMillis;
+
+    private GroupKey(@Nonnull final Periodical periodical, final long intervalMillis,
+        final long dueMillis) {
+      this.title = periodical.getTitle();
+      this.pubFreq = periodical.getPubFreq();
+      this.intervalMillis = intervalMillis;
+      this.dueMillis = dueMillis;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof GroupKey)) {
+        return false;
+      }
+      final GroupKey other = (GroupKey) obj;
+      return title.equals(other.title) && pubFreq == other.pubFreq
+          && intervalMillis == other.intervalMillis && dueMillis == other.dueMillis;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(title, pubFreq, intervalMillis, dueMillis);
+    }
+  }
+}
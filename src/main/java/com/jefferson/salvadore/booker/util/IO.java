@@ -4,16 +4,26 @@
 
 package com.jefferson.salvadore.booker.util;
 
+import static java.nio.charset.CodingErrorAction.REPLACE;
+
 import java.io.BufferedInputStream;
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import javax.annotation.Nonnull;
 
@@ -30,6 +40,8 @@ public class IO {
   private static final byte[] UTF8_BOM = new byte[] {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
   private static final byte[] UTF16LE_BOM = new byte[] {(byte) 0xFF, (byte) 0xFE};
   private static final byte[] UTF16BE_BOM = new byte[] {(byte) 0xFE, (byte) 0xFF};
+  private static final int BUFFER_SIZE = 8192;
+  private static final int MAX_CHARS = Integer.MAX_VALUE - 8;
 
   /**
    * Reads a file from the users hard drive and prints the contents to the console. Delegates the
@@ -41,7 +53,7 @@ public class IO {
    */
   public static String readText(@Nonnull final Path path) throws IOException {
     try (final InputStream stream = Files.newInputStream(path)) {
-      return readText(stream);
+      return readText(stream, Files.size(path));
     }
   }
 
@@ -53,16 +65,112 @@ public class IO {
    * @throws IOException Thrown if there is a problem accessing the InputStream.
    */
   public static String readText(@Nonnull final InputStream stream) throws IOException {
-    final StringBuilder builder = new StringBuilder();
-    final BufferedInputStream bufferedStream = new BufferedInputStream(stream);
-    int byteValue;
-    try (final Reader reader = new InputStreamReader(bufferedStream, getCharset(bufferedStream))) {
+    return readText(stream, stream.available());
+  }
+
+  /**
+   * Passes each line of a file to the consumer, without holding more than one line in memory. The
+   * charset is detected with {@link #getCharset(BufferedInputStream)}, and the lines are split as
+   * by {@link BufferedReader#readLine()}.
+   * 
+   * @param path The <code>Path</code> to the file to be read.
+   * @param consumer Called with each line, in order.
+   * @throws IOException Thrown if there is a problem loading the file.
+   */
+  public static void forEachLine(@Nonnull final Path path,
+      @Nonnull final Consumer<String> consumer) throws IOException {
+    try (final BufferedReader reader = newReader(path)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        consumer.accept(line);
+      }
+    }
+  }
+
+  /**
+   * Returns the lines of a file as a lazily read <code>Stream</code>. The file stays open until the
+   * <code>Stream</code> is closed, so use it in a try-with-resources statement. Errors that occur
+   * while the <code>Stream</code> is consumed are thrown as <code>UncheckedIOException</code>s.
+   * 
+   * @param path The <code>Path</code> to the file to be read.
+   * @return Stream The lines of the file
+   * @throws IOException Thrown if there is a problem opening the file.
+   */
+  public static Stream<String> readLines(@Nonnull final Path path) throws IOException {
+    final BufferedReader reader = newReader(path);
+    return reader.lines().onClose(() -> {
+      try {
+        reader.close();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+  }
 
-      while ((byteValue = reader.read()) != -1) {
-        builder.appendCodePoint(byteValue);
+  /**
+   * Decodes a stream in bulk into a <code>CharBuffer</code> sized from <code>sizeHint</code>, which
+   * is only grown if the hint was too small.
+   */
+  private static String readText(@Nonnull final InputStream stream, final long sizeHint)
+      throws IOException {
+    try (final BufferedInputStream bufferedStream = new BufferedInputStream(stream)) {
+      final CharsetDecoder decoder = newDecoder(getCharset(bufferedStream));
+      final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+      CharBuffer chars = CharBuffer.allocate((int) Math.min(MAX_CHARS,
+          (long) (sizeHint * (double) decoder.averageCharsPerByte()) + 16));
+      int read;
+      while ((read = bufferedStream.read(bytes.array(), bytes.position(), bytes.remaining())) != -1) {
+        bytes.position(bytes.position() + read);
+        bytes.flip();
+        chars = decode(decoder, bytes, chars, false);
+        bytes.compact();
       }
+      bytes.flip();
+      chars = decode(decoder, bytes, chars, true);
+      while (decoder.flush(chars).isOverflow()) {
+        chars = grow(chars);
+      }
+      chars.flip();
+      return chars.toString();
     }
-    return builder.toString();
+  }
+
+  private static CharBuffer decode(@Nonnull final CharsetDecoder decoder,
+      @Nonnull final ByteBuffer bytes, @Nonnull CharBuffer chars, final boolean endOfInput)
+          throws CharacterCodingException {
+    while (true) {
+      final CoderResult result = decoder.decode(bytes, chars, endOfInput);
+      if (result.isOverflow()) {
+        chars = grow(chars);
+      } else if (result.isError()) {
+        result.throwException();
+      } else {
+        return chars;
+      }
+    }
+  }
+
+  private static CharBuffer grow(@Nonnull final CharBuffer chars) {
+    final CharBuffer grown = CharBuffer.allocate((int) Math.min(MAX_CHARS, chars.capacity() * 2L));
+    chars.flip();
+    return grown.put(chars);
+  }
+
+  private static BufferedReader newReader(@Nonnull final Path path) throws IOException {
+    final BufferedInputStream stream = new BufferedInputStream(Files.newInputStream(path));
+    try {
+      return new BufferedReader(new InputStreamReader(stream, newDecoder(getCharset(stream))));
+    } catch (IOException | RuntimeException e) {
+      stream.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Returns a decoder that replaces malformed input, as <code>InputStreamReader</code> does.
+   */
+  private static CharsetDecoder newDecoder(@Nonnull final Charset charset) {
+    return charset.newDecoder().onMalformedInput(REPLACE).onUnmappableCharacter(REPLACE);
   }
 
   /**
@@ -3,35 +3,137 @@
  */
 package com.jefferson.salvadore.booker.util;
 
+import static com.google.common.base.Preconditions.checkNotNull;
 import static com.jefferson.salvadore.booker.Booker.CONFIG_DIR;
 
 import java.io.IOException;
+import java.util.Locale;
+
+import javax.annotation.Nonnull;
 
 import com.google.inject.AbstractModule;
 import com.jefferson.salvadore.booker.Booker;
 import com.jefferson.salvadore.booker.repo.PublicationManager;
 import com.jefferson.salvadore.booker.repo.PublicationManagerImpl;
 import com.jefferson.salvadore.booker.repo.PublicationRepository;
+import com.jefferson.salvadore.booker.repo.concurrent.ConcurrentPublicationRepository;
 import com.jefferson.salvadore.booker.repo.file.FilePublicationRepository;
+import com.jefferson.salvadore.booker.repo.log.LogPublicationRepository;
+import com.jefferson.salvadore.booker.repo.log.MappedPublicationRepository;
+import com.jefferson.salvadore.booker.repo.snapshot.SnapshotTopPublicationRepository;
 
 /**
  * A utility class to inject dependencies needed to execute the {@link Booker} application
- * 
+ *
  * @author Salvadore Jefferson
- * @version 1.0.0 12-05-15
+ * @version 1.1.0 1-25-16
  *
  */
 public class PublicationModule extends AbstractModule {
 
+  /**
+   * The system property used to select the {@link Storage} when none is passed to the constructor.
+   */
+  public static final String STORAGE_PROPERTY = "booker.storage";
+
+  /**
+   * The storage engines a {@link PublicationRepository} can be bound to.
+   */
+  public enum Storage {
+    /**
+     * One file per title in <code>publication-files</code>, see {@link FilePublicationRepository}
+     */
+    FILE(true),
+
+    /**
+     * A single append-only log, see {@link LogPublicationRepository}
+     */
+    LOG(true),
+
+    /**
+     * A read-only memory mapping of the log, see {@link MappedPublicationRepository}. No
+     * {@link PublicationManager} is bound to it, since every inventory change would fail.
+     */
+    MAPPED(false),
+
+    /**
+     * An in-memory repository seeded with the {@link SnapshotTopPublicationRepository}, safe to
+     * share between request threads, see {@link ConcurrentPublicationRepository}
+     */
+    CONCURRENT(true);
+
+    private final boolean writable;
+
+    private Storage(final boolean writable) {
+      this.writable = writable;
+    }
+
+    /**
+     * @return boolean <code>true</code> if publications and inventory counts can be changed
+     */
+    public boolean isWritable() {
+      return writable;
+    }
+
+    /**
+     * Returns the storage with the given name, regardless of case.
+     *
+     * @param name The name of the storage.
+     * @return Storage The matching storage
+     * @throws IllegalArgumentException If no storage has this name.
+     */
+    public static Storage of(@Nonnull final String name) {
+      return valueOf(checkNotNull(name).trim().toUpperCase(Locale.ROOT));
+    }
+  }
+
+  private final Storage storage;
+
+  /**
+   * Creates a module using the {@link Storage} named by the {@value #STORAGE_PROPERTY} system
+   * property, defaulting to {@link Storage#FILE}.
+   */
+  public PublicationModule() {
+    this(Storage.of(System.getProperty(STORAGE_PROPERTY, Storage.FILE.name())));
+  }
+
+  public PublicationModule(@Nonnull final Storage storage) {
+    this.storage = checkNotNull(storage);
+  }
+
   @Override
   protected void configure() {
-    try {
-      bind(PublicationRepository.class)
-          .toInstance(new FilePublicationRepository(CONFIG_DIR.resolve("publication-files")));
-    } catch (IOException e) {
-      e.printStackTrace();
+    switch (storage) {
+      case LOG:
+        bind(PublicationRepository.class)
+            .toInstance(new LogPublicationRepository(CONFIG_DIR.resolve("publications.log")));
+        break;
+      case MAPPED:
+        bind(PublicationRepository.class)
+            .toInstance(new MappedPublicationRepository(CONFIG_DIR.resolve("publications.log")));
+        break;
+      case CONCURRENT:
+        final ConcurrentPublicationRepository concurrentRepo =
+            new ConcurrentPublicationRepository();
+        try {
+          concurrentRepo.addAllPublications(new SnapshotTopPublicationRepository());
+        } catch (IOException e) {
+          e.printStackTrace();
+        }
+        bind(PublicationRepository.class).toInstance(concurrentRepo);
+        break;
+      default:
+        try {
+          bind(PublicationRepository.class)
+              .toInstance(new FilePublicationRepository(CONFIG_DIR.resolve("publication-files")));
+        } catch (IOException e) {
+          e.printStackTrace();
+        }
+        break;
+    }
+    if (storage.isWritable()) {
+      bind(PublicationManager.class).to(PublicationManagerImpl.class);
     }
-    bind(PublicationManager.class).to(PublicationManagerImpl.class);
   }
 
 }
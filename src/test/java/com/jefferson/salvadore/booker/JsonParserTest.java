@@ -0,0 +1,86 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.jefferson.salvadore.booker.publication.Book;
+import com.jefferson.salvadore.booker.publication.Range;
+
+public class JsonParserTest {
+
+  private static final String VOLUMES = "{\"kind\":\"books#volumes\",\"totalItems\":3,\"items\":["
+      + "{\"kind\":\"books#volume\",\"id\":\"a1\",\"volumeInfo\":{\"title\":\"Dune\","
+      + "\"subtitle\":\"Deluxe Edition\",\"authors\":[\"Frank Herbert\",\"Brian Herbert\"],"
+      + "\"publishedDate\":\"2005-08-02\",\"industryIdentifiers\":[{\"type\":\"ISBN_10\","
+      + "\"identifier\":\"0441013597\"}],\"imageLinks\":{\"thumbnail\":\"http://x/y\"}},"
+      + "\"saleInfo\":{\"country\":\"US\",\"listPrice\":{\"amount\":9.99}}},"
+      + "{\"id\":\"a2\",\"volumeInfo\":{\"title\":\"Anonymous Pamphlet\"}},"
+      + "{\"id\":\"a3\",\"volumeInfo\":{\"authors\":[\"Ursula K. Le Guin\"],"
+      + "\"title\":\"The Dispossessed\"}}]}";
+
+  private static InputStream stream(final String json) {
+    return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testParseJsonReturnsFirstVolume() throws IOException {
+    final Book book = JsonParser.parseJson(stream(VOLUMES));
+    assertThat(book.getTitle(), is("Dune"));
+    assertThat(book.getAuthor(), is("Frank Herbert"));
+    assertThat(book.getYearsPublished(), is(Range.of(2005)));
+  }
+
+  @Test
+  public void testParseVolumesSkipsVolumesWithoutAuthor() throws IOException {
+    final List<String> titles = new ArrayList<>();
+    for (Book book : JsonParser.parseVolumes(stream(VOLUMES))) {
+      titles.add(book.getTitle());
+    }
+    assertThat(titles, contains("Dune", "The Dispossessed"));
+  }
+
+  @Test
+  public void testMissingPublishedDateIsDefaultRange() throws IOException {
+    final List<Book> books = JsonParser.parseVolumes(stream(VOLUMES));
+    assertThat(books.get(1).getYearsPublished(), is(Range.DEFAULT_RANGE));
+  }
+
+  @Test
+  public void testSingleVolumeResource() throws IOException {
+    final Book book = JsonParser.parseJson(stream("{\"id\":\"a1\",\"volumeInfo\":{"
+        + "\"title\":\"Emma\",\"authors\":[\"Jane Austen\"],\"publishedDate\":\"1815\"}}"));
+    assertThat(book.getTitle(), is("Emma"));
+    assertThat(book.getYearsPublished(), is(Range.of(1815)));
+  }
+
+  @Test
+  public void testNoItemsIsEmpty() throws IOException {
+    assertThat(JsonParser.parseVolumes(stream("{\"kind\":\"books#volumes\",\"totalItems\":0}")),
+        is(empty()));
+  }
+
+  @Test(expected = IOException.class)
+  public void testParseJsonWithoutItems() throws IOException {
+    JsonParser.parseJson(stream("{\"kind\":\"books#volumes\",\"totalItems\":0}"));
+  }
+
+  @Test(expected = JsonParseException.class)
+  public void testNotAnObject() throws IOException {
+    JsonParser.parseVolumes(stream("[]"));
+  }
+}
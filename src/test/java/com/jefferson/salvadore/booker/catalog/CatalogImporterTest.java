@@ -0,0 +1,91 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.catalog;
+
+import static com.jefferson.salvadore.booker.publication.Range.of;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.jefferson.salvadore.booker.publication.Book;
+import com.jefferson.salvadore.booker.publication.Journal;
+import com.jefferson.salvadore.booker.publication.Magazine;
+import com.jefferson.salvadore.booker.publication.PubFreq;
+import com.jefferson.salvadore.booker.repo.concurrent.ConcurrentPublicationRepository;
+
+public class CatalogImporterTest {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private Path write(final String content) throws IOException {
+    final Path file = tempFolder.newFile().toPath();
+    Files.write(file, content.getBytes(UTF_8));
+    return file;
+  }
+
+  @Test
+  public void testImportJsonLines() throws IOException {
+    final Path file = write(
+        "{\"type\":\"book\",\"title\":\"Le Petit Prince\",\"author\":\"Antoine de Saint-Exupéry\","
+            + "\"language\":\"French\",\"yearStart\":1943,\"totalSold\":140000000,"
+            + "\"tags\":[\"classic\",{\"nested\":true}]}\n"
+            + "{\"type\":\"Magazine\",\"title\":\"Game Informer\",\"publisher\":\"GameStop\","
+            + "\"yearStart\":1991,\"circulation\":7629995,\"frequency\":\"monthly\"}\n"
+            + "{\"type\":\"journal\",\"title\":\"Nature\",\"publisher\":\"Nature Publishing Group\","
+            + "\"discipline\":\"Natural Science\",\"yearStart\":1869,\"yearEnd\":2016,"
+            + "\"frequency\":52,\"impactFactor\":41.456,\"author\":null}\n");
+    final ConcurrentPublicationRepository repo = new ConcurrentPublicationRepository();
+
+    assertThat(new CatalogImporter(repo, 2).importJsonLines(file), is(3L));
+    final Book book = (Book) repo.findByTitle("Le Petit Prince");
+    assertThat(book.getLanguage(), is("French"));
+    assertThat(book.getTotalSold(), is(140_000_000));
+    final Magazine magazine = (Magazine) repo.findByTitle("Game Informer");
+    assertThat(magazine.getTotalInCirculation(), is(7_629_995));
+    assertThat(magazine.getPubFreq(), is(PubFreq.MONTHLY.getFreqValue()));
+    final Journal journal = (Journal) repo.findByTitle("Nature");
+    assertThat(journal.getYearsPublished(), is(of(1869, 2016)));
+    assertThat(journal.getPubFreq(), is(PubFreq.WEEKLY.getFreqValue()));
+    assertThat(journal.getImpactFactor(), is(41.456));
+  }
+
+  @Test
+  public void testImportCsvInBatches() throws IOException {
+    final StringBuilder csv = new StringBuilder("type,title,author,yearStart\n");
+    for (int i = 0; i < 2_500; i++) {
+      csv.append("book,\"Title, ").append(i).append("\",Author,").append(1900 + i % 100)
+          .append('\n');
+    }
+    final ConcurrentPublicationRepository repo = new ConcurrentPublicationRepository();
+
+    assertThat(new CatalogImporter(repo).importCsv(write(csv.toString())), is(2_500L));
+    assertThat(repo.getListSize(), is(2_500));
+    assertThat(repo.findByTitle("Title, 2499").getYearsPublished(), is(of(1999)));
+  }
+
+  @Test
+  public void testInvalidRecordNamesItsLine() throws IOException {
+    final Path file = write("type,title,publisher\nmagazine,Costco Connection,Costco\n"
+        + "journal,PLOS ONE,Public Library of Science\n");
+    final ConcurrentPublicationRepository repo = new ConcurrentPublicationRepository();
+    try {
+      new CatalogImporter(repo, 1).importCsv(file);
+      fail("expected the journal without a discipline to be rejected");
+    } catch (IOException e) {
+      assertThat(e.getMessage(), containsString("line 3: missing discipline"));
+    }
+    assertThat(repo.getListSize(), is(1));
+  }
+}
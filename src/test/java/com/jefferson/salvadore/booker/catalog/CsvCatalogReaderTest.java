@@ -0,0 +1,67 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.catalog;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.Test;
+
+public class CsvCatalogReaderTest {
+
+  private static final String CSV = "type,ignored,title,publisher,yearStart\r\n"
+      + "magazine,x,\"Better Homes, And \"\"Gardens\"\"\",Meredith,1922\r\n"
+      + "\r\n"
+      + "journal,\"multi\nline\",\"Nature\nCommunications\",,2010\n"
+      + "book,,Le Petit Prince";
+
+  private static void assertRows(final CsvCatalogReader reader) throws IOException {
+    final CatalogRow row = new CatalogRow();
+    assertThat(reader.next(row), is(true));
+    assertThat(reader.getLine(), is(2L));
+    assertThat(row.get(CatalogField.TITLE), is("Better Homes, And \"Gardens\""));
+    assertThat(row.get(CatalogField.PUBLISHER), is("Meredith"));
+    assertThat(row.get(CatalogField.YEAR_START), is("1922"));
+
+    assertThat(reader.next(row), is(true));
+    assertThat(reader.getLine(), is(4L));
+    assertThat(row.get(CatalogField.TYPE), is("journal"));
+    assertThat(row.get(CatalogField.TITLE), is("Nature\nCommunications"));
+    assertThat(row.get(CatalogField.PUBLISHER), is(nullValue()));
+
+    assertThat(reader.next(row), is(true));
+    assertThat(reader.getLine(), is(7L));
+    assertThat(row.get(CatalogField.TITLE), is("Le Petit Prince"));
+    assertThat(row.get(CatalogField.YEAR_START), is(nullValue()));
+    assertThat(reader.next(row), is(false));
+  }
+
+  @Test
+  public void testReadsRecords() throws IOException {
+    try (final CsvCatalogReader reader = new CsvCatalogReader(new StringReader(CSV))) {
+      assertRows(reader);
+    }
+  }
+
+  @Test
+  public void testFieldsSpanningBuffers() throws IOException {
+    for (int bufferSize = 1; bufferSize < 16; bufferSize++) {
+      try (final CsvCatalogReader reader = new CsvCatalogReader(new StringReader(CSV), bufferSize)) {
+        assertRows(reader);
+      }
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testUnterminatedQuote() throws IOException {
+    try (final CsvCatalogReader reader =
+        new CsvCatalogReader(new StringReader("title\n\"Nature"))) {
+      reader.next(new CatalogRow());
+    }
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.lookup;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.jefferson.salvadore.booker.publication.Book;
+
+public class BatchBookLookupTest {
+
+  private StubBooksServer server;
+  private BatchBookLookup lookup;
+
+  @Before
+  public void setUpTest() throws IOException {
+    server = new StubBooksServer();
+    lookup = new BatchBookLookup(new GoogleBooksClient(server.getBaseUri()),
+        server.getBaseUri(), 2, 3, 10);
+  }
+
+  @After
+  public void tearDownTest() {
+    lookup.close();
+    server.close();
+  }
+
+  @Test
+  public void testLookupAllLeavesOutMissingIsbns() throws Exception {
+    server.addVolume("1000000001", "One");
+    server.addVolume("1000000002", "Two");
+    final Map<String, Book> books =
+        lookup.lookupAll(Arrays.asList("1000000002", "1000000009", "1000000001")).get();
+    assertThat(books.keySet(), contains("1000000002", "1000000001"));
+    assertThat(books.get("1000000001").getTitle(), is("One"));
+  }
+
+  @Test
+  public void testDuplicateIsbnsAreLookedUpOnce() throws Exception {
+    server.addVolume("1000000001", "One");
+    server.setDelayMillis(50);
+    final Map<String, Book> books =
+        lookup.lookupAll(Arrays.asList("1000000001", "1-000-000-001", "1000000001")).get();
+    assertThat(books.keySet(), contains("1000000001", "1-000-000-001"));
+    assertThat(server.getRequestCount(), is(1));
+  }
+
+  @Test
+  public void testPendingLookupIsShared() throws Exception {
+    server.addVolume("1000000001", "One");
+    server.setDelayMillis(100);
+    final CompletableFuture<Optional<Book>> first = lookup.lookupAsync("1000000001");
+    final CompletableFuture<Optional<Book>> second = lookup.lookupAsync("1000000001");
+    assertThat(second, is(sameInstance(first)));
+    assertThat(first.get().get().getTitle(), is("One"));
+  }
+
+  @Test
+  public void testConcurrencyIsBoundedPerHost() throws Exception {
+    final List<String> isbns = new ArrayList<>();
+    for (int i = 0; i < 12; i++) {
+      isbns.add("20000000" + (10 + i));
+      server.addVolume("20000000" + (10 + i), "Title " + i);
+    }
+    server.setDelayMillis(20);
+    assertThat(lookup.lookupAll(isbns).get().size(), is(12));
+    assertThat(server.getMaxActive(), is(lessThanOrEqualTo(2)));
+  }
+
+  @Test
+  public void testServerErrorsAreRetried() throws Exception {
+    server.addVolume("1000000001", "One");
+    server.failNext("1000000001", 503, 1);
+    server.failNext("1000000002", 429, 1);
+    server.addVolume("1000000002", "Two");
+    final Map<String, Book> books =
+        lookup.lookupAll(Arrays.asList("1000000001", "1000000002")).get();
+    assertThat(books.size(), is(2));
+    assertThat(server.getRequestCount(), is(4));
+  }
+
+  @Test
+  public void testClientErrorIsNotRetried() throws Exception {
+    server.answerWith("1000000001", 400);
+    try {
+      lookup.lookupAll(Arrays.asList("1000000001")).get();
+      fail("expected an ExecutionException");
+    } catch (ExecutionException e) {
+      assertThat(e.getCause(), is(instanceOf(HttpStatusException.class)));
+      assertThat(server.getRequestCount(), is(1));
+    }
+  }
+
+  @Test
+  public void testRetriesAreBounded() throws Exception {
+    server.answerWith("1000000001", 500);
+    try {
+      lookup.lookupAsync("1000000001").get();
+      fail("expected an ExecutionException");
+    } catch (ExecutionException e) {
+      assertThat(((HttpStatusException) e.getCause()).getStatus(), is(500));
+      assertThat(server.getRequestCount(), is(3));
+    }
+  }
+
+  @Test
+  public void testLongRetryAfterFailsTheLookup() throws Exception {
+    server.addVolume("1000000001", "One");
+    server.failNext("1000000001", 503, 1);
+    server.setRetryAfterSeconds(3600);
+    try {
+      lookup.lookupAsync("1000000001").get(5, TimeUnit.SECONDS);
+      fail("expected an ExecutionException");
+    } catch (ExecutionException e) {
+      assertThat(((HttpStatusException) e.getCause()).getStatus(), is(503));
+      assertThat(server.getRequestCount(), is(1));
+    }
+  }
+}
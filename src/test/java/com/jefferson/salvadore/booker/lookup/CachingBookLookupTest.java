@@ -0,0 +1,105 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.lookup;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CachingBookLookupTest {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private StubBooksServer server;
+  private GoogleBooksClient client;
+
+  @Before
+  public void setUpTest() throws IOException {
+    server = new StubBooksServer();
+    server.addVolume("9780441013593", "Dune");
+    client = new GoogleBooksClient(server.getBaseUri());
+  }
+
+  @After
+  public void tearDownTest() {
+    server.close();
+  }
+
+  @Test
+  public void testRepeatedLookupIsServedFromMemory() throws IOException {
+    final CachingBookLookup lookup = new CachingBookLookup(client, null);
+    assertThat(lookup.lookup("978-0-441-01359-3").get().getTitle(), is("Dune"));
+    assertThat(lookup.lookup("9780441013593").get().getTitle(), is("Dune"));
+    assertThat(server.getRequestCount(), is(1));
+    assertThat(lookup.stats().hitCount(), is(1L));
+  }
+
+  @Test
+  public void testMissIsCached() throws IOException {
+    final CachingBookLookup lookup = new CachingBookLookup(client, null);
+    assertThat(lookup.lookup("0000000000").isPresent(), is(false));
+    assertThat(lookup.lookup("0000000000").isPresent(), is(false));
+    assertThat(server.getRequestCount(), is(1));
+  }
+
+  @Test
+  public void testFailureIsNotCached() throws IOException {
+    final CachingBookLookup lookup = new CachingBookLookup(client, null);
+    server.answerWith("1111111111", 500);
+    try {
+      lookup.lookup("1111111111");
+      fail("expected an IOException");
+    } catch (IOException expected) {
+      // the next lookup reaches the server again
+    }
+    try {
+      lookup.lookup("1111111111");
+      fail("expected an IOException");
+    } catch (IOException expected) {
+      assertThat(server.getRequestCount(), is(2));
+    }
+  }
+
+  @Test
+  public void testDiskTierSurvivesNewInstance() throws IOException {
+    final Path cacheDir = tempFolder.getRoot().toPath().resolve("lookup-cache");
+    new CachingBookLookup(client, cacheDir).lookup("9780441013593");
+    new CachingBookLookup(client, cacheDir).lookup("0000000000");
+
+    final CachingBookLookup restarted = new CachingBookLookup(client, cacheDir);
+    assertThat(restarted.lookup("9780441013593").get().getTitle(), is("Dune"));
+    assertThat(restarted.lookup("0000000000").isPresent(), is(false));
+    assertThat(server.getRequestCount(), is(2));
+  }
+
+  @Test
+  public void testExpiredEntryIsLookedUpAgain() throws Exception {
+    final Path cacheDir = tempFolder.getRoot().toPath().resolve("lookup-cache");
+    final CachingBookLookup lookup = new CachingBookLookup(client, 10, 50, 50, cacheDir);
+    lookup.lookup("9780441013593");
+    Thread.sleep(100);
+    lookup.lookup("9780441013593");
+    assertThat(server.getRequestCount(), is(2));
+  }
+
+  @Test
+  public void testInvalidate() throws IOException {
+    final Path cacheDir = tempFolder.getRoot().toPath().resolve("lookup-cache");
+    final CachingBookLookup lookup = new CachingBookLookup(client, cacheDir);
+    lookup.lookup("9780441013593");
+    lookup.invalidate("9780441013593");
+    lookup.lookup("9780441013593");
+    assertThat(server.getRequestCount(), is(2));
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.lookup;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.jefferson.salvadore.booker.publication.Book;
+import com.jefferson.salvadore.booker.publication.Range;
+
+public class GoogleBooksClientTest {
+
+  private StubBooksServer server;
+  private GoogleBooksClient client;
+
+  @Before
+  public void setUpTest() throws IOException {
+    server = new StubBooksServer();
+    client = new GoogleBooksClient(server.getBaseUri());
+  }
+
+  @After
+  public void tearDownTest() {
+    server.close();
+  }
+
+  @Test
+  public void testLookupFound() throws IOException {
+    server.addVolume("9780441013593", "Dune");
+    final Optional<Book> book = client.lookup("9780441013593");
+    assertThat(book.get().getTitle(), is("Dune"));
+    assertThat(book.get().getYearsPublished(), is(Range.of(2001)));
+  }
+
+  @Test
+  public void testLookupMissing() throws IOException {
+    assertThat(client.lookup("0000000000").isPresent(), is(false));
+  }
+
+  @Test(expected = IOException.class)
+  public void testServerError() throws IOException {
+    server.answerWith("9780441013593", 503);
+    client.lookup("9780441013593");
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.lookup;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A local stand-in for the Google Books <code>volumes</code> resource. A registered ISBN answers
+ * with one volume, an ISBN registered with a status answers with that status, and any other ISBN
+ * answers with no volumes. Requests are handled concurrently, each after an optional delay.
+ */
+class StubBooksServer implements AutoCloseable {
+
+  private final HttpServer server;
+  private final Map<String, String> titles = new ConcurrentHashMap<>();
+  private final Map<String, Integer> statuses = new ConcurrentHashMap<>();
+  private final Map<String, AtomicInteger> failures = new ConcurrentHashMap<>();
+  private final AtomicInteger requests = new AtomicInteger();
+  private final AtomicInteger active = new AtomicInteger();
+  private final AtomicInteger maxActive = new AtomicInteger();
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+  private volatile long delayMillis;
+  private volatile String retryAfter;
+
+  StubBooksServer() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext("/books/v1/volumes", this::handle);
+    server.setExecutor(executor);
+    server.start();
+  }
+
+  URI getBaseUri() {
+    return URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/books/v1/");
+  }
+
+  void addVolume(final String isbn, final String title) {
+    titles.put(isbn, title);
+  }
+
+  void answerWith(final String isbn, final int status) {
+    statuses.put(isbn, status);
+  }
+
+  /**
+   * Answers the next <code>times</code> requests for an ISBN with <code>status</code>.
+   */
+  void failNext(final String isbn, final int status, final int times) {
+    statuses.put(isbn, status);
+    failures.put(isbn, new AtomicInteger(times));
+  }
+
+  void setDelayMillis(final long delayMillis) {
+    this.delayMillis = delayMillis;
+  }
+
+  /**
+   * Sends a <code>Retry-After</code> header of so many seconds with every error status.
+   */
+  void setRetryAfterSeconds(final long seconds) {
+    this.retryAfter = Long.toString(seconds);
+  }
+
+  int getRequestCount() {
+    return requests.get();
+  }
+
+  /**
+   * @return int The largest number of requests handled at once
+   */
+  int getMaxActive() {
+    return maxActive.get();
+  }
+
+  private void handle(final HttpExchange exchange) throws IOException {
+    requests.incrementAndGet();
+    maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+    try {
+      if (delayMillis > 0) {
+        Thread.sleep(delayMillis);
+      }
+      respond(exchange);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      active.decrementAndGet();
+    }
+  }
+
+  private void respond(final HttpExchange exchange) throws IOException {
+    final String query = exchange.getRequestURI().getQuery();
+    final String isbn = query.substring(query.indexOf("isbn:") + "isbn:".length());
+    final Integer status = statuses.get(isbn);
+    final AtomicInteger remaining = failures.get(isbn);
+    if (status != null && (remaining == null || remaining.getAndDecrement() > 0)) {
+      if (retryAfter != null) {
+        exchange.getResponseHeaders().set("Retry-After", retryAfter);
+      }
+      exchange.sendResponseHeaders(status, -1);
+      exchange.close();
+      return;
+    }
+    final String title = titles.get(isbn);
+    final String json = title == null ? "{\"kind\":\"books#volumes\",\"totalItems\":0}"
+        : "{\"kind\":\"books#volumes\",\"totalItems\":1,\"items\":[{\"volumeInfo\":{\"title\":\""
+            + title + "\",\"authors\":[\"Author\"],\"publishedDate\":\"2001-05-01\"}}]}";
+    final byte[] body = json.getBytes(UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "application/json");
+    exchange.sendResponseHeaders(200, body.length);
+    try (final OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+}
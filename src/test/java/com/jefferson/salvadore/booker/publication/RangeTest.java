@@ -8,6 +8,13 @@ import static com.jefferson.salvadore.booker.publication.Range.*;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Base64;
 
 import org.junit.Test;
 
@@ -19,6 +26,16 @@ import org.junit.Test;
  */
 public class RangeTest {
 
+  /**
+   * <code>Range.of(1954, 1955)</code> serialized by the version of the class with
+   * <code>Integer</code> fields
+   */
+  private static final String LEGACY_1954_1955 =
+      "rO0ABXNyADBjb20uamVmZmVyc29uLnNhbHZhZG9yZS5ib29rZXIucHVibGljYXRpb24uUmFuZ2UAAAAA"
+          + "AAAAbwIAAkwACHJhbmdlRW5kdAATTGphdmEvbGFuZy9JbnRlZ2VyO0wACnJhbmdlU3RhcnRxAH4AAXhw"
+          + "c3IAEWphdmEubGFuZy5JbnRlZ2VyEuKgpPeBhzgCAAFJAAV2YWx1ZXhyABBqYXZhLmxhbmcuTnVtYmVy"
+          + "hqyVHQuU4IsCAAB4cAAAB6NzcQB+AAMAAAei";
+
   /**
    * <p>
    * Testing that the {@link Range} constructor fails fast with a {@link NullPointerException}, when
@@ -92,4 +109,64 @@ public class RangeTest {
     Range range2 = Range.of(2001, 2010);
     assertThat(range1.hashCode(), is(equalTo(range2.hashCode())));
   }
+
+  /**
+   * <p>
+   * Testing that two ranges overlap when they share at least one year, bounds included
+   * </p>
+   * 
+   * @see Range#overlaps(Range)
+   */
+  @Test
+  public void testOverlaps() {
+    assertThat(of(1900, 1950).overlaps(of(1950, 2000)), is(true));
+    assertThat(of(1900, 1950).overlaps(of(1920)), is(true));
+    assertThat(of(1920).overlaps(of(1900, 1950)), is(true));
+    assertThat(of(1900, 1950).overlaps(of(1951, 2000)), is(false));
+    assertThat(of(1951, 2000).overlaps(of(1900, 1950)), is(false));
+  }
+
+  /**
+   * <p>
+   * Testing that the single-year ranges of the cached span are interned
+   * </p>
+   * 
+   * @see Range#of(int)
+   */
+  @Test
+  public void testInternsSingleYears() {
+    assertThat(of(1997), is(sameInstance(of(1997))));
+    assertThat(of(1997, 1997), is(sameInstance(of(1997))));
+    assertThat(of(Integer.valueOf(1997)), is(sameInstance(of(1997))));
+    assertThat(of(0, 0), is(sameInstance(DEFAULT_RANGE)));
+    assertThat(CURRENT_YEAR, is(sameInstance(of(2015))));
+    assertThat(of(DEFAULT_CACHE_HIGH + 1), is(equalTo(of(DEFAULT_CACHE_HIGH + 1))));
+  }
+
+  /**
+   * <p>
+   * Testing that a range serialized when its fields were boxed <code>Integer</code>s is still read,
+   * and interned
+   * </p>
+   * 
+   * @throws Exception
+   * @see Range#readResolve()
+   */
+  @Test
+  public void testReadsLegacySerializedForm() throws Exception {
+    final byte[] legacy = Base64.getDecoder().decode(LEGACY_1954_1955);
+    try (final ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(legacy))) {
+      assertThat(in.readObject(), is(equalTo((Object) of(1954, 1955))));
+    }
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (final ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(of(1954, 1955));
+      out.writeObject(of(1997));
+    }
+    try (final ObjectInputStream in =
+        new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      assertThat(in.readObject(), is(equalTo((Object) of(1954, 1955))));
+      assertThat(in.readObject(), is(sameInstance((Object) of(1997))));
+    }
+  }
 }
@@ -0,0 +1,178 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.repo;
+
+import static com.jefferson.salvadore.booker.publication.PubFreq.MONTHLY;
+import static com.jefferson.salvadore.booker.publication.PubFreq.NA;
+import static com.jefferson.salvadore.booker.publication.PubFreq.WEEKLY;
+import static com.jefferson.salvadore.booker.publication.PubFreq.pubFreqOf;
+import static com.jefferson.salvadore.booker.publication.Range.of;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.jefferson.salvadore.booker.publication.AbstractPublication;
+import com.jefferson.salvadore.booker.publication.Book;
+import com.jefferson.salvadore.booker.publication.Journal;
+import com.jefferson.salvadore.booker.publication.Magazine;
+import com.jefferson.salvadore.booker.publication.Periodical;
+import com.jefferson.salvadore.booker.publication.Publication;
+import com.jefferson.salvadore.booker.publication.Range;
+
+public class PublicationIndexTest {
+  private PublicationIndex index;
+  private Book hobbit;
+  private Book dickens;
+  private Magazine aarp;
+  private Journal nature;
+
+  @Before
+  public void setUpIndex() {
+    index = new PublicationIndex();
+    hobbit = new Book("The Hobbit", "J.R.R Tolkien", of(1937), pubFreqOf(NA));
+    dickens = new Book("A Tale of Two Cities", "Charles Dickens", of(0), pubFreqOf(NA));
+    aarp = new Magazine("AARP Bulletin", "AARP", of(1960), 22_244_820, pubFreqOf(MONTHLY));
+    nature = new Journal("Nature", "Nature Publishing Group", of(1869), pubFreqOf(WEEKLY),
+        "Natural Science", 41.456);
+    index.add(hobbit);
+    index.add(dickens);
+    index.add(aarp);
+    index.add(nature);
+  }
+
+  @Test
+  public void testPartitionsByType() {
+    assertThat(index.size(), is(4));
+    assertThat(index.getByType(Book.class), containsInAnyOrder(hobbit, dickens));
+    assertThat(index.getByType(Magazine.class), containsInAnyOrder(aarp));
+    assertThat(index.getByType(Periodical.class),
+        containsInAnyOrder((Periodical) aarp, (Periodical) nature));
+    assertThat(index.getByType(Publication.class).size(), is(4));
+    assertThat(index.getByType(AbstractPublication.class).size(), is(4));
+  }
+
+  @Test
+  public void testRemoveKeepsBucketsConsistent() {
+    assertThat(index.remove("The Hobbit"), is((Publication) hobbit));
+    assertThat(index.get("The Hobbit"), is(nullValue()));
+    assertThat(index.getByType(Book.class), containsInAnyOrder(dickens));
+
+    index.remove("A Tale of Two Cities");
+    index.remove("Nature");
+    assertThat(index.getByType(Book.class).size(), is(0));
+    assertThat(index.getByType(Publication.class), containsInAnyOrder((Publication) aarp));
+    assertThat(index.remove("Nature"), is(nullValue()));
+  }
+
+  @Test
+  public void testAddReplacesSameTitle() {
+    final Book otherHobbit = new Book("The Hobbit", "Someone Else", of(1937), pubFreqOf(NA));
+    index.add(otherHobbit);
+    assertThat(index.size(), is(4));
+    assertThat(index.get("The Hobbit"), is((Publication) otherHobbit));
+    assertThat(index.getByType(Book.class).size(), is(2));
+    index.remove("A Tale of Two Cities");
+    assertThat(index.getByType(Book.class), containsInAnyOrder(otherHobbit));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testViewIsReadOnly() {
+    index.getByType(Book.class).clear();
+  }
+
+  @Test
+  public void testNormalizeTitle() {
+    assertThat(PublicationIndex.normalizeTitle("The New-Yorker"), is("the new yorker"));
+    assertThat(PublicationIndex.normalizeTitle("  the NEW yorker! "), is("the new yorker"));
+    assertThat(PublicationIndex.normalizeTitle("Géo  Ado"), is("geo ado"));
+  }
+
+  @Test
+  public void testFindsPeriodicalByNormalizedTitle() {
+    assertThat(index.getPeriodical("Nature"), is((Periodical) nature));
+    assertThat(index.getPeriodical("The Hobbit"), is(nullValue()));
+    assertThat(index.getPeriodicalByNormalizedTitle("aarp   bulletin"), is((Periodical) aarp));
+    assertThat(index.getPeriodicalByNormalizedTitle("the hobbit"), is(nullValue()));
+  }
+
+  @Test
+  public void testNormalizedTitlesFollowRemovalAndReplacement() {
+    final Magazine nature2 =
+        new Magazine("NATURE", "Someone Else", of(2000), 1_000, pubFreqOf(MONTHLY));
+    index.add(nature2);
+    assertThat(index.getPeriodicalByNormalizedTitle("Nature"), is((Periodical) nature));
+    assertThat(index.getPeriodicalByNormalizedTitle("nature"), is((Periodical) nature));
+    index.remove("Nature");
+    assertThat(index.getPeriodicalByNormalizedTitle("nature"), is((Periodical) nature2));
+    index.add(new Book("NATURE", "Author", of(2001), pubFreqOf(NA)));
+    assertThat(index.getPeriodicalByNormalizedTitle("nature"), is(nullValue()));
+  }
+
+  @Test
+  public void testStreamsLikeGetByType() {
+    assertThat(index.stream(Book.class).collect(Collectors.toList()),
+        is(index.getByType(Book.class)));
+    assertThat(index.stream(AbstractPublication.class).collect(Collectors.toList()),
+        is(index.getByType(AbstractPublication.class)));
+  }
+
+  @Test
+  public void testPagesInTitleOrder() {
+    assertThat(index.page(Publication.class, null, 3),
+        contains((Publication) dickens, aarp, nature));
+    assertThat(index.page(Publication.class, "Nature", 3), contains((Publication) hobbit));
+    assertThat(index.page(Publication.class, "The Hobbit", 3).size(), is(0));
+    assertThat(index.page(Periodical.class, "B", 10), contains((Periodical) nature));
+    assertThat(index.page(AbstractPublication.class, "A Tale of Two Cities", 1),
+        contains((AbstractPublication) aarp));
+  }
+
+  @Test
+  public void testPagesFollowRemovalAndReplacement() {
+    index.remove("Nature");
+    final Book otherHobbit = new Book("The Hobbit", "Someone Else", of(1937), pubFreqOf(NA));
+    index.add(otherHobbit);
+    assertThat(index.page(Publication.class, "A", 10),
+        contains((Publication) dickens, aarp, otherHobbit));
+    assertThat(index.page(Book.class, null, 10), contains(dickens, otherHobbit));
+  }
+
+  @Test
+  public void testFindsByYears() {
+    assertThat(index.findByYears(of(1900, 1950)), contains((Publication) hobbit));
+    assertThat(index.findByYears(of(1869, 1937)), contains((Publication) nature, hobbit));
+    assertThat(index.findByYears(of(1870, 1936)).size(), is(0));
+    index.add(new Book("Long Runner", "Author", of(1850, 1990), pubFreqOf(NA)));
+    assertThat(index.findByYears(of(1900)).size(), is(1));
+    index.remove("Long Runner");
+    assertThat(index.findByYears(of(1900)).size(), is(0));
+  }
+
+  @Test
+  public void testFindsByYearsLikeAScan() {
+    final Random random = new Random(42);
+    for (int i = 0; i < 500; i++) {
+      final int start = 1800 + random.nextInt(200);
+      index.add(new Book("Book " + i, "Author", of(start, start + random.nextInt(60)),
+          pubFreqOf(NA)));
+    }
+    for (int i = 0; i < 50; i++) {
+      final int start = 1780 + random.nextInt(260);
+      final Range years = of(start, start + random.nextInt(30));
+      final List<Publication> scan = index.getByType(Publication.class).stream()
+          .filter(publication -> publication.getYearsPublished().overlaps(years))
+          .collect(Collectors.toList());
+      assertThat(index.findByYears(years), containsInAnyOrder(scan.toArray()));
+    }
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.repo.codec;
+
+import static com.jefferson.salvadore.booker.publication.PubFreq.*;
+import static com.jefferson.salvadore.booker.publication.Range.of;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.jefferson.salvadore.booker.publication.Book;
+import com.jefferson.salvadore.booker.publication.Journal;
+import com.jefferson.salvadore.booker.publication.Magazine;
+import com.jefferson.salvadore.booker.publication.Publication;
+
+public class PublicationCodecTest {
+
+  private static byte[] javaSerialize(final Publication publication) throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (final ObjectOutputStream outputStream = new ObjectOutputStream(bytes)) {
+      outputStream.writeObject(publication);
+    }
+    return bytes.toByteArray();
+  }
+
+  @Test
+  public void testBookRoundTrip() throws IOException {
+    final Book book = new Book("Le Petit Prince", "Antoine de Saint-Exupéry", "French", of(1943),
+        140_000_000, pubFreqOf(NA));
+    final Book decoded = (Book) PublicationCodec.decode(PublicationCodec.encode(book));
+    assertThat(decoded, is(book));
+    assertThat(decoded.getLanguage(), is("French"));
+    assertThat(decoded.getTotalSold(), is(140_000_000));
+    assertThat(decoded.getYearsPublished(), is(of(1943)));
+    assertThat(decoded.getPubFreq(), is(NA.getFreqValue()));
+  }
+
+  @Test
+  public void testMagazineRoundTrip() throws IOException {
+    final Magazine magazine =
+        new Magazine("AARP The Magazine", "AARP", of(1958), 22_274_096, pubFreqOf(MONTHLY));
+    final Magazine decoded = (Magazine) PublicationCodec.decode(PublicationCodec.encode(magazine));
+    assertThat(decoded, is(magazine));
+    assertThat(decoded.getTotalInCirculation(), is(22_274_096));
+    assertThat(decoded.getPubFreq(), is(MONTHLY.getFreqValue()));
+  }
+
+  @Test
+  public void testJournalRoundTrip() throws IOException {
+    final Journal journal = new Journal("Nature", "Nature Publishing Group", of(1869, 2016),
+        pubFreqOf(WEEKLY), "Natural Science", 41.456);
+    final Journal decoded = (Journal) PublicationCodec.decode(PublicationCodec.encode(journal));
+    assertThat(decoded, is(journal));
+    assertThat(decoded.getDiscipline(), is("Natural Science"));
+    assertThat(decoded.getImpactFactor(), is(41.456));
+    assertThat(decoded.getYearsPublished(), is(of(1869, 2016)));
+  }
+
+  @Test
+  public void testDecodesJavaSerialization() throws IOException {
+    final Book book = new Book("紅樓夢/红楼梦 (Dream of the Red Chamber)", "Cao Xueqin",
+        of(1754, 1791), 100_000_000, pubFreqOf(NA));
+    assertThat(PublicationCodec.decode(javaSerialize(book)), is((Publication) book));
+  }
+
+  @Test
+  public void testDecodesInPlaceAndAdvances() throws IOException {
+    final byte[] first = PublicationCodec.encode(new Book("A", "B", of(1), pubFreqOf(NA)));
+    final byte[] second = PublicationCodec.encode(new Book("C", "D", of(2), pubFreqOf(NA)));
+    final ByteBuffer buffer = ByteBuffer.allocateDirect(first.length + second.length);
+    buffer.put(first).put(second).flip();
+    assertThat(PublicationCodec.decode(buffer).getTitle(), is("A"));
+    assertThat(PublicationCodec.decode(buffer).getTitle(), is("C"));
+    assertThat(buffer.hasRemaining(), is(false));
+  }
+
+  @Test
+  public void testSmallerThanJavaSerialization() throws IOException {
+    final Journal journal = new Journal("PLOS ONE", "Public Library of Science", of(2006),
+        pubFreqOf(UNDISCLOSED), "Multidisciplinary", 3.234);
+    assertThat(PublicationCodec.encode(journal).length,
+        is(lessThan(javaSerialize(journal).length / 4)));
+  }
+
+  @Test(expected = IOException.class)
+  public void testTruncatedRecord() throws IOException {
+    final byte[] encoded = PublicationCodec.encode(new Book("A", "B", of(1), pubFreqOf(NA)));
+    PublicationCodec.decode(Arrays.copyOf(encoded, encoded.length - 2));
+  }
+
+  @Test(expected = IOException.class)
+  public void testSerializedLengthBeyondTheRecord() throws IOException {
+    PublicationCodec.decode(new byte[] {PublicationCodec.MAGIC, PublicationCodec.VERSION,
+        PublicationCodec.TAG_SERIALIZED, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07});
+  }
+
+  @Test(expected = IOException.class)
+  public void testNegativeSerializedLength() throws IOException {
+    PublicationCodec.decode(new byte[] {PublicationCodec.MAGIC, PublicationCodec.VERSION,
+        PublicationCodec.TAG_SERIALIZED, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F});
+  }
+}
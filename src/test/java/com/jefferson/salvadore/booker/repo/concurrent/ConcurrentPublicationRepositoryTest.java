@@ -0,0 +1,164 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.repo.concurrent;
+
+import static com.jefferson.salvadore.booker.publication.PubFreq.NA;
+import static com.jefferson.salvadore.booker.publication.PubFreq.pubFreqOf;
+import static com.jefferson.salvadore.booker.publication.Range.of;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+import com.jefferson.salvadore.booker.publication.Book;
+import com.jefferson.salvadore.booker.publication.Journal;
+import com.jefferson.salvadore.booker.publication.Magazine;
+import com.jefferson.salvadore.booker.publication.Publication;
+import com.jefferson.salvadore.booker.repo.snapshot.SnapshotTopPublicationRepository;
+
+public class ConcurrentPublicationRepositoryTest {
+
+  private static Book book(final String title) {
+    return new Book(title, "Author", of(2000), pubFreqOf(NA));
+  }
+
+  private static List<String> titles(final List<? extends Publication> publications) {
+    final List<String> titles = new ArrayList<>();
+    for (Publication publication : publications) {
+      titles.add(publication.getTitle());
+    }
+    return titles;
+  }
+
+  @Test
+  public void testMatchesSnapshotRepository() throws IOException {
+    final SnapshotTopPublicationRepository snapshot = new SnapshotTopPublicationRepository();
+    final ConcurrentPublicationRepository repo = new ConcurrentPublicationRepository();
+    repo.addAllPublications(snapshot);
+
+    assertThat(repo.getListSize(), is(18));
+    assertThat(repo.getByType(Book.class), is(snapshot.getByType(Book.class)));
+    assertThat(repo.getByType(Magazine.class), is(snapshot.getByType(Magazine.class)));
+    assertThat(repo.getByType(Journal.class), is(snapshot.getByType(Journal.class)));
+    assertThat(repo.findByTitle("Nature").getTitle(), is("Nature"));
+  }
+
+  @Test
+  public void testWritesAreVisibleToLaterReads() throws IOException {
+    final ConcurrentPublicationRepository repo = new ConcurrentPublicationRepository();
+    repo.addPub(book("A"));
+    repo.addPub(book("B"));
+    final List<Book> before = repo.getByType(Book.class);
+    repo.addPub(book("A"));
+    repo.removePubByTitle("B");
+
+    assertThat(titles(before), contains("A", "B"));
+    assertThat(titles(repo.getByType(Book.class)), contains("A"));
+    assertThat(repo.getInventoryCount("A"),
+        is(ConcurrentPublicationRepository.DEFAULT_INVENTORY_COUNT));
+    repo.setInventoryCount("A", 3);
+    assertThat(repo.getInventoryCount("A"), is(3));
+  }
+
+  @Test
+  public void testQueriesSeeEveryCompletedWrite() throws IOException {
+    final ConcurrentPublicationRepository repo = new ConcurrentPublicationRepository();
+    repo.addAllPublications(new SnapshotTopPublicationRepository());
+    assertThat(titles(repo.findByYears(of(1937))).contains("The Hobbit"), is(true));
+    repo.addPub(new Book("Written In 1937", "Author", of(1937), pubFreqOf(NA)));
+    assertThat(titles(repo.findByYears(of(1937))).contains("Written In 1937"), is(true));
+    assertThat(titles(repo.page(Book.class, "Written", 1)), contains("Written In 1937"));
+    repo.removePubByTitle("Nature");
+    assertThat(titles(repo.getByType(Journal.class)).contains("Nature"), is(false));
+    try {
+      repo.findPeriodicalByNormalizedTitle("nature");
+      fail("a removed periodical must not be found");
+    } catch (NoSuchElementException e) {
+      assertThat(repo.findByYears(of(1869)).isEmpty(), is(true));
+    }
+  }
+
+  @Test
+  public void testAddAllKeepsLastInstanceOfTitle() throws IOException {
+    final ConcurrentPublicationRepository repo = new ConcurrentPublicationRepository();
+    repo.addAll(Arrays.asList(book("A"), book("B"), book("C"), book("A")));
+    assertThat(titles(repo.getByType(Book.class)), contains("B", "C", "A"));
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void testFindRemovedTitle() throws IOException {
+    final ConcurrentPublicationRepository repo = new ConcurrentPublicationRepository();
+    repo.addPub(book("A"));
+    repo.removePubByTitle("A");
+    repo.findByTitle("A");
+  }
+
+  @Test(expected = IOException.class)
+  public void testSetInventoryCountOfUnknownTitle() throws IOException {
+    final ConcurrentPublicationRepository repo = new ConcurrentPublicationRepository();
+    repo.addPub(book("A"));
+    repo.setInventoryCount("B", 3);
+  }
+
+  @Test
+  public void testReadersIterateWhileWritersAdd() throws Exception {
+    final int writers = 8;
+    final int titlesPerWriter = 500;
+    final ConcurrentPublicationRepository repo = new ConcurrentPublicationRepository();
+    final ExecutorService executor = Executors.newFixedThreadPool(writers * 2);
+    final CountDownLatch start = new CountDownLatch(1);
+    final AtomicBoolean writing = new AtomicBoolean(true);
+    try {
+      final List<Future<?>> writes = new ArrayList<>();
+      final List<Future<?>> reads = new ArrayList<>();
+      for (int w = 0; w < writers; w++) {
+        final int writer = w;
+        writes.add(executor.submit(() -> {
+          start.await();
+          for (int i = 0; i < titlesPerWriter; i++) {
+            repo.addPub(book(writer + "-" + i));
+          }
+          return null;
+        }));
+        reads.add(executor.submit(() -> {
+          start.await();
+          while (writing.get()) {
+            int count = 0;
+            for (Publication publication : repo.getByType(Publication.class)) {
+              repo.findByTitle(publication.getTitle());
+              count++;
+            }
+            assertThat(count <= writers * titlesPerWriter, is(true));
+          }
+          return null;
+        }));
+      }
+      start.countDown();
+      for (Future<?> write : writes) {
+        write.get();
+      }
+      writing.set(false);
+      for (Future<?> read : reads) {
+        read.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertThat(repo.getListSize(), is(writers * titlesPerWriter));
+    assertThat(repo.getByType(Book.class).size(), is(writers * titlesPerWriter));
+  }
+}
@@ -14,6 +14,8 @@ import java.io.OutputStream;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.NoSuchElementException;
 
 import org.junit.Test;
@@ -78,6 +80,86 @@ public class FilePublicationRepositoryTest {
     fileRepo.findByTitle("Test Title");
   }
 
+  @Test
+  public void addPubReplacesExistingTitle() throws IOException {
+    final FilePublicationRepository fileRepo =
+        new FilePublicationRepository(tempFolder.getRoot().toPath());
+    fileRepo.addPub(new Book("Test Title", "First Author", of(0), 200_000_000, pubFreqOf(NA)));
+    fileRepo.addPub(new Book("Test Title", "Second Author", of(0), 200_000_000, pubFreqOf(NA)));
+
+    assertThat(fileRepo.getListSize(), is(1));
+    assertThat(((Book) fileRepo.findByTitle("Test Title")).getAuthor(), is("Second Author"));
+    fileRepo.removePubByTitle("Test Title");
+    assertThat(fileRepo.getListSize(), is(0));
+  }
+
+  @Test
+  public void inventoryCountsAreWrittenOnFlush() throws IOException {
+    final Path tempDirRootPath = tempFolder.getRoot().toPath();
+    try (final FilePublicationRepository fileRepo =
+        new FilePublicationRepository(tempDirRootPath, 0, true)) {
+      fileRepo.addPub(new Book("Test Title", "Test Author", of(0), 200_000_000, pubFreqOf(NA)));
+      fileRepo.setInventoryCount("Test Title", 7);
+      assertThat(fileRepo.getInventoryCount("Test Title"), is(7));
+      fileRepo.flushInventory();
+    }
+    final FilePublicationRepository reopened = new FilePublicationRepository(tempDirRootPath, 0, false);
+    assertThat(reopened.getInventoryCount("Test Title"), is(7));
+    assertThat(reopened.getInventoryCount("Unknown Title"),
+        is(FilePublicationRepository.DEFAULT_INVENTORY_COUNT));
+  }
+
+  @Test(expected = IOException.class)
+  public void setInventoryCountOfUnknownTitle() throws IOException {
+    new FilePublicationRepository(tempFolder.getRoot().toPath(), 0, false)
+        .setInventoryCount("Unknown Title", 7);
+  }
+
+  @Test
+  public void initializeLoadsExistingFiles() throws IOException {
+    final Path tempDirRootPath = tempFolder.getRoot().toPath();
+    Files.write(tempDirRootPath.resolve("signature.dat"), sigBytes);
+    try (final FilePublicationRepository fileRepo = new FilePublicationRepository(tempDirRootPath)) {
+      for (int i = 0; i < 500; i++) {
+        fileRepo.addPub(new Book("Title " + i, "Author", of(1900 + i), 200_000_000, pubFreqOf(NA)));
+      }
+      fileRepo.setInventoryCount("Title 7", 3);
+    }
+    Files.delete(tempDirRootPath.resolve("Title+8.stock.txt"));
+
+    try (final FilePublicationRepository reopened = new FilePublicationRepository(tempDirRootPath)) {
+      reopened.initialize();
+      assertThat(reopened.getListSize(), is(500));
+      assertThat(reopened.findByTitle("Title 499").getYearsPublished(), is(of(2399)));
+      assertThat(reopened.getInventoryCount("Title 7"), is(3));
+      assertThat(reopened.getInventoryCount("Title 8"),
+          is(FilePublicationRepository.DEFAULT_INVENTORY_COUNT));
+    }
+  }
+
+  @Test
+  public void addAllWritesEveryFile() throws IOException {
+    final Path tempDirRootPath = tempFolder.getRoot().toPath();
+    final List<Book> batch = new ArrayList<>();
+    for (int i = 0; i < 300; i++) {
+      batch.add(new Book("Title " + i, "First Author", of(0), 200_000_000, pubFreqOf(NA)));
+    }
+    batch.add(new Book("Title 0", "Second Author", of(0), 200_000_000, pubFreqOf(NA)));
+    try (final FilePublicationRepository fileRepo = new FilePublicationRepository(tempDirRootPath)) {
+      fileRepo.addAll(batch);
+      assertThat(fileRepo.getListSize(), is(300));
+      assertThat(fileRepo.getByType(Book.class).get(299).getTitle(), is("Title 0"));
+    }
+    Files.write(tempDirRootPath.resolve("signature.dat"), sigBytes);
+    try (final FilePublicationRepository reopened = new FilePublicationRepository(tempDirRootPath)) {
+      reopened.initialize();
+      assertThat(reopened.getListSize(), is(300));
+      assertThat(((Book) reopened.findByTitle("Title 0")).getAuthor(), is("Second Author"));
+      assertThat(reopened.getInventoryCount("Title 299"),
+          is(FilePublicationRepository.DEFAULT_INVENTORY_COUNT));
+    }
+  }
+
   @AfterClass
   public static void cleanUpBytes() {
     sigBytes = null;
@@ -0,0 +1,162 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.repo.inventory;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+import com.jefferson.salvadore.booker.publication.Publication;
+import com.jefferson.salvadore.booker.repo.PublicationManager;
+import com.jefferson.salvadore.booker.repo.PublicationManagerImpl;
+import com.jefferson.salvadore.booker.repo.PublicationRepository;
+import com.jefferson.salvadore.booker.repo.snapshot.SnapshotTopPublicationRepository;
+
+public class ConcurrentInventoryTest {
+
+  private static final int THREADS = 64;
+  private static final int ATTEMPTS_PER_THREAD = 1_000;
+  private static final String TITLE = "Nature";
+
+  private static int runConcurrently(final Callable<Integer> task) throws Exception {
+    final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    final CountDownLatch start = new CountDownLatch(1);
+    try {
+      final List<Future<Integer>> futures = new ArrayList<>();
+      for (int i = 0; i < THREADS; i++) {
+        futures.add(executor.submit(() -> {
+          start.await();
+          return task.call();
+        }));
+      }
+      start.countDown();
+      int total = 0;
+      for (Future<Integer> future : futures) {
+        total += future.get();
+      }
+      return total;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testNoOversellUnder64Threads() throws Exception {
+    final PublicationRepository repo = new SnapshotTopPublicationRepository();
+    final PublicationManager manager = new PublicationManagerImpl(repo);
+    final int stock = THREADS * ATTEMPTS_PER_THREAD / 2;
+    manager.addStockToInventory(TITLE, stock);
+
+    final int reserved = runConcurrently(() -> {
+      int succeeded = 0;
+      for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+        if (manager.tryReserve(TITLE, 1)) {
+          succeeded++;
+        }
+      }
+      return succeeded;
+    });
+
+    assertThat(reserved, is(stock));
+    assertThat(manager.getInventoryCount(TITLE), is(0));
+    assertThat(repo.getInventoryCount(TITLE), is(0));
+  }
+
+  @Test
+  public void testNoLostUpdatesUnder64Threads() throws Exception {
+    final PublicationRepository repo = new SnapshotTopPublicationRepository();
+    final ConcurrentInventory inventory = new ConcurrentInventory(repo);
+    inventory.release(TITLE, 10);
+
+    runConcurrently(() -> {
+      for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+        if (inventory.tryReserve(TITLE, 3)) {
+          inventory.release(TITLE, 3);
+        }
+        inventory.release(TITLE, 1);
+      }
+      return 0;
+    });
+
+    final int expected = 10 + THREADS * ATTEMPTS_PER_THREAD;
+    assertThat(inventory.get(TITLE), is(expected));
+    assertThat(repo.getInventoryCount(TITLE), is(expected));
+  }
+
+  @Test
+  public void testReserveMoreThanStockLeavesCountUnchanged() throws IOException {
+    final ConcurrentInventory inventory =
+        new ConcurrentInventory(new SnapshotTopPublicationRepository());
+    inventory.release(TITLE, 2);
+    assertThat(inventory.tryReserve(TITLE, 3), is(false));
+    assertThat(inventory.get(TITLE), is(2));
+  }
+
+  @Test(expected = IOException.class)
+  public void testRemoveStockBelowZero() throws IOException {
+    final PublicationManager manager =
+        new PublicationManagerImpl(new SnapshotTopPublicationRepository());
+    manager.removeStockFromInventory(TITLE, 1);
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void testUnknownTitleCannotBeReserved() throws IOException {
+    new ConcurrentInventory(new SnapshotTopPublicationRepository()).tryReserve("No Such Title", 1);
+  }
+
+  @Test
+  public void testFailedWriteIsUndone() throws IOException {
+    final AtomicBoolean failWrites = new AtomicBoolean();
+    final ConcurrentInventory inventory =
+        new ConcurrentInventory(new SnapshotTopPublicationRepository() {
+          @Override
+          public void setInventoryCount(final String title, final int count) {
+            if (failWrites.get()) {
+              throw new UncheckedIOException(new IOException("disk full"));
+            }
+            super.setInventoryCount(title, count);
+          }
+        });
+    inventory.release(TITLE, 5);
+    failWrites.set(true);
+    try {
+      inventory.tryReserve(TITLE, 3);
+      fail("the write should have failed");
+    } catch (UncheckedIOException e) {
+      assertThat(inventory.get(TITLE), is(5));
+    }
+    try {
+      inventory.release(TITLE, 3);
+      fail("the write should have failed");
+    } catch (UncheckedIOException e) {
+      assertThat(inventory.get(TITLE), is(5));
+    }
+  }
+
+  @Test
+  public void testReaddedTitleIsCountedAgain() throws IOException {
+    final PublicationRepository repo = new SnapshotTopPublicationRepository();
+    final PublicationManager manager = new PublicationManagerImpl(repo);
+    manager.addStockToInventory(TITLE, 5);
+    final Publication nature = repo.findByTitle(TITLE);
+    manager.removePublication(TITLE);
+    manager.addPublication(nature);
+    assertThat(manager.getInventoryCount(TITLE), is(repo.getInventoryCount(TITLE)));
+    assertThat(manager.getInventoryCount(TITLE), is(0));
+  }
+}
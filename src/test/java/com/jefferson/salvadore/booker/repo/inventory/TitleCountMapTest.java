@@ -0,0 +1,59 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.repo.inventory;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TitleCountMapTest {
+
+  @Test
+  public void testPutAndGet() {
+    final TitleCountMap counts = new TitleCountMap();
+    counts.put("Nature", 20);
+    counts.put("Nature", 7);
+    assertThat(counts.get("Nature", -1), is(7));
+    assertThat(counts.get("Science", -1), is(-1));
+    assertThat(counts.containsKey("Science"), is(false));
+    assertThat(counts.size(), is(1));
+  }
+
+  @Test
+  public void testMatchesHashMapAfterRandomUpdates() {
+    final TitleCountMap counts = new TitleCountMap();
+    final Map<String, Integer> expected = new HashMap<>();
+    final Random random = new Random(42);
+    for (int i = 0; i < 50_000; i++) {
+      final String title = "Title " + random.nextInt(2_000);
+      if (random.nextInt(3) == 0) {
+        assertThat(counts.remove(title), is(expected.remove(title) != null));
+      } else {
+        counts.put(title, i);
+        expected.put(title, i);
+      }
+    }
+    assertThat(counts.size(), is(expected.size()));
+    for (Map.Entry<String, Integer> entry : expected.entrySet()) {
+      assertThat(counts.get(entry.getKey(), -1), is(entry.getValue()));
+    }
+    final Map<String, Integer> visited = new HashMap<>();
+    counts.forEach(visited::put);
+    assertThat(visited, is(expected));
+  }
+
+  @Test
+  public void testClear() {
+    final TitleCountMap counts = new TitleCountMap(1);
+    counts.put("Nature", 20);
+    counts.clear();
+    assertThat(counts.isEmpty(), is(true));
+    assertThat(counts.containsKey("Nature"), is(false));
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.repo.inventory;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class WriteBehindInventoryTest {
+
+  private static class RecordingStore implements InventoryStore {
+
+    final List<Map<String, Integer>> batches = new ArrayList<>();
+    final List<Boolean> fsyncs = new ArrayList<>();
+    final CountDownLatch written = new CountDownLatch(1);
+    boolean failing;
+    Runnable duringWrite;
+
+    @Override
+    public synchronized void write(final TitleCountMap counts, final boolean fsync)
+        throws IOException {
+      if (duringWrite != null) {
+        duringWrite.run();
+        duringWrite = null;
+      }
+      if (failing) {
+        throw new IOException("disk full");
+      }
+      final Map<String, Integer> batch = new HashMap<>();
+      counts.forEach(batch::put);
+      batches.add(batch);
+      fsyncs.add(fsync);
+      written.countDown();
+    }
+  }
+
+  @Test
+  public void testFlushWritesOnlyChangedCounts() throws IOException {
+    final RecordingStore store = new RecordingStore();
+    try (final WriteBehindInventory inventory = new WriteBehindInventory(store, 0, true)) {
+      inventory.load("Nature", 20);
+      inventory.set("Science", 5);
+      inventory.set("Science", 4);
+      assertThat(inventory.get("Science", -1), is(4));
+      assertThat(inventory.getPendingCount(), is(1));
+      inventory.flush();
+      inventory.flush();
+    }
+    assertThat(store.batches.size(), is(1));
+    assertThat(store.batches.get(0).get("Science"), is(4));
+    assertThat(store.batches.get(0).containsKey("Nature"), is(false));
+    assertThat(store.fsyncs.get(0), is(true));
+  }
+
+  @Test
+  public void testLoadKeepsNewerCount() {
+    final WriteBehindInventory inventory = new WriteBehindInventory(new RecordingStore(), 0, false);
+    inventory.set("Nature", 3);
+    inventory.load("Nature", 20);
+    assertThat(inventory.get("Nature", -1), is(3));
+  }
+
+  @Test
+  public void testRemovedCountIsNotWritten() throws IOException {
+    final RecordingStore store = new RecordingStore();
+    final WriteBehindInventory inventory = new WriteBehindInventory(store, 0, false);
+    inventory.set("Nature", 3);
+    inventory.remove("Nature");
+    inventory.close();
+    assertThat(inventory.contains("Nature"), is(false));
+    assertThat(store.batches.isEmpty(), is(true));
+  }
+
+  @Test
+  public void testFailedBatchIsRetried() throws IOException {
+    final RecordingStore store = new RecordingStore();
+    final WriteBehindInventory inventory = new WriteBehindInventory(store, 0, false);
+    inventory.set("Nature", 3);
+    store.failing = true;
+    try {
+      inventory.flush();
+      fail("expected the store failure to propagate");
+    } catch (IOException e) {
+      assertThat(inventory.getPendingCount(), is(1));
+    }
+    store.failing = false;
+    inventory.close();
+    assertThat(store.batches.get(0).get("Nature"), is(3));
+  }
+
+  @Test
+  public void testTitleReaddedDuringFailedFlushIsNotOverwritten() throws IOException {
+    final RecordingStore store = new RecordingStore();
+    final WriteBehindInventory inventory = new WriteBehindInventory(store, 0, false);
+    inventory.set("Nature", 3);
+    store.failing = true;
+    store.duringWrite = () -> {
+      inventory.remove("Nature");
+      inventory.load("Nature", 7);
+    };
+    try {
+      inventory.flush();
+      fail("expected the store failure to propagate");
+    } catch (IOException e) {
+      assertThat(inventory.getPendingCount(), is(0));
+    }
+    store.failing = false;
+    inventory.close();
+    assertThat(inventory.get("Nature", -1), is(7));
+    assertThat(store.batches.isEmpty(), is(true));
+  }
+
+  @Test
+  public void testTitleReaddedDuringFlushIsWrittenAgain() throws IOException {
+    final RecordingStore store = new RecordingStore();
+    final WriteBehindInventory inventory = new WriteBehindInventory(store, 0, false);
+    inventory.set("Nature", 3);
+    store.duringWrite = () -> {
+      inventory.remove("Nature");
+      inventory.load("Nature", 7);
+    };
+    inventory.flush();
+    assertThat(inventory.getPendingCount(), is(1));
+    inventory.close();
+    assertThat(store.batches.size(), is(2));
+    assertThat(store.batches.get(1).get("Nature"), is(7));
+  }
+
+  @Test
+  public void testBackgroundFlush() throws IOException, InterruptedException {
+    final RecordingStore store = new RecordingStore();
+    try (final WriteBehindInventory inventory = new WriteBehindInventory(store, 10, false)) {
+      inventory.set("Nature", 3);
+      assertThat(store.written.await(5, TimeUnit.SECONDS), is(true));
+      assertThat(inventory.getPendingCount(), is(0));
+    }
+  }
+}
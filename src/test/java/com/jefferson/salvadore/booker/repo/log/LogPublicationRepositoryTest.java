@@ -0,0 +1,195 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.repo.log;
+
+import static com.jefferson.salvadore.booker.publication.PubFreq.*;
+import static com.jefferson.salvadore.booker.publication.Range.of;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.jefferson.salvadore.booker.publication.Book;
+import com.jefferson.salvadore.booker.publication.Journal;
+import com.jefferson.salvadore.booker.publication.Magazine;
+import com.jefferson.salvadore.booker.repo.file.FilePublicationRepository;
+import com.jefferson.salvadore.booker.repo.snapshot.SnapshotTopPublicationRepository;
+
+public class LogPublicationRepositoryTest {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private LogPublicationRepository openRepository(final Path logPath) throws IOException {
+    final LogPublicationRepository repo = new LogPublicationRepository(logPath);
+    repo.initialize();
+    return repo;
+  }
+
+  @Test
+  public void testRecordsSurviveReopen() throws IOException {
+    final Path logPath = tempFolder.getRoot().toPath().resolve("publications.log");
+    try (final LogPublicationRepository repo = openRepository(logPath)) {
+      repo.addAllPublications(new SnapshotTopPublicationRepository());
+      repo.setInventoryCount("Nature", 7);
+      repo.removePubByTitle("PLOS ONE");
+    }
+    try (final LogPublicationRepository repo = openRepository(logPath)) {
+      assertThat(repo.getListSize(), is(17));
+      assertThat(repo.getInventoryCount("Nature"), is(7));
+      assertThat(repo.getInventoryCount("The Hobbit"),
+          is(LogPublicationRepository.DEFAULT_INVENTORY_COUNT));
+      assertThat(repo.getByType(Journal.class).size(), is(4));
+      assertThat(repo.findByTitle("紅樓夢/红楼梦 (Dream of the Red Chamber)").getTitle(),
+          is("紅樓夢/红楼梦 (Dream of the Red Chamber)"));
+    }
+  }
+
+  @Test
+  public void testAddAllKeepsLastInstanceOfTitle() throws IOException {
+    final Path logPath = tempFolder.getRoot().toPath().resolve("publications.log");
+    try (final LogPublicationRepository repo = openRepository(logPath)) {
+      repo.addPub(new Book("A", "First Author", of(0), 200_000_000, pubFreqOf(NA)));
+      repo.setInventoryCount("A", 3);
+      repo.addAll(Arrays.asList(
+          new Book("B", "First Author", of(0), 200_000_000, pubFreqOf(NA)),
+          new Book("A", "Second Author", of(0), 200_000_000, pubFreqOf(NA)),
+          new Book("B", "Second Author", of(0), 200_000_000, pubFreqOf(NA))));
+      assertThat(repo.getListSize(), is(2));
+      assertThat(repo.getGarbageRatio() > 0, is(true));
+    }
+    try (final LogPublicationRepository repo = openRepository(logPath)) {
+      assertThat(repo.getListSize(), is(2));
+      assertThat(((Book) repo.findByTitle("A")).getAuthor(), is("Second Author"));
+      assertThat(((Book) repo.findByTitle("B")).getAuthor(), is("Second Author"));
+      assertThat(repo.getInventoryCount("A"), is(3));
+      assertThat(repo.getInventoryCount("B"),
+          is(LogPublicationRepository.DEFAULT_INVENTORY_COUNT));
+    }
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void testRemovedTitleIsGone() throws IOException {
+    final Path logPath = tempFolder.getRoot().toPath().resolve("publications.log");
+    try (final LogPublicationRepository repo = openRepository(logPath)) {
+      repo.addPub(new Book("Test Title", "Test Author", of(0), 200_000_000, pubFreqOf(NA)));
+      repo.removePubByTitle("Test Title");
+    }
+    try (final LogPublicationRepository repo = openRepository(logPath)) {
+      repo.findByTitle("Test Title");
+    }
+  }
+
+  @Test
+  public void testCompactionDropsSupersededRecords() throws IOException {
+    final Path logPath = tempFolder.getRoot().toPath().resolve("publications.log");
+    try (final LogPublicationRepository repo = openRepository(logPath)) {
+      repo.addPub(new Magazine("Game Informer", "GameStop", of(1991), 7_629_995,
+          pubFreqOf(MONTHLY)));
+      for (int i = 0; i < 100; i++) {
+        repo.setInventoryCount("Game Informer", i);
+      }
+      final long before = repo.getLogSize();
+      repo.compact();
+      assertThat(repo.getLogSize(), lessThan(before));
+      assertThat(Files.size(logPath), is(repo.getLogSize()));
+      assertThat(repo.getGarbageRatio(), is(0.0));
+      repo.setInventoryCount("Game Informer", 3);
+    }
+    try (final LogPublicationRepository repo = openRepository(logPath)) {
+      assertThat(repo.getInventoryCount("Game Informer"), is(3));
+      assertThat(repo.getListSize(), is(1));
+    }
+  }
+
+  @Test
+  public void testTornRecordIsTruncated() throws IOException {
+    final Path logPath = tempFolder.getRoot().toPath().resolve("publications.log");
+    final long validSize;
+    try (final LogPublicationRepository repo = openRepository(logPath)) {
+      repo.addPub(new Book("Title", "Author", of(0), 200_000_000, pubFreqOf(NA)));
+      validSize = repo.getLogSize();
+      repo.setInventoryCount("Title", 5);
+    }
+    try (final FileChannel channel = FileChannel.open(logPath, StandardOpenOption.WRITE)) {
+      channel.truncate(Files.size(logPath) - 3);
+    }
+    try (final LogPublicationRepository repo = openRepository(logPath)) {
+      assertThat(repo.getLogSize(), is(validSize));
+      assertThat(repo.getInventoryCount("Title"),
+          is(LogPublicationRepository.DEFAULT_INVENTORY_COUNT));
+    }
+  }
+
+  @Test
+  public void testDamagedRecordBeforeTheEndFailsInitialization() throws IOException {
+    final Path logPath = tempFolder.getRoot().toPath().resolve("publications.log");
+    final long damagedOffset;
+    try (final LogPublicationRepository repo = openRepository(logPath)) {
+      damagedOffset = repo.getLogSize();
+      repo.addPub(new Book("Title", "Author", of(0), 200_000_000, pubFreqOf(NA)));
+      repo.setInventoryCount("Title", 5);
+    }
+    final long size = Files.size(logPath);
+    try (final FileChannel channel = FileChannel.open(logPath, StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.wrap(new byte[] {0x7F}), damagedOffset + 12);
+    }
+    try (final LogPublicationRepository repo = new LogPublicationRepository(logPath)) {
+      repo.initialize();
+      fail("a damaged record followed by more records must not be truncated");
+    } catch (IOException e) {
+      assertThat(Files.size(logPath), is(size));
+    }
+  }
+
+  @Test
+  public void testDamagedLengthBeforeTheEndFailsInitialization() throws IOException {
+    final Path logPath = tempFolder.getRoot().toPath().resolve("publications.log");
+    final long damagedOffset;
+    try (final LogPublicationRepository repo = openRepository(logPath)) {
+      damagedOffset = repo.getLogSize();
+      repo.addPub(new Book("Title", "Author", of(0), 200_000_000, pubFreqOf(NA)));
+      repo.addPub(new Book("Other Title", "Author", of(0), 200_000_000, pubFreqOf(NA)));
+    }
+    final long size = Files.size(logPath);
+    try (final FileChannel channel = FileChannel.open(logPath, StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.wrap(new byte[] {0, 1, 0, 0}), damagedOffset);
+    }
+    try (final LogPublicationRepository repo = new LogPublicationRepository(logPath)) {
+      repo.initialize();
+      fail("a record length running past the end must not truncate the records after it");
+    } catch (IOException e) {
+      assertThat(Files.size(logPath), is(size));
+    }
+  }
+
+  @Test
+  public void testMigrateFromFileLayout() throws IOException {
+    final Path repoPath = tempFolder.newFolder("publication-files").toPath();
+    try (final FilePublicationRepository fileRepo = new FilePublicationRepository(repoPath)) {
+      fileRepo.addAllPublications(new SnapshotTopPublicationRepository());
+      fileRepo.setInventoryCount("The Hobbit", 11);
+    }
+
+    try (final LogPublicationRepository repo =
+        openRepository(tempFolder.getRoot().toPath().resolve("publications.log"))) {
+      assertThat(FileLayoutMigration.migrate(repoPath, repo), is(18));
+      assertThat(repo.getListSize(), is(18));
+      assertThat(repo.getInventoryCount("The Hobbit"), is(11));
+    }
+  }
+}
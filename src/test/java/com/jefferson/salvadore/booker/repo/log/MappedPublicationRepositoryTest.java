@@ -0,0 +1,123 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.repo.log;
+
+import static com.jefferson.salvadore.booker.publication.PubFreq.NA;
+import static com.jefferson.salvadore.booker.publication.PubFreq.pubFreqOf;
+import static com.jefferson.salvadore.booker.publication.Range.of;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.jefferson.salvadore.booker.publication.Book;
+import com.jefferson.salvadore.booker.publication.Journal;
+import com.jefferson.salvadore.booker.publication.Periodical;
+import com.jefferson.salvadore.booker.publication.Publication;
+import com.jefferson.salvadore.booker.repo.snapshot.SnapshotTopPublicationRepository;
+
+public class MappedPublicationRepositoryTest {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private Path logPath;
+
+  @Before
+  public void writeLog() throws IOException {
+    logPath = tempFolder.getRoot().toPath().resolve("publications.log");
+    try (final LogPublicationRepository repo = new LogPublicationRepository(logPath)) {
+      repo.initialize();
+      repo.addAllPublications(new SnapshotTopPublicationRepository());
+      repo.setInventoryCount("Nature", 3);
+      repo.removePubByTitle("PLOS ONE");
+      repo.addPub(new Book("The Hobbit", "Someone Else", of(1937), pubFreqOf(NA)));
+    }
+  }
+
+  @Test
+  public void testReadsWhatTheLogWrote() throws IOException {
+    try (final MappedPublicationRepository repo = new MappedPublicationRepository(logPath)) {
+      repo.initialize();
+      assertThat(repo.getListSize(), is(17));
+      assertThat(repo.getInventoryCount("Nature"), is(3));
+      assertThat(((Book) repo.findByTitle("The Hobbit")).getAuthor(), is("Someone Else"));
+      assertThat(repo.getByType(Journal.class).size(), is(4));
+      assertThat(repo.getByType(Periodical.class).size(), is(9));
+      assertThat(repo.getByType(Book.class).size(), is(8));
+    }
+  }
+
+  @Test
+  public void testDecodedPublicationsAreCached() throws IOException {
+    try (final MappedPublicationRepository repo = new MappedPublicationRepository(logPath)) {
+      repo.initialize();
+      final Publication first = repo.findByTitle("Nature");
+      assertThat(repo.findByTitle("Nature"), is(sameInstance(first)));
+    }
+  }
+
+  @Test
+  public void testPagesMatchTheLogRepository() throws IOException {
+    try (final MappedPublicationRepository repo = new MappedPublicationRepository(logPath);
+        final LogPublicationRepository log = new LogPublicationRepository(logPath)) {
+      repo.initialize();
+      log.initialize();
+      for (Class<? extends Publication> type : Arrays
+          .<Class<? extends Publication>>asList(Publication.class, Periodical.class, Book.class)) {
+        assertThat(titles(walk(repo, type)), is(titles(log.page(type, null, 100))));
+      }
+      assertThat(titles(repo.stream(Journal.class).collect(Collectors.toList())),
+          is(titles(repo.getByType(Journal.class))));
+    }
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void testDeletedTitleIsNotIndexed() throws IOException {
+    try (final MappedPublicationRepository repo = new MappedPublicationRepository(logPath)) {
+      repo.initialize();
+      repo.findByTitle("PLOS ONE");
+    }
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testIsReadOnly() throws IOException {
+    try (final MappedPublicationRepository repo = new MappedPublicationRepository(logPath)) {
+      repo.initialize();
+      repo.setInventoryCount("Nature", 1);
+    }
+  }
+
+  /**
+   * Collects every publication of a type three at a time.
+   */
+  private static List<Publication> walk(final MappedPublicationRepository repo,
+      final Class<? extends Publication> type) throws IOException {
+    final List<Publication> all = new ArrayList<>();
+    String after = null;
+    List<? extends Publication> page;
+    do {
+      page = repo.page(type, after, 3);
+      all.addAll(page);
+      after = page.isEmpty() ? after : page.get(page.size() - 1).getTitle();
+    } while (page.size() == 3);
+    return all;
+  }
+
+  private static List<String> titles(final List<? extends Publication> publications) {
+    return publications.stream().map(Publication::getTitle).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.server;
+
+import static com.jefferson.salvadore.booker.publication.PubFreq.NA;
+import static com.jefferson.salvadore.booker.publication.PubFreq.pubFreqOf;
+import static com.jefferson.salvadore.booker.publication.Range.of;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jefferson.salvadore.booker.publication.Book;
+import com.jefferson.salvadore.booker.publication.Publication;
+
+public class PublicationArrayEncoderTest {
+
+  @Test
+  public void testEncodesEveryPublicationAcrossChunks() throws IOException {
+    final PublicationArrayEncoder encoder = new PublicationArrayEncoder(books(1000).iterator(), 64);
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    int chunks = 0;
+    for (byte[] chunk = encoder.nextChunk(); chunk != null; chunk = encoder.nextChunk()) {
+      out.write(chunk);
+      chunks++;
+    }
+    assertThat(chunks, is(16));
+    final JsonNode json = new ObjectMapper().readTree(out.toByteArray());
+    assertThat(json.size(), is(1000));
+    assertThat(json.get(0).get("title").asText(), is("Title 0"));
+    assertThat(json.get(999).get("title").asText(), is("Title 999"));
+  }
+
+  @Test
+  public void testEncodesEmptyArray() throws IOException {
+    final PublicationArrayEncoder encoder =
+        new PublicationArrayEncoder(Collections.<Publication>emptyIterator(), 64);
+    assertThat(new String(encoder.nextChunk(), "UTF-8"), is("[]"));
+    assertThat(encoder.nextChunk(), is(nullValue()));
+  }
+
+  private static List<Publication> books(final int count) {
+    final List<Publication> books = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      books.add(new Book("Title " + i, "Author " + i, of(1900 + i % 100), pubFreqOf(NA)));
+    }
+    return books;
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.server;
+
+import static com.jefferson.salvadore.booker.publication.PubFreq.MONTHLY;
+import static com.jefferson.salvadore.booker.publication.PubFreq.NA;
+import static com.jefferson.salvadore.booker.publication.PubFreq.WEEKLY;
+import static com.jefferson.salvadore.booker.publication.PubFreq.pubFreqOf;
+import static com.jefferson.salvadore.booker.publication.Range.of;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jefferson.salvadore.booker.publication.Book;
+import com.jefferson.salvadore.booker.publication.Journal;
+import com.jefferson.salvadore.booker.publication.Magazine;
+import com.jefferson.salvadore.booker.publication.Publication;
+
+public class PublicationJsonWriterTest {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  @Test
+  public void testWritesBook() throws IOException {
+    final JsonNode json =
+        write(new Book("The Hobbit", "J.R.R Tolkien", of(1937), 140_600_000, pubFreqOf(NA)));
+    assertThat(json.get("type").asText(), is("Book"));
+    assertThat(json.get("title").asText(), is("The Hobbit"));
+    assertThat(json.get("yearsPublished").get("start").asInt(), is(1937));
+    assertThat(json.get("yearsPublished").get("end").asInt(), is(1937));
+    assertThat(json.get("author").asText(), is("J.R.R Tolkien"));
+    assertThat(json.get("language").asText(), is("English"));
+    assertThat(json.get("totalSold").asInt(), is(140_600_000));
+    assertThat(json.has("publisher"), is(false));
+  }
+
+  @Test
+  public void testWritesMagazine() throws IOException {
+    final JsonNode json = write(
+        new Magazine("AARP Bulletin", "AARP", of(1960), 22_244_820, pubFreqOf(MONTHLY)));
+    assertThat(json.get("type").asText(), is("Magazine"));
+    assertThat(json.get("publisher").asText(), is("AARP"));
+    assertThat(json.get("totalInCirculation").asInt(), is(22_244_820));
+    assertThat(json.get("pubFreq").asInt(), is(12));
+  }
+
+  @Test
+  public void testWritesJournal() throws IOException {
+    final JsonNode json = write(new Journal("Nature", "Nature Publishing Group", of(1869),
+        pubFreqOf(WEEKLY), "Natural Science", 41.456));
+    assertThat(json.get("type").asText(), is("Journal"));
+    assertThat(json.get("discipline").asText(), is("Natural Science"));
+    assertThat(json.get("impactFactor").asDouble(), is(41.456));
+  }
+
+  @Test
+  public void testWritesInventory() throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (final JsonGenerator generator = PublicationJsonWriter.JSON_FACTORY.createGenerator(out)) {
+      PublicationJsonWriter.writeInventory(generator, "Nature", 7);
+    }
+    final JsonNode json = MAPPER.readTree(out.toByteArray());
+    assertThat(json.get("title").asText(), is("Nature"));
+    assertThat(json.get("inventoryCount").asInt(), is(7));
+  }
+
+  @Test
+  public void testWritesPage() throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (final JsonGenerator generator = PublicationJsonWriter.JSON_FACTORY.createGenerator(out)) {
+      PublicationJsonWriter.writePage(generator,
+          Arrays.asList(new Book("The Hobbit", "J.R.R Tolkien", of(1937), pubFreqOf(NA))),
+          "The Hobbit");
+    }
+    final JsonNode json = MAPPER.readTree(out.toByteArray());
+    assertThat(json.get("publications").size(), is(1));
+    assertThat(json.get("publications").get(0).get("title").asText(), is("The Hobbit"));
+    assertThat(json.get("nextAfter").asText(), is("The Hobbit"));
+  }
+
+  private static JsonNode write(final Publication publication) throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (final JsonGenerator generator = PublicationJsonWriter.JSON_FACTORY.createGenerator(out)) {
+      PublicationJsonWriter.writePublication(generator, publication);
+    }
+    return MAPPER.readTree(out.toByteArray());
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.server;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.jefferson.salvadore.booker.repo.PublicationManagerImpl;
+import com.jefferson.salvadore.booker.repo.concurrent.ConcurrentPublicationRepository;
+import com.jefferson.salvadore.booker.repo.snapshot.SnapshotTopPublicationRepository;
+import com.jefferson.salvadore.booker.server.PurchaseBatcher.Outcome;
+
+public class PurchaseBatcherTest {
+
+  private static final String TITLE = "The Hobbit";
+
+  private final AtomicInteger reservations = new AtomicInteger();
+  private PublicationManagerImpl manager;
+  private PurchaseBatcher batcher;
+
+  @Before
+  public void setUpTest() throws IOException {
+    final ConcurrentPublicationRepository repo = new ConcurrentPublicationRepository();
+    repo.addAllPublications(new SnapshotTopPublicationRepository());
+    repo.setInventoryCount(TITLE, 20);
+    manager = new PublicationManagerImpl(repo) {
+      @Override
+      public boolean tryReserve(final String title, final int quantity) throws IOException {
+        reservations.incrementAndGet();
+        return super.tryReserve(title, quantity);
+      }
+    };
+  }
+
+  @After
+  public void tearDownTest() {
+    if (batcher != null) {
+      batcher.close();
+    }
+  }
+
+  @Test
+  public void testConcurrentPurchasesNeverOversell() throws Exception {
+    batcher = new PurchaseBatcher(manager, 32, 1000, 2);
+    final ExecutorService buyers = Executors.newFixedThreadPool(8);
+    final CountDownLatch start = new CountDownLatch(1);
+    final List<CompletableFuture<Outcome>> outcomes = new ArrayList<>();
+    final List<CompletableFuture<Void>> submitted = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      final CompletableFuture<Void> done = new CompletableFuture<>();
+      submitted.add(done);
+      buyers.execute(() -> {
+        try {
+          start.await();
+          synchronized (outcomes) {
+            outcomes.add(batcher.purchase(TITLE, 1));
+          }
+          done.complete(null);
+        } catch (InterruptedException e) {
+          done.completeExceptionally(e);
+        }
+      });
+    }
+    start.countDown();
+    CompletableFuture.allOf(submitted.toArray(new CompletableFuture<?>[0])).get(10,
+        TimeUnit.SECONDS);
+    buyers.shutdown();
+    int purchased = 0;
+    for (CompletableFuture<Outcome> outcome : outcomes) {
+      if (outcome.get(10, TimeUnit.SECONDS) == Outcome.PURCHASED) {
+        purchased++;
+      }
+    }
+    assertThat(purchased, is(20));
+    assertThat(manager.getInventoryCount(TITLE), is(0));
+    assertThat(batcher.getPurchaseCount(), is(200L));
+    assertThat(batcher.getBatchCount(), is(lessThan(200L)));
+  }
+
+  @Test
+  public void testFullBatchIsAppliedWithOneReservation() throws Exception {
+    batcher = new PurchaseBatcher(manager, 10, TimeUnit.SECONDS.toMicros(10), 1);
+    final List<CompletableFuture<Outcome>> outcomes = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      outcomes.add(batcher.purchase(TITLE, 2));
+    }
+    for (CompletableFuture<Outcome> outcome : outcomes) {
+      assertThat(outcome.get(5, TimeUnit.SECONDS), is(Outcome.PURCHASED));
+    }
+    assertThat(reservations.get(), is(1));
+    assertThat(batcher.getBatchCount(), is(1L));
+    assertThat(manager.getInventoryCount(TITLE), is(0));
+  }
+
+  @Test
+  public void testShortStockIsGrantedInArrivalOrder() throws Exception {
+    manager.setRepo(repoWithStock(5));
+    batcher = new PurchaseBatcher(manager, 3, TimeUnit.SECONDS.toMicros(10), 1);
+    final CompletableFuture<Outcome> first = batcher.purchase(TITLE, 3);
+    final CompletableFuture<Outcome> second = batcher.purchase(TITLE, 3);
+    final CompletableFuture<Outcome> third = batcher.purchase(TITLE, 2);
+    final List<Outcome> outcomes = new ArrayList<>();
+    outcomes.add(first.get(5, TimeUnit.SECONDS));
+    outcomes.add(second.get(5, TimeUnit.SECONDS));
+    outcomes.add(third.get(5, TimeUnit.SECONDS));
+    assertThat(outcomes, contains(Outcome.PURCHASED, Outcome.OUT_OF_STOCK, Outcome.PURCHASED));
+    assertThat(reservations.get(), is(2));
+    assertThat(manager.getInventoryCount(TITLE), is(0));
+  }
+
+  @Test
+  public void testBatchLargerThanAnIntIsGrantedPerPurchase() throws Exception {
+    manager.setRepo(repoWithStock(5));
+    batcher = new PurchaseBatcher(manager, 3, TimeUnit.SECONDS.toMicros(10), 1);
+    final CompletableFuture<Outcome> first = batcher.purchase(TITLE, Integer.MAX_VALUE);
+    final CompletableFuture<Outcome> second = batcher.purchase(TITLE, Integer.MAX_VALUE);
+    final CompletableFuture<Outcome> third = batcher.purchase(TITLE, 2);
+    assertThat(first.get(5, TimeUnit.SECONDS), is(Outcome.OUT_OF_STOCK));
+    assertThat(second.get(5, TimeUnit.SECONDS), is(Outcome.OUT_OF_STOCK));
+    assertThat(third.get(5, TimeUnit.SECONDS), is(Outcome.PURCHASED));
+    assertThat(manager.getInventoryCount(TITLE), is(3));
+  }
+
+  @Test
+  public void testLingeringBatchIsApplied() throws Exception {
+    batcher = new PurchaseBatcher(manager, 100, 1000, 1);
+    assertThat(batcher.purchase(TITLE, 1).get(5, TimeUnit.SECONDS), is(Outcome.PURCHASED));
+    assertThat(manager.getInventoryCount(TITLE), is(19));
+  }
+
+  private static ConcurrentPublicationRepository repoWithStock(final int count)
+      throws IOException {
+    final ConcurrentPublicationRepository repo = new ConcurrentPublicationRepository();
+    repo.addAllPublications(new SnapshotTopPublicationRepository());
+    repo.setInventoryCount(TITLE, count);
+    return repo;
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.subscription;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.jefferson.salvadore.booker.publication.Periodical;
+import com.jefferson.salvadore.booker.repo.snapshot.SnapshotTopPublicationRepository;
+
+public class DeliveryPipelineTest {
+
+  private Periodical nature;
+
+  @Before
+  public void setUpTest() throws IOException {
+    nature = new SnapshotTopPublicationRepository().findPeriodical("Nature");
+  }
+
+  @Test
+  public void testSubscribersOfAPeriodicalShareBatches() throws Exception {
+    final AtomicInteger largestBatch = new AtomicInteger();
+    final DeliverySink sink =
+        batch -> largestBatch.accumulateAndGet(batch.size(), Math::max);
+    try (final SubscriptionService service = new SubscriptionService(1, 200, sink, 4096, null)) {
+      final List<Subscription> subscriptions = subscribe(service, 100);
+      awaitAll(subscriptions);
+      final DeliveryStats stats = service.getDeliveryStats();
+      assertThat(stats.getEventsDelivered(), is(100L));
+      assertThat(stats.getBatches(), is(lessThanOrEqualTo(10L)));
+      assertThat(largestBatch.get(), is(greaterThan(1)));
+      assertThat(service.getActiveCount(), is(0));
+    }
+  }
+
+  @Test
+  public void testSlowSinkHoldsBackTheScheduler() throws Exception {
+    final CountDownLatch release = new CountDownLatch(1);
+    final DeliverySink sink = batch -> {
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        throw new IOException(e);
+      }
+    };
+    try (final SubscriptionService service = new SubscriptionService(1, 1, sink, 8, null)) {
+      final List<Subscription> subscriptions = subscribe(service, 100);
+      final long deadline = System.currentTimeMillis() + 5000;
+      while (service.getDeliveryStats().getQueued() < 8
+          && System.currentTimeMillis() < deadline) {
+        Thread.sleep(5);
+      }
+      Thread.sleep(50);
+      assertThat(service.getDeliveryStats().getQueued(), is(8));
+      assertThat(service.getDeliveryStats().getEventsDelivered(), is(0L));
+      assertThat(service.getActiveCount(), is(100));
+      release.countDown();
+      awaitAll(subscriptions);
+      final DeliveryStats stats = service.getDeliveryStats();
+      assertThat(stats.getEventsDelivered(), is(100L));
+      assertThat(stats.getBackpressureNanos(), is(greaterThan(0L)));
+    }
+  }
+
+  @Test
+  public void testFailedBatchEndsTheSubscription() throws Exception {
+    final DeliverySink sink = batch -> {
+      throw new IOException("sink unavailable");
+    };
+    try (final SubscriptionService service = new SubscriptionService(1, 1, sink, 16, null)) {
+      awaitAll(subscribe(service, 1));
+      final DeliveryStats stats = service.getDeliveryStats();
+      assertThat(stats.getEventsFailed(), is(1L));
+      assertThat(stats.getEventsDelivered(), is(0L));
+      assertThat(service.getActiveCount(), is(0));
+    }
+  }
+
+  private List<Subscription> subscribe(final SubscriptionService service, final int count)
+      throws IOException {
+    final List<Subscription> subscriptions = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      subscriptions.add(service.subscribe(nature, 1));
+    }
+    return subscriptions;
+  }
+
+  private static void awaitAll(final List<Subscription> subscriptions)
+      throws InterruptedException {
+    for (Subscription subscription : subscriptions) {
+      assertThat(subscription.await(10, TimeUnit.SECONDS), is(true));
+    }
+  }
+}
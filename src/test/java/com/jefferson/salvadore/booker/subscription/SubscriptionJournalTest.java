@@ -0,0 +1,203 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.subscription;
+
+import static java.nio.file.StandardOpenOption.APPEND;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.jefferson.salvadore.booker.repo.snapshot.SnapshotTopPublicationRepository;
+
+public class SubscriptionJournalTest {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private static SubscriptionRecord record(final long id, final int issueCount) {
+    return new SubscriptionRecord(id, "Nature", issueCount, 1000, 0, 0);
+  }
+
+  private SubscriptionJournal open(final Path dir, final int snapshotInterval) throws Exception {
+    final SubscriptionJournal journal = new SubscriptionJournal(dir, snapshotInterval);
+    journal.initialize();
+    return journal;
+  }
+
+  @Test
+  public void testReplaysEvents() throws Exception {
+    final Path dir = tempFolder.getRoot().toPath();
+    try (final SubscriptionJournal journal = open(dir, 1000)) {
+      journal.subscribed(record(1, 5));
+      journal.subscribed(record(2, 2));
+      journal.subscribed(record(3, 4));
+      journal.delivered(1, 1);
+      journal.delivered(1, 2);
+      journal.delivered(2, 1);
+      journal.delivered(2, 2);
+      journal.cancelled(3).get();
+    }
+    try (final SubscriptionJournal journal = open(dir, 1000)) {
+      assertThat(journal.getRecovered().size(), is(1));
+      final SubscriptionRecord recovered = journal.getRecovered().get(0);
+      assertThat(recovered.getId(), is(1L));
+      assertThat(recovered.getDelivered(), is(2));
+      assertThat(recovered.getNextIssueMillis(), is(3000L));
+      assertThat(journal.getLastId(), is(3L));
+    }
+  }
+
+  @Test
+  public void testTornRecordIsTruncated() throws Exception {
+    final Path dir = tempFolder.getRoot().toPath();
+    try (final SubscriptionJournal journal = open(dir, 1000)) {
+      journal.subscribed(record(1, 5)).get();
+    }
+    final Path journalFile = dir.resolve("subscriptions.journal");
+    final long validSize = Files.size(journalFile);
+    Files.write(journalFile, new byte[] {0, 0, 0, 40, 1, 2, 3}, APPEND);
+    try (final SubscriptionJournal journal = open(dir, 1000)) {
+      assertThat(journal.getRecovered().size(), is(1));
+      assertThat(Files.size(journalFile), is(validSize));
+      journal.delivered(1, 1).get();
+    }
+    try (final SubscriptionJournal journal = open(dir, 1000)) {
+      assertThat(journal.getRecovered().get(0).getDelivered(), is(1));
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testDamagedRecordBeforeTheEndFailsInitialization() throws Exception {
+    final Path dir = tempFolder.getRoot().toPath();
+    try (final SubscriptionJournal journal = open(dir, 1000)) {
+      journal.subscribed(record(1, 5)).get();
+      journal.subscribed(record(2, 5)).get();
+    }
+    final Path journalFile = dir.resolve("subscriptions.journal");
+    final byte[] bytes = Files.readAllBytes(journalFile);
+    // the id of the first record, behind the header, the frame and the operation
+    bytes[5 + 8 + 1] ^= 0x7F;
+    Files.write(journalFile, bytes);
+    open(dir, 1000).close();
+  }
+
+  @Test
+  public void testSnapshotResetsJournal() throws Exception {
+    final Path dir = tempFolder.getRoot().toPath();
+    try (final SubscriptionJournal journal = open(dir, 10)) {
+      for (int id = 1; id <= 20; id++) {
+        journal.subscribed(record(id, 3)).get();
+      }
+      for (int id = 1; id <= 10; id++) {
+        journal.delivered(id, 3).get();
+      }
+      journal.delivered(11, 1).get();
+    }
+    assertThat(Files.exists(dir.resolve("subscriptions.snapshot")), is(true));
+    assertThat(Files.size(dir.resolve("subscriptions.journal")) < 200, is(true));
+    try (final SubscriptionJournal journal = open(dir, 10)) {
+      assertThat(journal.getRecovered().size(), is(10));
+      assertThat(journal.getRecovered().get(0).getId(), is(11L));
+      assertThat(journal.getRecovered().get(0).getDelivered(), is(1));
+      assertThat(journal.getLastId(), is(20L));
+    }
+  }
+
+  @Test
+  public void testConcurrentWritesAreGroupCommitted() throws Exception {
+    final Path dir = tempFolder.getRoot().toPath();
+    final int threads = 16;
+    final int perThread = 200;
+    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try (final SubscriptionJournal journal = open(dir, 1_000_000)) {
+      final List<Future<?>> writers = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        final int thread = t;
+        writers.add(executor.submit(() -> {
+          final List<CompletableFuture<Void>> writes = new ArrayList<>();
+          for (int i = 0; i < perThread; i++) {
+            writes.add(journal.subscribed(record(thread * perThread + i + 1, 2)));
+          }
+          CompletableFuture.allOf(writes.toArray(new CompletableFuture<?>[0])).get();
+          return null;
+        }));
+      }
+      for (Future<?> writer : writers) {
+        writer.get();
+      }
+      assertThat(journal.getCommitCount(), is(lessThan((long) threads * perThread)));
+    } finally {
+      executor.shutdown();
+    }
+    try (final SubscriptionJournal journal = open(dir, 1000)) {
+      assertThat(journal.getRecovered().size(), is(threads * perThread));
+    }
+  }
+
+  @Test
+  public void testResumedSubscriptionKeepsItsPhase() throws Exception {
+    final Path dir = tempFolder.getRoot().toPath();
+    final SnapshotTopPublicationRepository repo = new SnapshotTopPublicationRepository();
+    final long now = System.currentTimeMillis();
+    try (final SubscriptionJournal journal = open(dir, 1000)) {
+      journal.subscribed(new SubscriptionRecord(1, "Nature", 1, 1000, now - 1000, 0)).get();
+      journal.subscribed(new SubscriptionRecord(2, "Nature", 1, 1000, now + 60_000, 0)).get();
+    }
+    try (final SubscriptionJournal journal = open(dir, 1000);
+        final SubscriptionService service =
+            new SubscriptionService(1, 20, message -> {}, journal)) {
+      final List<Subscription> resumed = service.recover(repo);
+      assertThat(resumed.size(), is(2));
+      assertThat(resumed.get(0).await(5, TimeUnit.SECONDS), is(true));
+      assertThat(resumed.get(1).getIssuesDelivered(), is(0));
+    }
+  }
+
+  @Test
+  public void testServiceResumesAfterRestart() throws Exception {
+    final Path dir = tempFolder.getRoot().toPath();
+    final SnapshotTopPublicationRepository repo = new SnapshotTopPublicationRepository();
+    final List<String> notices = new CopyOnWriteArrayList<>();
+    try (final SubscriptionJournal journal = open(dir, 1000);
+        final SubscriptionService service = new SubscriptionService(1, 20, notices::add, journal)) {
+      final Subscription subscription = service.subscribe(repo, "Nature", 4);
+      while (subscription.getIssuesDelivered() < 2) {
+        Thread.sleep(5);
+      }
+    }
+    final int deliveredBefore = notices.size();
+    notices.clear();
+    try (final SubscriptionJournal journal = open(dir, 1000);
+        final SubscriptionService service = new SubscriptionService(1, 20, notices::add, journal)) {
+      final List<Subscription> resumed = service.recover(repo);
+      assertThat(resumed.size(), is(1));
+      assertThat(resumed.get(0).getId(), is(1L));
+      assertThat(resumed.get(0).await(5, TimeUnit.SECONDS), is(true));
+      assertThat(service.subscribe(repo, "Nature", 1).getId(), is(2L));
+    }
+    assertThat(deliveredBefore + notices.size() >= 4, is(true));
+    assertThat(notices.get(notices.size() - 1),
+        is("Journal issue #4 of Nature has arrived! You have 0 issues remaining"));
+    try (final SubscriptionJournal journal = open(dir, 1000)) {
+      assertThat(journal.getRecovered().size(), is(1));
+      assertThat(journal.getRecovered().get(0).getId(), is(2L));
+    }
+  }
+}
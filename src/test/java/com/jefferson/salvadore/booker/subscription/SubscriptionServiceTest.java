@@ -0,0 +1,121 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.subscription;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.jefferson.salvadore.booker.publication.Periodical;
+import com.jefferson.salvadore.booker.repo.snapshot.SnapshotTopPublicationRepository;
+
+public class SubscriptionServiceTest {
+
+  private final List<String> notices = new CopyOnWriteArrayList<>();
+  private final SubscriptionService service = new SubscriptionService(2, 1, notices::add);
+
+  @After
+  public void tearDownTest() {
+    service.close();
+  }
+
+  @Test
+  public void testDeliversEveryIssue() throws Exception {
+    final Subscription subscription =
+        service.subscribe(new SnapshotTopPublicationRepository(), "Nature", 3);
+    assertThat(subscription.await(5, TimeUnit.SECONDS), is(true));
+    assertThat(subscription.getIssuesDelivered(), is(3));
+    assertThat(notices, contains(
+        "Journal issue #1 of Nature has arrived! You have 2 issues remaining",
+        "Journal issue #2 of Nature has arrived! You have 1 issues remaining",
+        "Journal issue #3 of Nature has arrived! You have 0 issues remaining"));
+    assertThat(service.getActiveCount(), is(0));
+  }
+
+  @Test
+  public void testUndisclosedFrequencyDeliversOneIssue() throws Exception {
+    final Subscription subscription =
+        service.subscribe(new SnapshotTopPublicationRepository(), "PLOS ONE", 5);
+    assertThat(subscription.await(5, TimeUnit.SECONDS), is(true));
+    assertThat(subscription.getIssueCount(), is(1));
+    assertThat(notices.size(), is(1));
+  }
+
+  @Test
+  public void testCancellingOneSubscriptionLeavesOthersRunning() throws Exception {
+    final SubscriptionService slow = new SubscriptionService(1, 50, notices::add);
+    try {
+      final SnapshotTopPublicationRepository repo = new SnapshotTopPublicationRepository();
+      final Subscription cancelled = slow.subscribe(repo, "Nature", 100);
+      final Subscription kept = slow.subscribe(repo, "Nature", 2);
+      cancelled.cancel();
+      assertThat(cancelled.isDone(), is(true));
+      assertThat(kept.await(5, TimeUnit.SECONDS), is(true));
+      assertThat(kept.getIssuesDelivered(), is(2));
+      assertThat(cancelled.getIssuesDelivered() <= 1, is(true));
+    } finally {
+      slow.close();
+    }
+  }
+
+  @Test
+  public void testTitleIsMatchedRegardlessOfCase() throws Exception {
+    final Subscription subscription =
+        service.subscribe(new SnapshotTopPublicationRepository(), "game  INFORMER", 1);
+    assertThat(subscription.getPeriodical().getTitle(), is("Game Informer"));
+    subscription.cancel();
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void testBookIsNotAPeriodical() throws IOException {
+    service.subscribe(new SnapshotTopPublicationRepository(), "The Hobbit", 1);
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void testUnknownTitle() throws IOException {
+    service.subscribe(new SnapshotTopPublicationRepository(), "Not A Periodical", 1);
+  }
+
+  @Test
+  public void testThreadCountDoesNotGrowWithSubscriptions() throws Exception {
+    final AtomicInteger delivered = new AtomicInteger();
+    final SubscriptionService many =
+        new SubscriptionService(2, 1, notice -> delivered.incrementAndGet());
+    try {
+      final Periodical nature =
+          (Periodical) new SnapshotTopPublicationRepository().findByTitle("Nature");
+      final List<Subscription> subscriptions = new ArrayList<>();
+      for (int i = 0; i < 20_000; i++) {
+        subscriptions.add(many.subscribe(nature, 2));
+      }
+      for (Subscription subscription : subscriptions) {
+        assertThat(subscription.await(30, TimeUnit.SECONDS), is(true));
+      }
+      assertThat(delivered.get(), is(40_000));
+      assertThat(many.getActiveCount(), is(0));
+      int schedulerThreads = 0;
+      for (Thread thread : Thread.getAllStackTraces().keySet()) {
+        if (thread.getName().startsWith("booker-subscription-")) {
+          schedulerThreads++;
+        }
+      }
+      // the scheduler threads of the other services of this test may still be alive
+      assertThat(schedulerThreads, is(lessThanOrEqualTo(2 + 2)));
+    } finally {
+      many.close();
+    }
+  }
+}
@@ -9,11 +9,24 @@ import static org.junit.Assert.assertThat;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 public class IOTest {
 
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
   @Test
   public void testByteArryNoBOM() throws IOException {
     final byte[] noBOM = new byte[] {0x61, 0x62, 0x63};
@@ -39,4 +52,35 @@ public class IOTest {
     MA = new byte[] {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF, (byte) 0xE0, (byte) 0xA4, (byte) 0xAE};
     assertThat(readText(new ByteArrayInputStream(MA)), is("म"));
   }
+
+  @Test
+  public void testLargeFileWithSurrogatePairs() throws IOException {
+    final StringBuilder builder = new StringBuilder();
+    while (builder.length() < 100_000) {
+      builder.append("紅樓夢 \uD83D\uDCDA touché\n");
+    }
+    final String text = builder.toString();
+    final Path file = tempFolder.newFile().toPath();
+    Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+    assertThat(readText(file), is(text));
+  }
+
+  @Test
+  public void testForEachLine() throws IOException {
+    final Path file = tempFolder.newFile().toPath();
+    Files.write(file, new byte[] {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF, 0x61, 0x0D, 0x0A, 0x62,
+        0x0A, (byte) 0xC3, (byte) 0xA9});
+    final List<String> lines = new ArrayList<>();
+    IO.forEachLine(file, lines::add);
+    assertThat(lines, is(Arrays.asList("a", "b", "é")));
+  }
+
+  @Test
+  public void testReadLines() throws IOException {
+    final Path file = tempFolder.newFile().toPath();
+    Files.write(file, "Nature\nScience\n".getBytes(StandardCharsets.UTF_8));
+    try (final Stream<String> lines = IO.readLines(file)) {
+      assertThat(lines.collect(Collectors.toList()), is(Arrays.asList("Nature", "Science")));
+    }
+  }
 }
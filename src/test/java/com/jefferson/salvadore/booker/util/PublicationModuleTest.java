@@ -0,0 +1,40 @@
+/*
+ * Copyright © 2016 Salvadore Jefferson
+ */
+package com.jefferson.salvadore.booker.util;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.Locale;
+
+import org.junit.Test;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.jefferson.salvadore.booker.repo.PublicationManager;
+import com.jefferson.salvadore.booker.util.PublicationModule.Storage;
+
+public class PublicationModuleTest {
+
+  @Test
+  public void testStorageNameIgnoresCaseWhateverTheLocale() {
+    final Locale defaultLocale = Locale.getDefault();
+    Locale.setDefault(new Locale("tr", "TR"));
+    try {
+      assertThat(Storage.of("file"), is(Storage.FILE));
+      assertThat(Storage.of(" Mapped"), is(Storage.MAPPED));
+    } finally {
+      Locale.setDefault(defaultLocale);
+    }
+  }
+
+  @Test
+  public void testReadOnlyStorageHasNoManager() {
+    assertThat(Storage.MAPPED.isWritable(), is(false));
+    final Injector mapped = Guice.createInjector(new PublicationModule(Storage.MAPPED));
+    assertThat(mapped.getExistingBinding(Key.get(PublicationManager.class)), is(nullValue()));
+  }
+}